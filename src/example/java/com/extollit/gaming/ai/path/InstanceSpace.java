@@ -2,16 +2,18 @@ package com.extollit.gaming.ai.path;
 
 import com.extollit.gaming.ai.path.model.IBlockObject;
 import com.extollit.gaming.ai.path.model.IInstanceSpace;
+import com.extollit.gaming.ai.path.model.OcclusionFieldListenerList;
 
 import java.util.HashMap;
 import java.util.Map;
 
 public class InstanceSpace implements IInstanceSpace {
     private final Map<ColumnarSpace.Pointer, ColumnarSpace> columnarSpaces = new HashMap<>();
+    private final OcclusionFieldListenerList occlusionFieldListeners = new OcclusionFieldListenerList();
 
     @Override
     public IBlockObject blockObjectAt(int x, int y, int z) {
-        final ColumnarSpace columnarSpace = columnarSpaceAt(x >> 3, z >> 3);
+        final ColumnarSpace columnarSpace = columnarSpaceAt(x >> 4, z >> 4);
 
         if (columnarSpace == null)
             return null;
@@ -33,6 +35,11 @@ public class InstanceSpace implements IInstanceSpace {
         return columnarSpace;
     }
 
+    @Override
+    public OcclusionFieldListenerList occlusionFieldListeners() {
+        return this.occlusionFieldListeners;
+    }
+
     public void setBlock(int x, int y, int z, BlockObject block, int metaData) {
         final ColumnarSpace columnarSpace = columnarSpaceAt(x >> 4, z >> 4);
 
@@ -0,0 +1,87 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the node calculators probing every location of a patch of generated terrain, both through the allocating
+ * {@link INodeCalculator#passibleNodeNear(int, int, int, Coords, FlagSampler)} and the allocation-free
+ * {@link INodeCalculator#probe(int, int, int, Coords, FlagSampler, ProbeResult)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NodeCalculatorBenchmark {
+    private static final int EXTENT = 16;
+
+    public enum Kind {
+        ground {
+            @Override
+            INodeCalculator create(IInstanceSpace instance) {
+                return new GroundNodeCalculator(instance);
+            }
+        },
+        fluidic {
+            @Override
+            INodeCalculator create(IInstanceSpace instance) {
+                return new FluidicNodeCalculator(instance);
+            }
+        };
+
+        abstract INodeCalculator create(IInstanceSpace instance);
+    }
+
+    @Param({"ground", "fluidic"})
+    public Kind kind;
+
+    @Param({"openField", "cave"})
+    public Terrain terrain;
+
+    private INodeCalculator calculator;
+    private FlagSampler flagSampler;
+    private final ProbeResult probe = new ProbeResult();
+    private final Coords[] origins = new Coords[EXTENT * EXTENT];
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final InstanceSpace instance = this.terrain.instance();
+        final IOcclusionProvider occlusionProvider = AreaOcclusionProviderFactory.INSTANCE.fromInstanceSpace(
+                instance,
+                (Terrain.MIN >> 4) - 1, (Terrain.MIN >> 4) - 1,
+                (Terrain.MAX >> 4) + 1, (Terrain.MAX >> 4) + 1
+        );
+
+        this.calculator = this.kind.create(instance);
+        this.calculator.applySubject(this.terrain.subject());
+        this.flagSampler = new FlagSampler(occlusionProvider);
+
+        for (int x = 0; x < EXTENT; ++x)
+            for (int z = 0; z < EXTENT; ++z)
+                this.origins[x * EXTENT + z] = new Coords(x - 1, Terrain.GROUND, z);
+    }
+
+    @Benchmark
+    public void passibleNodeNear(Blackhole blackhole) {
+        final int y = Terrain.GROUND;
+        for (int x = 0; x < EXTENT; ++x)
+            for (int z = 0; z < EXTENT; ++z)
+                blackhole.consume(this.calculator.passibleNodeNear(x, y, z, this.origins[x * EXTENT + z], this.flagSampler));
+    }
+
+    @Benchmark
+    public void probe(Blackhole blackhole) {
+        final int y = Terrain.GROUND;
+        final ProbeResult probe = this.probe;
+        for (int x = 0; x < EXTENT; ++x)
+            for (int z = 0; z < EXTENT; ++z) {
+                this.calculator.probe(x, y, z, this.origins[x * EXTENT + z], this.flagSampler, probe);
+                blackhole.consume(probe.passibility());
+            }
+    }
+}
@@ -0,0 +1,50 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.IPath;
+import com.extollit.linalg.immutable.Vec3d;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete A* searches (see {@link HydrazinePathFinder#computePathTo(Vec3d)}) across each kind of generated
+ * terrain.  A cold search starts from an empty graph whereas a warm search re-uses the graph of the previous one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PathFinderBenchmark {
+    @Param({"openField", "maze", "cave", "staircase"})
+    public Terrain terrain;
+
+    @Param({"binaryHeap", "buckets"})
+    public QueueingStrategy queueingStrategy;
+
+    private HydrazinePathFinder pathFinder;
+    private Vec3d destination;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final InstanceSpace instance = this.terrain.instance();
+        this.pathFinder = new HydrazinePathFinder(this.terrain.subject(), instance)
+                .withQueueingStrategy(this.queueingStrategy);
+        this.destination = this.terrain.destination();
+
+        if (this.pathFinder.computePathTo(this.destination) == null)
+            throw new IllegalStateException("No path through terrain: " + this.terrain);
+    }
+
+    @Benchmark
+    public IPath cold() {
+        this.pathFinder.reset();
+        return this.pathFinder.computePathTo(this.destination);
+    }
+
+    @Benchmark
+    public IPath warm() {
+        return this.pathFinder.computePathTo(this.destination);
+    }
+}
@@ -0,0 +1,240 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.Gravitation;
+import com.extollit.gaming.ai.path.model.Passibility;
+import com.extollit.linalg.immutable.AxisAlignedBBox;
+import com.extollit.linalg.immutable.Vec3d;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * Reproducible terrain for benchmarking, each kind of terrain is generated deterministically from a fixed seed into the
+ * example {@link InstanceSpace} along with a source and destination that are within search range of each other.
+ */
+public enum Terrain {
+    /**
+     * Flat ground sparsely scattered with pillars
+     */
+    openField {
+        @Override
+        void generate(InstanceSpace instance, Random random) {
+            ground(instance);
+            for (int c = 0; c < 40; ++c) {
+                final int
+                    x = 2 + random.nextInt(24),
+                    z = 2 + random.nextInt(24);
+
+                fill(instance, x, GROUND, z, x, GROUND + 2, z, STONE);
+            }
+        }
+    },
+
+    /**
+     * Maze of one-block wide corridors walled three blocks high, some walls of an otherwise perfect maze are knocked
+     * down so that there are several competing routes
+     */
+    maze {
+        private static final int CELLS = 10;
+
+        @Override
+        void generate(InstanceSpace instance, Random random) {
+            ground(instance);
+            fill(instance, 0, GROUND, 0, CELLS * 2, GROUND + 2, CELLS * 2, STONE);
+
+            final boolean[][] visited = new boolean[CELLS][CELLS];
+            final Deque<int[]> stack = new ArrayDeque<>();
+            stack.push(new int[] { 0, 0 });
+            visited[0][0] = true;
+            carve(instance, 0, 0, 0, 0);
+
+            final int[][] directions = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+            while (!stack.isEmpty()) {
+                final int[] cell = stack.peek();
+                int options = 0;
+                final int[][] candidates = new int[4][];
+                for (int[] d : directions) {
+                    final int
+                        cx = cell[0] + d[0],
+                        cz = cell[1] + d[1];
+
+                    if (cx >= 0 && cz >= 0 && cx < CELLS && cz < CELLS && !visited[cx][cz])
+                        candidates[options++] = new int[] { cx, cz };
+                }
+
+                if (options == 0)
+                    stack.pop();
+                else {
+                    final int[] next = candidates[random.nextInt(options)];
+                    visited[next[0]][next[1]] = true;
+                    carve(instance, cell[0], cell[1], next[0], next[1]);
+                    stack.push(next);
+                }
+            }
+
+            for (int c = 0; c < CELLS * CELLS / 4; ++c) {
+                final int
+                    cx = random.nextInt(CELLS - 1),
+                    cz = random.nextInt(CELLS - 1);
+
+                if (random.nextBoolean())
+                    carve(instance, cx, cz, cx + 1, cz);
+                else
+                    carve(instance, cx, cz, cx, cz + 1);
+            }
+        }
+
+        private void carve(InstanceSpace instance, int cx0, int cz0, int cx1, int cz1) {
+            fill(
+                instance,
+                Math.min(cx0, cx1) * 2 + 1, GROUND, Math.min(cz0, cz1) * 2 + 1,
+                Math.max(cx0, cx1) * 2 + 1, GROUND + 2, Math.max(cz0, cz1) * 2 + 1,
+                null
+            );
+        }
+
+        @Override
+        Vec3d source() {
+            return new Vec3d(1.5, GROUND, 1.5);
+        }
+
+        @Override
+        Vec3d destination() {
+            return new Vec3d((CELLS - 1) * 2 + 1.5, GROUND, (CELLS - 1) * 2 + 1.5);
+        }
+    },
+
+    /**
+     * Winding tunnel bored through solid rock that rises and falls a block at a time
+     */
+    cave {
+        @Override
+        void generate(InstanceSpace instance, Random random) {
+            fill(instance, MIN, GROUND - 16, MIN, MAX, GROUND + 16, MAX, STONE);
+
+            final Vec3d destination = destination();
+            int x = 0, y = GROUND, z = 0;
+            boolean climbed = false;
+            carveAround(instance, x, y, z);
+            while (x != (int)destination.x || z != (int)destination.z) {
+                if (random.nextInt(3) == 0)
+                    x += Integer.signum((int)destination.x - x);
+                else if (random.nextInt(2) == 0)
+                    z += Integer.signum((int)destination.z - z);
+                else if (random.nextBoolean())
+                    x += random.nextBoolean() ? 1 : -1;
+                else
+                    z += random.nextBoolean() ? 1 : -1;
+
+                final int
+                    remaining = Math.abs((int)destination.x - x) + Math.abs((int)destination.z - z),
+                    rise = Math.abs(y - GROUND);
+
+                if (climbed)
+                    climbed = false;
+                else if (y != GROUND && remaining <= 2 * rise + 4) {
+                    y += Integer.signum(GROUND - y);
+                    climbed = true;
+                } else if (remaining > 2 * rise + 6 && random.nextInt(6) == 0) {
+                    y += random.nextBoolean() ? 1 : -1;
+                    y = Math.max(GROUND - 4, Math.min(GROUND + 4, y));
+                    climbed = true;
+                }
+
+                x = Math.max(MIN + 2, Math.min(MAX - 2, x));
+                z = Math.max(MIN + 2, Math.min(MAX - 2, z));
+                carveAround(instance, x, y, z);
+            }
+
+            fill(instance, x - 1, GROUND, z - 1, x + 1, GROUND + 2, z + 1, null);
+            fill(instance, x - 1, GROUND - 1, z - 1, x + 1, GROUND - 1, z + 1, STONE);
+        }
+
+        private void carveAround(InstanceSpace instance, int x, int y, int z) {
+            fill(instance, x - 1, y, z - 1, x + 1, y + 2, z + 1, null);
+        }
+    },
+
+    /**
+     * One-block high steps climbing twenty blocks
+     */
+    staircase {
+        private static final int STEPS = 20;
+
+        @Override
+        void generate(InstanceSpace instance, Random random) {
+            ground(instance);
+            for (int i = 0; i < STEPS; ++i)
+                fill(instance, 2 + i, GROUND, 0, 2 + i, GROUND + i, 2, STONE);
+        }
+
+        @Override
+        Vec3d source() {
+            return new Vec3d(0.5, GROUND, 1.5);
+        }
+
+        @Override
+        Vec3d destination() {
+            return new Vec3d(STEPS + 1.5, GROUND + STEPS, 1.5);
+        }
+    };
+
+    public static final int
+        GROUND = 64,
+        MIN = -16,
+        MAX = 48;
+
+    static final long SEED = 0x5EED;
+
+    public static final BlockObject STONE = new BlockObject();
+
+    static {
+        STONE.impeding = true;
+        STONE.fullyBounded = true;
+        STONE.bounds = new AxisAlignedBBox(0, 0, 0, 1, 1, 1);
+    }
+
+    abstract void generate(InstanceSpace instance, Random random);
+
+    Vec3d source() {
+        return new Vec3d(0.5, GROUND, 0.5);
+    }
+
+    Vec3d destination() {
+        return new Vec3d(24.5, GROUND, 20.5);
+    }
+
+    /**
+     * Generates a new instance containing this terrain
+     *
+     * @return the generated instance
+     */
+    public InstanceSpace instance() {
+        final InstanceSpace instance = new InstanceSpace();
+        generate(instance, new Random(SEED));
+        return instance;
+    }
+
+    /**
+     * Creates an entity standing at the source of this terrain
+     *
+     * @return entity to path-find with
+     */
+    public Monster subject() {
+        final Monster monster = new Monster();
+        monster.moveTo(source(), Passibility.passible, Gravitation.grounded);
+        return monster;
+    }
+
+    static void ground(InstanceSpace instance) {
+        fill(instance, MIN, GROUND - 4, MIN, MAX, GROUND - 1, MAX, STONE);
+    }
+
+    static void fill(InstanceSpace instance, int x0, int y0, int z0, int xN, int yN, int zN, BlockObject block) {
+        for (int x = x0; x <= xN; ++x)
+            for (int z = z0; z <= zN; ++z)
+                for (int y = y0; y <= yN; ++y)
+                    instance.setBlock(x, y, z, block, 0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.extollit.gaming.ai.path.model;
+
+import com.extollit.gaming.ai.path.BlockObject;
+import com.extollit.gaming.ai.path.InstanceSpace;
+import com.extollit.gaming.ai.path.Terrain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading, modifying and area-initializing the occlusion field of the columnar space section containing the
+ * ground level of generated terrain
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OcclusionFieldBenchmark {
+    private static final int CY = Terrain.GROUND >> 4;
+    private static final BlockObject AIR = new BlockObject();
+
+    static {
+        AIR.fullyBounded = true;
+    }
+
+    @Param({"openField", "maze", "cave"})
+    public Terrain terrain;
+
+    private IColumnarSpace center;
+    private OcclusionField field, north, south, east, west;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final InstanceSpace instance = this.terrain.instance();
+
+        this.center = instance.columnarSpaceAt(1, 1);
+        this.field = load(instance, 1, 1);
+        this.north = load(instance, 1, 0);
+        this.south = load(instance, 1, 2);
+        this.west = load(instance, 0, 1);
+        this.east = load(instance, 2, 1);
+    }
+
+    private static OcclusionField load(InstanceSpace instance, int cx, int cz) {
+        final OcclusionField field = new OcclusionField();
+        field.loadFrom(instance.columnarSpaceAt(cx, cz), cx, CY, cz);
+        return field;
+    }
+
+    @Benchmark
+    public OcclusionField loadFrom() {
+        final OcclusionField field = new OcclusionField();
+        field.loadFrom(this.center, 1, CY, 1);
+        return field;
+    }
+
+    /**
+     * Places and then removes a block in the interior of the field and then on its edge, where neighboring fields are
+     * also consulted
+     */
+    @Benchmark
+    public void set(Blackhole blackhole) {
+        final OcclusionField field = this.field;
+        final IColumnarSpace center = this.center;
+        final int
+            x = 16 + 7,
+            y = Terrain.GROUND + 1,
+            z = 16 + 7;
+
+        field.set(center, x, y, z, Terrain.STONE);
+        field.set(center, x, y, z, AIR);
+        field.set(center, 16, y, z, Terrain.STONE);
+        field.set(center, 16, y, z, AIR);
+        blackhole.consume(field);
+    }
+
+    @Benchmark
+    public OcclusionField areaInit() {
+        final OcclusionField field = this.field;
+
+        field.areaInitNorth(this.north);
+        field.areaInitSouth(this.south);
+        field.areaInitWest(this.west);
+        field.areaInitEast(this.east);
+        field.areaInitNorthWest(this.west, this.north);
+        field.areaInitNorthEast(this.east, this.north);
+        field.areaInitSouthWest(this.west, this.south);
+        field.areaInitSouthEast(this.east, this.south);
+        return field;
+    }
+}
@@ -0,0 +1,104 @@
+package com.extollit.gaming.ai.path.model;
+
+import com.extollit.gaming.ai.path.QueueingStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the open list implementations.  Each invocation starts from freshly reset points, so the cost of resetting
+ * (and for {@link #trimFrom()} the cost of growing the search tree) is included in the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PointQueueBenchmark {
+    private static final int EXTENT = 16;
+
+    @Param({"binaryHeap", "buckets"})
+    public QueueingStrategy queueingStrategy;
+
+    private AbstractPointQueue queue;
+    private Node[] points;
+    private int[] remaining;
+    private Node[][] grid;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.queue = this.queueingStrategy == QueueingStrategy.buckets ? new BucketPointQueue() : new SortedPointQueue();
+
+        final Random random = new Random(0x5EED);
+        final int count = Node.MAX_INDICES - 1;
+        this.points = new Node[count];
+        this.remaining = new int[count];
+        for (int c = 0; c < count; ++c) {
+            this.points[c] = new Node(random.nextInt(64), random.nextInt(8), random.nextInt(64), Passibility.of(random.nextInt(3)));
+            this.remaining[c] = 1 + random.nextInt(Node.MAX_PATH_DISTANCE - 1);
+        }
+
+        this.grid = new Node[EXTENT][EXTENT];
+        for (int x = 0; x < EXTENT; ++x)
+            for (int z = 0; z < EXTENT; ++z)
+                this.grid[x][z] = new Node(x, 0, z);
+    }
+
+    @Benchmark
+    public void addDequeue(Blackhole blackhole) {
+        final AbstractPointQueue queue = this.queue;
+        final Node[] points = this.points;
+
+        queue.clear();
+        for (int c = 0; c < points.length; ++c) {
+            final Node point = points[c];
+            point.reset();
+            point.remaining(this.remaining[c]);
+            queue.add(point);
+        }
+
+        while (!queue.isEmpty())
+            blackhole.consume(queue.dequeue());
+    }
+
+    /**
+     * Grows a spanning tree over a square grid rooted at one corner, the last row and column of which are queued, and
+     * then re-roots the tree at the center of the grid
+     */
+    @Benchmark
+    public Node trimFrom() {
+        final AbstractPointQueue queue = this.queue;
+        final Node[][] grid = this.grid;
+
+        queue.clear();
+        for (Node[] row : grid)
+            for (Node point : row) {
+                point.isolate();
+                point.reset();
+            }
+
+        final Coords target = grid[EXTENT - 1][EXTENT - 1].key;
+        grid[0][0].target(target);
+        grid[0][0].visited(true);
+        for (int x = 0; x < EXTENT; ++x)
+            for (int z = 0; z < EXTENT; ++z) {
+                if (x == 0 && z == 0)
+                    continue;
+
+                final Node
+                    point = grid[x][z],
+                    parent = x > 0 ? grid[x - 1][z] : grid[x][z - 1];
+
+                if (x < EXTENT - 1 && z < EXTENT - 1) {
+                    point.appendTo(parent, 1, (int)Math.sqrt(Node.squareDelta(point, target)));
+                    point.visited(true);
+                } else
+                    queue.appendTo(point, parent, target);
+            }
+
+        return queue.trimFrom(grid[EXTENT / 2][EXTENT / 2]);
+    }
+}
@@ -0,0 +1,65 @@
+package com.extollit.gaming.ai.path.model;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures insertion into and retrieval from the sparse spatial map backing the search graph, using coordinates
+ * clustered around the origin in the same way as those of a typical search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SparseSpatialMapBenchmark {
+    @Param({"512", "4096"})
+    public int count;
+
+    private int[] xs, ys, zs;
+    private Node[] values;
+    private SparseSpatialMap<Node> populated;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(0x5EED);
+        final int count = this.count;
+        this.xs = new int[count];
+        this.ys = new int[count];
+        this.zs = new int[count];
+        this.values = new Node[count];
+        this.populated = new SparseSpatialMap<>();
+
+        for (int c = 0; c < count; ++c) {
+            final int
+                x = (int)(random.nextGaussian() * 16),
+                y = 64 + (int)(random.nextGaussian() * 4),
+                z = (int)(random.nextGaussian() * 16);
+
+            this.xs[c] = x;
+            this.ys[c] = y;
+            this.zs[c] = z;
+            this.populated.put(x, y, z, this.values[c] = new Node(x, y, z));
+        }
+    }
+
+    @Benchmark
+    public SparseSpatialMap<Node> put() {
+        final SparseSpatialMap<Node> map = new SparseSpatialMap<>();
+        for (int c = 0; c < this.count; ++c)
+            map.put(this.xs[c], this.ys[c], this.zs[c], this.values[c]);
+
+        return map;
+    }
+
+    @Benchmark
+    public void get(Blackhole blackhole) {
+        final SparseSpatialMap<Node> map = this.populated;
+        for (int c = 0; c < this.count; ++c)
+            blackhole.consume(map.get(this.xs[c], this.ys[c], this.zs[c]));
+    }
+}
@@ -3,12 +3,12 @@ package com.extollit.gaming.ai.path;
 import com.extollit.gaming.ai.path.model.*;
 import com.extollit.linalg.immutable.AxisAlignedBBox;
 
-import static com.extollit.gaming.ai.path.PassibilityHelpers.impedesMovement;
 import static java.lang.Math.floor;
 
 abstract class AbstractNodeCalculator implements INodeCalculator {
     protected final IInstanceSpace instanceSpace;
     protected IPathingEntity.Capabilities capabilities;
+    protected PassibilityTable passibilityTable;
     protected int discreteSize, tall;
     protected float actualSize;
 
@@ -25,9 +25,19 @@ abstract class AbstractNodeCalculator implements INodeCalculator {
         this.actualSize = subject.width();
         this.discreteSize = (int)floor(subject.width() + 1);
         this.tall = (int)floor(subject.height() + 1);
-        this.capabilities = subject.capabilities();
+        this.passibilityTable = PassibilityTable.of(this.capabilities = subject.capabilities());
     }
 
+    @Override
+    public final Node passibleNodeNear(int x, int y, int z, Coords origin, FlagSampler flagSampler) {
+        final ProbeResult result = new ProbeResult();
+        probe(x, y, z, origin, flagSampler, result);
+        return result.toNode();
+    }
+
+    @Override
+    public abstract void probe(int x, int y, int z, Coords origin, FlagSampler flagSampler, ProbeResult result);
+
     protected final Passibility verticalClearanceAt(FlagSampler sampler, int max, byte flags, Passibility passibility, int dy, int x, int y, int z, final float minPartY) {
         byte clearanceFlags = flags;
         final int
@@ -43,25 +53,25 @@ abstract class AbstractNodeCalculator implements INodeCalculator {
         }
 
         if (yt >= yNa)
-            passibility = headClearance(passibility, minPartY, x, yt, z, clearanceFlags);
+            passibility = headClearance(sampler, passibility, minPartY, x, yt, z, clearanceFlags);
 
         return passibility;
     }
 
-    protected final Passibility headClearance(Passibility passibility, float partyY, int x, int y, int z, byte flags) {
-        if (insufficientHeadClearance(flags, partyY, x, y, z))
+    protected final Passibility headClearance(FlagSampler sampler, Passibility passibility, float partyY, int x, int y, int z, byte flags) {
+        if (insufficientHeadClearance(sampler, flags, partyY, x, y, z))
             passibility = Passibility.impassible;
         else if (partyY >= 0)
             passibility = passibility.between(clearance(flags));
         return passibility;
     }
 
-    protected final boolean insufficientHeadClearance(byte flags, float partialY0, int x, int y, int z) {
-        return bottomOffsetAt(flags, x, y, z) + partialY0 > 0;
+    protected final boolean insufficientHeadClearance(FlagSampler sampler, byte flags, float partialY0, int x, int y, int z) {
+        return bottomOffsetAt(sampler, flags, x, y, z) + partialY0 > 0;
     }
 
-    private float bottomOffsetAt(byte flags, int x, int y, int z) {
-        if (!impedesMovement(flags, this.capabilities)
+    private float bottomOffsetAt(FlagSampler sampler, byte flags, int x, int y, int z) {
+        if (!this.passibilityTable.impedesMovement(flags)
             || swimmingRequiredFor(flags)
         )
             return 0;
@@ -69,7 +79,7 @@ abstract class AbstractNodeCalculator implements INodeCalculator {
         if (Element.earth.in(flags) && Logic.nothing.in(flags))
             return 1;
 
-        final IBlockObject block = this.instanceSpace.blockObjectAt(x, y, z);
+        final IBlockObject block = blockObjectAt(sampler, x, y, z);
         if (!block.isImpeding())
             return 0;
 
@@ -81,14 +91,14 @@ abstract class AbstractNodeCalculator implements INodeCalculator {
     }
 
     private final Passibility clearance(byte flags) {
-        return PassibilityHelpers.clearance(flags, this.capabilities);
+        return this.passibilityTable.clearance(flags);
     }
 
     protected final float topOffsetAt(FlagSampler sampler, int x, int y, int z) {
-        return topOffsetAt(sampler.flagsAt(x, y, z), x, y, z);
+        return topOffsetAt(sampler, sampler.flagsAt(x, y, z), x, y, z);
     }
 
-    protected final float topOffsetAt(byte flags, int x, int y, int z) {
+    protected final float topOffsetAt(FlagSampler sampler, byte flags, int x, int y, int z) {
         if (Element.air.in(flags)
             || Logic.climbable(flags)
             || Element.earth.in(flags) && Logic.nothing.in(flags)
@@ -99,10 +109,10 @@ abstract class AbstractNodeCalculator implements INodeCalculator {
         if (swimmingRequiredFor(flags))
             return -0.5f;
 
-        final IBlockObject block = this.instanceSpace.blockObjectAt(x, y, z);
+        final IBlockObject block = blockObjectAt(sampler, x, y, z);
         if (!block.isImpeding()) {
             if (Element.earth.in(flags)) {
-                final IBlockObject blockBelow = this.instanceSpace.blockObjectAt(x, y - 1, z);
+                final IBlockObject blockBelow = blockObjectAt(sampler, x, y - 1, z);
                 if (!blockBelow.isFullyBounded()) {
                     float offset = (float) blockBelow.bounds().max.y - 2;
                     if (offset < -1)
@@ -117,6 +127,15 @@ abstract class AbstractNodeCalculator implements INodeCalculator {
         return (float)block.bounds().max.y - 1;
     }
 
+    /**
+     * Retrieves the block at the specified location preferring the copy captured with the occlusion data, if any, over
+     * querying the instance
+     */
+    private IBlockObject blockObjectAt(FlagSampler sampler, int x, int y, int z) {
+        final IBlockObject block = sampler.partialBlockAt(x, y, z);
+        return block != null ? block : this.instanceSpace.blockObjectAt(x, y, z);
+    }
+
     protected final Passibility originHeadClearance(FlagSampler sampler, Passibility passibility, Coords origin, int minY, float minPartY) {
         final int
                 yN0 = origin.y + this.tall,
@@ -132,7 +151,7 @@ abstract class AbstractNodeCalculator implements INodeCalculator {
             for (int x = origin.x, xN = origin.x + this.discreteSize; x < xN; ++x)
                 for (int z = origin.z, zN = origin.z + this.discreteSize; z < zN; ++z) {
                     final byte flags = sampler.flagsAt(x, yNa, z);
-                    passibility = headClearance(passibility, minPartY, x, yNa, z, flags);
+                    passibility = headClearance(sampler, passibility, minPartY, x, yNa, z, flags);
                     if (passibility == Passibility.impassible)
                         return Passibility.impassible;
                 }
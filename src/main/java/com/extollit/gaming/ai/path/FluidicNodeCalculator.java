@@ -2,7 +2,7 @@ package com.extollit.gaming.ai.path;
 
 import com.extollit.gaming.ai.path.model.*;
 
-import static com.extollit.gaming.ai.path.PassibilityHelpers.*;
+import static com.extollit.gaming.ai.path.PassibilityHelpers.gravitationFrom;
 import static java.lang.Math.round;
 
 class FluidicNodeCalculator extends AbstractNodeCalculator implements INodeCalculator {
@@ -12,9 +12,9 @@ class FluidicNodeCalculator extends AbstractNodeCalculator implements INodeCalcu
     }
 
     @Override
-    public Node passibleNodeNear(int x0, int y0, int z0, Coords origin, FlagSampler flagSampler) {
-        final Node point;
+    public void probe(int x0, int y0, int z0, Coords origin, FlagSampler flagSampler, ProbeResult result) {
         final IPathingEntity.Capabilities capabilities = this.capabilities;
+        final PassibilityTable passibilityTable = this.passibilityTable;
 
         final int
             dx, dy, dz;
@@ -57,10 +57,11 @@ class FluidicNodeCalculator extends AbstractNodeCalculator implements INodeCalcu
                 gravitation = gravitation.between(gravitationFrom(flags));
                 gravitation = gravitation.between(gravitationFrom(flagsBeneath));
 
-                if (impedesMovement(flags, capabilities))
-                    return new Node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0, gravitation);
-                else
-                    passibility = passibility.between(passibilityFrom(flags, capabilities));
+                if (passibilityTable.impedesMovement(flags)) {
+                    result.set(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0, gravitation);
+                    return;
+                } else
+                    passibility = passibility.between(passibilityTable.passibilityFrom(flags));
 
                 final float partY0 = topOffsetAt(
                         flagSampler,
@@ -68,7 +69,7 @@ class FluidicNodeCalculator extends AbstractNodeCalculator implements INodeCalcu
                         y0 - dy - 1,
                         z - dz
                 );
-                final float partY = topOffsetAt(flagsBeneath, x, yb, z);
+                final float partY = topOffsetAt(flagSampler, flagsBeneath, x, yb, z);
                 passibility = verticalClearanceAt(flagSampler, this.tall, flags, passibility, dy, x, y0, z, Math.min(partY, partY0));
 
                 if (y0 > minY) {
@@ -77,8 +78,10 @@ class FluidicNodeCalculator extends AbstractNodeCalculator implements INodeCalcu
                 } else if (partY > minPartY)
                     minPartY = partY;
 
-                if (passibility.impassible(capabilities))
-                    return new Node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0, gravitation);
+                if (passibility.impassible(capabilities)) {
+                    result.set(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0, gravitation);
+                    return;
+                }
             }
 
         if (passibility.impassible(capabilities))
@@ -86,12 +89,7 @@ class FluidicNodeCalculator extends AbstractNodeCalculator implements INodeCalcu
         else if (hasOrigin)
             passibility = originHeadClearance(flagSampler, passibility, origin, minY, minPartY);
 
-        point = new Node(x0, minY + round(minPartY), z0);
-        point.passibility(passibility);
-        point.gravitation(gravitation);
-        point.volatile_(flagSampler.volatility() > 0);
-
-        return point;
+        result.set(x0, minY + round(minPartY), z0, passibility, flagSampler.volatility() > 0, gravitation);
     }
 
     @Override
@@ -2,8 +2,6 @@ package com.extollit.gaming.ai.path;
 
 import com.extollit.gaming.ai.path.model.*;
 
-import static com.extollit.gaming.ai.path.PassibilityHelpers.impedesMovement;
-import static com.extollit.gaming.ai.path.PassibilityHelpers.passibilityFrom;
 import static java.lang.Math.round;
 
 class GroundNodeCalculator extends AbstractNodeCalculator {
@@ -24,9 +22,9 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
     }
 
     @Override
-    public Node passibleNodeNear(final int x0, final int y0, final int z0, Coords origin, final FlagSampler flagSampler) {
-        final Node point;
+    public void probe(final int x0, final int y0, final int z0, Coords origin, final FlagSampler flagSampler, ProbeResult result) {
         final IPathingEntity.Capabilities capabilities = this.capabilities;
+        final PassibilityTable passibilityTable = this.passibilityTable;
 
         final int
             dx, dy, dz;
@@ -74,13 +72,15 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
 
                 byte flags = flagSampler.flagsAt(x, y, z);
                 final boolean impedesMovement;
-                if (impedesMovement = impedesMovement(flags, capabilities)) {
-                    final float partialDisparity = partY0 - topOffsetAt(flags, x, y++, z);
+                if (impedesMovement = passibilityTable.impedesMovement(flags)) {
+                    final float partialDisparity = partY0 - topOffsetAt(flagSampler, flags, x, y++, z);
                     flags = flagSampler.flagsAt(x, y, z);
 
-                    if (partialDisparity < 0 || impedesMovement(flags, capabilities)) {
-                        if (!hasOrigin)
-                            return new Node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0);
+                    if (partialDisparity < 0 || passibilityTable.impedesMovement(flags)) {
+                        if (!hasOrigin) {
+                            result.set(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0);
+                            return;
+                        }
 
                         if (dx * dx + dz * dz <= 1) {
                             y -= dy + 1;
@@ -90,8 +90,10 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
                             while (climbsLadders && Logic.climbable(flags));
                         }
 
-                        if (impedesMovement(flags = flagSampler.flagsAt(x, --y, z), capabilities) && (impedesMovement(flags = flagSampler.flagsAt(x, ++y, z), capabilities) || partY0 < 0))
-                            return new Node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0);
+                        if (passibilityTable.impedesMovement(flags = flagSampler.flagsAt(x, --y, z)) && (passibilityTable.impedesMovement(flags = flagSampler.flagsAt(x, ++y, z)) || partY0 < 0)) {
+                            result.set(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0);
+                            return;
+                        }
                     }
                 }
                 float partY = topOffsetAt(flagSampler, x, y - 1, z);
@@ -105,8 +107,16 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
                             jN = origin == null ? MAX_FALL_SEARCH : MAX_SURVIVE_FALL_DISTANCE;
                          condition && !(swimable = swimable(flags)) && j <= jN;
                          j++, condition = unstable(flags)
-                            )
+                            ) {
+                        if (j > 0 && open(flags)) {
+                            final int skip = Math.min(flagSampler.openRunBelow(x, y - 1, z) - 1, jN - j);
+                            if (skip > 0) {
+                                y -= skip;
+                                j += skip;
+                            }
+                        }
                         flags = flagSampler.flagsAt(x, --y, z);
+                    }
                 }
 
                 if (swimable) {
@@ -115,6 +125,11 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
                     byte flags0;
                     do {
                         flags0 = flags;
+                        if (Element.water.in(flags)) {
+                            final int skip = Math.min(flagSampler.fluidRunAbove(x, y + 1, z) - 1, cesaLimit - y - 1);
+                            if (skip > 0)
+                                y += skip;
+                        }
                         flags = flagSampler.flagsAt(x, ++y, z);
                     } while (swimable(flags) && unstable(flags) && y < cesaLimit);
                     if (y >= cesaLimit) {
@@ -126,7 +141,7 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
                     }
                 }
 
-                partY = topOffsetAt(flags, x, y++, z);
+                partY = topOffsetAt(flagSampler, flags, x, y++, z);
                 passibility = verticalClearanceAt(flagSampler, ys - y, flagSampler.flagsAt(x, y, z), passibility, dy, x, y, z, Math.min(partY, partY0));
 
                 if (y > minY) {
@@ -135,9 +150,11 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
                 } else if (y == minY && partY > minPartY)
                     minPartY = partY;
 
-                passibility = passibility.between(passibilityFrom(flagSampler.flagsAt(x, y, z), capabilities));
-                if (passibility.impassible(capabilities))
-                    return new Node(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0);
+                passibility = passibility.between(passibilityTable.passibilityFrom(flagSampler.flagsAt(x, y, z)));
+                if (passibility.impassible(capabilities)) {
+                    result.set(x0, y0, z0, Passibility.impassible, flagSampler.volatility() > 0);
+                    return;
+                }
             }
 
         if (hasOrigin && !passibility.impassible(capabilities))
@@ -149,11 +166,7 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
         if (passibility.impassible(capabilities))
             passibility = Passibility.impassible;
 
-        point = new Node(x0, minY + round(minPartY), z0);
-        point.passibility(passibility);
-        point.volatile_(flagSampler.volatility() > 0);
-
-        return point;
+        result.set(x0, minY + round(minPartY), z0, passibility, flagSampler.volatility() > 0);
     }
 
     @Override
@@ -161,6 +174,11 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
         return false;
     }
 
+    @Override
+    public int descentLimit() {
+        return (this.capabilities.cautious() ? 1 : MAX_SURVIVE_FALL_DISTANCE) + 2;
+    }
+
     private Passibility fallingSafety(Passibility passibility, int y0, int minY) {
         final int dy = y0 - minY;
         if (dy > 1)
@@ -176,6 +194,10 @@ class GroundNodeCalculator extends AbstractNodeCalculator {
         return this.capabilities.swimmer() && swimmingRequiredFor(flags) && (Element.water.in(flags) || this.capabilities.fireResistant());
     }
 
+    private static boolean open(byte flags) {
+        return Element.air.in(flags) && !Logic.doorway.in(flags);
+    }
+
     private static boolean unstable(byte flags) {
         return (!Element.earth.in(flags) || Logic.ladder.in(flags));
     }
@@ -10,11 +10,20 @@ import com.extollit.num.FloatRange;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
-import static com.extollit.gaming.ai.path.PassibilityHelpers.impedesMovement;
 import static java.lang.Math.*;
 
 /**
@@ -27,6 +36,9 @@ import static java.lang.Math.*;
  *
  * To use this class, first initiate path-finding using one of the initiation methods, then call {@link #updatePathFor(IPathingEntity)}
  * each tick to iterate on the path until it is completed.  To abort path-finding call {@link #reset()}
+ *
+ * Large numbers of path-finders can be registered with a {@link PathFinderScheduler} to bound the total time spent
+ * path-finding each tick.
  */
 public class HydrazinePathFinder implements IVersionedReadable, IVersionedWriteable {
     private static final AxisAlignedBBox FULL_BOUNDS = new AxisAlignedBBox(0, 0, 0, 1, 1, 1);
@@ -36,16 +48,25 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
             PROBATIONARY_TIME_LIMIT = new FloatRange(36, 64),
             PASSIBLE_POINT_TIME_LIMIT = new FloatRange(24, 48);
 
+    private static final int
+            COMPLETE_SEARCH_STRIDE = 64,
+            MAX_ROUTE_EXPANSIONS = 4096,
+            MAX_PENDING_REPAIRS = 64,
+            MAX_JUMP_DISTANCE = 32;
+
     private static byte FAULT_COUNT_THRESHOLD = 3;
     private static int FAULT_LIMIT = 23;
 
-    final SortedPointQueue queue = new SortedPointQueue();
+    AbstractPointQueue queue = new SortedPointQueue();
     final NodeMap nodeMap;
 
     private final Set<Vec3i> unreachableFromSource = new HashSet<>(3);
     private final IPathingEntity subject;
     private final IInstanceSpace instanceSpace;
+    private final IOcclusionProviderFactory occlusionProviderFactory;
     private final Vec3i vec3i = new Vec3i(0, 0, 0);
+    private final Node[] pointOptions = new Node[8];
+    private final com.extollit.linalg.mutable.AxisAlignedBBox[] boundsScratch = new com.extollit.linalg.mutable.AxisAlignedBBox[6];
 
     private com.extollit.linalg.mutable.Vec3d sourcePosition, destinationPosition;
     private com.extollit.linalg.immutable.Vec3d targetPosition;
@@ -55,14 +76,33 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
     private IPathProcessor pathProcessor;
     private IPath currentPath;
     private IPathingEntity.Capabilities capabilities;
-    private boolean flying, aqua, pathPointCalculatorChanged, trimmedToCurrent, bound;
+    private PassibilityTable passibilityTable;
+    private boolean flying, aqua, opensDoors, avoidsDoorways, pathPointCalculatorChanged, trimmedToCurrent, bound, wideNodes, jumpPointSearch;
     private PathOptions.TargetingStrategy targetingStrategy;
+    private QueueingStrategy queueingStrategy = QueueingStrategy.binaryHeap;
+    private PassibilityCache passibilityCache;
+    private SectionGraph sectionGraph;
+    private FlowField flowField;
+    private PathCache pathCache;
+    private long searchStamp;
+    private FlowField.Path flowPath;
+    private RepairListener repairListener;
+    private boolean incrementalRepair;
+    private SectionGraph.Route route;
+    private com.extollit.linalg.immutable.Vec3d routeDestination;
+    private int routeIndex;
     private Node current, source, target, closest;
+    private Coords reachableDestination;
+    private ReverseSearch reverseSearch;
+    private boolean bidirectional;
     private int initComputeIterations, periodicComputeIterations;
     private int faultCount, nextGraphResetFailureCount;
+    private int triaged;
     private float searchRangeSquared, passiblePointPathTimeLimit, nextGraphCacheReset, actualSize;
     private Random random = new Random();
 
+    PathFinderScheduler scheduler;
+
     /**
      * Configures the path-finding library.  All instances of this class derive configuration from here
      *
@@ -91,8 +131,12 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
     HydrazinePathFinder(IPathingEntity entity, IInstanceSpace instanceSpace, IOcclusionProviderFactory occlusionProviderFactory) {
         this.subject = entity;
         this.instanceSpace = instanceSpace;
+        this.occlusionProviderFactory = occlusionProviderFactory;
         this.nodeMap = new NodeMap(instanceSpace, occlusionProviderFactory);
 
+        for (int c = 0; c < this.boundsScratch.length; ++c)
+            this.boundsScratch[c] = new com.extollit.linalg.mutable.AxisAlignedBBox(0, 0, 0, 0, 0, 0);
+
         applySubject();
         schedulingPriority(SchedulingPriority.medium);
 
@@ -109,7 +153,8 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
     }
 
     /**
-     * Applies a scheduling priority to this path-finder (and associated entity)
+     * Applies a scheduling priority to this path-finder (and associated entity).  If this path-finder is registered
+     * with a {@link PathFinderScheduler} then the priority determines its share of the scheduler's budget instead.
      *
      * @param schedulingPriority priority to use for path-finding with this object's bound entity
      */
@@ -155,13 +200,33 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
      * @param target destination / target entity to track and path-find to
      * @return the best path available toward the destination, the complete path to the destination, or null if a path
      *          cannot be computed at all from the current location
+     * If a flow field was applied (see {@link #withFlowField(FlowField)}) and the pathing entity is within the field of
+     * the target then the path follows the field rather than being searched for.
+     *
      * @see #updatePathFor(IPathingEntity)
      */
     public IPath trackPathTo(IDynamicMovableObject target) {
         this.destinationEntity = target;
+        if (this.flowField != null && followFlowField(target))
+            return this.flowPath;
+
         return initiatePathTo(target.coordinates(), PathOptions.BEST_EFFORT);
     }
 
+    private boolean followFlowField(IDynamicMovableObject target) {
+        applySubject();
+        this.flowPath = this.flowField.pathFor(
+                PassibilityCache.profileOf(this.pathPointCalculator, this.subject),
+                this.pathPointCalculator,
+                this.capabilities,
+                this.occlusionProviderFactory,
+                target,
+                this.subject,
+                this.random
+        );
+        return this.flowPath != null;
+    }
+
     /**
      * Completely computes a path to the specified location.  This is the traditional A* search algorithm, which
      * trades-off performance for accuracy.
@@ -191,6 +256,7 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
     public IPath computePathTo(double x, double y, double z) {
         this.destinationEntity = null;
         this.targetingStrategy = PathOptions.TargetingStrategy.none;
+        this.route = null;
 
         initializeOperation();
         if (tooFarTo(x, y, z))
@@ -198,12 +264,196 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
 
         updateDestination(x, y, z);
 
-        if (!graphTimeout())
+        if (!graphTimeout()) {
             resetTriage();
 
+            final IPath path = cachedPath();
+            if (path != null)
+                return path;
+        }
+
         return triage(Integer.MAX_VALUE);
     }
 
+    /**
+     * Completely computes a path to the specified location subject to the specified options, this is otherwise the same
+     * as {@link #computePathTo(double, double, double)}.  When {@link PathOptions#bidirectional(boolean)} is set the
+     * search expands from the destination as well as from the source and concludes where the two meet.
+     *
+     * @param x x-coordinate of the destination
+     * @param y y-coordinate of the destination
+     * @param z z-coordinate of the destination
+     * @param pathOptions limits on the search and whether it is bidirectional, the targeting strategy is ignored because
+     *                    complete searches are always strict
+     * @return the complete path to the destination, the best partial path if a search limit was reached, or null if
+     *          the destination is unreachable from the current location
+     */
+    public IPath computePathTo(double x, double y, double z, PathOptions pathOptions) {
+        this.destinationEntity = null;
+        this.targetingStrategy = PathOptions.TargetingStrategy.none;
+        this.route = null;
+
+        initializeOperation();
+        if (tooFarTo(x, y, z))
+            return null;
+
+        updateDestination(x, y, z);
+
+        if (!graphTimeout()) {
+            resetTriage();
+
+            final IPath path = cachedPath();
+            if (path != null)
+                return path;
+        }
+
+        return completeSearch(pathOptions, () -> false);
+    }
+
+    /**
+     * Asynchronously computes a complete path to the specified location, this is the non-blocking counterpart to
+     * {@link #computePathTo(double, double, double)} and is suitable for long-range queries where accuracy matters.
+     *
+     * A snapshot of the pathing entity and of the occlusion data surrounding the destination (within the entity's search
+     * range) is taken on the calling thread, which must be the thread that owns the instance space.  The search then
+     * runs to completion on the specified executor against that snapshot without touching this object or any live
+     * world state, so changes made to the world after this method returns are not observed by the search.  The graph
+     * node filter and path processor applied to this object (if any) are invoked from the executor's thread.
+     *
+     * The resulting path is independent of this path-finder, the caller drives the entity along it using
+     * {@link IPath#update(IPathingEntity)}.  Cancelling the returned future aborts the search at the next opportunity.
+     *
+     * @param x x-coordinate of the destination
+     * @param y y-coordinate of the destination
+     * @param z z-coordinate of the destination
+     * @param pathOptions limits on the search, see {@link PathOptions#maxNodes(int)} and
+     *                    {@link PathOptions#deadline(long, java.util.concurrent.TimeUnit)}, and whether it is
+     *                    bidirectional, see {@link PathOptions#bidirectional(boolean)}, the targeting strategy is
+     *                    ignored because complete searches are always strict
+     * @param executor the executor that runs the search
+     * @return a future that completes with the complete path to the destination, the best partial path if a search
+     *          limit was reached, or null if the destination is unreachable from the current location
+     */
+    public CompletableFuture<IPath> computePathToAsync(final double x, final double y, final double z, final PathOptions pathOptions, Executor executor) {
+        final HydrazinePathFinder search = detachedSearchNear(x, y, z);
+        if (search == null)
+            return CompletableFuture.completedFuture(null);
+
+        final CompletableFuture<IPath> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isDone())
+                return;
+
+            try {
+                future.complete(search.computePathTo(x, y, z, pathOptions, future::isCancelled));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private HydrazinePathFinder detachedSearchNear(double x, double y, double z) {
+        final IPathingEntity subject = DummyPathingEntity.copyOf(this.subject);
+        final float searchRange = subject.searchRange();
+        if (subject.coordinates().subOf(x, y, z).mg2() > searchRange * searchRange)
+            return null;
+
+        final int
+                margin = (int)ceil(searchRange) + (int)ceil(max(subject.width(), subject.height())) + 1,
+                x0 = (int)floor(x) - margin,
+                z0 = (int)floor(z) - margin,
+                xN = (int)floor(x) + margin,
+                zN = (int)floor(z) + margin,
+                y0 = (int)floor(y) - margin,
+                yN = (int)floor(y) + margin;
+
+        final IOcclusionProvider live = this.occlusionProviderFactory.fromInstanceSpace(this.instanceSpace, x0 >> 4, z0 >> 4, xN >> 4, zN >> 4);
+        final InstanceSpaceSnapshot snapshot = new InstanceSpaceSnapshot(live, x0, y0, z0, xN, yN, zN);
+        final HydrazinePathFinder search = new HydrazinePathFinder(subject, snapshot, (instance, cx0, cz0, cxN, czN) -> snapshot);
+
+        search.nodeMap.filter(this.nodeMap.filter());
+        search.pathProcessor = this.pathProcessor;
+        search.withQueueingStrategy(this.queueingStrategy);
+        search.withWideNodes(this.wideNodes);
+        search.withJumpPointSearch(this.jumpPointSearch);
+        search.random = new Random(this.random.nextLong());
+        return search;
+    }
+
+    private IPath computePathTo(double x, double y, double z, PathOptions pathOptions, BooleanSupplier cancelled) {
+        this.destinationEntity = null;
+        this.targetingStrategy = PathOptions.TargetingStrategy.none;
+
+        initializeOperation();
+        if (tooFarTo(x, y, z))
+            return null;
+
+        updateDestination(x, y, z);
+        resetTriage();
+
+        return completeSearch(pathOptions, cancelled);
+    }
+
+    /**
+     * Runs a freshly reset search to completion or until a limit of the specified options is reached.  A bidirectional
+     * search alternates between the forward search and the {@link ReverseSearch}, advancing whichever has the smaller
+     * frontier.  The reverse search does not account for every move of the forward search (e.g. diagonal moves and
+     * jump points) so if it runs out of points before the two meet the forward search continues alone, it may still
+     * meet the points that the reverse search reached.
+     */
+    private IPath completeSearch(PathOptions pathOptions, BooleanSupplier cancelled) {
+        final long start = System.nanoTime();
+        final int maxNodes = pathOptions.maxNodes();
+        final long deadlineNanos = pathOptions.deadlineNanos();
+        ReverseSearch reverse;
+        if (pathOptions.bidirectional() && this.target != null) {
+            if (this.reverseSearch == null)
+                this.reverseSearch = new ReverseSearch();
+            reverse = this.reverseSearch;
+            reverse.begin(this.target);
+            this.bidirectional = true;
+        } else
+            reverse = null;
+
+        try {
+            IPath path = null;
+            int expanded = 0;
+            do {
+                if (cancelled.getAsBoolean())
+                    return null;
+
+                final int iterations = min(COMPLETE_SEARCH_STRIDE, maxNodes - expanded);
+                if (reverse != null && reverse.size() < this.queue.size()) {
+                    reverse.expand(iterations);
+                    if (reverse.meeting != null)
+                        return concludeAt(reverse.meeting);
+                    else if (reverse.exhausted())
+                        reverse = null;
+                } else
+                    path = triage(iterations);
+
+                expanded += iterations;
+            } while (pending() && expanded < maxNodes && System.nanoTime() - start < deadlineNanos);
+
+            return path;
+        } finally {
+            this.bidirectional = false;
+        }
+    }
+
+    /**
+     * Concludes a bidirectional search where the reverse search reached a point that the forward search had reached
+     */
+    private IPath concludeAt(Node meeting) {
+        final IPath path = createPath(meeting, this.reverseSearch.tail(meeting));
+        this.queue.clear();
+        if (this.pathCache != null)
+            this.pathCache.put(PassibilityCache.profileOf(this.pathPointCalculator, this.subject), path, this.searchStamp);
+
+        return updatePath(path);
+    }
+
     /**
      * Starts path-finding to the specified destination using the best-effort algorithm.
      *
@@ -272,15 +522,148 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         this.targetingStrategy = pathOptions.targetingStrategy();
 
         initializeOperation();
-        if (this.targetingStrategy == PathOptions.TargetingStrategy.none && tooFarTo(x, y, z))
+
+        final boolean tooFar = tooFarTo(x, y, z);
+        if (!tooFar || this.destinationEntity != null)
+            this.route = null;
+        else if (planRoute(x, y, z)) {
+            final com.extollit.linalg.immutable.Vec3d waypoint = routeWaypoint();
+            x = waypoint.x;
+            y = waypoint.y;
+            z = waypoint.z;
+        }
+
+        if (tooFar && this.route == null && this.targetingStrategy == PathOptions.TargetingStrategy.none)
             return null;
 
         final boolean initiate = updateDestination(x, y, z) && this.queue.isEmpty();
 
-        if (!graphTimeout() && (initiate || reachedTarget() || triageTimeout() || deviationToTargetUnacceptable(this.subject)))
+        if (!graphTimeout() && (initiate || reachedTarget() || triageTimeout() || deviationToTargetUnacceptable(this.subject))) {
             resetTriage();
 
-        return triage(this.initComputeIterations);
+            final IPath path = cachedPath();
+            if (path != null)
+                return path;
+        }
+
+        return triage(this.scheduler != null ? 1 : this.initComputeIterations);
+    }
+
+    /**
+     * Consults the section graph (if any) once the search for the current destination has faulted or exhausted its
+     * range without reaching the target.  Flooding a reachability region may summarize many sections, so this is not
+     * done up-front, and a destination that could not be proven unreachable is not consulted again.
+     *
+     * @return false if the destination is provably unreachable from the current location of the entity
+     */
+    private boolean reachableAfterFailure() {
+        final Vec3d destinationPosition = this.destinationPosition;
+        if (this.sectionGraph == null || destinationPosition == null)
+            return true;
+
+        final Coords destination = new Coords((int)floor(destinationPosition.x), (int)floor(destinationPosition.y), (int)floor(destinationPosition.z));
+        if (destination.equals(this.reachableDestination))
+            return true;
+
+        if (!reachable(destinationPosition.x, destinationPosition.y, destinationPosition.z))
+            return false;
+
+        this.reachableDestination = destination;
+        return true;
+    }
+
+    private boolean reachable(double x, double y, double z) {
+        final SectionGraph sectionGraph = this.sectionGraph;
+        if (sectionGraph == null)
+            return true;
+
+        final Vec3d sourcePosition = this.sourcePosition;
+        return sectionGraph.isReachable(
+                PassibilityCache.profileOf(this.pathPointCalculator, this.subject),
+                this.pathPointCalculator,
+                this.capabilities,
+                this.occlusionProviderFactory,
+                new Coords((int)floor(sourcePosition.x), (int)floor(sourcePosition.y), (int)floor(sourcePosition.z)),
+                new Coords((int)floor(x), (int)floor(y), (int)floor(z))
+        );
+    }
+
+    private boolean planRoute(double x, double y, double z) {
+        final SectionGraph sectionGraph = this.sectionGraph;
+        if (sectionGraph == null) {
+            this.route = null;
+            return false;
+        }
+
+        final com.extollit.linalg.immutable.Vec3d routeDestination = this.routeDestination;
+        if (this.route != null && routeDestination != null && !differs(x, y, z, new Vec3d(routeDestination)))
+            return true;
+
+        final Vec3d sourcePosition = this.sourcePosition;
+        this.route = sectionGraph.route(
+                PassibilityCache.profileOf(this.pathPointCalculator, this.subject),
+                this.pathPointCalculator,
+                this.capabilities,
+                this.occlusionProviderFactory,
+                new Coords((int)floor(sourcePosition.x), (int)floor(sourcePosition.y), (int)floor(sourcePosition.z)),
+                new Coords((int)floor(x), (int)floor(y), (int)floor(z)),
+                MAX_ROUTE_EXPANSIONS
+        );
+        this.routeDestination = new com.extollit.linalg.immutable.Vec3d(x, y, z);
+        this.routeIndex = -1;
+
+        if (this.route == null)
+            return false;
+
+        advanceWaypoint();
+        return true;
+    }
+
+    /**
+     * Selects the farthest waypoint along the current route that a block-level search can still reach from the current
+     * location of the entity, which is at least the next waypoint
+     */
+    private void advanceWaypoint() {
+        final SectionGraph.Route route = this.route;
+        final int
+            index0 = this.routeIndex,
+            cost0 = index0 < 0 ? 0 : route.cost(index0),
+            budget = (int)sqrt(this.searchRangeSquared);
+
+        int index = index0 + 1;
+        while (index + 1 < route.size()) {
+            final Coords next = route.waypoint(index + 1);
+            if (route.cost(index + 1) - cost0 > budget || tooFarTo(next.x + 0.5, next.y, next.z + 0.5))
+                break;
+
+            index++;
+        }
+        this.routeIndex = index;
+    }
+
+    private com.extollit.linalg.immutable.Vec3d routeWaypoint() {
+        final SectionGraph.Route route = this.route;
+        if (this.routeIndex == route.size() - 1)
+            return this.routeDestination;
+
+        final Coords waypoint = route.waypoint(this.routeIndex);
+        return new com.extollit.linalg.immutable.Vec3d(waypoint.x + 0.5, waypoint.y, waypoint.z + 0.5);
+    }
+
+    /**
+     * Continues along the current route once the entity has reached the waypoint that block-level path-finding was
+     * targeting
+     *
+     * @return true if there was another leg of the route to path-find, false if there is no route or it is complete
+     */
+    private boolean nextLeg() {
+        if (this.route == null || this.routeIndex >= this.route.size() - 1 || this.target == null)
+            return false;
+
+        advanceWaypoint();
+        updateDestination(routeWaypoint());
+        resetTriage();
+        return true;
     }
 
     private boolean tooFarTo(double x, double y, double z) {
@@ -294,6 +677,7 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
     }
 
     private void initializeOperation() {
+        this.flowPath = null;
         applySubject();
         updateSourcePosition();
         resetFaultTimings();
@@ -315,6 +699,11 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         if (path == null)
             return null;
 
+        if (path == this.flowPath) {
+            path.update(pathingEntity);
+            return path;
+        }
+
         if (!path.done()) {
             path.update(pathingEntity);
             if (!path.done())
@@ -371,6 +760,516 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         return this;
     }
 
+    /**
+     * Selects the data structure used for the A* open list of this path-finder.  Changing the strategy while
+     * path-finding is in-progress restarts the computation of the current path.
+     *
+     * @param queueingStrategy open list implementation to use for path-finding with this object
+     * @return this
+     */
+    public HydrazinePathFinder withQueueingStrategy(QueueingStrategy queueingStrategy) {
+        if (queueingStrategy == this.queueingStrategy)
+            return this;
+
+        this.queueingStrategy = queueingStrategy;
+        replaceQueue();
+        return this;
+    }
+
+    /**
+     * Retrieve the open list implementation used by this path-finder
+     *
+     * @return current queueing strategy, {@link QueueingStrategy#binaryHeap} by default
+     */
+    public QueueingStrategy queueingStrategy() {
+        return this.queueingStrategy;
+    }
+
+    /**
+     * Enables or disables wide-node mode for this path-finder.  By default the A* open list holds at most 511 points
+     * (culling the worst 10% of points whenever it is full) and paths are limited to {@link Node#MAX_PATH_DISTANCE}
+     * blocks in length.  In wide-node mode the open list can hold up to a million points and paths may be up to
+     * {@link Node#WIDE_MAX_PATH_DISTANCE} blocks in length, this is suitable for large open-world maps where the default
+     * limits would otherwise cause path-finding to repeatedly reset and retry.  Changing the mode while path-finding is
+     * in-progress restarts the computation of the current path.
+     *
+     * @param wideNodes true to enable wide-node mode, false to restore the default limits
+     * @return this
+     */
+    public HydrazinePathFinder withWideNodes(boolean wideNodes) {
+        if (wideNodes == this.wideNodes)
+            return this;
+
+        this.wideNodes = wideNodes;
+        replaceQueue();
+        return this;
+    }
+
+    /**
+     * Whether this path-finder operates in wide-node mode
+     *
+     * @return true if wide-node mode is enabled, false by default
+     * @see #withWideNodes(boolean)
+     */
+    public boolean wideNodes() {
+        return this.wideNodes;
+    }
+
+    /**
+     * Enables or disables jump-point expansion for grounded entities.  When enabled, each cardinal neighbour of an
+     * expanded point that lies on a run of uniformly passible terrain at the same height is not queued, instead the
+     * search jumps along the run linking each point it passes through to the one before it and queues only the point
+     * where the run ends.  A run ends at a change in height, a doorway or fuzzy block, a point whose flanks are not
+     * uniform, a point aligned with the target or the target itself, regular expansion resumes from there.  On open
+     * terrain this expands an order of magnitude fewer points.  It has no effect on omnidirectional (flying or swimming)
+     * path-finding.
+     *
+     * @param flag whether to enable jump-point expansion, disabled by default
+     * @return this
+     */
+    public HydrazinePathFinder withJumpPointSearch(boolean flag) {
+        this.jumpPointSearch = flag;
+        return this;
+    }
+
+    /**
+     * Whether this path-finder uses jump-point expansion for grounded entities
+     *
+     * @return true if jump-point expansion is enabled, false by default
+     * @see #withJumpPointSearch(boolean)
+     */
+    public boolean jumpPointSearch() {
+        return this.jumpPointSearch;
+    }
+
+    /**
+     * Shares passibility computations with all other path-finders using the same cache whose entities have an identical
+     * capability profile (capabilities, size and height).  The cache must belong to the same instance space as this
+     * path-finder.  Per-search state and graph filters remain specific to this path-finder.
+     *
+     * @param passibilityCache world-level cache to consult before computing passibility, or null to disable sharing
+     * @return this
+     * @see PassibilityCache
+     */
+    public HydrazinePathFinder withPassibilityCache(PassibilityCache passibilityCache) {
+        this.passibilityCache = passibilityCache;
+        applyPassibilityCache();
+        return this;
+    }
+
+    /**
+     * Retrieve the world-level passibility cache shared by this path-finder
+     *
+     * @return the shared cache or null if this path-finder does not share passibility computations
+     * @see #withPassibilityCache(PassibilityCache)
+     */
+    public PassibilityCache passibilityCache() {
+        return this.passibilityCache;
+    }
+
+    /**
+     * Enables hierarchical path-finding over the specified section graph.  Best-effort path-finding to destinations
+     * beyond the search range of the entity (see {@link IPathingEntity#searchRange()}) first computes an abstract route
+     * over sections and then path-finds to each waypoint along it in turn as the entity advances.  The graph must
+     * belong to the same instance space as this path-finder.  Complete searches (i.e. {@link #computePathTo(double, double, double)})
+     * are not routed.  Once an iterative search has faulted or run out of points without reaching its destination the
+     * section graph is consulted, and path-finding fails if it proves that the destination is unreachable (see
+     * {@link SectionGraph#isReachable(PassibilityCache.Profile, INodeCalculator, IPathingEntity.Capabilities, IOcclusionProviderFactory, Coords, Coords, int)}).
+     *
+     * @param sectionGraph world-level section graph to route over, or null to disable hierarchical path-finding
+     * @return this
+     * @see SectionGraph
+     */
+    public HydrazinePathFinder withSectionGraph(SectionGraph sectionGraph) {
+        this.sectionGraph = sectionGraph;
+        this.route = null;
+        return this;
+    }
+
+    /**
+     * Retrieve the section graph used for hierarchical path-finding
+     *
+     * @return the section graph or null if hierarchical path-finding is disabled
+     * @see #withSectionGraph(SectionGraph)
+     */
+    public SectionGraph sectionGraph() {
+        return this.sectionGraph;
+    }
+
+    /**
+     * Shares a flow field with all other path-finders using the same flow fields whose entities track the same target
+     * with an identical capability profile.  Entities tracking a target (see {@link #trackPathTo(IDynamicMovableObject)})
+     * from within the field of the target follow the field instead of searching for a path, otherwise path-finding
+     * falls back to searching.  The flow fields must belong to the same instance space as this path-finder.
+     *
+     * @param flowField world-level flow fields to follow when tracking targets, or null to disable flow fields
+     * @return this
+     * @see FlowField
+     */
+    public HydrazinePathFinder withFlowField(FlowField flowField) {
+        this.flowField = flowField;
+        this.flowPath = null;
+        return this;
+    }
+
+    /**
+     * Shares complete paths with all other path-finders using the same cache whose entities have an identical capability
+     * profile.  A search between a source and target for which an unmodified path is cached concludes immediately with
+     * that path, complete paths found by searching are added to the cache.  The cache must belong to the same instance
+     * space as this path-finder.
+     *
+     * @param pathCache world-level cache of complete paths, or null to disable caching
+     * @return this
+     * @see PathCache
+     */
+    public HydrazinePathFinder withPathCache(PathCache pathCache) {
+        this.pathCache = pathCache;
+        return this;
+    }
+
+    /**
+     * Retrieve the path cache applied to this path-finder (if any)
+     *
+     * @return the path cache or null if path caching is disabled
+     * @see #withPathCache(PathCache)
+     */
+    public PathCache pathCache() {
+        return this.pathCache;
+    }
+
+    /**
+     * Retrieve the flow fields applied to this path-finder (if any)
+     *
+     * @return the flow fields or null if flow fields are disabled
+     * @see #withFlowField(FlowField)
+     */
+    public FlowField flowField() {
+        return this.flowField;
+    }
+
+    /**
+     * Retrieve the abstract route currently being followed
+     *
+     * @return the current route or null if the current destination is within search range or there is no route to it
+     */
+    public SectionGraph.Route route() {
+        return this.route;
+    }
+
+    /**
+     * Enables incremental repair of the search graph.  When enabled this path-finder subscribes to occlusion field
+     * notifications of its instance (see {@link IInstanceSpace#occlusionFieldListeners()}) for as long as it is
+     * searching and, before the next iteration of the search, repairs only the portion of the search tree affected by
+     * each block change rather than waiting for fault detection to cull or reset it.  This suits instances where blocks
+     * are frequently placed and broken near pathing entities.  The subscription is withdrawn when incremental repair
+     * is disabled or this path-finder is reset.
+     *
+     * @param flag whether to enable incremental repair, disabled by default
+     * @return this
+     * @see NodeMap#repair(int, int, int, int, AbstractPointQueue, Node...)
+     */
+    public HydrazinePathFinder withIncrementalRepair(boolean flag) {
+        this.incrementalRepair = flag;
+        if (!flag)
+            unsubscribeRepairs();
+        return this;
+    }
+
+    /**
+     * Whether this path-finder repairs its search graph incrementally as blocks change
+     *
+     * @return true if incremental repair is enabled, false by default
+     * @see #withIncrementalRepair(boolean)
+     */
+    public boolean incrementalRepair() {
+        return this.incrementalRepair;
+    }
+
+    private void subscribeRepairs() {
+        this.instanceSpace.occlusionFieldListeners().add(this.repairListener = new RepairListener(this));
+    }
+
+    private void unsubscribeRepairs() {
+        final RepairListener listener = this.repairListener;
+        if (listener != null) {
+            this.instanceSpace.occlusionFieldListeners().remove(listener);
+            this.repairListener = null;
+        }
+    }
+
+    IOcclusionFieldListener repairListener() {
+        return this.repairListener;
+    }
+
+    /**
+     * Collects block changes within the occlusion field window of a path-finder on behalf of it.  The path-finder is
+     * held weakly so that one discarded without being reset is not retained by its instance, the listener unregisters
+     * itself upon the next notification it receives thereafter.
+     */
+    private static final class RepairListener implements IOcclusionFieldListener {
+        final Queue<int[]> changes = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pending = new AtomicInteger();
+
+        private final WeakReference<HydrazinePathFinder> pathFinder;
+        private final IInstanceSpace instanceSpace;
+
+        RepairListener(HydrazinePathFinder pathFinder) {
+            this.pathFinder = new WeakReference<>(pathFinder);
+            this.instanceSpace = pathFinder.instanceSpace;
+        }
+
+        private void changed(int x0, int z0, int xN, int zN) {
+            final HydrazinePathFinder pathFinder = this.pathFinder.get();
+            if (pathFinder == null)
+                this.instanceSpace.occlusionFieldListeners().remove(this);
+            else if (pathFinder.nodeMap.windowOverlaps(x0, z0, xN, zN) && this.pending.incrementAndGet() <= MAX_PENDING_REPAIRS)
+                this.changes.add(new int[] { x0, z0, xN, zN });
+        }
+
+        @Override
+        public void onBlockChanged(IInstanceSpace instance, int x, int y, int z) {
+            if (instance == this.instanceSpace)
+                changed(x, z, x, z);
+        }
+
+        @Override
+        public void onColumnReset(IInstanceSpace instance, int cx, int cz) {
+            if (instance == this.instanceSpace)
+                changed(cx << 4, cz << 4, (cx << 4) + 15, (cz << 4) + 15);
+        }
+    }
+
+    /**
+     * Expands backward from the target of a bidirectional complete search toward its source.  A point is a predecessor
+     * of another if the move that the forward search would make from it lands on the other.  For grounded entities the
+     * predecessors are sought among the floors of each adjacent column, from as high as a fall into the
+     * other point could begin down to where a step or ladder climb could, and each is confirmed by probing the move
+     * forward.  Runs of open air between floors are skipped using the column index of the occlusion provider.  Nodes
+     * link into only one search tree so the reverse search keeps its own graph, which follows the terrain of the forward
+     * graph, and its own queue.  It meets the forward search once it reaches a point that the forward search has
+     * reached or vice-versa.
+     */
+    private final class ReverseSearch {
+        final NodeMap nodeMap = new NodeMap(HydrazinePathFinder.this.instanceSpace, HydrazinePathFinder.this.occlusionProviderFactory);
+        private AbstractPointQueue queue = new SortedPointQueue(HydrazinePathFinder.this.wideNodes);
+        private Node root;
+
+        Node meeting;
+
+        /**
+         * Begins a new reverse search from the specified target, the graph of a previous search is retained for as long
+         * as its terrain remains unchanged
+         *
+         * @param target target of the forward search
+         */
+        void begin(Node target) {
+            final HydrazinePathFinder pathFinder = HydrazinePathFinder.this;
+            if (this.queue.maxPathDistance() != pathFinder.queue.maxPathDistance())
+                this.queue = new SortedPointQueue(pathFinder.wideNodes);
+
+            final NodeMap nodeMap = this.nodeMap;
+            nodeMap.follow(pathFinder.nodeMap);
+            nodeMap.reset(this.queue);
+
+            final Coords key = target.key;
+            nodeMap.remove(key.x, key.y, key.z);
+            final Node root = this.root = nodeMap.cachedPointAt(key.x, key.y, key.z);
+            root.isolate();
+            root.length(0);
+            this.queue.add(root);
+            this.meeting = forwardReached(key);
+        }
+
+        int size() {
+            return this.queue.size();
+        }
+
+        boolean exhausted() {
+            return this.meeting == null && this.queue.isEmpty();
+        }
+
+        boolean contains(Node node) {
+            final Node point = this.nodeMap.pointAt(node.key);
+            return point != null && (point.visited() || point.assigned()) && point.root() == this.root;
+        }
+
+        /**
+         * Retrieves the points that lead from the specified point to the target
+         *
+         * @param node a point of the forward search that this search reached
+         * @return the points following the specified point through to the target
+         */
+        List<Node> tail(Node node) {
+            final List<Node> tail = new ArrayList<>();
+            final Node point = this.nodeMap.pointAt(node.key);
+            if (point != this.root) {
+                for (Node next = point.up(); next != this.root; next = next.up())
+                    tail.add(next);
+                tail.add(HydrazinePathFinder.this.target);
+            }
+            return tail;
+        }
+
+        void expand(int iterations) {
+            final AbstractPointQueue queue = this.queue;
+            final boolean omnidirectional = HydrazinePathFinder.this.pathPointCalculator.omnidirectional();
+
+            while (this.meeting == null && !queue.isEmpty() && iterations-- > 0) {
+                final Node current = queue.dequeue();
+                current.visited(true);
+                if (omnidirectional)
+                    expandOmnidirectional(current);
+                else
+                    expandColumns(current);
+            }
+        }
+
+        private void expandOmnidirectional(Node current) {
+            final Coords key = current.key;
+            for (int dy = -1; dy <= +1; ++dy)
+                for (int dz = -1; dz <= +1; ++dz)
+                    for (int dx = -1; dx <= +1; ++dx) {
+                        if ((dx == 0 && dy == 0 && dz == 0) || (dx != 0 && dz != 0 && dy != 0))
+                            continue;
+
+                        final int
+                            x = key.x - dx,
+                            y = key.y - dy,
+                            z = key.z - dz;
+
+                        final Node predecessor = this.nodeMap.cachedPassiblePointNear(x, y, z, key);
+                        if (predecessor.key.x == x && predecessor.key.y == y && predecessor.key.z == z)
+                            consider(predecessor, current, dx, dy, dz);
+                    }
+        }
+
+        private void expandColumns(Node current) {
+            final NodeMap graph = HydrazinePathFinder.this.nodeMap;
+            final int descentLimit = HydrazinePathFinder.this.pathPointCalculator.descentLimit();
+            final Coords key = current.key;
+
+            for (int dz = -1; dz <= +1; ++dz)
+                for (int dx = -1; dx <= +1; ++dx) {
+                    if (dx == 0 && dz == 0)
+                        continue;
+
+                    final int
+                        x = key.x - dx,
+                        z = key.z - dz;
+
+                    int y0 = key.y - 1;
+                    while (Logic.climbable(graph.flagsAt(x, y0 - 1, z)))
+                        y0--;
+
+                    for (int y = floorAtOrBelow(x, key.y + descentLimit, z, y0); y >= y0; y = floorAtOrBelow(x, y - 1, z, y0)) {
+                        final Node predecessor = this.nodeMap.cachedPassiblePointNear(x, y, z);
+                        if (!impassible(predecessor)) {
+                            consider(predecessor, current, dx, 0, dz);
+                            y = min(y, predecessor.key.y);
+                        }
+                    }
+                }
+        }
+
+        /**
+         * Finds the highest block of a column at or below the specified height that is not impeding and rests on
+         * something other than open air, only the top of a body of fluid qualifies
+         *
+         * @return height of the block, or less than the minimum height if there is none
+         */
+        private int floorAtOrBelow(int x, int y, int z, int y0) {
+            final NodeMap graph = HydrazinePathFinder.this.nodeMap;
+            final PassibilityTable passibilityTable = HydrazinePathFinder.this.passibilityTable;
+
+            boolean indexed = true;
+            byte flags = graph.flagsAt(x, y, z);
+            for (; y >= y0; --y) {
+                final byte below = graph.flagsAt(x, y - 1, z);
+                final boolean open = Element.air.in(below) && !Logic.doorway.in(below);
+                if (open && indexed) {
+                    final int run = graph.openRunBelow(x, y - 1, z);
+                    indexed = run > 0;
+                    if (run > 1) {
+                        y -= run - 1;
+                        flags = below;
+                        continue;
+                    }
+                }
+
+                if (!open && !passibilityTable.impedesMovement(flags) && !(Element.water.in(flags) && Element.water.in(below)))
+                    return y;
+
+                flags = below;
+            }
+            return y;
+        }
+
+        private void consider(Node predecessor, Node current, int dx, int dy, int dz) {
+            final Coords
+                from = predecessor.key,
+                to = current.key;
+
+            if (impassible(predecessor) || predecessor.visited()
+                || Node.squareDelta(predecessor, HydrazinePathFinder.this.target) >= HydrazinePathFinder.this.searchRangeSquared
+                || !cornerPassible(from, dx, dy, dz))
+                return;
+
+            final Node landing = cachedPassiblePointNear(from.x + dx, from.y + dy, from.z + dz, from);
+            if (impassible(landing) || !landing.key.equals(to))
+                return;
+
+            predecessor.sterilize();
+            this.queue.appendTo(predecessor, current, HydrazinePathFinder.this.source.key);
+
+            final Node reached = forwardReached(from);
+            if (reached != null)
+                this.meeting = reached;
+        }
+
+        /**
+         * Retrieves the point of the forward search at the specified location if the forward search has reached it
+         */
+        private Node forwardReached(Coords key) {
+            final Node
+                source = HydrazinePathFinder.this.source,
+                node = HydrazinePathFinder.this.nodeMap.pointAt(key);
+
+            return node != null && (node == source || (node.visited() || node.assigned()) && node.root() == source) ? node : null;
+        }
+    }
+
+    /**
+     * Determines whether a diagonal move from the specified point is wide enough for the entity, this is the same test
+     * that the forward search applies before making diagonal moves
+     */
+    private boolean cornerPassible(Coords from, int dx, int dy, int dz) {
+        final int axes = (dx != 0 ? 1 : 0) + (dy != 0 ? 1 : 0) + (dz != 0 ? 1 : 0);
+        if (axes < 2)
+            return true;
+
+        final com.extollit.linalg.mutable.AxisAlignedBBox[] boundsScratch = this.boundsScratch;
+        final com.extollit.linalg.mutable.AxisAlignedBBox
+                first = dx != 0 ? blockBounds(from, dx, 0, 0, boundsScratch[0]) : blockBounds(from, 0, dy, 0, boundsScratch[0]),
+                second = dz != 0 ? blockBounds(from, 0, 0, dz, boundsScratch[1]) : blockBounds(from, 0, dy, 0, boundsScratch[1]);
+
+        return first == null || second == null || first.mg2(second) >= this.actualSize * this.actualSize;
+    }
+
+    private void applyPassibilityCache() {
+        final PassibilityCache cache = this.passibilityCache;
+        this.nodeMap.sharedCache(cache, cache == null ? null : PassibilityCache.profileOf(this.pathPointCalculator, this.subject));
+    }
+
+    private void replaceQueue() {
+        final boolean wide = this.wideNodes;
+
+        this.queue.clear();
+        this.queue = this.queueingStrategy == QueueingStrategy.buckets ? new BucketPointQueue(wide) : new SortedPointQueue(wide);
+
+        if (this.target != null)
+            resetTriage();
+    }
+
     /**
      * Retrieve the current path processor (if one was set)
      *
@@ -381,6 +1280,15 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
     }
 
     protected IPath update(IPathingEntity pathingEntity) {
+        final FlowField.Path flowPath = this.flowPath;
+        if (flowPath != null) {
+            if (flowPath.refresh())
+                return flowPath;
+
+            return trackPathTo(this.destinationEntity);
+        } else if (this.flowField != null && this.destinationEntity != null && followFlowField(this.destinationEntity))
+            return this.flowPath;
+
         if (this.destinationEntity != null)
             updateDestination(this.destinationEntity.coordinates());
 
@@ -393,15 +1301,71 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         if (this.faultCount >= FAULT_LIMIT) {
             resetTriage();
             return null;
-        } else if (reachedTarget()) {
+        } else if (reachedTarget() && !nextLeg()) {
             resetTriage();
             return completedPath();
         }
 
-        if (triageTimeout() || deviationToTargetUnacceptable(pathingEntity))
+        final boolean faulted = triageTimeout();
+        if (faulted && !reachableAfterFailure()) {
+            this.faultCount = FAULT_LIMIT;
             resetTriage();
+            return null;
+        } else if (faulted || deviationToTargetUnacceptable(pathingEntity))
+            resetTriage();
+
+        final IPath path = triage(this.scheduler != null ? 0 : this.periodicComputeIterations);
+        if (exhausted(path) && !reachableAfterFailure()) {
+            this.faultCount = FAULT_LIMIT;
+            resetTriage();
+            return null;
+        }
+
+        return path;
+    }
+
+    /**
+     * Whether the search has run out of points without reaching its target
+     */
+    private boolean exhausted(IPath path) {
+        final Node target = this.target;
+        if (target == null || !this.queue.isEmpty())
+            return false;
+
+        final INode last = path == null ? null : path.last();
+        return last == null || !last.coordinates().equals(target.key);
+    }
+
+    /**
+     * Whether there is outstanding triage work for the current path-finding operation that a scheduler may perform
+     *
+     * @return true if the search is in-progress and has not yet reached its target
+     */
+    boolean pending() {
+        return this.target != null && !this.queue.isEmpty();
+    }
+
+    /**
+     * Relative share of the scheduler's budget that this path-finder is entitled to
+     *
+     * @return the periodic compute iterations of the applied scheduling priority
+     */
+    int schedulingWeight() {
+        return max(1, this.periodicComputeIterations);
+    }
+
+    /**
+     * Performs triage on behalf of a scheduler, this is a no-op unless the path-finder has {@link #pending()} work
+     *
+     * @param iterations maximum number of A* iterations to perform
+     * @return the number of iterations performed, zero if there was nothing to do
+     */
+    int triageScheduled(int iterations) {
+        if (!pending())
+            return 0;
 
-        return triage(this.periodicComputeIterations);
+        triage(iterations);
+        return this.triaged;
     }
 
     private IncompletePath completedPath() {
@@ -484,6 +1448,9 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
     }
 
     protected final void resetTriage() {
+        if (this.pathCache != null)
+            this.searchStamp = this.pathCache.stamp();
+
         final Vec3d
                 sourcePosition = this.sourcePosition,
                 destinationPosition = this.destinationPosition;
@@ -521,7 +1488,7 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         if (!fuzzyPassibility(sourcePoint.x, sourcePoint.y, sourcePoint.z))
             return false;
 
-        final IBlockObject blockObject = this.instanceSpace.blockObjectAt(sourcePoint.x, sourcePoint.y, sourcePoint.z);
+        final IBlockObject blockObject = blockObjectAt(sourcePoint.x, sourcePoint.y, sourcePoint.z);
         if (!blockObject.isImpeding())
             return false;
 
@@ -578,6 +1545,7 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
     private void applySubject() {
         final IPathingEntity subject = this.subject;
         final IPathingEntity.Capabilities capabilities = this.capabilities = subject.capabilities();
+        this.passibilityTable = PassibilityTable.of(capabilities);
         final boolean
             flying = capabilities.avian(),
             aqua = capabilities.swimmer() && capabilities.aquatic();
@@ -590,8 +1558,22 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
             this.aqua = aqua;
         }
 
+        final boolean
+            opensDoors = capabilities.opensDoors(),
+            avoidsDoorways = capabilities.avoidsDoorways();
+
+        if (opensDoors != this.opensDoors || avoidsDoorways != this.avoidsDoorways) {
+            this.nodeMap.revalidate();
+            if (this.reverseSearch != null)
+                this.reverseSearch.nodeMap.revalidate();
+            this.opensDoors = opensDoors;
+            this.avoidsDoorways = avoidsDoorways;
+        }
+
         this.actualSize = this.subject.width();
         this.pathPointCalculator.applySubject(subject);
+        if (this.passibilityCache != null)
+            applyPassibilityCache();
         final float pathSearchRange = subject.searchRange();
         this.searchRangeSquared = pathSearchRange*pathSearchRange;
         this.bound = subject.bound();
@@ -606,8 +1588,9 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         if (null == (this.target = edgeAtDestination()))
             return false;
         else if (this.targetingStrategy == PathOptions.TargetingStrategy.bestEffort) {
-            int distance = Node.MAX_PATH_DISTANCE;
-            while (distance > 0 && !source.target(this.target.key)) {
+            final int maxPathDistance = this.queue.maxPathDistance();
+            int distance = maxPathDistance;
+            while (distance > 0 && !source.target(this.target.key, maxPathDistance)) {
                 final Coords key = source.key;
                 final Vec3d
                         v = new Vec3d(destinationPosition),
@@ -623,10 +1606,10 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
             }
 
             if (distance == 0)
-                return source.target((this.target = this.source).key);
+                return source.target((this.target = this.source).key, maxPathDistance);
             else
                 return true;
-        } else if (source.target(this.target.key))
+        } else if (source.target(this.target.key, this.queue.maxPathDistance()))
             return true;
 
         this.target = null;
@@ -845,8 +1828,11 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
      */
     public void reset() {
         this.currentPath = null;
+        this.flowPath = null;
         this.queue.clear();
         this.nodeMap.reset();
+        this.reverseSearch = null;
+        unsubscribeRepairs();
         this.unreachableFromSource.clear();
         this.target =
         this.source =
@@ -857,6 +1843,9 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         this.destinationPosition = null;
         this.destinationEntity = null;
         this.targetPosition = null;
+        this.route = null;
+        this.routeDestination = null;
+        this.reachableDestination = null;
 
         resetFaultTimings();
     }
@@ -897,8 +1886,14 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
     }
 
     private IPath triage(int iterations) {
+        this.triaged = 0;
+        if (this.repairListener != null)
+            applyRepairs();
+        else if (this.incrementalRepair)
+            subscribeRepairs();
+
         final IPath currentPath = this.currentPath;
-        final SortedPointQueue queue = this.queue;
+        final AbstractPointQueue queue = this.queue;
 
         if (queue.isEmpty())
             if (currentPath == null)
@@ -928,6 +1923,7 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
             final Node
                 current = queue.dequeue(),
                 closest = this.closest;
+            this.triaged++;
 
             if ((
                     closest == null
@@ -936,10 +1932,14 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
                 ))
                 this.closest = current;
 
-            if (current == target) {
-                nextPath = createPath(current);
+            final ReverseSearch reverse = this.bidirectional ? this.reverseSearch : null;
+            final boolean met = current != target && reverse != null && reverse.contains(current);
+            if (current == target || met) {
+                nextPath = met ? createPath(current, reverse.tail(current)) : createPath(current);
                 if (PathObject.active(nextPath)) {
                     this.queue.clear();
+                    if (this.pathCache != null)
+                        this.pathCache.put(PassibilityCache.profileOf(this.pathPointCalculator, this.subject), nextPath, this.searchStamp);
                     break;
                 }
 
@@ -959,9 +1959,63 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         return updatePath(nextPath);
     }
 
+    /**
+     * Repairs the search graph for the block changes observed since the last iteration of the search, the search is
+     * reset if a change discarded its source or target or there were too many changes to repair individually
+     */
+    private void applyRepairs() {
+        final RepairListener listener = this.repairListener;
+        final boolean overflowed = listener.pending.getAndSet(0) > MAX_PENDING_REPAIRS;
+        if (this.destinationPosition == null || this.sourcePosition == null) {
+            listener.changes.clear();
+            return;
+        }
+
+        final int reach = (int)floor(this.actualSize + 1) + 2;
+        boolean intact = !overflowed;
+        int[] change;
+        while ((change = listener.changes.poll()) != null)
+            if (intact)
+                intact = this.nodeMap.repair(change[0] - reach, change[1] - reach, change[2] + reach, change[3] + reach, this.queue, this.source, this.current, this.target);
+
+        if (overflowed)
+            resetGraph();
+        else if (!intact)
+            resetTriage();
+    }
+
+    /**
+     * Consults the path cache (if any) for a complete path from the source to the target of a freshly reset search,
+     * the search is concluded if one is found
+     *
+     * @return the cached path, or null if the search must proceed
+     */
+    private IPath cachedPath() {
+        final PathCache pathCache = this.pathCache;
+        if (pathCache == null || this.source == null || this.target == null)
+            return null;
+
+        final IPath path = pathCache.pathBetween(
+                PassibilityCache.profileOf(this.pathPointCalculator, this.subject),
+                this.source.key,
+                this.target.key,
+                this.capabilities.speed(),
+                this.random
+        );
+        if (path == null)
+            return null;
+
+        this.queue.clear();
+        return updatePath(path);
+    }
+
     private IPath createPath(Node head) {
+        return createPath(head, Collections.<Node>emptyList());
+    }
+
+    private IPath createPath(Node head, List<Node> tail) {
         final IPathingEntity.Capabilities capabilities = this.capabilities;
-        final IPath path = PathObject.fromHead(capabilities.speed(), this.random, head);
+        final IPath path = PathObject.fromHead(capabilities.speed(), this.random, head, tail);
         if (this.pathProcessor != null)
             this.pathProcessor.processPath(path);
         return path;
@@ -971,65 +2025,130 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         current.visited(true);
 
         final Coords coords = current.key;
-        final Node
-                west = cachedPassiblePointNear(coords.x - 1, coords.y, coords.z, coords),
-                east = cachedPassiblePointNear(coords.x + 1, coords.y, coords.z, coords),
-                north = cachedPassiblePointNear(coords.x, coords.y, coords.z - 1, coords),
-                south = cachedPassiblePointNear(coords.x, coords.y, coords.z + 1, coords);
-        final Node
-                up, down;
-
+        final Node[] pointOptions = this.pointOptions;
         final boolean omnidirectional = this.pathPointCalculator.omnidirectional();
         if (omnidirectional) {
-            up = cachedPassiblePointNear(coords.x, coords.y + 1, coords.z, coords);
-            down = cachedPassiblePointNear(coords.x, coords.y - 1, coords.z, coords);
+            pointOptions[0] = cachedPassiblePointNear(coords.x, coords.y + 1, coords.z, coords);
+            pointOptions[1] = cachedPassiblePointNear(coords.x, coords.y - 1, coords.z, coords);
         } else
-            up = down = null;
-
-        final boolean found = applyPointOptions(current, up, down, west, east, north, south);
+            pointOptions[0] = pointOptions[1] = null;
+
+        final boolean found;
+        if (this.jumpPointSearch && !omnidirectional)
+            found = jump(current, -1, 0) | jump(current, +1, 0) | jump(current, 0, -1) | jump(current, 0, +1);
+        else {
+            pointOptions[2] = cachedPassiblePointNear(coords.x - 1, coords.y, coords.z, coords);
+            pointOptions[3] = cachedPassiblePointNear(coords.x + 1, coords.y, coords.z, coords);
+            pointOptions[4] = cachedPassiblePointNear(coords.x, coords.y, coords.z - 1, coords);
+            pointOptions[5] = cachedPassiblePointNear(coords.x, coords.y, coords.z + 1, coords);
+
+            found = applyPointOptions(current, pointOptions, 6);
+        }
 
         if (!found) {
+            final com.extollit.linalg.mutable.AxisAlignedBBox[] boundsScratch = this.boundsScratch;
             final com.extollit.linalg.mutable.AxisAlignedBBox
-                    southBounds = blockBounds(coords, 0, 0, +1),
-                    northBounds = blockBounds(coords, 0, 0, -1),
-                    eastBounds = blockBounds(coords, +1, 0, 0),
-                    westBounds = blockBounds(coords, -1, 0, 0);
+                    southBounds = blockBounds(coords, 0, 0, +1, boundsScratch[0]),
+                    northBounds = blockBounds(coords, 0, 0, -1, boundsScratch[1]),
+                    eastBounds = blockBounds(coords, +1, 0, 0, boundsScratch[2]),
+                    westBounds = blockBounds(coords, -1, 0, 0, boundsScratch[3]);
 
             final float actualSizeSquared = this.actualSize * this.actualSize;
 
-            final Node[] pointOptions;
-
             if (omnidirectional) {
                 final com.extollit.linalg.mutable.AxisAlignedBBox
-                        upBounds = blockBounds(coords, 0, +1, 0),
-                        downBounds = blockBounds(coords, 0, -1, 0);
-
-                pointOptions = new Node[] {
-                        northBounds == null || upBounds == null || northBounds.mg2(upBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x, coords.y + 1, coords.z - 1, coords) : null,
-                        eastBounds == null  || upBounds == null || eastBounds.mg2(upBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x + 1, coords.y + 1, coords.z, coords) : null,
-                        southBounds == null || upBounds == null || southBounds.mg2(upBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x, coords.y + 1, coords.z + 1, coords) : null,
-                        westBounds == null  || upBounds == null || westBounds.mg2(upBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x - 1, coords.y + 1, coords.z, coords) : null,
-
-                        northBounds == null || downBounds == null || northBounds.mg2(downBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x, coords.y - 1, coords.z - 1, coords) : null,
-                        eastBounds == null  || downBounds == null || eastBounds.mg2(downBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x + 1, coords.y - 1, coords.z, coords) : null,
-                        southBounds == null || downBounds == null || southBounds.mg2(downBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x, coords.y - 1, coords.z + 1, coords) : null,
-                        westBounds == null  || downBounds == null || westBounds.mg2(downBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x - 1, coords.y - 1, coords.z, coords) : null
-                };
-
-                applyPointOptions(current, pointOptions);
-            } else
-                pointOptions = new Node[4];
+                        upBounds = blockBounds(coords, 0, +1, 0, boundsScratch[4]),
+                        downBounds = blockBounds(coords, 0, -1, 0, boundsScratch[5]);
+
+                pointOptions[0] = northBounds == null || upBounds == null || northBounds.mg2(upBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x, coords.y + 1, coords.z - 1, coords) : null;
+                pointOptions[1] = eastBounds == null  || upBounds == null || eastBounds.mg2(upBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x + 1, coords.y + 1, coords.z, coords) : null;
+                pointOptions[2] = southBounds == null || upBounds == null || southBounds.mg2(upBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x, coords.y + 1, coords.z + 1, coords) : null;
+                pointOptions[3] = westBounds == null  || upBounds == null || westBounds.mg2(upBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x - 1, coords.y + 1, coords.z, coords) : null;
+
+                pointOptions[4] = northBounds == null || downBounds == null || northBounds.mg2(downBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x, coords.y - 1, coords.z - 1, coords) : null;
+                pointOptions[5] = eastBounds == null  || downBounds == null || eastBounds.mg2(downBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x + 1, coords.y - 1, coords.z, coords) : null;
+                pointOptions[6] = southBounds == null || downBounds == null || southBounds.mg2(downBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x, coords.y - 1, coords.z + 1, coords) : null;
+                pointOptions[7] = westBounds == null  || downBounds == null || westBounds.mg2(downBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x - 1, coords.y - 1, coords.z, coords) : null;
+
+                applyPointOptions(current, pointOptions, 8);
+            }
 
             pointOptions[0] = westBounds == null || northBounds == null || westBounds.mg2(northBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x - 1, coords.y, coords.z - 1, coords) : null;
             pointOptions[1] = eastBounds == null || southBounds == null || eastBounds.mg2(southBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x + 1, coords.y, coords.z + 1, coords) : null;
             pointOptions[2] = eastBounds == null || northBounds == null || eastBounds.mg2(northBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x + 1, coords.y, coords.z - 1, coords) : null;
             pointOptions[3] = westBounds == null || southBounds == null || westBounds.mg2(southBounds) >= actualSizeSquared ? cachedPassiblePointNear(coords.x - 1, coords.y, coords.z + 1, coords) : null;
 
-            applyPointOptions(current, pointOptions);
+            applyPointOptions(current, pointOptions, 4);
+        }
+    }
+
+    /**
+     * Jumps from the specified point along a cardinal direction, points passed through are linked into the search tree
+     * but never queued, only the point where the run ends is queued
+     *
+     * @return true if any point was linked or queued
+     */
+    private boolean jump(final Node current, final int dx, final int dz) {
+        final int y = current.key.y;
+        Node
+            point = current,
+            next = cachedPassiblePointNear(current.key.x + dx, y, current.key.z + dz, current.key);
+
+        if (!viable(next))
+            return false;
+
+        for (int distance = 1; distance < MAX_JUMP_DISTANCE && next != this.target && !next.assigned() && !aligned(next, dx, dz) && uniform(next, y, dx, dz); ++distance) {
+            final Coords coords = next.key;
+            final Node ahead = cachedPassiblePointNear(coords.x + dx, y, coords.z + dz, coords);
+            if (!viable(ahead))
+                break;
+
+            next.sterilize();
+            if (!this.queue.passThrough(next, point, this.target.key))
+                return true;
+
+            point = next;
+            next = ahead;
+        }
+
+        next.sterilize();
+        this.queue.appendTo(next, point, this.target.key);
+        return true;
+    }
+
+    private boolean viable(Node alternative) {
+        return !impassible(alternative) && !alternative.visited() && Node.squareDelta(alternative, this.target) < this.searchRangeSquared;
+    }
+
+    private boolean aligned(Node point, int dx, int dz) {
+        final Coords
+            coords = point.key,
+            targetCoords = this.target.key;
+
+        return dx != 0 ? coords.x == targetCoords.x : coords.z == targetCoords.z;
+    }
+
+    private boolean uniform(Node point, int y, int dx, int dz) {
+        final Coords coords = point.key;
+        if (!level(point, y))
+            return false;
+
+        final NodeMap nodeMap = this.nodeMap;
+        for (int dy = -1; dy <= 1; ++dy) {
+            final byte flags = nodeMap.flagsAt(coords.x, y + dy, coords.z);
+            if (Logic.fuzzy.in(flags) || Logic.doorway.in(flags))
+                return false;
         }
+
+        return level(cachedPassiblePointNear(coords.x + dz, y, coords.z + dx, coords), y)
+            && level(cachedPassiblePointNear(coords.x - dz, y, coords.z - dx, coords), y);
+    }
+
+    private static boolean level(Node point, int y) {
+        return point != null && point.key.y == y && point.passibility() == Passibility.passible && !point.volatile_();
     }
 
-    private com.extollit.linalg.mutable.AxisAlignedBBox blockBounds(Coords coords, int dx, int dy, int dz) {
+    private com.extollit.linalg.mutable.AxisAlignedBBox blockBounds(Coords coords, int dx, int dy, int dz, com.extollit.linalg.mutable.AxisAlignedBBox result) {
         final int
             x = coords.x + dx,
             y = coords.y + dy,
@@ -1038,24 +2157,37 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         final AxisAlignedBBox bounds;
         final byte flags = this.nodeMap.flagsAt(x, y, z);
         if (fuzzyPassibility(flags)) {
-            final IBlockObject block = instanceSpace.blockObjectAt(x, y, z);
+            final IBlockObject block = blockObjectAt(x, y, z);
             if (!block.isImpeding())
                 return null;
 
             bounds = block.bounds();
-        } else if (impedesMovement(flags, this.capabilities))
+        } else if (this.passibilityTable.impedesMovement(flags))
             bounds = FULL_BOUNDS;
         else
             return null;
 
-        final com.extollit.linalg.mutable.AxisAlignedBBox result = new com.extollit.linalg.mutable.AxisAlignedBBox(bounds);
-        result.add(dx, dy, dz);
+        final com.extollit.linalg.mutable.Vec3d
+                min = result.min,
+                max = result.max;
+
+        min.x = bounds.min.x + dx;
+        min.y = bounds.min.y + dy;
+        min.z = bounds.min.z + dz;
+        max.x = bounds.max.x + dx;
+        max.y = bounds.max.y + dy;
+        max.z = bounds.max.z + dz;
         return result;
     }
 
     boolean applyPointOptions(Node current, Node... pointOptions) {
+        return applyPointOptions(current, pointOptions, pointOptions.length);
+    }
+
+    private boolean applyPointOptions(Node current, Node[] pointOptions, int count) {
         boolean found = false;
-        for (Node alternative : pointOptions) {
+        for (int c = 0; c < count; ++c) {
+            final Node alternative = pointOptions[c];
             if (impassible(alternative) || alternative.visited() || Node.squareDelta(alternative, this.target) >= this.searchRangeSquared)
                 continue;
 
@@ -1082,12 +2214,17 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         return result;
     }
 
+    private IBlockObject blockObjectAt(int x, int y, int z) {
+        final IBlockObject block = this.nodeMap.partialBlockAt(x, y, z);
+        return block != null ? block : this.instanceSpace.blockObjectAt(x, y, z);
+    }
+
     private boolean fuzzyPassibility(int x, int y, int z) {
         return fuzzyPassibility(this.nodeMap.flagsAt(x, y, z));
     }
 
     private boolean fuzzyPassibility(byte flags) {
-        return impedesMovement(flags, this.capabilities) && (Logic.fuzzy.in(flags) || Logic.doorway.in(flags));
+        return this.passibilityTable.impedesMovement(flags) && (Logic.fuzzy.in(flags) || Logic.doorway.in(flags));
     }
 
     protected final boolean unreachableFromSource(Coords current, int tx, int ty, int tz) {
@@ -1231,7 +2368,7 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
     
     @Override
     public void writeVersioned(byte version, ReaderWriters readerWriters, ObjectOutput out) throws IOException {
-        final IdentityMapper<Node, Node.ReaderWriter> identities = new IdentityMapper<Node, Node.ReaderWriter>(Node.ReaderWriter.INSTANCE);
+        final IdentityMapper<Node, Node.ReaderWriter> identities = new IdentityMapper<Node, Node.ReaderWriter>(Node.ReaderWriter.forVersion(version));
 
         out.writeByte(this.unreachableFromSource.size());
         for (Vec3i coords : this.unreachableFromSource)
@@ -1247,6 +2384,8 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
         out.writeBoolean(this.pathPointCalculatorChanged);
         out.writeBoolean(this.trimmedToCurrent);
         out.writeByte(this.targetingStrategy.ordinal());
+        out.writeByte(this.queueingStrategy.ordinal());
+        out.writeBoolean(this.wideNodes);
         
         out.writeInt(this.initComputeIterations);
         out.writeInt(this.periodicComputeIterations);
@@ -1266,7 +2405,7 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
 
     @Override
     public void readVersioned(byte version, ReaderWriters readerWriters, ObjectInput in) throws IOException {
-        final IdentityMapper<Node, Node.ReaderWriter> identities = new IdentityMapper<Node, Node.ReaderWriter>(Node.ReaderWriter.INSTANCE);
+        final IdentityMapper<Node, Node.ReaderWriter> identities = new IdentityMapper<Node, Node.ReaderWriter>(Node.ReaderWriter.forVersion(version));
 
         byte count = in.readByte();
         while (count-- > 0) {
@@ -1292,6 +2431,11 @@ public class HydrazinePathFinder implements IVersionedReadable, IVersionedWritea
             this.targetingStrategy = PathOptions.TargetingStrategy.values()[in.readByte()];
         else
             this.targetingStrategy = in.readBoolean() ? PathOptions.TargetingStrategy.bestEffort : PathOptions.TargetingStrategy.none;
+        if (version > 4) {
+            this.queueingStrategy = QueueingStrategy.values()[in.readByte()];
+            this.wideNodes = in.readBoolean();
+            replaceQueue();
+        }
 
         this.initComputeIterations = in.readInt();
         this.periodicComputeIterations = in.readInt();
@@ -0,0 +1,109 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.IPathingEntity;
+import com.extollit.gaming.ai.path.model.Passibility;
+
+/**
+ * Precomputed results of {@link PassibilityHelpers} for every occlusion flags nibble and a particular combination of
+ * the capabilities that these helpers depend on.  Calculators consult these tables in their innermost loops instead of
+ * evaluating the helpers, which query several capabilities of the pathing entity for each sample.  There is one table
+ * for each combination of capabilities, these are built once and shared by all path-finders.
+ *
+ * @see PassibilityHelpers
+ */
+final class PassibilityTable {
+    private static final int
+        FLAGS = 1 << 4,
+        FLAGS_MASK = FLAGS - 1;
+
+    private static final int
+        FIRE_RESISTANT = 1,
+        AQUATIC = 1 << 1,
+        SWIMMER = 1 << 2,
+        AQUAPHOBIC = 1 << 3,
+        OPENS_DOORS = 1 << 4,
+        AVOIDS_DOORWAYS = 1 << 5,
+        COMBINATIONS = 1 << 6;
+
+    private static final PassibilityTable[] TABLES = new PassibilityTable[COMBINATIONS];
+
+    static {
+        for (int key = 0; key < COMBINATIONS; ++key)
+            TABLES[key] = new PassibilityTable(new KeyedCapabilities(key));
+    }
+
+    private final boolean[] impedesMovement = new boolean[FLAGS];
+    private final Passibility[]
+        clearance = new Passibility[FLAGS],
+        passibility = new Passibility[FLAGS];
+
+    private PassibilityTable(IPathingEntity.Capabilities capabilities) {
+        for (byte flags = 0; flags < FLAGS; ++flags) {
+            this.impedesMovement[flags] = PassibilityHelpers.impedesMovement(flags, capabilities);
+            this.clearance[flags] = PassibilityHelpers.clearance(flags, capabilities);
+            this.passibility[flags] = PassibilityHelpers.passibilityFrom(flags, capabilities);
+        }
+    }
+
+    /**
+     * Retrieves the shared table for the current capabilities of a pathing entity.  The table does not follow subsequent
+     * changes to the capabilities, it must be retrieved again.
+     *
+     * @param capabilities capabilities of the pathing entity
+     * @return table applicable to the aforementioned capabilities
+     */
+    static PassibilityTable of(IPathingEntity.Capabilities capabilities) {
+        int key = 0;
+        if (capabilities.fireResistant()) key |= FIRE_RESISTANT;
+        if (capabilities.aquatic()) key |= AQUATIC;
+        if (capabilities.swimmer()) key |= SWIMMER;
+        if (capabilities.aquaphobic()) key |= AQUAPHOBIC;
+        if (capabilities.opensDoors()) key |= OPENS_DOORS;
+        if (capabilities.avoidsDoorways()) key |= AVOIDS_DOORWAYS;
+        return TABLES[key];
+    }
+
+    /**
+     * @see PassibilityHelpers#impedesMovement(byte, IPathingEntity.Capabilities)
+     */
+    boolean impedesMovement(byte flags) {
+        return this.impedesMovement[flags & FLAGS_MASK];
+    }
+
+    /**
+     * @see PassibilityHelpers#clearance(byte, IPathingEntity.Capabilities)
+     */
+    Passibility clearance(byte flags) {
+        return this.clearance[flags & FLAGS_MASK];
+    }
+
+    /**
+     * @see PassibilityHelpers#passibilityFrom(byte, IPathingEntity.Capabilities)
+     */
+    Passibility passibilityFrom(byte flags) {
+        return this.passibility[flags & FLAGS_MASK];
+    }
+
+    private static final class KeyedCapabilities implements IPathingEntity.Capabilities {
+        private final int key;
+
+        private KeyedCapabilities(int key) {
+            this.key = key;
+        }
+
+        private boolean has(int capability) {
+            return (this.key & capability) != 0;
+        }
+
+        @Override public float speed() { return 0; }
+        @Override public boolean fireResistant() { return has(FIRE_RESISTANT); }
+        @Override public boolean cautious() { return false; }
+        @Override public boolean climber() { return false; }
+        @Override public boolean swimmer() { return has(SWIMMER); }
+        @Override public boolean aquatic() { return has(AQUATIC); }
+        @Override public boolean avian() { return false; }
+        @Override public boolean aquaphobic() { return has(AQUAPHOBIC); }
+        @Override public boolean avoidsDoorways() { return has(AVOIDS_DOORWAYS); }
+        @Override public boolean opensDoors() { return has(OPENS_DOORS); }
+    }
+}
@@ -0,0 +1,253 @@
+package com.extollit.gaming.ai.path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.LongSupplier;
+
+/**
+ * World-level scheduler that owns the A* triage computation of every registered path-finder and distributes it across
+ * ticks according to a fixed wall-clock budget.  Without a scheduler each path-finder spends a fixed number of
+ * iterations per update, so the total time spent each tick grows with the number of pathing entities.  With a scheduler
+ * the path-finders merely record what they need and the actual triage is performed by {@link #tick()}, which stops as
+ * soon as the budget is spent.
+ *
+ * Iterations are handed-out by weighted fair-share (weighted round-robin).  Each path-finder is weighted by its
+ * {@link SchedulingPriority}, specifically the periodic compute iterations of the priority, so an entity of
+ * {@link SchedulingPriority#extreme} priority receives roughly nine times the compute of an entity of
+ * {@link SchedulingPriority#low} priority.  Work that could not be completed within a tick's budget is carried into
+ * the next tick, which resumes where the previous one left off.
+ *
+ * While registered with a scheduler a path-finder only performs a single triage iteration upon initiation (so that a
+ * preliminary path is available immediately) and no triage iterations during periodic updates,
+ * {@link HydrazinePathFinder#updatePathFor(IPathingEntity)} still drives the entity along the path computed so far.
+ * Calls to {@link HydrazinePathFinder#computePathTo(double, double, double)} are unaffected and always complete
+ * synchronously.
+ *
+ * Optionally a scheduler can be constructed with an {@link ExecutorService} (e.g. a fork-join pool or a virtual thread
+ * executor) in which case the pending path-finders are partitioned into lanes that are triaged concurrently by the
+ * worker pool.  The calling thread blocks until all lanes have finished (or the budget is spent), this acts as a
+ * barrier so that workers observe a consistent read-only view of the instance space because the game thread cannot
+ * modify the world while the tick is in progress.  Each path-finder is only ever triaged by one worker at a time and
+ * the results are published to the owning entity when the pathing entity is next updated.  In this mode the
+ * implementor's {@link com.extollit.gaming.ai.path.model.IInstanceSpace} and
+ * {@link com.extollit.gaming.ai.path.model.IColumnarSpace} implementations must tolerate concurrent reads.
+ *
+ * This class is not thread-safe, it should be ticked from the same thread that updates the registered path-finders.
+ * There should typically be only one instance of this class for each instance space.
+ */
+public class PathFinderScheduler {
+    private final List<HydrazinePathFinder> pathFinders = new ArrayList<>();
+    private final long budgetNanos;
+    private final LongSupplier clock;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final Lane lane;
+
+    private int rotation;
+
+    private static final class Lane implements Callable<Integer> {
+        final List<HydrazinePathFinder> pathFinders;
+        final LongSupplier clock;
+
+        long deadline;
+        int cursor;
+
+        Lane(List<HydrazinePathFinder> pathFinders, LongSupplier clock) {
+            this.pathFinders = pathFinders;
+            this.clock = clock;
+        }
+
+        @Override
+        public Integer call() {
+            return triage();
+        }
+
+        int triage() {
+            final List<HydrazinePathFinder> pathFinders = this.pathFinders;
+            final LongSupplier clock = this.clock;
+            final long deadline = this.deadline;
+
+            int total = 0,
+                idle = 0;
+
+            while (idle < pathFinders.size()) {
+                if (this.cursor >= pathFinders.size())
+                    this.cursor = 0;
+
+                final HydrazinePathFinder pathFinder = pathFinders.get(this.cursor++);
+                if (!pathFinder.pending()) {
+                    idle++;
+                    continue;
+                }
+
+                idle = 0;
+                total += pathFinder.triageScheduled(pathFinder.schedulingWeight());
+
+                if (clock.getAsLong() - deadline >= 0)
+                    break;
+            }
+
+            return total;
+        }
+    }
+
+    /**
+     * Create a new scheduler with the specified time budget per tick that computes all paths on the calling thread
+     *
+     * @param budget the maximum amount of wall-clock time to spend computing paths for each call to {@link #tick()}
+     * @param unit units of the budget parameter
+     */
+    public PathFinderScheduler(long budget, TimeUnit unit) {
+        this(unit.toNanos(budget), System::nanoTime, null, 1);
+    }
+
+    /**
+     * Create a new scheduler with the specified time budget per tick that computes paths concurrently using the
+     * specified worker pool.
+     *
+     * @param budget the maximum amount of wall-clock time to spend computing paths for each call to {@link #tick()}
+     * @param unit units of the budget parameter
+     * @param executor worker pool used to triage path-finders, the caller remains responsible for shutting it down
+     * @param parallelism the number of lanes to partition pending path-finders into each tick, typically the number
+     *                    of workers in the pool
+     */
+    public PathFinderScheduler(long budget, TimeUnit unit, ExecutorService executor, int parallelism) {
+        this(unit.toNanos(budget), System::nanoTime, executor, parallelism);
+    }
+
+    PathFinderScheduler(long budgetNanos, LongSupplier clock) {
+        this(budgetNanos, clock, null, 1);
+    }
+
+    PathFinderScheduler(long budgetNanos, LongSupplier clock, ExecutorService executor, int parallelism) {
+        if (budgetNanos <= 0)
+            throw new IllegalArgumentException("Budget must be positive: " + budgetNanos);
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+
+        this.budgetNanos = budgetNanos;
+        this.clock = clock;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.lane = new Lane(this.pathFinders, clock);
+    }
+
+    /**
+     * Hands the path-finding computation of the specified path-finder over to this scheduler.  A path-finder may only
+     * be registered with one scheduler at a time.
+     *
+     * @param pathFinder the path-finder that this scheduler should compute paths for
+     * @throws IllegalStateException if the path-finder is already registered with a scheduler
+     */
+    public void register(HydrazinePathFinder pathFinder) {
+        if (pathFinder.scheduler != null)
+            throw new IllegalStateException("Path-finder is already registered with a scheduler");
+
+        pathFinder.scheduler = this;
+        this.pathFinders.add(pathFinder);
+    }
+
+    /**
+     * Returns path-finding computation of the specified path-finder back to the path-finder itself, call this when the
+     * associated entity is removed from the instance space.
+     *
+     * @param pathFinder a path-finder previously registered with this scheduler
+     * @return true if the path-finder was registered with this scheduler and has now been removed from it
+     */
+    public boolean unregister(HydrazinePathFinder pathFinder) {
+        if (pathFinder.scheduler != this)
+            return false;
+
+        final List<HydrazinePathFinder> pathFinders = this.pathFinders;
+        for (int i = 0; i < pathFinders.size(); ++i)
+            if (pathFinders.get(i) == pathFinder) {
+                pathFinders.remove(i);
+                if (i < this.lane.cursor)
+                    this.lane.cursor--;
+                break;
+            }
+
+        pathFinder.scheduler = null;
+        return true;
+    }
+
+    /**
+     * Number of path-finders presently registered with this scheduler
+     *
+     * @return the count of registered path-finders
+     */
+    public int size() {
+        return this.pathFinders.size();
+    }
+
+    /**
+     * Performs path-finding computation for all registered path-finders that have pending work until either the
+     * budget for this tick is exhausted or there is no more work to do.  Call this exactly once each tick, preferably
+     * before the pathing entities are updated so they receive the freshest paths.
+     *
+     * @return the total number of triage iterations allotted during this tick
+     */
+    public int tick() {
+        final long deadline = this.clock.getAsLong() + this.budgetNanos;
+
+        if (this.executor == null || this.parallelism == 1) {
+            final Lane lane = this.lane;
+            lane.deadline = deadline;
+            return lane.triage();
+        }
+
+        final List<Lane> lanes = partition(deadline);
+        if (lanes.isEmpty())
+            return 0;
+        else if (lanes.size() == 1)
+            return lanes.get(0).triage();
+
+        int total = 0;
+        try {
+            for (Future<Integer> future : this.executor.invokeAll(lanes))
+                total += future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            else if (cause instanceof Error)
+                throw (Error) cause;
+            else
+                throw new IllegalStateException(cause);
+        }
+
+        return total;
+    }
+
+    private List<Lane> partition(long deadline) {
+        final List<HydrazinePathFinder> pathFinders = this.pathFinders;
+        final int
+                count = pathFinders.size(),
+                parallelism = this.parallelism;
+        final List<Lane> lanes = new ArrayList<>(parallelism);
+
+        if (count == 0)
+            return lanes;
+
+        final int rotation = this.rotation = (this.rotation + 1) % count;
+        int pending = 0;
+        for (int c = 0; c < count; ++c) {
+            final HydrazinePathFinder pathFinder = pathFinders.get((rotation + c) % count);
+            if (!pathFinder.pending())
+                continue;
+
+            final int l = pending++ % parallelism;
+            if (l == lanes.size()) {
+                final Lane lane = new Lane(new ArrayList<>(count / parallelism + 1), this.clock);
+                lane.deadline = deadline;
+                lanes.add(lane);
+            }
+            lanes.get(l).pathFinders.add(pathFinder);
+        }
+
+        return lanes;
+    }
+}
@@ -2,6 +2,8 @@ package com.extollit.gaming.ai.path;
 
 import com.extollit.linalg.immutable.Vec3d;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * This class is used to control path-finding behaviour on a per-operation basis.  It is passed to the path-finding object
  * upon initiating path-finding for a pathing entity.  This approach is meant to be independent from pathing-entity-specific
@@ -55,6 +57,9 @@ public class PathOptions {
         NONE = new PathOptions().targetingStrategy(TargetingStrategy.none);
 
     private TargetingStrategy targetingStrategy = TargetingStrategy.none;
+    private int maxNodes = Integer.MAX_VALUE;
+    private long deadlineNanos = Long.MAX_VALUE;
+    private boolean bidirectional;
 
     /**
      * Configure with the specified targeting strategy
@@ -72,4 +77,71 @@ public class PathOptions {
      * @return the configured targeting strategy
      */
     public TargetingStrategy targetingStrategy() { return this.targetingStrategy; }
+
+    /**
+     * Limits the number of nodes that a complete search may expand before giving-up.  When the limit is reached the
+     * best path found so far (toward the closest point to the destination) is returned instead.  This only applies to
+     * complete searches such as {@link HydrazinePathFinder#computePathToAsync(double, double, double, PathOptions, java.util.concurrent.Executor)}
+     *
+     * @param maxNodes maximum number of nodes to expand, must be positive
+     * @return this (builder pattern)
+     */
+    public PathOptions maxNodes(int maxNodes) {
+        if (maxNodes <= 0)
+            throw new IllegalArgumentException("Maximum node count must be positive: " + maxNodes);
+
+        this.maxNodes = maxNodes;
+        return this;
+    }
+
+    /**
+     * Retrieve the configured node expansion limit
+     * @return maximum number of nodes that a complete search may expand, {@link Integer#MAX_VALUE} if unlimited
+     */
+    public int maxNodes() { return this.maxNodes; }
+
+    /**
+     * Limits the amount of wall-clock time that a complete search may run for, measured from when the search starts.
+     * When the deadline passes the best path found so far (toward the closest point to the destination) is returned
+     * instead.  This only applies to complete searches such as
+     * {@link HydrazinePathFinder#computePathToAsync(double, double, double, PathOptions, java.util.concurrent.Executor)}
+     *
+     * @param duration maximum duration of the search, must be positive
+     * @param unit units of the duration parameter
+     * @return this (builder pattern)
+     */
+    public PathOptions deadline(long duration, TimeUnit unit) {
+        if (duration <= 0)
+            throw new IllegalArgumentException("Deadline must be positive: " + duration);
+
+        this.deadlineNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * Retrieve the configured deadline
+     * @return maximum duration of a complete search in nanoseconds, {@link Long#MAX_VALUE} if unlimited
+     */
+    public long deadlineNanos() { return this.deadlineNanos; }
+
+    /**
+     * Configures complete searches to expand from the destination toward the source as well as from the source toward
+     * the destination, the search concludes where the two meet.  This reduces the number of nodes expanded for distant
+     * destinations.  If the search from the destination runs out of points first then the search from the source
+     * continues alone as it would otherwise.  The resulting path is not necessarily the shortest.  This only applies to complete searches such as
+     * {@link HydrazinePathFinder#computePathTo(double, double, double, PathOptions)}
+     *
+     * @param flag true to search from both ends, false to search from the source only (default)
+     * @return this (builder pattern)
+     */
+    public PathOptions bidirectional(boolean flag) {
+        this.bidirectional = flag;
+        return this;
+    }
+
+    /**
+     * Retrieve whether complete searches expand from both ends
+     * @return true if complete searches expand from the destination as well as from the source
+     */
+    public boolean bidirectional() { return this.bidirectional; }
 }
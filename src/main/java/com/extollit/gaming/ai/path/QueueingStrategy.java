@@ -0,0 +1,22 @@
+package com.extollit.gaming.ai.path;
+
+/**
+ * Selects the data structure that a path-finder uses for its A* open list, the queue of candidate points ordered by
+ * passibility and then by journey (length travelled plus estimated distance remaining).
+ *
+ * @see HydrazinePathFinder#withQueueingStrategy(QueueingStrategy)
+ */
+public enum QueueingStrategy {
+    /**
+     * Binary heap, insertion and removal of the best point are logarithmic in the size of the queue.  This is the
+     * default strategy.
+     */
+    binaryHeap,
+
+    /**
+     * Bucket (radix) queue with one bucket per distinct passibility and journey, insertion and re-positioning are
+     * constant-time and removal of the best point is amortised constant-time.  This may perform better than
+     * {@link #binaryHeap} for searches that keep many points queued at once, such as in large open caves.
+     */
+    buckets
+}
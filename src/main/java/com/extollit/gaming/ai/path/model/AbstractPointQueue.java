@@ -0,0 +1,309 @@
+package com.extollit.gaming.ai.path.model;
+
+import com.extollit.gaming.ai.path.persistence.internal.LinkableReader;
+import com.extollit.gaming.ai.path.persistence.internal.LinkableWriter;
+import com.extollit.gaming.ai.path.persistence.internal.ReferableObjectInput;
+import com.extollit.gaming.ai.path.persistence.internal.ReferableObjectOutput;
+
+import java.io.IOException;
+import java.util.*;
+
+import static com.extollit.gaming.ai.path.model.Node.squareDelta;
+
+/**
+ * Base class for the A* open list, the queue of points that are candidates for expansion ordered primarily by
+ * passibility and secondarily by journey (length travelled plus estimated distance remaining).  Every point in the
+ * queue is assigned an index (see {@link Node#index()}) that is meaningful only to the queue implementation.
+ *
+ * Re-rooting and branch culling are implemented here in terms of a flat list of the points in the queue, implementors
+ * expose their contents as such a list via {@link #drain()} and rebuild themselves afterward via {@link #refill(List)}.
+ */
+public abstract class AbstractPointQueue implements LinkableReader<AbstractPointQueue, Node>, LinkableWriter<AbstractPointQueue, Node> {
+    static final float CULL_THRESHOLD = 0.1f;
+
+    final int capacity, maxPathDistance;
+
+    /**
+     * Creates a new queue
+     *
+     * @param wide if true the queue operates in wide-node mode, which supports up to {@link Node#WIDE_MAX_PATH_DISTANCE}
+     *             path length and far more points, otherwise up to {@link Node#MAX_PATH_DISTANCE} path length and
+     *             511 points
+     */
+    AbstractPointQueue(boolean wide) {
+        this.capacity = wide ? Node.WIDE_MAX_INDICES : Node.MAX_INDICES;
+        this.maxPathDistance = wide ? Node.WIDE_MAX_PATH_DISTANCE : Node.MAX_PATH_DISTANCE;
+    }
+
+    /**
+     * Maximum number of points this queue can hold before it begins culling the worst points
+     *
+     * @return capacity of this queue
+     */
+    public final int capacity() { return this.capacity; }
+
+    /**
+     * Maximum path length (and distance to target) supported by this queue, points appended beyond this are rejected
+     *
+     * @return maximum path length of points in this queue
+     */
+    public final int maxPathDistance() { return this.maxPathDistance; }
+
+    public abstract void clear();
+    public abstract boolean isEmpty();
+    public abstract int size();
+
+    public abstract Node top();
+    public abstract Node dequeue();
+    public abstract void add(Node point);
+
+    public abstract List<Node> view();
+
+    /**
+     * Exposes all points in the queue as a mutable list where the index of each point is its position in the list.
+     * Points may be removed from the list (and unassigned) and have their lengths modified until the list is passed
+     * back to {@link #refill(List)}.
+     *
+     * @return a list of all points in the queue
+     */
+    abstract List<Node> drain();
+
+    /**
+     * Rebuilds the queue from a list previously obtained from {@link #drain()}
+     *
+     * @param list the surviving points
+     */
+    abstract void refill(List<Node> list);
+
+    /**
+     * Repositions a point in the queue after its journey has changed, or adds it if it is not yet in the queue
+     *
+     * @param point the point whose journey has changed
+     * @param journey0 journey of the point before it was changed
+     * @return true if the point was already in the queue, false if it was added
+     */
+    abstract boolean resort(Node point, int journey0);
+
+    abstract void restore(List<Node> points);
+
+    public Node trimFrom(Node source) {
+        if (source.orphaned())
+            return source;
+
+        final Node root0 = source.root();
+        final int ddX, ddY, ddZ;
+        {
+            final Coords
+                root0Key = root0.key,
+                sourceKey = source.key;
+
+            ddX = sourceKey.x - root0Key.x;
+            ddY = sourceKey.y - root0Key.y;
+            ddZ = sourceKey.z - root0Key.z;
+        }
+
+        final List<Node> list = drain();
+
+        final int length0 = source.length();
+        final Stack<Node> path = new Stack<>();
+        final TreeTransitional treeTransitional = new TreeTransitional(source);
+        final ListIterator<Node> i = list.listIterator();
+
+        while (i.hasNext()) {
+            final Node head = i.next();
+            Node point = head;
+            while (!point.orphaned()) {
+                point = point.up();
+                path.push(point);
+            }
+            if (point == source) {
+                while (!path.isEmpty()) {
+                    point = path.pop();
+                    final int length = point.length() - length0;
+                    point.length(length);
+                }
+                final int length = head.length() - length0;
+                head.length(length);
+                head.index(i.previousIndex());
+            } else {
+                final Node root;
+                if (path.isEmpty())
+                    root = head;
+                else
+                    root = path.pop();
+
+                if (head == point || dotProductBetween(ddX, ddY, ddZ, head, point) <= 0) {
+                    head.dirty(true);
+                    while (!path.isEmpty())
+                        path.pop().dirty(true);
+
+                    treeTransitional.queue(head, root);
+                    head.index(i.previousIndex());
+                } else {
+                    if (!path.isEmpty()) {
+                        final Node branch = path.pop();
+                        branch.dirty(true);
+                        treeTransitional.queue(branch, root);
+                    }
+
+                    i.remove();
+
+                    path.clear();
+                    head.unassign();
+                    head.visited(false);
+                }
+            }
+        }
+
+        treeTransitional.finish(this);
+        refill(list);
+
+        return root0;
+    }
+
+    private static int dotProductBetween(int ddX, int ddY, int ddZ, Node head, Node target) {
+        final Coords
+            headKey = head.key,
+            pointKey = target.key;
+        final int
+            dx = headKey.x - pointKey.x,
+            dy = headKey.y - pointKey.y,
+            dz = headKey.z - pointKey.z;
+        return dx * ddX + dy * ddY + dz * ddZ;
+    }
+
+    void cullBranch(Node ancestor) {
+        final List<Node> list = drain();
+        final Stack<Node> stack = new Stack<>();
+
+        ListIterator<Node> i = list.listIterator();
+        final List<Node> culled = new LinkedList<Node>();
+        while (i.hasNext()) {
+            final Node head = i.next();
+            Node point = head;
+            while (!point.orphaned() && point != ancestor) {
+                point = point.up();
+                stack.push(point);
+            }
+            if (point != ancestor)
+                head.index(i.previousIndex());
+            else {
+                i.remove();
+                head.unassign();
+                culled.add(head);
+                culled.addAll(stack);
+            }
+            stack.clear();
+        }
+
+        refill(list);
+
+        for (Node node : culled) {
+            node.reset();
+            node.visited(false);
+        }
+    }
+
+    /**
+     * Removes the specified points from the queue, points in the set that are not in the queue are ignored
+     *
+     * @param points the points to remove
+     */
+    void removeAll(Set<Node> points) {
+        final List<Node> list = drain();
+        final ListIterator<Node> i = list.listIterator();
+        while (i.hasNext()) {
+            final Node head = i.next();
+            if (points.contains(head)) {
+                i.remove();
+                head.unassign();
+            } else
+                head.index(i.previousIndex());
+        }
+
+        refill(list);
+    }
+
+    public boolean nextContains(Node ancestor) {
+        return top().contains(ancestor);
+    }
+
+    public boolean appendTo(Node point, Node parent, Coords targetPoint) {
+        return appendTo(point, parent, (int)Math.sqrt(squareDelta(point, targetPoint)));
+    }
+
+    public boolean appendTo(Node point, Node parent, final int remaining) {
+        final int squareDelta = squareDelta(parent, point);
+
+        final int length = point.length();
+        if (!point.assigned() || (parent.length() + squareDelta < length*length && !point.passibility().betterThan(parent.passibility()))) {
+            final int distance0 = point.journey();
+            if (point.appendTo(parent, (int)Math.sqrt(squareDelta), remaining, this.maxPathDistance))
+                return resort(point, distance0);
+            else
+                point.orphan();
+        }
+
+        return false;
+    }
+
+    /**
+     * Links a point beneath the specified parent without queueing it, the point is marked visited since it is never
+     * expanded.  This is used for the points a jump passes through.
+     *
+     * @param point the point to link
+     * @param parent the parent to link the point beneath
+     * @param targetPoint the target of the search
+     * @return true if the point was linked, false if doing so would exceed the maximum path distance
+     */
+    public boolean passThrough(Node point, Node parent, Coords targetPoint) {
+        if (point.appendTo(parent, (int)Math.sqrt(squareDelta(parent, point)), (int)Math.sqrt(squareDelta(point, targetPoint)), this.maxPathDistance)) {
+            point.visited(true);
+            return true;
+        }
+
+        point.orphan();
+        return false;
+    }
+
+    public boolean addLength(Node point, int diff) {
+        final int journey0 = point.journey();
+        point.addLength(diff);
+        return resort(point, journey0);
+    }
+
+    public final Set<Node> roots() {
+        final Set<Node> roots = new HashSet<>(1);
+
+        for (Node node : view()) {
+            final Node root = node.root();
+            if (!roots.contains(root))
+                roots.add(root);
+        }
+
+        return roots;
+    }
+
+    @Override
+    public String toString() {
+        return view().toString();
+    }
+
+    @Override
+    public void readLinkages(AbstractPointQueue object, ReferableObjectInput<Node> in) throws IOException {
+        int count = in.readInt();
+        final List<Node> points = new ArrayList<>(count);
+        while (count-- > 0)
+            points.add(in.readRef());
+
+        object.restore(points);
+    }
+
+    @Override
+    public void writeLinkages(AbstractPointQueue object, ReferableObjectOutput<Node> out) throws IOException {
+        final List<Node> list = object.view();
+        out.writeInt(list.size());
+        for (Node node : list)
+            out.writeRef(node);
+    }
+}
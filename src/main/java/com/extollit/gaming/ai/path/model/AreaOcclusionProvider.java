@@ -1,55 +1,300 @@
 package com.extollit.gaming.ai.path.model;
 
 public class AreaOcclusionProvider implements IOcclusionProvider {
+    /**
+     * Relative coordinates along an axis of a section that identify its near edge, its interior and its far edge
+     */
+    private static final int[] EDGE_OFFSETS = { 0, OcclusionField.DIMENSION_SIZE / 2, OcclusionField.DIMENSION_EXTENT };
+
     private final IColumnarSpace[][] columnarSpaces;
+    private final int width, depth;
 
-    private final int cx0, cz0, cxN, czN;
+    private int cx0, cz0, cxN, czN;
+    private int ox, oz;
+    private long resets;
 
     public AreaOcclusionProvider(IColumnarSpace[][] columnarSpaces, int cx0, int cz0) {
         this.columnarSpaces = columnarSpaces;
+        this.width = columnarSpaces[0].length;
+        this.depth = columnarSpaces.length;
         this.cx0 = cx0;
         this.cz0 = cz0;
-        this.cxN = columnarSpaces[0].length + cx0 - 1;
-        this.czN = columnarSpaces.length + cz0 - 1;
+        this.cxN = this.width + cx0 - 1;
+        this.czN = this.depth + cz0 - 1;
+        this.resets = ColumnarOcclusionFieldList.resets();
+    }
+
+    /**
+     * Slides this provider so that it covers a different window of columnar spaces of the same dimensions.  The
+     * columnar spaces are stored in a ring buffer, those in both the current and the new window are retained where they
+     * are and only the columnar spaces newly exposed by the new window are retrieved from the instance.  This makes
+     * following a moving entity cost proportional to the number of columns exposed rather than to the area of the
+     * window.  If any columnar space has been loaded or unloaded since (see {@link ColumnarOcclusionFieldList#reset()})
+     * every columnar space of the new window is retrieved again instead.  This must not be called while another thread
+     * is sampling this provider.
+     *
+     * @param instance the instance to retrieve newly exposed columnar spaces from
+     * @param cx0 minimum x-coordinate of the new window
+     * @param cz0 minimum z-coordinate of the new window
+     * @param cxN maximum x-coordinate of the new window
+     * @param czN maximum z-coordinate of the new window
+     * @return true if this provider now covers the new window, false if the dimensions of the new window differ from
+     *          those of this provider in which case the provider is unchanged
+     */
+    public boolean slideTo(IInstanceSpace instance, int cx0, int cz0, int cxN, int czN) {
+        final int
+            width = this.width,
+            depth = this.depth;
+
+        if (cxN - cx0 + 1 != width || czN - cz0 + 1 != depth)
+            return false;
+
+        final long resets = ColumnarOcclusionFieldList.resets();
+        final boolean refresh = resets != this.resets;
+        final int
+            cx0p = this.cx0,
+            cz0p = this.cz0,
+            cxNp = this.cxN,
+            czNp = this.czN;
+
+        this.resets = resets;
+
+        this.ox = Math.floorMod(this.ox + cx0 - cx0p, width);
+        this.oz = Math.floorMod(this.oz + cz0 - cz0p, depth);
+        this.cx0 = cx0;
+        this.cz0 = cz0;
+        this.cxN = cxN;
+        this.czN = czN;
+
+        for (int cz = cz0; cz <= czN; ++cz) {
+            final IColumnarSpace[] row = this.columnarSpaces[slotZ(cz)];
+            if (refresh || cz < cz0p || cz > czNp)
+                for (int cx = cx0; cx <= cxN; ++cx)
+                    row[slotX(cx)] = instance.columnarSpaceAt(cx, cz);
+            else {
+                for (int cx = cx0, cxE = Math.min(cxN, cx0p - 1); cx <= cxE; ++cx)
+                    row[slotX(cx)] = instance.columnarSpaceAt(cx, cz);
+                for (int cx = Math.max(cx0, cxNp + 1); cx <= cxN; ++cx)
+                    row[slotX(cx)] = instance.columnarSpaceAt(cx, cz);
+            }
+        }
+
+        return true;
+    }
+
+    private int slotX(int cx) {
+        final int slot = cx - this.cx0 + this.ox;
+        return slot >= this.width ? slot - this.width : slot;
+    }
+
+    private int slotZ(int cz) {
+        final int slot = cz - this.cz0 + this.oz;
+        return slot >= this.depth ? slot - this.depth : slot;
+    }
+
+    /**
+     * Retrieves the columnar space at the specified coordinates, which must be within the window of this provider
+     */
+    private IColumnarSpace columnAt(int cx, int cz) {
+        return this.columnarSpaces[slotZ(cz)][slotX(cx)];
+    }
+
+    /**
+     * Determines whether the specified block-coordinate rectangle lies entirely within loaded columnar spaces of this
+     * provider that are not on its boundary.  Occlusion data sampled within such a rectangle is complete and does not
+     * depend on the extent of this provider.
+     *
+     * @param x0 minimum x coordinate
+     * @param z0 minimum z coordinate
+     * @param xN maximum x coordinate
+     * @param zN maximum z coordinate
+     * @return true if all columns overlapping the rectangle are loaded and interior to this provider
+     */
+    boolean interior(int x0, int z0, int xN, int zN) {
+        final int
+            cx0 = x0 >> 4,
+            cz0 = z0 >> 4,
+            cxN = xN >> 4,
+            czN = zN >> 4;
+
+        if (cx0 <= this.cx0 || cz0 <= this.cz0 || cxN >= this.cxN || czN >= this.czN)
+            return false;
+
+        for (int cz = cz0; cz <= czN; ++cz)
+            for (int cx = cx0; cx <= cxN; ++cx)
+                if (columnAt(cx, cz) == null)
+                    return false;
+
+        return true;
     }
 
     @Override
     public byte elementAt(int x, int y, int z) {
-        final IColumnarSpace[][] columnarSpaces = this.columnarSpaces;
+        final OcclusionField field = fieldAt(x, y, z);
+        if (field != null)
+            return field.elementAt(x & OcclusionField.DIMENSION_MASK, y & OcclusionField.DIMENSION_MASK, z & OcclusionField.DIMENSION_MASK);
+
+        return 0;
+    }
+
+    @Override
+    public IBlockObject partialBlockAt(int x, int y, int z) {
+        final OcclusionField field = fieldAt(x, y, z);
+        if (field != null)
+            return field.partialBlockAt(x & OcclusionField.DIMENSION_MASK, y & OcclusionField.DIMENSION_MASK, z & OcclusionField.DIMENSION_MASK);
+
+        return null;
+    }
+
+    @Override
+    public int openRunBelow(int x, int y, int z) {
+        final OcclusionField field = fieldAt(x, y, z);
+        if (field != null) {
+            fieldAt(x, y & ~OcclusionField.DIMENSION_MASK, z);
+            return field.openRunBelow(x & OcclusionField.DIMENSION_MASK, y & OcclusionField.DIMENSION_MASK, z & OcclusionField.DIMENSION_MASK);
+        }
+
+        return 0;
+    }
+
+    @Override
+    public int fluidRunAbove(int x, int y, int z) {
+        final OcclusionField field = fieldAt(x, y, z);
+        if (field != null) {
+            fieldAt(x, y | OcclusionField.DIMENSION_MASK, z);
+            return field.fluidRunAbove(x & OcclusionField.DIMENSION_MASK, y & OcclusionField.DIMENSION_MASK, z & OcclusionField.DIMENSION_MASK);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Retrieves the occlusion field containing the specified location once the area flags of the field that the location
+     * depends on (i.e. along the edges that the location lies on) have been initialized
+     *
+     * @return the field, or null if the location is outside this provider or its columnar space is not loaded
+     */
+    private OcclusionField fieldAt(int x, int y, int z) {
         final int
             cx = x >> 4,
             cz = z >> 4,
             cy = y >> 4;
 
         if (cx >= cx0 && cx <= cxN && cz >= cz0 && cz <= czN && cy >= 0 && cy < OcclusionField.DIMENSION_SIZE) {
-            final int
-
-                czz = cz - cz0,
-                cxx = cx - cx0;
-
-            final IColumnarSpace columnarSpace = columnarSpaces[czz][cxx];
+            final IColumnarSpace columnarSpace = columnAt(cx, cz);
             if (columnarSpace != null) {
                 final OcclusionField field = columnarSpace.occlusionFields().occlusionFieldAt(cx, cy, cz);
 
                 if (!field.areaInitFull())
-                    areaInit(field, x, y, z);
+                    synchronized (OcclusionField.MUTATION_LOCK) {
+                        areaInit(field, x, y, z);
+                    }
 
-                return field.elementAt(x & OcclusionField.DIMENSION_MASK, y & OcclusionField.DIMENSION_MASK, z & OcclusionField.DIMENSION_MASK);
+                return field;
             }
         }
 
+        return null;
+    }
+
+    @Override
+    public long versionAt(int x, int y, int z) {
+        final int
+            cx = x >> 4,
+            cz = z >> 4,
+            cy = y >> 4;
+
+        if (cx >= cx0 && cx <= cxN && cz >= cz0 && cz <= czN && cy >= 0 && cy < OcclusionField.DIMENSION_SIZE) {
+            final IColumnarSpace columnarSpace = columnAt(cx, cz);
+            if (columnarSpace != null)
+                return columnarSpace.occlusionFields().occlusionFieldAt(cx, cy, cz).version();
+        }
+
         return 0;
     }
 
+    /**
+     * Eagerly initializes the area flags along every edge of an existing occlusion field against those neighbors that
+     * are loaded, rather than lazily as the edges are sampled.  Edges facing neighbors outside this provider or not yet
+     * loaded are left for later.
+     *
+     * @param cx x-coordinate of the columnar space containing the field
+     * @param cy y-coordinate of the section of the field
+     * @param cz z-coordinate of the columnar space containing the field
+     */
+    void areaInitAt(int cx, int cy, int cz) {
+        if (cx < cx0 || cx > cxN || cz < cz0 || cz > czN)
+            return;
+
+        final IColumnarSpace columnarSpace = columnAt(cx, cz);
+        final OcclusionField field;
+        if (columnarSpace == null || (field = columnarSpace.occlusionFields().optOcclusionFieldAt(cy)) == null || field.areaInitFull())
+            return;
+
+        final int
+            x0 = cx << 4,
+            y0 = cy << 4,
+            z0 = cz << 4;
+
+        synchronized (OcclusionField.MUTATION_LOCK) {
+            for (int zz : EDGE_OFFSETS)
+                for (int xx : EDGE_OFFSETS)
+                    if (xx != EDGE_OFFSETS[1] || zz != EDGE_OFFSETS[1]) {
+                        areaInit(field, x0 + xx, y0, z0 + zz);
+                        areaInit(field, x0 + xx, y0 + OcclusionField.DIMENSION_EXTENT, z0 + zz);
+                    }
+        }
+    }
+
+    /**
+     * Loads the occlusion field of a section if necessary and initializes the area flags along its edges against those
+     * neighbors that are loaded (see {@link #areaInitAt(int, int, int)}), readying it for {@link #snapshotAt(int, int, int)}
+     *
+     * @param cx x-coordinate of the columnar space containing the field
+     * @param cy y-coordinate of the section of the field
+     * @param cz z-coordinate of the columnar space containing the field
+     */
+    void loadAt(int cx, int cy, int cz) {
+        if (cx < cx0 || cx > cxN || cz < cz0 || cz > czN || cy < 0 || cy >= OcclusionField.DIMENSION_SIZE)
+            return;
+
+        final IColumnarSpace columnarSpace = columnAt(cx, cz);
+        if (columnarSpace != null) {
+            columnarSpace.occlusionFields().occlusionFieldAt(cx, cy, cz);
+            areaInitAt(cx, cy, cz);
+        }
+    }
+
+    /**
+     * Captures an immutable copy of the occlusion field of a section for reading from other threads.  This must be
+     * called from the thread that owns the instance.
+     *
+     * @param cx x-coordinate of the columnar space containing the field
+     * @param cy y-coordinate of the section of the field
+     * @param cz z-coordinate of the columnar space containing the field
+     * @return copy of the field, or null if the section is outside this provider or is not loaded
+     * @see OcclusionField#snapshot()
+     */
+    OcclusionField snapshotAt(int cx, int cy, int cz) {
+        if (cx < cx0 || cx > cxN || cz < cz0 || cz > czN || cy < 0 || cy >= OcclusionField.DIMENSION_SIZE)
+            return null;
+
+        final IColumnarSpace columnarSpace = columnAt(cx, cz);
+        final OcclusionField field;
+        if (columnarSpace == null || (field = columnarSpace.occlusionFields().optOcclusionFieldAt(cy)) == null)
+            return null;
+
+        return field.snapshot();
+    }
+
     private void areaInit(OcclusionField field, int x, int y, int z) {
-        final IColumnarSpace[][] columnarSpaces = this.columnarSpaces;
         final int
             cx = x >> 4,
             cy = y >> 4,
             cz = z >> 4,
 
-            cxN = columnarSpaces[0].length - 1,
-            czN = columnarSpaces.length - 1,
+            cxN = this.width - 1,
+            czN = this.depth - 1,
 
             czz = cz - cz0,
             cxx = cx - cx0,
@@ -58,12 +303,12 @@ public class AreaOcclusionProvider implements IOcclusionProvider {
             zz = z & OcclusionField.DIMENSION_MASK;
 
         final IColumnarSpace
-            centerColumnarSpace = columnarSpaces[czz][cxx];
+            centerColumnarSpace = columnAt(cx, cz);
 
         if (xx == 0 && zz == 0 && !field.areaInitAt(OcclusionField.AreaInit.northWest) && cxx > 0 && czz > 0) {
             final IColumnarSpace
-                westColumnarSpace = columnarSpaces[czz - 1][cxx],
-                northColumnarSpace = columnarSpaces[czz][cxx - 1];
+                westColumnarSpace = columnAt(cx, cz - 1),
+                northColumnarSpace = columnAt(cx - 1, cz);
 
             if (northColumnarSpace != null && westColumnarSpace != null)
                 field.areaInitNorthWest(
@@ -72,8 +317,8 @@ public class AreaOcclusionProvider implements IOcclusionProvider {
                 );
         } else if (xx == OcclusionField.DIMENSION_EXTENT && zz == 0 && !field.areaInitAt(OcclusionField.AreaInit.northEast) && cxx < cxN && czz > 0) {
             final IColumnarSpace
-                westColumnarSpace = columnarSpaces[czz - 1][cxx],
-                eastColumnarSpace = columnarSpaces[czz][cxx + 1];
+                westColumnarSpace = columnAt(cx, cz - 1),
+                eastColumnarSpace = columnAt(cx + 1, cz);
 
             if (eastColumnarSpace != null && westColumnarSpace != null)
                 field.areaInitNorthEast(
@@ -82,8 +327,8 @@ public class AreaOcclusionProvider implements IOcclusionProvider {
                 );
         } else if (xx == 0 && zz == OcclusionField.DIMENSION_EXTENT && !field.areaInitAt(OcclusionField.AreaInit.southWest) && cxx > 0 && czz < czN) {
             final IColumnarSpace
-                northColumnarSpace = columnarSpaces[czz][cxx - 1],
-                southColumnarSpace = columnarSpaces[czz + 1][cxx];
+                northColumnarSpace = columnAt(cx - 1, cz),
+                southColumnarSpace = columnAt(cx, cz + 1);
 
             if (northColumnarSpace != null && southColumnarSpace != null)
                 field.areaInitSouthWest(
@@ -92,8 +337,8 @@ public class AreaOcclusionProvider implements IOcclusionProvider {
                 );
         } else if (xx == OcclusionField.DIMENSION_EXTENT && zz == OcclusionField.DIMENSION_EXTENT && !field.areaInitAt(OcclusionField.AreaInit.southEast) && cxx < cxN && czz < czN) {
             final IColumnarSpace
-                eastColumnarSpace = columnarSpaces[czz][cxx + 1],
-                southColumnarSpace = columnarSpaces[czz + 1][cxx];
+                eastColumnarSpace = columnAt(cx + 1, cz),
+                southColumnarSpace = columnAt(cx, cz + 1);
 
             if (eastColumnarSpace != null && southColumnarSpace != null)
                 field.areaInitSouthEast(
@@ -102,25 +347,25 @@ public class AreaOcclusionProvider implements IOcclusionProvider {
                 );
         } else if (xx == 0 && !field.areaInitAt(OcclusionField.AreaInit.west) && cxx > 0) {
             final IColumnarSpace
-                northColumnarSpace = columnarSpaces[czz][cxx - 1];
+                northColumnarSpace = columnAt(cx - 1, cz);
 
             if (northColumnarSpace != null)
                 field.areaInitWest(northColumnarSpace.occlusionFields().occlusionFieldAt(cx - 1, cy, cz));
         } else if (xx == OcclusionField.DIMENSION_EXTENT && !field.areaInitAt(OcclusionField.AreaInit.east) && cxx < cxN) {
             final IColumnarSpace
-                eastColumnarSpace = columnarSpaces[czz][cxx + 1];
+                eastColumnarSpace = columnAt(cx + 1, cz);
 
             if (eastColumnarSpace != null)
                 field.areaInitEast(eastColumnarSpace.occlusionFields().occlusionFieldAt(cx + 1, cy, cz));
         } else if (zz == 0 && !field.areaInitAt(OcclusionField.AreaInit.north) && czz > 0) {
             final IColumnarSpace
-                westColumnarSpace = columnarSpaces[czz - 1][cxx];
+                westColumnarSpace = columnAt(cx, cz - 1);
 
             if (westColumnarSpace != null)
                 field.areaInitNorth(westColumnarSpace.occlusionFields().occlusionFieldAt(cx, cy, cz - 1));
         } else if (zz == OcclusionField.DIMENSION_EXTENT && !field.areaInitAt(OcclusionField.AreaInit.south) && czz < czN) {
             final IColumnarSpace
-                southColumnarSpace = columnarSpaces[czz + 1][cxx];
+                southColumnarSpace = columnAt(cx, cz + 1);
 
             if (southColumnarSpace != null)
                 field.areaInitSouth(southColumnarSpace.occlusionFields().occlusionFieldAt(cx, cy, cz + 1));
@@ -0,0 +1,297 @@
+package com.extollit.gaming.ai.path.model;
+
+import java.util.*;
+
+/**
+ * Open list implemented as a bucket (radix) queue.  Since both the passibility and the journey of a point are small
+ * bounded integers there is one bucket for every (passibility, journey) pair, each bucket is an intrusive doubly-linked
+ * list of slots and the queue tracks the lowest bucket that may be occupied.  Insertion and re-positioning are O(1) and
+ * removal of the best point is amortised O(1).  Points of equal priority are served last-in-first-out, which favours
+ * the deepest branch of the search.
+ *
+ * The index of a point in this queue (see {@link Node#index()}) is the slot it occupies.  Slots and buckets are
+ * allocated on demand, so the queue has the same capacity as {@link SortedPointQueue} and when full it culls the worst
+ * points in the same proportion.
+ */
+public final class BucketPointQueue extends AbstractPointQueue {
+    private static final int
+        JOURNEY_BITS = 18,
+        JOURNEY_MASK = (1 << JOURNEY_BITS) - 1,
+        PASSIBILITIES = Passibility.values().length,
+        END = PASSIBILITIES << JOURNEY_BITS,
+        INITIAL_SLOTS = 64,
+        INITIAL_JOURNEYS = 64,
+        NIL = -1;
+
+    private final int[][] heads = new int[PASSIBILITIES][];
+
+    private Node[] slots;
+    private int[] bucketOf, next, prev, free;
+    private int size, freeCount, allocated, cursor;
+    private List<Node> drained;
+
+    public BucketPointQueue() {
+        this(false);
+    }
+
+    /**
+     * Creates a new bucket queue
+     *
+     * @param wide true to operate in wide-node mode
+     * @see AbstractPointQueue#AbstractPointQueue(boolean)
+     */
+    public BucketPointQueue(boolean wide) {
+        super(wide);
+        reinitialize();
+    }
+
+    private void reinitialize() {
+        final int length = Math.min(INITIAL_SLOTS, this.capacity);
+        if (this.slots == null || this.slots.length > length) {
+            this.slots = new Node[length];
+            this.bucketOf = new int[length];
+            this.next = new int[length];
+            this.prev = new int[length];
+            this.free = new int[length];
+        } else
+            Arrays.fill(this.slots, null);
+
+        final int[][] heads = this.heads;
+        for (int p = 0; p < PASSIBILITIES; ++p) {
+            if (heads[p] == null || heads[p].length > INITIAL_JOURNEYS)
+                heads[p] = new int[INITIAL_JOURNEYS];
+            Arrays.fill(heads[p], NIL);
+        }
+
+        this.freeCount = this.allocated = this.size = 0;
+        this.cursor = END;
+    }
+
+    private static int bucketFor(Node point) {
+        return point.passibility().ordinal() << JOURNEY_BITS | point.journey();
+    }
+
+    private int headOf(int bucket) {
+        final int[] heads = this.heads[bucket >> JOURNEY_BITS];
+        final int journey = bucket & JOURNEY_MASK;
+        return journey < heads.length ? heads[journey] : NIL;
+    }
+
+    private void headOf(int bucket, int slot) {
+        final int p = bucket >> JOURNEY_BITS;
+        final int journey = bucket & JOURNEY_MASK;
+        int[] heads = this.heads[p];
+        if (journey >= heads.length) {
+            final int length0 = heads.length;
+            heads = this.heads[p] = Arrays.copyOf(heads, Math.max(length0 << 1, journey + 1));
+            Arrays.fill(heads, length0, heads.length, NIL);
+        }
+        heads[journey] = slot;
+    }
+
+    private void link(int slot, int bucket) {
+        final int head = headOf(bucket);
+        this.bucketOf[slot] = bucket;
+        this.prev[slot] = NIL;
+        this.next[slot] = head;
+        if (head != NIL)
+            this.prev[head] = slot;
+        headOf(bucket, slot);
+
+        if (bucket < this.cursor)
+            this.cursor = bucket;
+    }
+
+    private void unlink(int slot) {
+        final int
+            prev = this.prev[slot],
+            next = this.next[slot];
+
+        if (prev == NIL)
+            headOf(this.bucketOf[slot], next);
+        else
+            this.next[prev] = next;
+
+        if (next != NIL)
+            this.prev[next] = prev;
+    }
+
+    private int allocate() {
+        if (this.freeCount > 0)
+            return this.free[--this.freeCount];
+
+        final int slot = this.allocated++;
+        if (slot >= this.slots.length) {
+            final int length = (int)Math.min((long)this.slots.length << 1, this.capacity);
+            this.slots = Arrays.copyOf(this.slots, length);
+            this.bucketOf = Arrays.copyOf(this.bucketOf, length);
+            this.next = Arrays.copyOf(this.next, length);
+            this.prev = Arrays.copyOf(this.prev, length);
+            this.free = Arrays.copyOf(this.free, length);
+        }
+        return slot;
+    }
+
+    private void insert(Node point) {
+        final int slot = allocate();
+        this.slots[slot] = point;
+        point.index(slot);
+        link(slot, bucketFor(point));
+        this.size++;
+    }
+
+    private Node evict(int slot) {
+        final Node point = this.slots[slot];
+        unlink(slot);
+        this.slots[slot] = null;
+        this.free[this.freeCount++] = slot;
+        this.size--;
+        point.unassign();
+        return point;
+    }
+
+    private int best() {
+        if (this.size == 0)
+            throw new NoSuchElementException();
+
+        int cursor = this.cursor;
+        for (int p = cursor >> JOURNEY_BITS; p < PASSIBILITIES; ++p) {
+            final int[] heads = this.heads[p];
+            for (int journey = cursor & JOURNEY_MASK; journey < heads.length; ++journey)
+                if (heads[journey] != NIL) {
+                    this.cursor = p << JOURNEY_BITS | journey;
+                    return heads[journey];
+                }
+
+            cursor = (p + 1) << JOURNEY_BITS;
+        }
+
+        throw new IllegalStateException("Queue is corrupt");
+    }
+
+    @Override
+    public void clear() {
+        for (Node point : this.slots)
+            if (point != null)
+                point.unassign();
+
+        reinitialize();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Node top() {
+        return this.slots[best()];
+    }
+
+    @Override
+    public Node dequeue() {
+        return evict(best());
+    }
+
+    @Override
+    public void add(Node point) {
+        if (point.assigned())
+            throw new IllegalStateException("Point is already assigned");
+
+        if (this.drained != null) {
+            point.index(this.drained.size());
+            this.drained.add(point);
+            return;
+        }
+
+        if (this.size >= this.capacity)
+            cull((int)Math.ceil((float)this.size * CULL_THRESHOLD));
+
+        insert(point);
+    }
+
+    private void cull(int amount) {
+        for (int p = PASSIBILITIES - 1; amount > 0 && p >= 0; --p) {
+            final int[] heads = this.heads[p];
+            for (int journey = heads.length - 1; amount > 0 && journey >= 0; --journey)
+                while (amount > 0 && heads[journey] != NIL) {
+                    evict(heads[journey]);
+                    amount--;
+                }
+        }
+    }
+
+    @Override
+    boolean resort(Node point, int journey0) {
+        if (point.assigned()) {
+            if (this.drained == null) {
+                final int slot = point.index();
+                final int bucket = bucketFor(point);
+                if (bucket != this.bucketOf[slot]) {
+                    unlink(slot);
+                    link(slot, bucket);
+                }
+            }
+            return true;
+        } else
+            add(point);
+        return false;
+    }
+
+    @Override
+    public List<Node> view() {
+        final List<Node> list = new ArrayList<>(this.size);
+        final int[] next = this.next;
+
+        for (int p = this.cursor >> JOURNEY_BITS; p < PASSIBILITIES && list.size() < this.size; ++p)
+            for (int slot : this.heads[p])
+                for (; slot != NIL; slot = next[slot])
+                    list.add(this.slots[slot]);
+
+        return Collections.unmodifiableList(list);
+    }
+
+    @Override
+    List<Node> drain() {
+        final List<Node> list = new ArrayList<>(view());
+        for (int c = 0; c < list.size(); ++c)
+            list.get(c).index(c);
+
+        reinitialize();
+        return this.drained = list;
+    }
+
+    @Override
+    void refill(List<Node> list) {
+        this.drained = null;
+        restore(list);
+    }
+
+    @Override
+    void restore(List<Node> points) {
+        for (Node point : points) {
+            point.unassign();
+            add(point);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        BucketPointQueue that = (BucketPointQueue) o;
+
+        return view().equals(that.view());
+    }
+
+    @Override
+    public int hashCode() {
+        return view().hashCode();
+    }
+}
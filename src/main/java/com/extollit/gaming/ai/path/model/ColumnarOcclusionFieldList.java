@@ -1,5 +1,8 @@
 package com.extollit.gaming.ai.path.model;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * A one-dimensional store for occlusion fields aligned along the y-axis distributed according to chunk coordinates.
  * Define an object of this class as a final field member of your concrete implementation of {@link IColumnarSpace} then
@@ -12,13 +15,18 @@ package com.extollit.gaming.ai.path.model;
  * @see OcclusionField
  */
 public class ColumnarOcclusionFieldList {
+    private static final AtomicLong resets = new AtomicLong();
+
     /**
      * Containing columnar space that owns this object.  This object will typically have a final field member that points
      * to this object and returns it via {@link IColumnarSpace#occlusionFields()}
      */
     public final IColumnarSpace container;
 
-    private OcclusionField [] fields;
+    private volatile AtomicReferenceArray<OcclusionField> fields;
+    private volatile boolean located;
+    private volatile int modifications;
+    private int cx, cz;
 
     /**
      * Construct a new object bound to the specified columnar space container, this is what {@link #container} will be
@@ -38,6 +46,23 @@ public class ColumnarOcclusionFieldList {
     @SuppressWarnings("unused")
     public void reset() {
         this.fields = null;
+        this.modifications++;
+        resets.incrementAndGet();
+
+        if (this.located) {
+            final IInstanceSpace instance = this.container.instance();
+            if (instance != null)
+                instance.occlusionFieldListeners().columnReset(instance, this.cx, this.cz);
+        }
+    }
+
+    /**
+     * Number of times any columnar space has been reset, which happens whenever a columnar space is loaded or unloaded
+     *
+     * @return count of resets
+     */
+    static long resets() {
+        return resets.get();
     }
 
     /**
@@ -56,33 +81,71 @@ public class ColumnarOcclusionFieldList {
      */
     @SuppressWarnings("unused")
     public void onBlockChanged(int x, int y, int z, IBlockDescription description, int metaData) {
-        final OcclusionField[] fields = this.fields;
+        this.modifications++;
+
+        final AtomicReferenceArray<OcclusionField> fields = this.fields;
         if (fields == null)
             return;
 
-        final OcclusionField field = fields[y >> 4 & 0xF];
+        final OcclusionField field = fields.get(y >> 4 & 0xF);
 
         if (field == null)
             return;
 
         field.set(this.container, x, y, z, description);
+
+        final IInstanceSpace instance = this.container.instance();
+        if (instance != null)
+            instance.occlusionFieldListeners().blockChanged(instance, x, y, z);
     }
 
     public final OcclusionField occlusionFieldAt(int cx, int cy, int cz) {
-        OcclusionField[] fields = this.fields;
-        if (fields == null)
-            fields = this.fields = new OcclusionField[OcclusionField.DIMENSION_SIZE];
-
-        OcclusionField result = fields[cy];
-        if (result == null) {
-            final OcclusionField occlusionField = createOcclusionField(cx, cy, cz);
-            return fields[cy] = occlusionField;
-        } else
-            return result;
+        AtomicReferenceArray<OcclusionField> fields = this.fields;
+        OcclusionField result = fields == null ? null : fields.get(cy);
+        if (result == null)
+            synchronized (this) {
+                fields = locate(cx, cz);
+                result = fields.get(cy);
+                if (result == null)
+                    fields.set(cy, result = createOcclusionField(cx, cy, cz));
+            }
+
+        return result;
+    }
+
+    private AtomicReferenceArray<OcclusionField> locate(int cx, int cz) {
+        AtomicReferenceArray<OcclusionField> fields = this.fields;
+        if (fields == null) {
+            this.cx = cx;
+            this.cz = cz;
+            this.located = true;
+            fields = this.fields = new AtomicReferenceArray<>(OcclusionField.DIMENSION_SIZE);
+        }
+        return fields;
+    }
+
+    /**
+     * Builds the occlusion field of a section without holding the lock of this object and then publishes it unless
+     * another thread has built it in the meantime or the columnar space was modified or reset while it was being built,
+     * in which case it is discarded and the field is instead built lazily when first needed.
+     *
+     * @return true if the field built was published
+     */
+    final boolean precompute(int cx, int cy, int cz) {
+        if (optOcclusionFieldAt(cy) != null)
+            return false;
+
+        final int modifications = this.modifications;
+        final OcclusionField field = createOcclusionField(cx, cy, cz);
+
+        synchronized (this) {
+            return modifications == this.modifications && locate(cx, cz).compareAndSet(cy, null, field);
+        }
     }
 
     public final OcclusionField optOcclusionFieldAt(int cy) {
-        return this.fields == null ? null : this.fields[cy];
+        final AtomicReferenceArray<OcclusionField> fields = this.fields;
+        return fields == null ? null : fields.get(cy);
     }
 
     public static OcclusionField optOcclusionFieldAt(IInstanceSpace instance, int cx, int cy, int cz) {
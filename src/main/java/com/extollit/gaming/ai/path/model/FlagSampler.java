@@ -1,23 +1,159 @@
 package com.extollit.gaming.ai.path.model;
 
 public class FlagSampler {
+    private static final int SECTION_ORDER = 4;
+
     private final IOcclusionProvider op;
     private int volatileCount;
+    private long since;
+    private int cx0, cy0, cz0, cxN, cyN, czN;
 
     public FlagSampler(IOcclusionProvider op) {
         this.op = op;
+        reset();
     }
 
     public byte flagsAt(int x, int y, int z) {
         byte flags = this.op.elementAt(x, y, z);
         if (volatileIn(flags))
             this.volatileCount++;
+
+        final int
+            cx = x >> SECTION_ORDER,
+            cy = y >> SECTION_ORDER,
+            cz = z >> SECTION_ORDER;
+
+        if (cx < this.cx0) this.cx0 = cx;
+        if (cx > this.cxN) this.cxN = cx;
+        if (cy < this.cy0) this.cy0 = cy;
+        if (cy > this.cyN) this.cyN = cy;
+        if (cz < this.cz0) this.cz0 = cz;
+        if (cz > this.czN) this.czN = cz;
+
         return flags;
     }
 
+    /**
+     * Retrieves the captured copy of a block having partial collision bounds without sampling its flags
+     *
+     * @see IOcclusionProvider#partialBlockAt(int, int, int)
+     */
+    public IBlockObject partialBlockAt(int x, int y, int z) {
+        return this.op.partialBlockAt(x, y, z);
+    }
+
+    /**
+     * Counts the consecutive openly passible blocks from the specified location downward within its section without
+     * sampling them, a caller that skips over these blocks should still sample at least one of them so that the section
+     * is captured by the {@link #footprint()}.
+     *
+     * @see IOcclusionProvider#openRunBelow(int, int, int)
+     */
+    public int openRunBelow(int x, int y, int z) {
+        return this.op.openRunBelow(x, y, z);
+    }
+
+    /**
+     * Counts the consecutive fluid blocks from the specified location upward within its section without sampling them,
+     * a caller that skips over these blocks should still sample at least one of them so that the section is captured by
+     * the {@link #footprint()}.
+     *
+     * @see IOcclusionProvider#fluidRunAbove(int, int, int)
+     */
+    public int fluidRunAbove(int x, int y, int z) {
+        return this.op.fluidRunAbove(x, y, z);
+    }
+
     private boolean volatileIn(byte flags) {
         return Logic.doorway.in(flags);
     }
 
     public int volatility() { return this.volatileCount; }
+
+    /**
+     * Readies this sampler for another probe against the same occlusion provider
+     */
+    public void reset() {
+        this.volatileCount = 0;
+        this.since = OcclusionField.latestVersion();
+        this.cx0 = this.cy0 = this.cz0 = Integer.MAX_VALUE;
+        this.cxN = this.cyN = this.czN = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Captures the sections (16x16x16 blocks) sampled since the last reset along with the latest occlusion data version
+     * at the time of the reset, any change to these sections from then on gives them a greater version
+     *
+     * @return the sampled sections, or null if nothing was sampled or the occlusion provider does not track versions
+     */
+    Footprint footprint() {
+        if (this.cx0 > this.cxN)
+            return null;
+
+        final Footprint footprint = new Footprint(this.cx0, this.cy0, this.cz0, this.cxN, this.cyN, this.czN, this.since);
+        return footprint.versionIn(this.op) != 0 ? footprint : null;
+    }
+
+    IOcclusionProvider occlusionProvider() { return this.op; }
+
+    /**
+     * Bounds of the sections sampled by a probe and the latest occlusion data version when the probe began, or the
+     * column of a shared cache that a probe result was retrieved from
+     */
+    static final class Footprint {
+        private final int cx0, cy0, cz0, cxN, cyN, czN;
+        private final long version;
+        private final PassibilityCache.Column column;
+
+        private Footprint(int cx0, int cy0, int cz0, int cxN, int cyN, int czN, long version) {
+            this.cx0 = cx0;
+            this.cy0 = cy0;
+            this.cz0 = cz0;
+            this.cxN = cxN;
+            this.cyN = cyN;
+            this.czN = czN;
+            this.version = version;
+            this.column = null;
+        }
+
+        private Footprint(PassibilityCache.Column column) {
+            this.cx0 = this.cy0 = this.cz0 = this.cxN = this.cyN = this.czN = 0;
+            this.version = 0;
+            this.column = column;
+        }
+
+        /**
+         * Footprint of a probe result retrieved from a shared cache, which is modified once the column is discarded
+         * because a block within reach of it has changed
+         *
+         * @param column column of the shared cache that the result was retrieved from
+         * @return footprint of the result
+         */
+        static Footprint of(PassibilityCache.Column column) {
+            return new Footprint(column);
+        }
+
+        private long versionIn(IOcclusionProvider op) {
+            long version = 0;
+            for (int cy = this.cy0; cy <= this.cyN; ++cy)
+                for (int cz = this.cz0; cz <= this.czN; ++cz)
+                    for (int cx = this.cx0; cx <= this.cxN; ++cx)
+                        version = Math.max(version, op.versionAt(cx << SECTION_ORDER, cy << SECTION_ORDER, cz << SECTION_ORDER));
+
+            return version;
+        }
+
+        /**
+         * Determines whether the occlusion data of any of the sampled sections has changed since it was sampled
+         *
+         * @param op occlusion provider to consult for the current versions of the sections
+         * @return true if the probe that sampled these sections must be repeated
+         */
+        boolean modifiedIn(IOcclusionProvider op) {
+            if (this.column != null)
+                return !this.column.valid;
+
+            return OcclusionField.latestVersion() > this.version && versionIn(op) > this.version;
+        }
+    }
 }
@@ -0,0 +1,534 @@
+package com.extollit.gaming.ai.path.model;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.floor;
+
+/**
+ * World-level flow fields (also known as Dijkstra maps) for many entities tracking the same target.  A field is rooted
+ * at the standable location of a tracked {@link IDynamicMovableObject} and records, for every standable location within
+ * a fixed radius of it, the distance to the target and the next location to move to.  A field is computed once per
+ * target and capability profile (see {@link PassibilityCache.Profile}) and is shared by every follower with that
+ * profile, so the cost of tracking a target scales with the area around it rather than the number of followers.
+ *
+ * The moves between locations are discovered lazily using the node calculator of the first follower and are retained
+ * as the target moves, so when the target crosses into another block the field is re-rooted without probing terrain
+ * that was already summarized.  Moves near a changed block or reset columnar space are discarded and discovered again
+ * on demand, this is driven by {@link ColumnarOcclusionFieldList} notifications so the implementor must honor the
+ * contracts documented there.
+ *
+ * Followers consume a field through a {@link Path}, a lightweight path that descends the field from the follower's
+ * location and refreshes itself whenever the field changes.
+ *
+ * This object is thread-safe.  Since it registers itself with the {@link OcclusionFieldListenerList} of its instance space
+ * it must be closed when it is discarded before the instance space is unloaded.
+ *
+ * @see Path
+ */
+public final class FlowField implements IOcclusionFieldListener, Closeable {
+    /**
+     * Default radius (in blocks) of the area around a target covered by its fields
+     */
+    public static final int DEFAULT_RADIUS = 32;
+
+    private static final int[][] DIRECTIONS = {
+        { -1, 0 },
+        { +1, 0 },
+        { 0, -1 },
+        { 0, +1 }
+    };
+
+    private final IInstanceSpace instanceSpace;
+    private final int radius;
+    private final ConcurrentHashMap<PassibilityCache.Profile, Map<IDynamicMovableObject, Field>> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * Creates new flow fields for the specified instance and registers them for occlusion field notifications
+     *
+     * @param instanceSpace the instance to path-find in
+     */
+    public FlowField(IInstanceSpace instanceSpace) {
+        this(instanceSpace, DEFAULT_RADIUS);
+    }
+
+    /**
+     * Creates new flow fields for the specified instance and registers them for occlusion field notifications
+     *
+     * @param instanceSpace the instance to path-find in
+     * @param radius radius (in blocks) of the area around a target covered by its fields, followers outside this area
+     *               must path-find to the target by other means
+     */
+    public FlowField(IInstanceSpace instanceSpace, int radius) {
+        this.instanceSpace = instanceSpace;
+        this.radius = radius;
+        instanceSpace.occlusionFieldListeners().add(this);
+    }
+
+    /**
+     * Obtains a path for the specified follower that descends the field of the specified target, the field is computed
+     * if this is the first follower of the target with this capability profile.
+     *
+     * @param profile capability profile of the follower
+     * @param calculator node calculator used to path-find for the follower
+     * @param capabilities capabilities of the follower
+     * @param occlusionProviderFactory used to obtain flags of the blocks surrounding the target
+     * @param target the object to track
+     * @param follower the entity tracking the target
+     * @param random random number generator used by the path
+     * @return a path to the target, or null if the follower is not within the field of the target or cannot reach it
+     */
+    public Path pathFor(PassibilityCache.Profile profile, INodeCalculator calculator, IPathingEntity.Capabilities capabilities, IOcclusionProviderFactory occlusionProviderFactory, IDynamicMovableObject target, IPathingEntity follower, Random random) {
+        final Map<IDynamicMovableObject, Field> fields = this.profiles.computeIfAbsent(profile, key -> new WeakHashMap<>());
+        final Field field;
+        synchronized (fields) {
+            field = fields.computeIfAbsent(target, key -> new Field(key, profile, calculator, capabilities, occlusionProviderFactory));
+        }
+
+        final Path path = new Path(field, follower, capabilities.speed(), random);
+        return path.refresh() ? path : null;
+    }
+
+    /**
+     * Number of fields currently computed
+     *
+     * @return count of fields across all capability profiles
+     */
+    public int fields() {
+        int count = 0;
+        for (Map<IDynamicMovableObject, Field> fields : this.profiles.values())
+            synchronized (fields) {
+                count += fields.size();
+            }
+
+        return count;
+    }
+
+    /**
+     * Discards all fields
+     */
+    public void clear() {
+        this.profiles.clear();
+    }
+
+    @Override
+    public void onBlockChanged(IInstanceSpace instance, int x, int y, int z) {
+        if (instance != this.instanceSpace)
+            return;
+
+        for (Field field : allFields())
+            field.invalidate(x, z, x, z);
+    }
+
+    @Override
+    public void onColumnReset(IInstanceSpace instance, int cx, int cz) {
+        if (instance != this.instanceSpace)
+            return;
+
+        final int
+            x0 = cx << 4,
+            z0 = cz << 4;
+
+        for (Field field : allFields())
+            field.invalidate(x0, z0, x0 + 15, z0 + 15);
+    }
+
+    private List<Field> allFields() {
+        final List<Field> result = new ArrayList<>();
+        for (Map<IDynamicMovableObject, Field> fields : this.profiles.values())
+            synchronized (fields) {
+                result.addAll(fields.values());
+            }
+
+        return result;
+    }
+
+    @Override
+    public void close() {
+        this.instanceSpace.occlusionFieldListeners().remove(this);
+        clear();
+    }
+
+    /**
+     * A standable location in a field along with the moves into it from adjacent locations
+     */
+    private static final class Cell {
+        final Coords key;
+        Passibility passibility = Passibility.passible;
+
+        Coords[] predecessors;
+        int[] costs;
+        boolean truncated;
+
+        Cell next;
+        int distance, stamp, closed;
+
+        Cell(Coords key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Flow field of a single target for a single capability profile
+     */
+    final class Field {
+        private final WeakReference<IDynamicMovableObject> target;
+        private final INodeCalculator calculator;
+        private final IPathingEntity.Capabilities capabilities;
+        private final IOcclusionProviderFactory occlusionProviderFactory;
+        private final ProbeResult probe = new ProbeResult();
+        private final Map<Coords, Cell> cells = new HashMap<>();
+        private final List<ArrayDeque<Cell>> buckets = new ArrayList<>();
+        private final int reach;
+
+        private Cell root;
+        private FlagSampler sampler;
+        private int targetX, targetY, targetZ, stamp;
+        private boolean dirty = true;
+
+        Field(IDynamicMovableObject target, PassibilityCache.Profile profile, INodeCalculator calculator, IPathingEntity.Capabilities capabilities, IOcclusionProviderFactory occlusionProviderFactory) {
+            this.target = new WeakReference<>(target);
+            this.calculator = calculator;
+            this.capabilities = capabilities;
+            this.occlusionProviderFactory = occlusionProviderFactory;
+            this.reach = profile.reach() + 1;
+        }
+
+        /**
+         * Re-roots the field if the target has moved into another block or terrain near the field has changed
+         *
+         * @return the current stamp of the field, or zero if the target is gone or not standing anywhere reachable
+         */
+        synchronized int update() {
+            final IDynamicMovableObject target = this.target.get();
+            if (target == null)
+                return 0;
+
+            final com.extollit.linalg.immutable.Vec3d coordinates = target.coordinates();
+            final int
+                x = (int)floor(coordinates.x),
+                y = (int)floor(coordinates.y),
+                z = (int)floor(coordinates.z);
+
+            if (!this.dirty && x == this.targetX && y == this.targetY && z == this.targetZ)
+                return this.root == null ? 0 : this.stamp;
+
+            this.dirty = false;
+            this.targetX = x;
+            this.targetY = y;
+            this.targetZ = z;
+            this.sampler = new FlagSampler(this.occlusionProviderFactory.fromInstanceSpace(FlowField.this.instanceSpace, (x - radius - 1) >> 4, (z - radius - 1) >> 4, (x + radius + 1) >> 4, (z + radius + 1) >> 4));
+
+            final ProbeResult probe = probe(x, y, z, null);
+            this.root = passible(probe) && contains(probe.x(), probe.z()) ? cell(new Coords(probe.x(), probe.y(), probe.z())) : null;
+            if (this.root == null)
+                return 0;
+
+            this.root.passibility = probe.passibility();
+            prune();
+            flood();
+            return this.stamp;
+        }
+
+        /**
+         * Descends the field from the specified location to the target
+         *
+         * @param coordinates location of a follower
+         * @param stamp stamp of the field that the descent is expected from
+         * @return locations to move through from the follower to the target, or null if the follower is not within the
+         *          field or the field has changed since the specified stamp
+         */
+        synchronized Node[] descend(com.extollit.linalg.immutable.Vec3d coordinates, int stamp) {
+            if (stamp != this.stamp || this.root == null)
+                return null;
+
+            final ProbeResult probe = probe((int)floor(coordinates.x), (int)floor(coordinates.y), (int)floor(coordinates.z), null);
+            if (!passible(probe))
+                return null;
+
+            final Cell first = this.cells.get(new Coords(probe.x(), probe.y(), probe.z()));
+            if (first == null || first.stamp != stamp)
+                return null;
+
+            final List<Node> nodes = new ArrayList<>();
+            for (Cell cell = first; cell != null; cell = cell.next)
+                nodes.add(new Node(cell.key, cell.passibility));
+
+            return nodes.toArray(new Node[0]);
+        }
+
+        synchronized void invalidate(int x0, int z0, int xN, int zN) {
+            final int reach = this.reach;
+            x0 -= reach;
+            z0 -= reach;
+            xN += reach;
+            zN += reach;
+
+            if (xN < this.targetX - radius - 1 || x0 > this.targetX + radius + 1 || zN < this.targetZ - radius - 1 || z0 > this.targetZ + radius + 1)
+                return;
+
+            final Iterator<Coords> i = this.cells.keySet().iterator();
+            while (i.hasNext()) {
+                final Coords key = i.next();
+                if (key.x >= x0 && key.x <= xN && key.z >= z0 && key.z <= zN)
+                    i.remove();
+            }
+
+            this.dirty = true;
+        }
+
+        private boolean contains(int x, int z) {
+            return abs(x - this.targetX) <= radius && abs(z - this.targetZ) <= radius;
+        }
+
+        /**
+         * Discards cells that are no longer within the radius of the target as well as the moves of cells whose moves
+         * were truncated by the previous radius
+         */
+        private void prune() {
+            final Iterator<Cell> i = this.cells.values().iterator();
+            while (i.hasNext()) {
+                final Cell cell = i.next();
+                if (!contains(cell.key.x, cell.key.z))
+                    i.remove();
+                else if (cell.truncated)
+                    cell.predecessors = null;
+            }
+        }
+
+        private Cell cell(Coords key) {
+            return this.cells.computeIfAbsent(key, Cell::new);
+        }
+
+        /**
+         * Dial's variant of Dijkstra's algorithm from the root over the reverse moves of the field, move costs are
+         * small integers so an array of buckets keyed by distance replaces the priority queue
+         */
+        private void flood() {
+            final List<ArrayDeque<Cell>> buckets = this.buckets;
+            final int stamp = ++this.stamp;
+            final Cell root = this.root;
+
+            root.next = null;
+            root.distance = 0;
+            root.stamp = stamp;
+            bucket(0).add(root);
+
+            for (int distance = 0; distance < buckets.size(); ++distance) {
+                final ArrayDeque<Cell> bucket = buckets.get(distance);
+                Cell cell;
+                while ((cell = bucket.poll()) != null) {
+                    if (cell.closed == stamp || cell.distance != distance)
+                        continue;
+
+                    cell.closed = stamp;
+                    if (cell.predecessors == null)
+                        discover(cell);
+
+                    final Coords[] predecessors = cell.predecessors;
+                    final int[] costs = cell.costs;
+                    for (int c = 0; c < predecessors.length; ++c) {
+                        final Cell predecessor = cell(predecessors[c]);
+                        final int length = distance + costs[c];
+                        if (predecessor.stamp != stamp || length < predecessor.distance) {
+                            predecessor.stamp = stamp;
+                            predecessor.distance = length;
+                            predecessor.next = cell;
+                            bucket(length).add(predecessor);
+                        }
+                    }
+                }
+            }
+        }
+
+        private ArrayDeque<Cell> bucket(int distance) {
+            final List<ArrayDeque<Cell>> buckets = this.buckets;
+            while (buckets.size() <= distance)
+                buckets.add(new ArrayDeque<>());
+
+            return buckets.get(distance);
+        }
+
+        /**
+         * Discovers the moves into a cell from adjacent locations, a location is a predecessor of the cell if moving
+         * from the cell toward it lands there and moving back from it lands on the cell.  The cost of a move is its
+         * length plus a penalty for each degree of passibility worse than passible of the location moved from.
+         */
+        private void discover(Cell cell) {
+            final Coords key = cell.key;
+            final Coords[] predecessors = new Coords[DIRECTIONS.length];
+            final int[] costs = new int[DIRECTIONS.length];
+            boolean truncated = false;
+            int count = 0;
+
+            for (int[] d : DIRECTIONS) {
+                final int
+                    x = key.x + d[0],
+                    z = key.z + d[1];
+
+                if (!contains(x, z)) {
+                    truncated = true;
+                    continue;
+                }
+
+                ProbeResult probe = probe(x, key.y, z, key);
+                if (!passible(probe) || probe.x() != x || probe.z() != z)
+                    continue;
+
+                final Coords predecessor = new Coords(x, probe.y(), z);
+                final Passibility passibility = probe.passibility();
+
+                probe = probe(key.x, predecessor.y, key.z, predecessor);
+                if (!passible(probe) || probe.x() != key.x || probe.y() != key.y || probe.z() != key.z)
+                    continue;
+
+                cell(predecessor).passibility = passibility;
+                predecessors[count] = predecessor;
+                costs[count++] = 1 + abs(predecessor.y - key.y) + (passibility.ordinal() << 2);
+            }
+
+            cell.predecessors = Arrays.copyOf(predecessors, count);
+            cell.costs = Arrays.copyOf(costs, count);
+            cell.truncated = truncated;
+        }
+
+        private ProbeResult probe(int x, int y, int z, Coords origin) {
+            final ProbeResult probe = this.probe;
+            this.sampler.reset();
+            this.calculator.probe(x, y, z, origin, this.sampler, probe);
+            return probe;
+        }
+
+        private boolean passible(ProbeResult probe) {
+            return !probe.passibility().impassible(this.capabilities);
+        }
+    }
+
+    /**
+     * A path to the target of a field for a single follower.  The path descends the field from the location of the
+     * follower and is rebuilt from the follower's location whenever the field is re-rooted or repaired, it is otherwise
+     * followed like any other path.
+     */
+    public static final class Path implements IPath {
+        private final Field field;
+        private final IPathingEntity follower;
+        private final float speed;
+        private final Random random;
+
+        private IPath delegate;
+        private int stamp;
+
+        private Path(Field field, IPathingEntity follower, float speed, Random random) {
+            this.field = field;
+            this.follower = follower;
+            this.speed = speed;
+            this.random = random;
+        }
+
+        /**
+         * Brings this path up-to-date with its field, rebuilding it from the location of the follower if the field has
+         * changed since it was last built
+         *
+         * @return false if the follower can no longer follow the field
+         */
+        public boolean refresh() {
+            final int stamp = this.field.update();
+            if (stamp == 0)
+                return false;
+
+            if (stamp == this.stamp && this.delegate != null)
+                return true;
+
+            final Node[] nodes = this.field.descend(this.follower.coordinates(), stamp);
+            if (nodes == null)
+                return false;
+
+            this.delegate = nodes.length <= 1 ? new IncompletePath(nodes[0], true) : new PathObject(this.speed, this.random, nodes);
+            this.stamp = stamp;
+            return true;
+        }
+
+        @Override
+        public void truncateTo(int length) {
+            this.delegate.truncateTo(length);
+        }
+
+        @Override
+        public void untruncate() {
+            this.delegate.untruncate();
+        }
+
+        @Override
+        public int length() {
+            return this.delegate.length();
+        }
+
+        @Override
+        public int cursor() {
+            return this.delegate.cursor();
+        }
+
+        @Override
+        public INode at(int i) {
+            return this.delegate.at(i);
+        }
+
+        @Override
+        public INode current() {
+            return this.delegate.current();
+        }
+
+        @Override
+        public INode last() {
+            return this.delegate.last();
+        }
+
+        @Override
+        public boolean done() {
+            return this.delegate.done();
+        }
+
+        @Override
+        public boolean taxiing() {
+            return this.delegate.taxiing();
+        }
+
+        @Override
+        public void taxiUntil(int index) {
+            this.delegate.taxiUntil(index);
+        }
+
+        @Override
+        public boolean sameAs(IPath other) {
+            return this.delegate.sameAs(other instanceof Path ? ((Path) other).delegate : other);
+        }
+
+        @Override
+        public float stagnantFor(IPathingEntity subject) {
+            return this.delegate.stagnantFor(subject);
+        }
+
+        @Override
+        public void update(IPathingEntity pathingEntity) {
+            this.delegate.update(pathingEntity);
+        }
+
+        @Override
+        public Iterator<INode> iterator() {
+            return this.delegate.iterator();
+        }
+
+        @Override
+        public String toString() {
+            return "FlowField.Path" + this.delegate;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FlowField" + Arrays.toString(this.profiles.keySet().toArray());
+    }
+}
@@ -0,0 +1,20 @@
+package com.extollit.gaming.ai.path.model;
+
+/**
+ * Generation counter shared between a graph and its nodes.  Each node records the generation in which its search state
+ * (length, remaining, index, visited and dirty) was last valid, advancing the generation therefore resets the search
+ * state of every node in the graph in constant time and each node discards its stale state on next access.
+ */
+final class GraphEpoch {
+    int value;
+
+    /**
+     * Begins a new generation
+     *
+     * @return true if the counter wrapped around, in which case nodes of a long-past generation may be mistaken for
+     *          current and must be reset eagerly
+     */
+    boolean advance() {
+        return ++this.value == 0;
+    }
+}
@@ -21,6 +21,16 @@ public enum Gravitation {
 
     private static final Gravitation[] VALUES = values();
 
+    /**
+     * Retrieves the gravitation having the given ordinal value
+     *
+     * @param index ordinal of the gravitation
+     * @return the gravitation corresponding to the given ordinal
+     */
+    public static Gravitation of(int index) {
+        return VALUES[index];
+    }
+
     /**
      * Determines the greatest gravitation restriction between this and the passed parameter.  For example, if
      * this is {@link #buoyant} and the parameter is {@link #grounded} then the result is <em>grounded</em>.  Also,
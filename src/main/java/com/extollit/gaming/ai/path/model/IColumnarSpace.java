@@ -31,6 +31,20 @@ public interface IColumnarSpace {
      */
     int metaDataAt(int x, int y, int z);
 
+    /**
+     * Optionally supplies the blocks of an entire section (16x16x16 blocks) of this columnar space at once as a palette.
+     * When available the occlusion field of the section is loaded by evaluating each distinct block once rather than
+     * by calling {@link #blockAt(int, int, int)} for every location, which considerably reduces the cost of loading
+     * columnar spaces in bulk (e.g. after a player teleports or logs in).
+     *
+     * @param cy y-coordinate of the section relative to the columnar space (0-15)
+     * @return palette of the blocks in the section, or null if the implementor does not support palettes in which case
+     *          blocks are queried individually
+     */
+    default SectionPalette paletteAt(int cy) {
+        return null;
+    }
+
     /**
      * Retrieves the list of occlusion fields (aligned-along the y-axis) associated with this columnar space.
      * Typically this would retrieve a final field member that the implementor defines on the concrete
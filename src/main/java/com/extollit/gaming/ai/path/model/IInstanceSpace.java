@@ -36,4 +36,12 @@ public interface IInstanceSpace {
      * @return the columnar space corresponding to the specified chunk coordinates or null if it is not available
      */
     IColumnarSpace columnarSpaceAt(int cx, int cz);
+
+    /**
+     * Retrieves the listeners notified of changes to the occlusion data of this instance.  Typically this would retrieve
+     * a final field member that the implementor defines on the concrete {@link IInstanceSpace} type.
+     *
+     * @return the object that manages the occlusion field listeners registered with this instance
+     */
+    OcclusionFieldListenerList occlusionFieldListeners();
 }
@@ -4,4 +4,30 @@ public interface INodeCalculator {
     void applySubject(IPathingEntity subject);
     Node passibleNodeNear(int x, int y, int z, Coords origin, final FlagSampler flagSampler);
     boolean omnidirectional();
+
+    /**
+     * Same as {@link #passibleNodeNear(int, int, int, Coords, FlagSampler)} except the result is written to a reusable
+     * probe result rather than allocated as a new node.  Calculators should override this on the search's hot path,
+     * the default implementation delegates to the former.
+     *
+     * @param x x-coordinate of the location to probe
+     * @param y y-coordinate of the location to probe
+     * @param z z-coordinate of the location to probe
+     * @param origin point from which the location is approached, may be null
+     * @param flagSampler sampler of occlusion flags for the probe
+     * @param result receives the passible point nearest the location
+     */
+    default void probe(int x, int y, int z, Coords origin, final FlagSampler flagSampler, ProbeResult result) {
+        result.set(passibleNodeNear(x, y, z, origin, flagSampler));
+    }
+
+    /**
+     * Greatest number of blocks that a single move into an adjacent column may drop.  This bounds where the predecessors
+     * of a point may stand when moves are walked backward.
+     *
+     * @return maximum descent of a move between adjacent columns
+     */
+    default int descentLimit() {
+        return 1;
+    }
 }
@@ -0,0 +1,32 @@
+package com.extollit.gaming.ai.path.model;
+
+/**
+ * Receives notifications when occlusion field data changes.  Listeners are registered with the
+ * {@link OcclusionFieldListenerList} of an instance (see {@link IInstanceSpace#occlusionFieldListeners()}) and are only
+ * notified of changes to that instance, from whichever thread calls
+ * {@link ColumnarOcclusionFieldList#onBlockChanged(int, int, int, IBlockDescription, int)} or
+ * {@link ColumnarOcclusionFieldList#reset()}, so implementations must be thread-safe.
+ *
+ * @see PassibilityCache
+ */
+public interface IOcclusionFieldListener {
+    /**
+     * Notifies that the occlusion data of a single block changed
+     *
+     * @param instance instance containing the columnar space where the block changed
+     * @param x absolute (relative to the instance) x coordinate of the block that changed
+     * @param y absolute (relative to the instance) y coordinate of the block that changed
+     * @param z absolute (relative to the instance) z coordinate of the block that changed
+     */
+    void onBlockChanged(IInstanceSpace instance, int x, int y, int z);
+
+    /**
+     * Notifies that all occlusion data of a columnar space was discarded, typically because the column was loaded or
+     * unloaded
+     *
+     * @param instance instance containing the columnar space that was reset
+     * @param cx x chunk coordinate of the columnar space
+     * @param cz z chunk coordinate of the columnar space
+     */
+    void onColumnReset(IInstanceSpace instance, int cx, int cz);
+}
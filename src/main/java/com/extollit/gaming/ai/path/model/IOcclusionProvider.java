@@ -25,6 +25,68 @@ public interface IOcclusionProvider {
      */
     byte elementAt(int x, int y, int z);
 
+    /**
+     * Returns the version of the occlusion data containing the block at the specified coordinates.  The version changes
+     * whenever any of the data it covers changes, so a cached result derived from {@link #elementAt(int, int, int)} is
+     * still valid for as long as the versions of the locations it sampled remain the same.
+     *
+     * @param x absolute (relative to the instance) x-coordinate
+     * @param y absolute (relative to the instance) y-coordinate
+     * @param z absolute (relative to the instance) z-coordinate
+     * @return the version of the data at the aforementioned coordinates, zero if the data is unavailable or this provider
+     *          does not track versions
+     * @see OcclusionField#version()
+     */
+    default long versionAt(int x, int y, int z) {
+        return 0;
+    }
+
+    /**
+     * Retrieves a copy of the block having partial collision bounds (i.e. {@link Element#earth} and {@link Logic#fuzzy})
+     * at the specified coordinates that was captured when the occlusion data was loaded, with its collision bounds
+     * quantised to sixteenths of a block.  This spares querying the instance for the geometry of such blocks during a
+     * search.
+     *
+     * @param x absolute (relative to the instance) x-coordinate
+     * @param y absolute (relative to the instance) y-coordinate
+     * @param z absolute (relative to the instance) z-coordinate
+     * @return copy of the block, or null if none was captured in which case the block should be retrieved from the
+     *          instance by {@link IInstanceSpace#blockObjectAt(int, int, int)}
+     */
+    default IBlockObject partialBlockAt(int x, int y, int z) {
+        return null;
+    }
+
+    /**
+     * Counts the consecutive blocks that are openly passible air (i.e. {@link Element#air} but not a {@link Logic#doorway})
+     * from the specified coordinates downward without leaving the section (16x16x16 blocks) containing them.  This
+     * allows searches for the floor beneath a location to skip over open space rather than sampling each block.
+     *
+     * @param x absolute (relative to the instance) x-coordinate
+     * @param y absolute (relative to the instance) y-coordinate of the first block of the run
+     * @param z absolute (relative to the instance) z-coordinate
+     * @return the number of such blocks beginning at and including the aforementioned coordinates, zero if the block
+     *          there does not qualify or if this provider does not index runs
+     */
+    default int openRunBelow(int x, int y, int z) {
+        return 0;
+    }
+
+    /**
+     * Counts the consecutive blocks that are fluid (i.e. {@link Element#water} but not a {@link Logic#doorway}) from the
+     * specified coordinates upward without leaving the section (16x16x16 blocks) containing them.  This allows searches
+     * for the surface of a body of fluid to skip over its depth rather than sampling each block.
+     *
+     * @param x absolute (relative to the instance) x-coordinate
+     * @param y absolute (relative to the instance) y-coordinate of the first block of the run
+     * @param z absolute (relative to the instance) z-coordinate
+     * @return the number of such blocks beginning at and including the aforementioned coordinates, zero if the block
+     *          there does not qualify or if this provider does not index runs
+     */
+    default int fluidRunAbove(int x, int y, int z) {
+        return 0;
+    }
+
     /**
      * Provides a visualization of an x/z plane of the occlusion field at the specified y coordinate using ASCII art.
      *
@@ -0,0 +1,199 @@
+package com.extollit.gaming.ai.path.model;
+
+import com.extollit.linalg.immutable.AxisAlignedBBox;
+
+/**
+ * An immutable copy of the occlusion data and of the partial block geometry within a bounded region of an instance
+ * space.  A snapshot is taken on the thread that owns the instance space and may then be read concurrently from any
+ * other thread, this allows path-finding to run to completion without touching live world state.
+ *
+ * The snapshot consists of immutable copies of the occlusion fields of the sections overlapping the region, these share
+ * the words of the live fields until they are next modified (see {@link OcclusionField#snapshot()}) so taking a
+ * snapshot does not sample individual blocks.  Block objects are not captured either, the copies of partial blocks
+ * held by the fields are used where available (see {@link IOcclusionProvider#partialBlockAt(int, int, int)}) and any
+ * other block object is substituted by a stand-in derived from the flags of its location when it is requested.
+ *
+ * Everything outside the captured sections reads as open air, the column-based API is not supported and always
+ * returns null.
+ *
+ * This is not meant to be used directly by API consumers.
+ */
+public final class InstanceSpaceSnapshot implements IInstanceSpace, IOcclusionProvider {
+    private static final int SECTION_ORDER = 4;
+
+    private static final AxisAlignedBBox FULL_BOUNDS = new AxisAlignedBBox(0, 0, 0, 1, 1, 1);
+    private static final IBlockObject
+        OPAQUE = new BlockSnapshot(FULL_BOUNDS, false, false, false, false, true, true, false, false),
+        OPEN_DOOR = new BlockSnapshot(FULL_BOUNDS, false, false, true, false, false, false, false, false),
+        CLOSED_DOOR = new BlockSnapshot(FULL_BOUNDS, false, false, true, false, true, true, false, false),
+        INTRACTABLE_DOOR = new BlockSnapshot(FULL_BOUNDS, false, false, true, true, true, true, false, false),
+        CLIMBABLE = new BlockSnapshot(FULL_BOUNDS, false, true, false, false, false, false, false, false),
+        BURNING = new BlockSnapshot(FULL_BOUNDS, false, false, false, false, false, false, false, true),
+        MOLTEN = new BlockSnapshot(FULL_BOUNDS, false, false, false, false, false, false, true, true);
+
+    private final int cx0, cy0, cz0, width, height, depth;
+    private final OcclusionField[] sections;
+    private final OcclusionFieldListenerList listeners = new OcclusionFieldListenerList();
+
+    /**
+     * Captures the specified region of an instance space, this must be called from the thread that owns the instance.
+     * If the live occlusion data is an {@link AreaOcclusionProvider} the fields of the sections overlapping the region
+     * are loaded if necessary and shared rather than copied, otherwise the flags and partial blocks of the region are
+     * copied.
+     *
+     * @param source the live occlusion data to capture, should cover the region
+     * @param x0 minimum absolute x-coordinate of the region (inclusive)
+     * @param y0 minimum absolute y-coordinate of the region (inclusive)
+     * @param z0 minimum absolute z-coordinate of the region (inclusive)
+     * @param xN maximum absolute x-coordinate of the region (inclusive)
+     * @param yN maximum absolute y-coordinate of the region (inclusive)
+     * @param zN maximum absolute z-coordinate of the region (inclusive)
+     */
+    public InstanceSpaceSnapshot(IOcclusionProvider source, int x0, int y0, int z0, int xN, int yN, int zN) {
+        final int
+            cx0 = this.cx0 = x0 >> SECTION_ORDER,
+            cy0 = this.cy0 = y0 >> SECTION_ORDER,
+            cz0 = this.cz0 = z0 >> SECTION_ORDER,
+            cxN = xN >> SECTION_ORDER,
+            cyN = yN >> SECTION_ORDER,
+            czN = zN >> SECTION_ORDER;
+
+        this.width = cxN - cx0 + 1;
+        this.height = cyN - cy0 + 1;
+        this.depth = czN - cz0 + 1;
+
+        final OcclusionField[] sections = this.sections = new OcclusionField[this.width * this.height * this.depth];
+
+        if (source instanceof AreaOcclusionProvider) {
+            final AreaOcclusionProvider area = (AreaOcclusionProvider) source;
+            for (int cy = cy0; cy <= cyN; ++cy)
+                for (int cz = cz0; cz <= czN; ++cz)
+                    for (int cx = cx0; cx <= cxN; ++cx)
+                        area.loadAt(cx, cy, cz);
+
+            for (int cy = cy0, i = 0; cy <= cyN; ++cy)
+                for (int cz = cz0; cz <= czN; ++cz)
+                    for (int cx = cx0; cx <= cxN; ++cx)
+                        sections[i++] = area.snapshotAt(cx, cy, cz);
+        } else
+            for (int cy = cy0, i = 0; cy <= cyN; ++cy)
+                for (int cz = cz0; cz <= czN; ++cz)
+                    for (int cx = cx0; cx <= cxN; ++cx)
+                        sections[i++] = OcclusionField.copyOf(source, cx, cy, cz, x0, y0, z0, xN, yN, zN);
+    }
+
+    private OcclusionField sectionAt(int x, int y, int z) {
+        final int
+                dx = (x >> SECTION_ORDER) - this.cx0,
+                dy = (y >> SECTION_ORDER) - this.cy0,
+                dz = (z >> SECTION_ORDER) - this.cz0;
+
+        if (dx < 0 || dy < 0 || dz < 0 || dx >= this.width || dy >= this.height || dz >= this.depth)
+            return null;
+
+        return this.sections[(dy * this.depth + dz) * this.width + dx];
+    }
+
+    @Override
+    public byte elementAt(int x, int y, int z) {
+        final OcclusionField section = sectionAt(x, y, z);
+        return section == null ? 0 : section.elementAt(x & OcclusionField.DIMENSION_MASK, y & OcclusionField.DIMENSION_MASK, z & OcclusionField.DIMENSION_MASK);
+    }
+
+    @Override
+    public IBlockObject partialBlockAt(int x, int y, int z) {
+        final OcclusionField section = sectionAt(x, y, z);
+        return section == null ? null : section.partialBlockAt(x & OcclusionField.DIMENSION_MASK, y & OcclusionField.DIMENSION_MASK, z & OcclusionField.DIMENSION_MASK);
+    }
+
+    @Override
+    public int openRunBelow(int x, int y, int z) {
+        final OcclusionField section = sectionAt(x, y, z);
+        return section == null ? 0 : section.openRunBelow(x & OcclusionField.DIMENSION_MASK, y & OcclusionField.DIMENSION_MASK, z & OcclusionField.DIMENSION_MASK);
+    }
+
+    @Override
+    public int fluidRunAbove(int x, int y, int z) {
+        final OcclusionField section = sectionAt(x, y, z);
+        return section == null ? 0 : section.fluidRunAbove(x & OcclusionField.DIMENSION_MASK, y & OcclusionField.DIMENSION_MASK, z & OcclusionField.DIMENSION_MASK);
+    }
+
+    /**
+     * Retrieves the copy of the partial block at the specified location if there is one, otherwise a stand-in for the
+     * block derived from the flags of the location
+     */
+    @Override
+    public IBlockObject blockObjectAt(int x, int y, int z) {
+        final IBlockObject block = partialBlockAt(x, y, z);
+        if (block != null)
+            return block;
+
+        final byte flags = elementAt(x, y, z);
+        if (Logic.doorway.in(flags))
+            switch (Element.of(flags)) {
+                case air: return OPEN_DOOR;
+                case fire: return INTRACTABLE_DOOR;
+                default: return CLOSED_DOOR;
+            }
+        else if (Logic.climbable(flags))
+            return CLIMBABLE;
+        else if (Element.fire.in(flags))
+            return Logic.fuzzy.in(flags) ? BURNING : MOLTEN;
+
+        return OPAQUE;
+    }
+
+    @Override
+    public IColumnarSpace columnarSpaceAt(int cx, int cz) {
+        return null;
+    }
+
+    /**
+     * Retrieves the listeners of this snapshot, which are never notified since a snapshot never changes
+     */
+    @Override
+    public OcclusionFieldListenerList occlusionFieldListeners() {
+        return this.listeners;
+    }
+
+    @Override
+    public String visualizeAt(int y) {
+        return OcclusionField.visualizeAt(this, y, this.cx0 << SECTION_ORDER, this.cz0 << SECTION_ORDER, (this.cx0 + this.width) << SECTION_ORDER, (this.cz0 + this.depth) << SECTION_ORDER);
+    }
+
+    private static final class BlockSnapshot implements IBlockObject {
+        private final AxisAlignedBBox bounds;
+        private final boolean fenceLike, climbable, door, intractable, impeding, fullyBounded, liquid, incinerating;
+
+        BlockSnapshot(AxisAlignedBBox bounds, boolean fenceLike, boolean climbable, boolean door, boolean intractable, boolean impeding, boolean fullyBounded, boolean liquid, boolean incinerating) {
+            this.bounds = bounds;
+            this.fenceLike = fenceLike;
+            this.climbable = climbable;
+            this.door = door;
+            this.intractable = intractable;
+            this.impeding = impeding;
+            this.fullyBounded = fullyBounded;
+            this.liquid = liquid;
+            this.incinerating = incinerating;
+        }
+
+        @Override
+        public AxisAlignedBBox bounds() { return this.bounds; }
+        @Override
+        public boolean isFenceLike() { return this.fenceLike; }
+        @Override
+        public boolean isClimbable() { return this.climbable; }
+        @Override
+        public boolean isDoor() { return this.door; }
+        @Override
+        public boolean isIntractable() { return this.intractable; }
+        @Override
+        public boolean isImpeding() { return this.impeding; }
+        @Override
+        public boolean isFullyBounded() { return this.fullyBounded; }
+        @Override
+        public boolean isLiquid() { return this.liquid; }
+        @Override
+        public boolean isIncinerating() { return this.incinerating; }
+    }
+}
@@ -11,31 +11,44 @@ import java.util.Objects;
 
 public class Node implements INode {
     private static final byte
-        BitWidth_512 = 9,
-        BitWidth_128 = 7,
-        Mask_Passibility = (byte)(3),
-        Mask_Gravitation = (byte)(3),
-        Index_BitOffs = 2,
-        Volatile_BitOffs = (byte)(Index_BitOffs + BitWidth_512),
-        Length_BitOffs = (byte)(Volatile_BitOffs + 1),
-        Remain_BitOffs = (byte)(Length_BitOffs + BitWidth_128),
-        Visited_BitOffs = (byte)(Remain_BitOffs + BitWidth_128),
-        Gravitation_BitOffs = (byte)(Visited_BitOffs + 1),
-        LengthDirty_BitOffs = (byte)(Gravitation_BitOffs + 2);
-
-    public static final short MAX_PATH_DISTANCE = (1 << BitWidth_128) - 1;
+        BitWidth_Index = 20,
+        BitWidth_Distance = 16,
+        Gravitation_BitOffs = 2,
+        Volatile_BitOffs = (byte)(Gravitation_BitOffs + 2),
+        Visited_BitOffs = (byte)(Volatile_BitOffs + 1),
+        LengthDirty_BitOffs = (byte)(Visited_BitOffs + 1),
+        Index_BitOffs = (byte)(LengthDirty_BitOffs + 1),
+        Length_BitOffs = (byte)(Index_BitOffs + BitWidth_Index),
+        Remain_BitOffs = (byte)(Length_BitOffs + BitWidth_Distance);
 
     private static final int
-        Mask_128 = (int)MAX_PATH_DISTANCE,
-        Mask_512 = (1 << BitWidth_512) - 1;
+        Mask_Passibility = 3,
+        Mask_Gravitation = 3,
+        Mask_Distance = (1 << BitWidth_Distance) - 1,
+        Mask_Index = (1 << BitWidth_Index) - 1;
 
-    static final int MAX_INDICES = (1 << BitWidth_512) - 1;
+    /**
+     * Maximum length of a path (and distance to target) in regular (narrow) mode
+     */
+    public static final short MAX_PATH_DISTANCE = (1 << 7) - 1;
+
+    /**
+     * Maximum length of a path (and distance to target) in wide-node mode
+     */
+    public static final int WIDE_MAX_PATH_DISTANCE = Mask_Distance;
+
+    static final int
+        MAX_INDICES = (1 << 9) - 1,
+        WIDE_MAX_INDICES = Mask_Index;
 
     public final Coords key;
 
-    private int word;
+    private long word;
+    private GraphEpoch epoch;
+    private int stamp;
     private Node previous;
     private NodeLinkedList children;
+    private FlagSampler.Footprint footprint;
 
     Node(Coords key) {
         this.key = key;
@@ -50,7 +63,7 @@ public class Node implements INode {
     }
     Node(Coords key, Passibility passibility, boolean volatility, Gravitation gravitation) {
         this.key = key;
-        this.word = (Mask_512 << Index_BitOffs) | ((gravitation.ordinal() & Mask_Gravitation) << Gravitation_BitOffs) | (passibility.ordinal() & Mask_Passibility) | ((volatility ? 1 : 0) << Volatile_BitOffs);
+        this.word = ((long)Mask_Index << Index_BitOffs) | ((gravitation.ordinal() & Mask_Gravitation) << Gravitation_BitOffs) | (passibility.ordinal() & Mask_Passibility) | ((volatility ? 1 : 0) << Volatile_BitOffs);
     }
 
     public Node(int x, int y, int z) {
@@ -71,18 +84,40 @@ public class Node implements INode {
     @Override
     public Coords coordinates() { return this.key; }
 
-    private static int wordReset(Node copy) {
-        return (copy.word & (Mask_Passibility | (1 << Volatile_BitOffs) | (Mask_Gravitation << Gravitation_BitOffs))) | ((Mask_512 << Index_BitOffs) | (1 << LengthDirty_BitOffs));
+    private static long wordReset(Node copy) {
+        return (copy.word & (Mask_Passibility | (1 << Volatile_BitOffs) | (Mask_Gravitation << Gravitation_BitOffs))) | (((long)Mask_Index << Index_BitOffs) | (1 << LengthDirty_BitOffs));
+    }
+
+    /**
+     * Binds this node to the generation counter of a graph, the search state of this node is considered reset whenever
+     * the counter advances
+     *
+     * @param epoch generation counter of the graph containing this node
+     */
+    final void epoch(GraphEpoch epoch) {
+        if (this.epoch != epoch) {
+            this.epoch = epoch;
+            this.stamp = epoch.value;
+        }
+    }
+
+    private long word() {
+        final GraphEpoch epoch = this.epoch;
+        if (epoch != null && this.stamp != epoch.value) {
+            this.stamp = epoch.value;
+            this.word = wordReset(this);
+        }
+        return this.word;
     }
 
-    public final byte length() {
-        return (byte)((this.word >> Length_BitOffs) & Mask_128);
+    public final int length() {
+        return (int)(word() >> Length_BitOffs) & Mask_Distance;
     }
-    public final byte remaining() {
-        return (byte)((this.word >> Remain_BitOffs) & Mask_128);
+    public final int remaining() {
+        return (int)(word() >> Remain_BitOffs) & Mask_Distance;
     }
-    public final byte journey() {
-        return (byte)(length() + remaining());
+    public final int journey() {
+        return length() + remaining();
     }
     public final Node up() {
         return this.previous;
@@ -98,73 +133,89 @@ public class Node implements INode {
 
     @Override
     public final Passibility passibility() {
-        return Passibility.of(this.word & Mask_Passibility);
+        return Passibility.of((int)word() & Mask_Passibility);
     }
     public final void passibility(Passibility passibility) {
         final Node previous = up();
         if (previous != null)
             passibility = passibility.between(previous.passibility());
-        this.word = (this.word & ~Mask_Passibility) | passibility.ordinal();
+        this.word = (word() & ~Mask_Passibility) | passibility.ordinal();
     }
     @Override
     public final Gravitation gravitation() {
-        return Gravitation.values()[(this.word >> Gravitation_BitOffs) & Mask_Gravitation];
+        return Gravitation.of((int)(word() >> Gravitation_BitOffs) & Mask_Gravitation);
     }
     public final void gravitation(Gravitation gravitation) {
-        this.word = (this.word & ~(Mask_Gravitation << Gravitation_BitOffs)) | (gravitation.ordinal() << Gravitation_BitOffs);
+        this.word = (word() & ~(Mask_Gravitation << Gravitation_BitOffs)) | (gravitation.ordinal() << Gravitation_BitOffs);
     }
     public final boolean length(int length) {
-        if (length > Mask_128 || length < 0)
+        if (length > Mask_Distance || length < 0)
             return false;
 
-        this.word = (this.word & ~((Mask_128 << Length_BitOffs) | (1 << LengthDirty_BitOffs))) | (length << Length_BitOffs);
+        this.word = (word() & ~(((long)Mask_Distance << Length_BitOffs) | (1 << LengthDirty_BitOffs))) | ((long)length << Length_BitOffs);
         return true;
     }
     void addLength(int dl) {
         length(length() + dl);
     }
     final boolean remaining(int delta) {
-        if (delta > Mask_128 || delta < 0)
+        if (delta > Mask_Distance || delta < 0)
             return false;
 
-        this.word = (this.word & ~(Mask_128 << Remain_BitOffs)) | (delta << Remain_BitOffs);
+        this.word = (word() & ~((long)Mask_Distance << Remain_BitOffs)) | ((long)delta << Remain_BitOffs);
         return true;
     }
 
     final void reset() {
         this.word = wordReset(this);
+        final GraphEpoch epoch = this.epoch;
+        if (epoch != null)
+            this.stamp = epoch.value;
     }
 
     final void rollback() {
         reset();
     }
 
-    final short index() {
-        short index = (short) ((this.word >> Index_BitOffs) & Mask_512);
-        return index == Mask_512 ? -1 : index;
+    final int index() {
+        final int index = (int)(word() >> Index_BitOffs) & Mask_Index;
+        return index == Mask_Index ? -1 : index;
     }
     final boolean index(int index) {
-        if (index >= Mask_512 || index < -1)
+        if (index >= Mask_Index || index < -1)
             return false;
 
-        this.word = (this.word & ~(Mask_512 << Index_BitOffs)) | ((index & Mask_512) << Index_BitOffs);
+        this.word = (word() & ~((long)Mask_Index << Index_BitOffs)) | ((long)(index & Mask_Index) << Index_BitOffs);
         return true;
     }
-    public final boolean dirty() { return ((this.word >> LengthDirty_BitOffs) & 1) == 1; }
+    public final boolean dirty() { return ((word() >> LengthDirty_BitOffs) & 1) == 1; }
     public final void dirty(boolean flag) {
-        this.word = (this.word & ~(1 << LengthDirty_BitOffs)) | ((flag ? 1 << LengthDirty_BitOffs : 0));
+        this.word = (word() & ~(1 << LengthDirty_BitOffs)) | ((flag ? 1 << LengthDirty_BitOffs : 0));
     }
     public final boolean visited() {
-        return ((this.word >> Visited_BitOffs) & 1) == 1;
+        return ((word() >> Visited_BitOffs) & 1) == 1;
     }
     public final void visited(boolean flag) {
-        this.word = (this.word & ~(1 << Visited_BitOffs)) | ((flag ? 1 << Visited_BitOffs : 0));
+        this.word = (word() & ~(1 << Visited_BitOffs)) | ((flag ? 1 << Visited_BitOffs : 0));
     }
     public final boolean volatile_() {
-        return ((this.word >> Volatile_BitOffs) & 1) == 1;
+        return ((word() >> Volatile_BitOffs) & 1) == 1;
     }
     public final void volatile_(boolean flag) {
-        this.word = (this.word & ~(1 << Volatile_BitOffs)) | ((flag ? 1 << Volatile_BitOffs : 0));
+        this.word = (word() & ~(1 << Volatile_BitOffs)) | ((flag ? 1 << Volatile_BitOffs : 0));
+    }
+
+    /**
+     * Sections sampled by the probe that produced this volatile node, a volatile node need only be probed again once
+     * the occlusion data of these sections changes
+     *
+     * @return the sampled sections, or null if this node must be probed again whenever it is accessed
+     */
+    final FlagSampler.Footprint footprint() {
+        return this.footprint;
+    }
+    final void footprint(FlagSampler.Footprint footprint) {
+        this.footprint = footprint;
     }
 
     public final boolean assigned() {
@@ -172,12 +223,22 @@ public class Node implements INode {
     }
 
     public boolean target(Coords targetPoint) {
+        return target(targetPoint, MAX_PATH_DISTANCE);
+    }
+
+    /**
+     * Computes and assigns the estimated distance remaining from this node to the specified target
+     *
+     * @param targetPoint coordinates of the target
+     * @param maxPathDistance the maximum distance permitted
+     * @return false if the target is too far away
+     */
+    public boolean target(Coords targetPoint, int maxPathDistance) {
         final int distance = (int)Math.sqrt(squareDelta(this, targetPoint));
-        if (distance > Mask_128)
+        if (distance > maxPathDistance)
             return false;
 
-        this.word = (this.word & ~(Mask_128 << Remain_BitOffs)) | (distance << Remain_BitOffs);
-        return true;
+        return remaining(distance);
     }
 
     public boolean contains(Node node) {
@@ -228,12 +289,17 @@ public class Node implements INode {
     }
 
     final boolean appendTo(final Node parent, final int delta, final int remaining) {
+        return appendTo(parent, delta, remaining, MAX_PATH_DISTANCE);
+    }
+
+    final boolean appendTo(final Node parent, final int delta, final int remaining, final int maxPathDistance) {
         bindParent(parent);
 
-        if (!length(parent.length() + delta))
+        final int length = parent.length() + delta;
+        if (length > maxPathDistance || !length(length))
             return false;
 
-        if (!remaining(remaining))
+        if (remaining > maxPathDistance || !remaining(remaining))
             return false;
 
         return true;
@@ -294,7 +360,7 @@ public class Node implements INode {
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder(this.key.toString());
-        final short index = index();
+        final int index = index();
         if (volatile_())
             sb.append('!');
         if (visited())
@@ -315,7 +381,7 @@ public class Node implements INode {
             sb.append(index);
         }
 
-        String length = Byte.toString(length());
+        String length = Integer.toString(length());
         if (dirty())
             length += '*';
         return sb.toString() + MessageFormat.format(" ({0}) : length={1}, remaining={2}, journey={3}", passibility(), length, remaining(), journey());
@@ -339,9 +405,19 @@ public class Node implements INode {
     }
 
     public static final class ReaderWriter implements PartialObjectWriter<Node>, PartialObjectReader<Node>, LinkableWriter<Node, Node>, LinkableReader<Node, Node> {
-        public static final ReaderWriter INSTANCE = new ReaderWriter();
+        public static final ReaderWriter
+            INSTANCE = new ReaderWriter(false),
+            LEGACY = new ReaderWriter(true);
+
+        private final boolean legacy;
 
-        private ReaderWriter() {}
+        private ReaderWriter(boolean legacy) {
+            this.legacy = legacy;
+        }
+
+        public static ReaderWriter forVersion(byte version) {
+            return version < 5 ? LEGACY : INSTANCE;
+        }
 
         @Override
         public void readLinkages(Node node, ReferableObjectInput<Node> in) throws IOException {
@@ -376,14 +452,33 @@ public class Node implements INode {
         public Node readPartialObject(ObjectInput in) throws IOException {
             final Coords key = Vec3iReaderWriter.INSTANCEz.readPartialObject(in);
             final Node node = new Node(key);
-            node.word = in.readInt();
+            node.word = this.legacy ? fromLegacyWord(in.readInt()) : in.readLong();
             return node;
         }
 
         @Override
         public void writePartialObject(Node node, ObjectOutput out) throws IOException {
             Vec3iReaderWriter.INSTANCEz.writePartialObject(node.key, out);
-            out.writeInt(node.word);
+            if (this.legacy)
+                throw new UnsupportedOperationException("Legacy node format is read-only");
+
+            out.writeLong(node.word());
+        }
+
+        private static long fromLegacyWord(int word) {
+            final int
+                index = (word >> 2) & 0x1FF,
+                length = (word >> 12) & 0x7F,
+                remaining = (word >> 19) & 0x7F;
+
+            return (word & Mask_Passibility)
+                | (((word >> 11) & 1L) << Volatile_BitOffs)
+                | (((word >> 26) & 1L) << Visited_BitOffs)
+                | (((word >> 27) & (long)Mask_Gravitation) << Gravitation_BitOffs)
+                | (((word >> 29) & 1L) << LengthDirty_BitOffs)
+                | ((long)(index == 0x1FF ? Mask_Index : index) << Index_BitOffs)
+                | ((long)length << Length_BitOffs)
+                | ((long)remaining << Remain_BitOffs);
         }
     }
 }
@@ -5,7 +5,7 @@ import com.extollit.gaming.ai.path.persistence.internal.*;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
-import java.util.Collection;
+import java.util.*;
 
 public final class NodeMap {
     private final SparseSpatialMap<Node> it = new SparseSpatialMap<>();
@@ -17,6 +17,16 @@ public final class NodeMap {
     private IOcclusionProvider occlusionProvider;
     private int cx0, cxN, cz0, czN;
 
+    private final GraphEpoch epoch = new GraphEpoch();
+    private final ProbeResult probe = new ProbeResult();
+    private FlagSampler flagSampler;
+    private FlagSampler.Footprint footprint;
+
+    private PassibilityCache.Profile sharedProfile;
+    private PassibilityCache.ProfileCache shared;
+    private PassibilityCache.Column column0;
+    private long columnKey0;
+
     public NodeMap(IInstanceSpace instanceSpace, IOcclusionProviderFactory occlusionProviderFactory) {
         this(instanceSpace, null, occlusionProviderFactory);
     }
@@ -40,17 +50,67 @@ public final class NodeMap {
         clear();
     }
 
-    public final void reset(SortedPointQueue queue) {
-        for (Node p : this.it.values())
-            p.rollback();
+    /**
+     * Probes terrain the same way as the specified graph, adopting its node calculator, filter, shared cache and
+     * occlusion field window.  This suits a graph searched in the opposite direction over the same terrain, the nodes of
+     * this graph are discarded whenever the calculator, filter or window of the other graph differs.
+     *
+     * @param graph the graph to follow
+     */
+    public void follow(NodeMap graph) {
+        if (this.calculator != graph.calculator || this.filter != graph.filter || this.occlusionProvider != graph.occlusionProvider
+            || this.cx0 != graph.cx0 || this.cz0 != graph.cz0 || this.cxN != graph.cxN || this.czN != graph.czN) {
+            clear();
+            this.calculator = graph.calculator;
+            this.filter = graph.filter;
+            this.occlusionProvider = graph.occlusionProvider;
+            this.cx0 = graph.cx0;
+            this.cz0 = graph.cz0;
+            this.cxN = graph.cxN;
+            this.czN = graph.czN;
+        }
+        this.sharedProfile = graph.sharedProfile;
+        this.shared = graph.shared;
+        this.column0 = null;
+    }
+
+    /**
+     * Shares raw probe results with other graphs of entities having the same capability profile.  The shared cache is
+     * consulted before the node calculator for locations where the occlusion data is complete.
+     *
+     * @param cache world-level cache to share, null to stop sharing
+     * @param profile capability profile of the entity this graph is for, ignored if the cache is null
+     */
+    public void sharedCache(PassibilityCache cache, PassibilityCache.Profile profile) {
+        if (cache == null) {
+            this.sharedProfile = null;
+            this.shared = null;
+        } else if (this.shared == null || !profile.equals(this.sharedProfile)) {
+            this.sharedProfile = profile;
+            this.shared = cache.forProfile(profile);
+        }
+        this.column0 = null;
+    }
 
+    /**
+     * Resets the search state of every node in this graph and clears the specified queue.  This does not visit each
+     * node, rather it begins a new generation of the graph and nodes lazily discard their stale search state when next
+     * accessed.
+     *
+     * @param queue the open list to clear
+     */
+    public final void reset(AbstractPointQueue queue) {
         queue.clear();
+
+        if (this.epoch.advance())
+            for (Node p : this.it.values())
+                p.rollback();
     }
 
-    public final void cullBranchAt(Coords coords, SortedPointQueue queue) {
+    public final void cullBranchAt(Coords coords, AbstractPointQueue queue) {
         cullBranchAt(coords.x, coords.y, coords.z, queue);
     }
-    public final void cullBranchAt(int x, int y, int z, SortedPointQueue queue) {
+    public final void cullBranchAt(int x, int y, int z, AbstractPointQueue queue) {
         final Node
                 node = this.it.get(x, y, z);
 
@@ -69,6 +129,85 @@ public final class NodeMap {
         this.it.remove(x, y, z);
     }
 
+    /**
+     * Repairs the search graph after blocks within the specified columns have changed rather than discarding it.  Nodes
+     * within the columns are discarded along with every probe result originating within the columns (a probe never
+     * lands in a column other than its own), their descendants in the search tree are detached and reset (but retained
+     * since their own passibility is unaffected), and the expanded nodes bordering the columns or the discarded nodes
+     * are re-opened so that the search re-probes the area.  The lengths of all other nodes in the search tree remain as
+     * they were, and only the nodes within or bordering the columns are visited to find the affected ones.
+     *
+     * @param x0 minimum x-coordinate of the changed columns
+     * @param z0 minimum z-coordinate of the changed columns
+     * @param xN maximum x-coordinate of the changed columns
+     * @param zN maximum z-coordinate of the changed columns
+     * @param queue the open list of the search
+     * @param anchors nodes the search cannot proceed without (e.g. the source and target)
+     * @return false if any of the anchors was discarded, in which case the search must be reset instead
+     */
+    public final boolean repair(int x0, int z0, int xN, int zN, AbstractPointQueue queue, Node... anchors) {
+        final SparseSpatialMap<Node> it = this.it;
+        final Set<Node>
+                discarded = Collections.newSetFromMap(new IdentityHashMap<>()),
+                culled = Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<Node> bordering = new ArrayList<>();
+
+        for (Coords key : it.keysWithin(x0 - 1, z0 - 1, xN + 1, zN + 1)) {
+            final Node node = it.get(key.x, key.y, key.z);
+            if (within(key, x0, z0, xN, zN)) {
+                it.remove(key.x, key.y, key.z);
+                if (within(node.key, x0, z0, xN, zN))
+                    discarded.add(node);
+            } else if (node.visited())
+                bordering.add(node);
+        }
+
+        final Deque<Node> stack = new ArrayDeque<>(discarded);
+        while (!stack.isEmpty()) {
+            final Node node = stack.pop();
+            if (culled.add(node))
+                for (Node child : node.children())
+                    stack.push(child);
+        }
+
+        final List<Node> frontier = new ArrayList<>();
+        for (Node node : culled) {
+            final Node parent = node.up();
+            if (parent != null && !culled.contains(parent))
+                frontier.add(parent);
+        }
+        for (Node node : bordering)
+            if (!culled.contains(node))
+                frontier.add(node);
+
+        boolean queued = false;
+        for (Node node : culled)
+            queued |= node.assigned();
+        if (queued)
+            queue.removeAll(culled);
+
+        for (Node node : culled) {
+            node.isolate();
+            node.reset();
+        }
+
+        for (Node node : frontier)
+            if (!node.assigned()) {
+                node.visited(false);
+                queue.add(node);
+            }
+
+        for (Node anchor : anchors)
+            if (anchor != null && discarded.contains(anchor))
+                return false;
+
+        return true;
+    }
+
+    private static boolean within(Coords key, int x0, int z0, int xN, int zN) {
+        return key.x >= x0 && key.x <= xN && key.z >= z0 && key.z <= zN;
+    }
+
     public final void reset() {
         clear();
         this.occlusionProvider = null;
@@ -86,6 +225,19 @@ public final class NodeMap {
         return this.occlusionProvider.elementAt(x, y, z);
     }
 
+    public IBlockObject partialBlockAt(int x, int y, int z) {
+        return this.occlusionProvider.partialBlockAt(x, y, z);
+    }
+
+    /**
+     * Counts the consecutive openly passible blocks from the specified location downward within its section
+     *
+     * @see IOcclusionProvider#openRunBelow(int, int, int)
+     */
+    public int openRunBelow(int x, int y, int z) {
+        return this.occlusionProvider.openRunBelow(x, y, z);
+    }
+
     public void updateFieldWindow(int x0, int z0, int xN, int zN, boolean cull) {
         final int
                 cx0 = x0 >> 4,
@@ -102,7 +254,8 @@ public final class NodeMap {
             windowTest = cx0 < this.cx0 || cz0 < this.cz0 || cxN > this.cxN || czN > this.czN;
 
         if (aop == null || windowTest) {
-            this.occlusionProvider = this.occlusionProviderFactory.fromInstanceSpace(this.instanceSpace, cx0, cz0, cxN, czN);
+            if (!(aop instanceof AreaOcclusionProvider) || !((AreaOcclusionProvider) aop).slideTo(this.instanceSpace, cx0, cz0, cxN, czN))
+                this.occlusionProvider = this.occlusionProviderFactory.fromInstanceSpace(this.instanceSpace, cx0, cz0, cxN, czN);
             this.cx0 = cx0;
             this.cz0 = cz0;
             this.cxN = cxN;
@@ -113,6 +266,22 @@ public final class NodeMap {
         }
     }
 
+    /**
+     * Determines whether any of the specified columns lies within the occlusion field window of this graph, changes to
+     * blocks outside the window cannot affect any node of the graph
+     *
+     * @param x0 minimum x-coordinate of the columns
+     * @param z0 minimum z-coordinate of the columns
+     * @param xN maximum x-coordinate of the columns
+     * @param zN maximum z-coordinate of the columns
+     * @return true if the graph has a window and the columns overlap it
+     */
+    public boolean windowOverlaps(int x0, int z0, int xN, int zN) {
+        return this.occlusionProvider != null
+            && xN >> 4 >= this.cx0 && x0 >> 4 <= this.cxN
+            && zN >> 4 >= this.cz0 && z0 >> 4 <= this.czN;
+    }
+
     public Collection<Node> all() {
         return this.it.values();
     }
@@ -126,17 +295,30 @@ public final class NodeMap {
         Node point = this.it.get(x, y, z);
 
         if (point == null) {
-            point = passibleNodeNear(x, y, z, null);
-            final Coords key = point.key;
-            if (key.x != x || key.y != y || key.z != z)
+            final ProbeResult probe = probe(x, y, z, null);
+            if (probe.at(x, y, z))
+                point = materialize(probe);
+            else
                 point = new Node(x, y, z, Passibility.impassible, false);
 
+            point.epoch(this.epoch);
             this.it.put(x, y, z, point);
         }
 
         return point;
     }
 
+    /**
+     * Retrieves the node of this graph at the specified location without probing for one
+     *
+     * @param coords location of the node
+     * @return the node at exactly these coordinates, or null if this graph has none there
+     */
+    public final Node pointAt(Coords coords) {
+        final Node node = this.it.get(coords.x, coords.y, coords.z);
+        return node != null && node.key.equals(coords) ? node : null;
+    }
+
     public Node cachedPassiblePointNear(int x, int y, int z) {
         return cachedPassiblePointNear(x, y, z, null);
     }
@@ -146,25 +328,25 @@ public final class NodeMap {
         final Node point0 = nodeMap.get(x, y, z);
         Node point = point0;
 
-        if (point == null)
-             point = passibleNodeNear(x, y, z, origin);
-        else if (point.volatile_()) {
-            point = passibleNodeNear(x, y, z, origin);
-            if (point.key.equals(point0.key)) {
-                point0.passibility(point.passibility());
-                point0.volatile_(point.volatile_());
-                point = point0;
-            } else
-                point0.isolate();
-        }
-
-        final Coords key = point.key;
-        if (key.x != x || key.y != y || key.z != z) {
-            final Node existing = nodeMap.get(key.x, key.y, key.z);
-            if (existing == null)
-                nodeMap.put(key.x, key.y, key.z, point);
-            else
-                point = existing;
+        if (point0 == null || stale(point0)) {
+            final ProbeResult probe = probe(x, y, z, origin);
+            if (point0 != null && probe.at(point0.key)) {
+                point0.passibility(probe.passibility());
+                point0.volatile_(probe.volatile_());
+                point0.footprint(this.footprint);
+                applyFilter(point0);
+            } else {
+                if (point0 != null)
+                    point0.isolate();
+
+                point = probe.at(x, y, z) ? null : nodeMap.get(probe.x(), probe.y(), probe.z());
+                if (point == null) {
+                    point = materialize(probe);
+                    final Coords key = point.key;
+                    if ((key.x != x || key.y != y || key.z != z) && point.passibility() != Passibility.impassible)
+                        nodeMap.put(key.x, key.y, key.z, point);
+                }
+            }
         }
 
         if (point != point0)
@@ -173,16 +355,99 @@ public final class NodeMap {
         return point;
     }
 
-    private Node passibleNodeNear(int x, int y, int z, Coords origin) {
-        final Node node = this.calculator.passibleNodeNear(x, y, z, origin, new FlagSampler(this.occlusionProvider));
+    private ProbeResult probe(int x, int y, int z, Coords origin) {
+        final ProbeResult probe = this.probe;
+        final PassibilityCache.Column column;
+        final int key;
+
+        if (this.shared != null && (key = PassibilityCache.keyOf(x, y, z, origin)) != -1 && (column = sharedColumn(x, z)) != null) {
+            final long value = column.get(key);
+            if (value != 0) {
+                PassibilityCache.decode(value, x, z, probe);
+                this.footprint = FlagSampler.Footprint.of(column);
+            } else {
+                final FlagSampler flagSampler = flagSampler();
+                this.calculator.probe(x, y, z, origin, flagSampler, probe);
+                this.footprint = flagSampler.footprint();
+                if (!probe.volatile_() && probe.x() == x && probe.z() == z)
+                    column.put(key, PassibilityCache.encode(probe));
+            }
+        } else {
+            final FlagSampler flagSampler = flagSampler();
+            this.calculator.probe(x, y, z, origin, flagSampler, probe);
+            this.footprint = flagSampler.footprint();
+        }
+
+        return probe;
+    }
+
+    /**
+     * Determines whether a cached node must be probed again, which is once the occlusion data it was derived from has
+     * changed.  Without a footprint (e.g. the occlusion provider does not track versions) a volatile node is always
+     * probed again and any other node never is.
+     */
+    private boolean stale(Node node) {
+        final FlagSampler.Footprint footprint = node.footprint();
+        return footprint == null ? node.volatile_() : footprint.modifiedIn(this.occlusionProvider);
+    }
+
+    /**
+     * Forces every volatile node to be probed again when next accessed regardless of whether the occlusion data it was
+     * derived from has changed.  This is necessary when capabilities of the entity affecting the passibility of volatile
+     * nodes (such as doorways) change.
+     */
+    public final void revalidate() {
+        for (Node node : this.it.values())
+            if (node.volatile_())
+                node.footprint(null);
+    }
+
+    private FlagSampler flagSampler() {
+        FlagSampler flagSampler = this.flagSampler;
+        if (flagSampler == null || flagSampler.occlusionProvider() != this.occlusionProvider)
+            flagSampler = this.flagSampler = new FlagSampler(this.occlusionProvider);
+        else
+            flagSampler.reset();
+
+        return flagSampler;
+    }
+
+    private PassibilityCache.Column sharedColumn(int x, int z) {
+        final IOcclusionProvider occlusionProvider = this.occlusionProvider;
+        final PassibilityCache.ProfileCache shared = this.shared;
+        final int reach = shared.reach;
+        if (!(occlusionProvider instanceof AreaOcclusionProvider)
+            || !((AreaOcclusionProvider) occlusionProvider).interior(x - reach, z - reach, x + reach, z + reach))
+            return null;
+
+        final int
+            cx = x >> 4,
+            cz = z >> 4;
+        final long columnKey = PassibilityCache.columnKey(cx, cz);
+
+        PassibilityCache.Column column = this.column0;
+        if (column == null || !column.valid || this.columnKey0 != columnKey) {
+            this.column0 = column = shared.column(cx, cz);
+            this.columnKey0 = columnKey;
+        }
+        return column;
+    }
+
+    private Node materialize(ProbeResult probe) {
+        final Node node = probe.toNode();
+        node.epoch(this.epoch);
+        node.footprint(this.footprint);
+        applyFilter(node);
+        return node;
+    }
+
+    private void applyFilter(Node node) {
         final IGraphNodeFilter filter = this.filter;
         if (filter != null) {
             final Passibility newPassibility = filter.mapPassibility(node);
             if (newPassibility != null)
                 node.passibility(newPassibility);
         }
-
-        return node;
     }
 
     public boolean remove(int x, int y, int z) {
@@ -245,6 +510,9 @@ public final class NodeMap {
         this.czN = in.readInt();
 
         final Iterable<Node> nodes = nodeIdentityMap.readAll(in);
+        for (Node node : nodes)
+            node.epoch(this.epoch);
+
         nodeIdentityMap.readLinks(Node.ReaderWriter.INSTANCE, nodes, in);
         nodeIdentityMap.readWith(new MapReaderWriter(), in);
     }
@@ -1,5 +1,17 @@
 package com.extollit.gaming.ai.path.model;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Compact store of the occlusion flags of a section (16x16x16 blocks) of a columnar space.
+ *
+ * Fields are safe for one writer and many concurrent readers.  Every mutation (setting a block, lazily initializing the
+ * area flags along an edge, etc.) is serialized by a single global monitor and made under the write lock of each field
+ * it modifies.  Readers never block each other, they read optimistically and only fall back to the read lock of the
+ * field when a mutation overlapped the read, so the main thread may apply block changes while path-finders on other
+ * threads sample the same fields.
+ */
 public class OcclusionField implements IOcclusionProvider {
     public enum AreaInit {
         north   (0, -1),
@@ -93,9 +105,25 @@ public class OcclusionField implements IOcclusionProvider {
     private static final short
             FULLY_AREA_INIT = 0x3FF;
 
-    private long [] words;
+    private static final byte
+            PALETTE_FENCE_LIKE = 1 << ELEMENT_LENGTH;
+
+    private static final AtomicLong versions = new AtomicLong();
+
+    /**
+     * Serializes every mutation of every occlusion field so that at most one thread writes at a time
+     */
+    static final Object MUTATION_LOCK = new Object();
+
+    private final StampedLock lock = new StampedLock();
+    private volatile long [] words;
+    private long [] frozen;
+    private ColumnIndex frozenIndex;
+    private volatile long version;
     private byte singleton;
-    private short areaInit;
+    private volatile short areaInit;
+    private volatile ColumnIndex columnIndex;
+    private volatile PartialBlocks partialBlocks;
 
     public OcclusionField() {}
 
@@ -106,12 +134,80 @@ public class OcclusionField implements IOcclusionProvider {
         return direction.in(this.areaInit);
     }
 
+    /**
+     * Version of the content of this field, every time the field is loaded or a block within it is set the version is
+     * replaced by a new value greater than that of any other field.  Comparing versions reveals whether the flags of a
+     * field have changed since they were last sampled without having to sample them again.
+     *
+     * @return current version of this field, zero if the field has never been loaded
+     */
+    public long version() {
+        return this.version;
+    }
+
+    @Override
+    public long versionAt(int x, int y, int z) {
+        return this.version;
+    }
+
+    static long latestVersion() {
+        return versions.get();
+    }
+
+    static long nextVersion() {
+        return versions.incrementAndGet();
+    }
+
+    private void modified() {
+        this.version = nextVersion();
+    }
+
+    /**
+     * Acquires the write lock of this field unless it is already held.  Since mutations are serialized by
+     * {@link #MUTATION_LOCK} a held write lock can only belong to the current mutation.
+     *
+     * @return stamp to release with {@link #unlockWrite(long)}
+     */
+    private long lockWrite() {
+        final StampedLock lock = this.lock;
+        return lock.isWriteLocked() ? 0 : lock.writeLock();
+    }
+
+    private void unlockWrite(long stamp) {
+        if (stamp != 0)
+            this.lock.unlockWrite(stamp);
+    }
+
+    private void mutate(Runnable mutation) {
+        synchronized (MUTATION_LOCK) {
+            final long stamp = lockWrite();
+            try {
+                mutation.run();
+            } finally {
+                unlockWrite(stamp);
+            }
+        }
+    }
+
     public static boolean fuzzyOpenIn(byte element) {
         return Element.air.in(element) || (Element.earth.in(element) && Logic.fuzzy.in(element));
     }
 
     public void loadFrom(IColumnarSpace columnarSpace, int cx, int cy, int cz) {
+        final long stamp = this.lock.writeLock();
+        try {
+            load(columnarSpace, cx, cy, cz);
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+
+        final IInstanceSpace instance = columnarSpace.instance();
+        this.partialBlocks = instance == null ? null : PartialBlocks.capture(instance, this, cx, cy, cz);
+    }
+
+    private void load(IColumnarSpace columnarSpace, int cx, int cy, int cz) {
         this.singleton = 0;
+        this.columnIndex = null;
         this.words = new long[DIMENSION_SQUARE_SIZE * DIMENSION_SIZE * ELEMENT_LENGTH / WORD_LENGTH];
 
         boolean compress = true;
@@ -124,6 +220,9 @@ public class OcclusionField implements IOcclusionProvider {
 
         final long[] words = this.words;
 
+        final SectionPalette palette = columnarSpace.paletteAt(cy);
+        final byte[] paletteFlags = palette == null ? null : paletteFlagsFor(columnarSpace, palette);
+
         final int yNi = yN - 1;
         for (int y = yNi, i = LAST_INDEX; y >= y0; --y)
             for (int z = DIMENSION_EXTENT; z >= 0; --z)
@@ -131,14 +230,32 @@ public class OcclusionField implements IOcclusionProvider {
                     long word = 0;
                     for (int b = WORD_LAST_OFFSET; b >= 0; --b) {
                         final int xx = x + b;
-                        final IBlockDescription blockDescription = columnarSpace.blockAt(xx, y, z);
-                        final byte flags = flagsFor(columnarSpace, x0 + xx, y, z0 + z, blockDescription);
+                        final byte flags;
+                        final boolean fenceLike;
+
+                        if (palette != null) {
+                            final int entry = palette.indexAt(xx, y & DIMENSION_MASK, z);
+                            final byte entryFlags = paletteFlags[entry];
+                            if (entryFlags < 0) {
+                                final IBlockDescription blockDescription = palette.entry(entry);
+                                flags = flagsFor(columnarSpace, x0 + xx, y, z0 + z, blockDescription);
+                                fenceLike = blockDescription.isFenceLike();
+                            } else {
+                                flags = (byte)(entryFlags & ELEMENT_MASK);
+                                fenceLike = (entryFlags & PALETTE_FENCE_LIKE) != 0;
+                            }
+                        } else {
+                            final IBlockDescription blockDescription = columnarSpace.blockAt(xx, y, z);
+                            flags = flagsFor(columnarSpace, x0 + xx, y, z0 + z, blockDescription);
+                            fenceLike = blockDescription.isFenceLike();
+                        }
+
                         compress &= (lastFlags == flags) || (i == LAST_INDEX && b == WORD_LAST_OFFSET);
                         lastFlags = flags;
                         word <<= (1 << ELEMENT_LENGTH_SHL);
                         word |= (long)flags;
 
-                        if (blockDescription.isFenceLike() && y < yNi) {
+                        if (fenceLike && y < yNi) {
                             final int indexUp = i + (DIMENSION_SQUARE_SIZE >> COORDINATE_TO_INDEX_SHR);
                             words[indexUp] = modifyWord(words[indexUp], b, flags);
                         }
@@ -151,19 +268,134 @@ public class OcclusionField implements IOcclusionProvider {
             this.singleton = lastFlags;
         } else
             areaInit();
+
+        modified();
+    }
+
+    /**
+     * Evaluates the flags of each entry of a section palette once, the fence-like bit is set for entries describing
+     * fence-like blocks.  Doorway flags depend on the state of the block object at each location so entries describing
+     * doors are instead marked negative to be evaluated per location.
+     */
+    private static byte[] paletteFlagsFor(IColumnarSpace columnarSpace, SectionPalette palette) {
+        final byte[] paletteFlags = new byte[palette.size()];
+        for (int i = 0; i < paletteFlags.length; ++i) {
+            final IBlockDescription blockDescription = palette.entry(i);
+            if (blockDescription.isDoor())
+                paletteFlags[i] = -1;
+            else
+                paletteFlags[i] = (byte)(flagsFor(columnarSpace, 0, 0, 0, blockDescription) | (blockDescription.isFenceLike() ? PALETTE_FENCE_LIKE : 0));
+        }
+        return paletteFlags;
     }
 
     private boolean fenceOrDoorLike(byte flags) {
         return (Element.earth.in(flags) && Logic.fuzzy.in(flags)) || (Logic.doorway.in(flags));
     }
 
+    /**
+     * Retrieves the words of this field for modification, copying them first if they are shared with a snapshot (see
+     * {@link #snapshot()}).  Only for use by mutations.
+     */
+    private long[] writableWords() {
+        long[] words = this.words;
+        if (words != null && words == this.frozen)
+            this.words = words = words.clone();
+
+        return words;
+    }
+
+    /**
+     * Stores a word of this field during a mutation, flipping the bits of the column index (if it has been built) for
+     * those blocks of the word whose flags changed rather than discarding the index
+     */
+    private void store(long[] words, int index, long word) {
+        final long changed = words[index] ^ word;
+        words[index] = word;
+
+        ColumnIndex columnIndex = this.columnIndex;
+        if (changed == 0 || columnIndex == null)
+            return;
+
+        if (columnIndex == this.frozenIndex)
+            this.columnIndex = columnIndex = new ColumnIndex(columnIndex);
+
+        final int
+            dy = index >> DIMENSION_ORDER,
+            dz = index & DIMENSION_MASK;
+
+        for (int dx = 0; dx < ELEMENTS_PER_WORD; ++dx)
+            if (elementAt(changed, dx) != 0)
+                columnIndex.update(dx, dy, dz, elementAt(word, dx));
+    }
+
+    /**
+     * Captures an immutable copy of this field that may be read from any thread while this field continues to be
+     * modified.  The words and column index of this field are shared with the copy rather than copied, this field
+     * copies them before it next modifies them (copy-on-write).  The copy also shares the partial blocks of this field.
+     *
+     * @return copy of this field that is never modified
+     */
+    OcclusionField snapshot() {
+        synchronized (MUTATION_LOCK) {
+            final OcclusionField snapshot = new OcclusionField();
+            snapshot.words = this.frozen = this.words;
+            snapshot.singleton = this.singleton;
+            snapshot.version = this.version;
+            snapshot.areaInit = this.areaInit;
+            snapshot.columnIndex = this.frozenIndex = this.columnIndex;
+            snapshot.partialBlocks = this.partialBlocks;
+            return snapshot;
+        }
+    }
+
+    /**
+     * Copies the flags and partial blocks of a section from another occlusion provider, locations outside the specified
+     * bounds are left as open air.  The copy is never modified.
+     *
+     * @param source provider to sample flags from
+     * @param cx x-coordinate of the columnar space containing the section
+     * @param cy y-coordinate of the section
+     * @param cz z-coordinate of the columnar space containing the section
+     * @param x0 minimum absolute x-coordinate to sample (inclusive)
+     * @param y0 minimum absolute y-coordinate to sample (inclusive)
+     * @param z0 minimum absolute z-coordinate to sample (inclusive)
+     * @param xN maximum absolute x-coordinate to sample (inclusive)
+     * @param yN maximum absolute y-coordinate to sample (inclusive)
+     * @param zN maximum absolute z-coordinate to sample (inclusive)
+     * @return copy of the section
+     */
+    static OcclusionField copyOf(IOcclusionProvider source, int cx, int cy, int cz, int x0, int y0, int z0, int xN, int yN, int zN) {
+        final OcclusionField copy = new OcclusionField();
+        final long[] words = copy.words = new long[DIMENSION_SQUARE_SIZE * DIMENSION_SIZE * ELEMENT_LENGTH / WORD_LENGTH];
+        final int
+            xs = cx << DIMENSION_ORDER,
+            ys = cy << DIMENSION_ORDER,
+            zs = cz << DIMENSION_ORDER;
+
+        for (int y = Math.max(ys, y0), yE = Math.min(ys + DIMENSION_EXTENT, yN); y <= yE; ++y)
+            for (int z = Math.max(zs, z0), zE = Math.min(zs + DIMENSION_EXTENT, zN); z <= zE; ++z) {
+                long word = 0;
+                for (int x = xs + DIMENSION_EXTENT; x >= xs; --x) {
+                    word <<= 1 << ELEMENT_LENGTH_SHL;
+                    if (x >= x0 && x <= xN)
+                        word |= source.elementAt(x, y, z) & ELEMENT_MASK;
+                }
+                words[copy.index(0, y - ys, z - zs)] = word;
+            }
+
+        copy.areaInit = FULLY_AREA_INIT;
+        copy.partialBlocks = PartialBlocks.copyOf(source, copy, cx, cy, cz);
+        return copy;
+    }
+
     private void decompress() {
         long word = singletonWord();
-        final long[] words = this.words = new long[DIMENSION_SQUARE_SIZE * DIMENSION_SIZE * ELEMENT_LENGTH / WORD_LENGTH];
+        final long[] words = new long[DIMENSION_SQUARE_SIZE * DIMENSION_SIZE * ELEMENT_LENGTH / WORD_LENGTH];
         for (int i = 0; i < words.length; ++i)
             words[i] = word;
 
-        this.singleton = 0;
+        this.words = words;
     }
 
     private long singletonWord() {
@@ -212,44 +444,64 @@ public class OcclusionField implements IOcclusionProvider {
     }
 
     void areaInitNorth(OcclusionField other) {
-        areaInitZPlane(other, false);
-        this.areaInit = AreaInit.north.to(this.areaInit);
+        mutate(() -> {
+            areaInitZPlane(other, false);
+            this.areaInit = AreaInit.north.to(this.areaInit);
+        });
     }
     void areaInitSouth(OcclusionField other) {
-        areaInitZPlane(other, true);
-        this.areaInit = AreaInit.south.to(this.areaInit);
+        mutate(() -> {
+            areaInitZPlane(other, true);
+            this.areaInit = AreaInit.south.to(this.areaInit);
+        });
     }
     void areaInitWest(OcclusionField other) {
-        areaInitXPlane(other, false);
-        this.areaInit = AreaInit.west.to(this.areaInit);
+        mutate(() -> {
+            areaInitXPlane(other, false);
+            this.areaInit = AreaInit.west.to(this.areaInit);
+        });
     }
     void areaInitEast(OcclusionField other) {
-        areaInitXPlane(other, true);
-        this.areaInit = AreaInit.east.to(this.areaInit);
+        mutate(() -> {
+            areaInitXPlane(other, true);
+            this.areaInit = AreaInit.east.to(this.areaInit);
+        });
     }
     void areaInitNorthEast(OcclusionField horizontal, OcclusionField depth) {
-        areaInitVerticalEdge(horizontal, depth, true, false);
-        this.areaInit = AreaInit.northEast.to(this.areaInit);
+        mutate(() -> {
+            areaInitVerticalEdge(horizontal, depth, true, false);
+            this.areaInit = AreaInit.northEast.to(this.areaInit);
+        });
     }
     void areaInitSouthEast(OcclusionField horizontal, OcclusionField depth) {
-        areaInitVerticalEdge(horizontal, depth, true, true);
-        this.areaInit = AreaInit.southEast.to(this.areaInit);
+        mutate(() -> {
+            areaInitVerticalEdge(horizontal, depth, true, true);
+            this.areaInit = AreaInit.southEast.to(this.areaInit);
+        });
     }
     void areaInitNorthWest(OcclusionField horizontal, OcclusionField depth) {
-        areaInitVerticalEdge(horizontal, depth, false, false);
-        this.areaInit = AreaInit.northWest.to(this.areaInit);
+        mutate(() -> {
+            areaInitVerticalEdge(horizontal, depth, false, false);
+            this.areaInit = AreaInit.northWest.to(this.areaInit);
+        });
     }
     void areaInitSouthWest(OcclusionField horizontal, OcclusionField depth) {
-        areaInitVerticalEdge(horizontal, depth, false, true);
-        this.areaInit = AreaInit.southWest.to(this.areaInit);
+        mutate(() -> {
+            areaInitVerticalEdge(horizontal, depth, false, true);
+            this.areaInit = AreaInit.southWest.to(this.areaInit);
+        });
     }
     void areaInitUp(IColumnarSpace columnarSpace, int cy, OcclusionField other) {
-        resolveTruncatedFencesAndDoors(columnarSpace, cy, other, true);
-        this.areaInit = AreaInit.up.to(this.areaInit);
+        mutate(() -> {
+            resolveTruncatedFencesAndDoors(columnarSpace, cy, other, true);
+            this.areaInit = AreaInit.up.to(this.areaInit);
+        });
     }
     void areaInitDown(IColumnarSpace columnarSpace, int cy, OcclusionField other) {
-        resolveTruncatedFencesAndDoors(columnarSpace, cy, other, false);
-        this.areaInit = AreaInit.down.to(this.areaInit);
+        mutate(() -> {
+            resolveTruncatedFencesAndDoors(columnarSpace, cy, other, false);
+            this.areaInit = AreaInit.down.to(this.areaInit);
+        });
     }
 
     private void resolveTruncatedFencesAndDoors(IColumnarSpace columnarSpace, int cy, OcclusionField other, final boolean end) {
@@ -304,7 +556,7 @@ public class OcclusionField implements IOcclusionProvider {
     }
 
     private void areaInitZPlane(OcclusionField neighbor, final boolean end) {
-        long[] words = this.words;
+        long[] words = writableWords();
         final int
             z0 = end ? DIMENSION_EXTENT : 0,
             disposition = ((z0 / (DIMENSION_EXTENT)) << 1) - 1;
@@ -364,7 +616,7 @@ public class OcclusionField implements IOcclusionProvider {
                 }
 
                 if (words != null)
-                    words[index] = word;
+                    store(words, index, word);
 
                 index++;
                 northIndex++;
@@ -377,7 +629,7 @@ public class OcclusionField implements IOcclusionProvider {
     }
 
     private void areaInitXPlane(OcclusionField neighbor, final boolean end) {
-        long[] words = this.words;
+        long[] words = writableWords();
         final int
             x0 = end ? DIMENSION_EXTENT : 0,
             disposition = ((x0 / (DIMENSION_EXTENT)) << 1) - 1,
@@ -432,7 +684,7 @@ public class OcclusionField implements IOcclusionProvider {
                 }
 
                 if (words != null)
-                    words[index] = word;
+                    store(words, index, word);
 
                 final int di = DIMENSION_SIZE >> COORDINATE_TO_INDEX_SHR;
                 index += di;
@@ -446,7 +698,7 @@ public class OcclusionField implements IOcclusionProvider {
     }
 
     private void areaInitVerticalEdge(OcclusionField horizNeighbor, OcclusionField depthNeighbor, final boolean horizEnd, final boolean depthEnd) {
-        long[] words = this.words;
+        long[] words = writableWords();
         final int
                 x0 = horizEnd ? DIMENSION_EXTENT : 0,
                 z0 = depthEnd ? DIMENSION_EXTENT : 0,
@@ -507,7 +759,7 @@ public class OcclusionField implements IOcclusionProvider {
             }
 
             if (words != null)
-                words[index] = word;
+                store(words, index, word);
 
             final int di = (DIMENSION_SIZE * DIMENSION_SIZE) >> COORDINATE_TO_INDEX_SHR;
             index += di;
@@ -619,6 +871,30 @@ public class OcclusionField implements IOcclusionProvider {
 
     @SuppressWarnings("unused")
     public void set(IColumnarSpace columnarSpace, int x, int y, int z, IBlockDescription blockDescription) {
+        mutate(() -> {
+            final int
+                    dx = x & DIMENSION_MASK,
+                    dy = y & DIMENSION_MASK,
+                    dz = z & DIMENSION_MASK;
+
+            PartialBlocks partialBlocks = this.partialBlocks;
+            if (partialBlocks != null)
+                partialBlocks = partialBlocks.without(dx, dy, dz);
+
+            update(columnarSpace, x, y, z, blockDescription);
+
+            final byte flags = flagsAt(dx, dy, dz);
+            final IInstanceSpace instance = columnarSpace.instance();
+            if (instance != null && Element.earth.in(flags) && Logic.fuzzy.in(flags)) {
+                final IBlockObject block = instance.blockObjectAt(x, y, z);
+                if (block != null)
+                    partialBlocks = PartialBlocks.with(partialBlocks, dx, dy, dz, block);
+            }
+            this.partialBlocks = partialBlocks;
+        });
+    }
+
+    private void update(IColumnarSpace columnarSpace, int x, int y, int z, IBlockDescription blockDescription) {
         final int
                 dx = x & DIMENSION_MASK,
                 dy = y & DIMENSION_MASK,
@@ -672,22 +948,31 @@ public class OcclusionField implements IOcclusionProvider {
                 fencesAndDoorsComputeAt(columnarSpace, dx, y + 1, dz, false);
             else if (y < (DIMENSION_SIZE << 4) - 2)
                 greaterFencesAndDoorsComputeAt(columnarSpace, x, y + 1, z, false);
+
+            modified();
         }
     }
 
     private boolean set(int dx, int dy, int dz, byte flags) {
-        if (this.words == null && flags != this.singleton)
-            decompress();
+        final long stamp = lockWrite();
+        try {
+            if (this.words == null && flags != this.singleton)
+                decompress();
 
-        if (this.words != null) {
-            final int index = index(dx, dy, dz);
-            final long word = this.words[index];
-            this.words[index] = modifyWord(word, dx % ELEMENTS_PER_WORD, flags);
+            final long[] words = writableWords();
+            if (words != null) {
+                final int index = index(dx, dy, dz);
+                final long word = words[index];
+                store(words, index, modifyWord(word, dx % ELEMENTS_PER_WORD, flags));
+                modified();
 
-            return true;
-        }
+                return true;
+            }
 
-        return false;
+            return false;
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
     private int index(int dx, int dy, int dz) {
@@ -695,7 +980,7 @@ public class OcclusionField implements IOcclusionProvider {
     }
 
     private void areaComputeAt(int dx, int dy, int dz) {
-        final long[] words = this.words;
+        final long[] words = writableWords();
         final int
                 offset = dx % ELEMENTS_PER_WORD,
                 index = index(dx, dy, dz);
@@ -706,11 +991,11 @@ public class OcclusionField implements IOcclusionProvider {
             eastWord = words[index(dx + 1, dy, dz)],
             centerWord = words[index];
 
-        words[index] = areaWordFor(centerWord, offset, northWord, eastWord, southWord, westWord);
+        store(words, index, areaWordFor(centerWord, offset, northWord, eastWord, southWord, westWord));
     }
 
     private void fencesAndDoorsComputeAt(IColumnarSpace columnarSpace, int dx, int y, int dz, boolean handlingFenceTops) {
-        final long[] words = this.words;
+        final long[] words = writableWords();
         final int
                 dy = y & DIMENSION_MASK,
                 offset = dx % ELEMENTS_PER_WORD,
@@ -720,7 +1005,7 @@ public class OcclusionField implements IOcclusionProvider {
                 upWord = words[index(dx, dy + 1, dz)],
                 centerWord = words[index];
 
-        words[index] = fenceAndDoorAreaWordFor(columnarSpace, dx, y, dz, centerWord, offset, upWord, downWord, handlingFenceTops);
+        store(words, index, fenceAndDoorAreaWordFor(columnarSpace, dx, y, dz, centerWord, offset, upWord, downWord, handlingFenceTops));
     }
 
     private void greaterAreaComputeAt(IColumnarSpace columnarSpace, int x, int y, int z) {
@@ -747,11 +1032,11 @@ public class OcclusionField implements IOcclusionProvider {
             west = ColumnarOcclusionFieldList.optOcclusionFieldAt(instance, (x - 1) >> DIMENSION_ORDER, cy, cz);
 
         byte
-            centerFlags = center.elementAt(dx, dy, dz),
-            northFlags = north == null ? 0 : north.elementAt(dx, dy, (dz - 1) & DIMENSION_MASK),
-            southFlags = south == null ? 0 : south.elementAt(dx, dy, (dz + 1) & DIMENSION_MASK),
-            westFlags = west == null ? 0 : west.elementAt((dx - 1) & DIMENSION_MASK, dy, dz),
-            eastFlags = east == null ? 0 : east.elementAt((dx + 1) & DIMENSION_MASK, dy, dz);
+            centerFlags = center.flagsAt(dx, dy, dz),
+            northFlags = north == null ? 0 : north.flagsAt(dx, dy, (dz - 1) & DIMENSION_MASK),
+            southFlags = south == null ? 0 : south.flagsAt(dx, dy, (dz + 1) & DIMENSION_MASK),
+            westFlags = west == null ? 0 : west.flagsAt((dx - 1) & DIMENSION_MASK, dy, dz),
+            eastFlags = east == null ? 0 : east.flagsAt((dx + 1) & DIMENSION_MASK, dy, dz);
 
         final byte flags = areaFlagsFor(centerFlags, northFlags, eastFlags, southFlags, westFlags);
 
@@ -780,9 +1065,9 @@ public class OcclusionField implements IOcclusionProvider {
                 down = ColumnarOcclusionFieldList.optOcclusionFieldAt(instance, cx, (y - 1) >> DIMENSION_ORDER, cz);
 
         byte
-                centerFlags = center.elementAt(dx, dy, dz),
-                upFlags = up == null ? 0 : up.elementAt(dx, (dy + 1) & DIMENSION_MASK, dz),
-                downFlags = down == null ? 0 : down.elementAt(dx, (dy - 1) & DIMENSION_MASK, dz);
+                centerFlags = center.flagsAt(dx, dy, dz),
+                upFlags = up == null ? 0 : up.flagsAt(dx, (dy + 1) & DIMENSION_MASK, dz),
+                downFlags = down == null ? 0 : down.flagsAt(dx, (dy - 1) & DIMENSION_MASK, dz);
 
         final byte flags = fenceAndDoorAreaFlagsFor(columnarSpace, dx, y, dz, centerFlags, upFlags, downFlags, handlingFenceTops);
 
@@ -791,9 +1076,69 @@ public class OcclusionField implements IOcclusionProvider {
 
     @Override
     public byte elementAt(int x, int y, int z) {
+        final StampedLock lock = this.lock;
+        long stamp = lock.tryOptimisticRead();
+        byte element = flagsAt(x, y, z);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                element = flagsAt(x, y, z);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return element;
+    }
+
+    @Override
+    public IBlockObject partialBlockAt(int x, int y, int z) {
+        final PartialBlocks partialBlocks = this.partialBlocks;
+        return partialBlocks == null ? null : partialBlocks.at(x, y, z);
+    }
+
+    @Override
+    public int openRunBelow(int x, int y, int z) {
+        return runBelow(columnIndex().open[(z << DIMENSION_ORDER) | x], y);
+    }
+
+    @Override
+    public int fluidRunAbove(int x, int y, int z) {
+        return runAbove(columnIndex().fluid[(z << DIMENSION_ORDER) | x], y);
+    }
+
+    private static int runBelow(short column, int y) {
+        return Integer.numberOfLeadingZeros(~((column & 0xFFFF) << (Integer.SIZE - 1 - y)));
+    }
+
+    private static int runAbove(short column, int y) {
+        return Integer.numberOfTrailingZeros(~((column & 0xFFFF) >>> y));
+    }
+
+    /**
+     * Retrieves the index of open and fluid blocks of each column of this field, building it if it has not been built
+     * since the field was loaded.  Once built the index is kept up to date by mutations of the field.
+     */
+    private ColumnIndex columnIndex() {
+        final ColumnIndex index = this.columnIndex;
+        if (index != null)
+            return index;
+
+        final long stamp = this.lock.readLock();
+        try {
+            return this.columnIndex = new ColumnIndex(this);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Reads flags without consulting the lock of this field, only for use by mutations which exclude other writers
+     */
+    private byte flagsAt(int x, int y, int z) {
+        final long[] words = this.words;
         byte element;
-        if (this.words != null) {
-            long word = this.words[index(x, y, z)];
+        if (words != null) {
+            long word = words[index(x, y, z)];
             element = elementAt(word, x % ELEMENTS_PER_WORD);
         } else
             element = this.singleton;
@@ -807,12 +1152,47 @@ public class OcclusionField implements IOcclusionProvider {
         return element;
     }
 
+    /**
+     * Bit-masks along the y-axis for each column (x/z) of a field identifying blocks that are openly passible air (except
+     * doorways) and blocks that are fluid (except doorways).  Bit y of a mask is set if the block at that y-coordinate
+     * qualifies.
+     */
+    private static final class ColumnIndex {
+        final short[]
+            open,
+            fluid;
+
+        ColumnIndex(OcclusionField field) {
+            this.open = new short[DIMENSION_SQUARE_SIZE];
+            this.fluid = new short[DIMENSION_SQUARE_SIZE];
+            for (int dy = 0; dy < DIMENSION_SIZE; ++dy)
+                for (int dz = 0; dz < DIMENSION_SIZE; ++dz)
+                    for (int dx = 0; dx < DIMENSION_SIZE; ++dx)
+                        update(dx, dy, dz, field.flagsAt(dx, dy, dz));
+        }
+
+        ColumnIndex(ColumnIndex other) {
+            this.open = other.open.clone();
+            this.fluid = other.fluid.clone();
+        }
+
+        void update(int dx, int dy, int dz, byte flags) {
+            final int
+                column = (dz << DIMENSION_ORDER) | dx,
+                bit = 1 << dy;
+            final boolean doorway = Logic.doorway.in(flags);
+
+            this.open[column] = (short)(!doorway && Element.air.in(flags) ? this.open[column] | bit : this.open[column] & ~bit);
+            this.fluid[column] = (short)(!doorway && Element.water.in(flags) ? this.fluid[column] | bit : this.fluid[column] & ~bit);
+        }
+    }
+
     @Override
     public String visualizeAt(int dy) {
         return visualizeAt(this, dy, 0, 0, DIMENSION_SIZE, DIMENSION_SIZE);
     }
 
-    private byte flagsFor(IColumnarSpace columnarSpace, int x, int y, int z, IBlockDescription block) {
+    private static byte flagsFor(IColumnarSpace columnarSpace, int x, int y, int z, IBlockDescription block) {
         byte flags = 0;
 
         final IInstanceSpace instance = columnarSpace.instance();
@@ -0,0 +1,85 @@
+package com.extollit.gaming.ai.path.model;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Registry of the listeners notified of changes to the occlusion data of a single instance.  Define an object of this
+ * class as a final field member of your concrete implementation of {@link IInstanceSpace} then implement
+ * {@link IInstanceSpace#occlusionFieldListeners()} to return this object.
+ *
+ * Listeners registered here are only notified of changes to the columnar spaces of the owning instance.  Registering
+ * and unregistering a listener takes constant time, the listeners are copied to an array only upon the first
+ * notification following a registration change.
+ *
+ * This object is thread-safe.
+ *
+ * @see IOcclusionFieldListener
+ * @see ColumnarOcclusionFieldList
+ */
+public final class OcclusionFieldListenerList {
+    private static final IOcclusionFieldListener[] EMPTY = new IOcclusionFieldListener[0];
+
+    private final Set<IOcclusionFieldListener> listeners = Collections.newSetFromMap(new IdentityHashMap<IOcclusionFieldListener, Boolean>());
+    private volatile IOcclusionFieldListener[] snapshot = EMPTY;
+
+    /**
+     * Registers a listener to be notified of changes to the occlusion data of the owning instance, this has no effect
+     * if the listener is already registered
+     *
+     * @param listener the listener to add
+     */
+    public void add(IOcclusionFieldListener listener) {
+        synchronized (this.listeners) {
+            if (this.listeners.add(listener))
+                this.snapshot = null;
+        }
+    }
+
+    /**
+     * Unregisters a listener previously registered with {@link #add(IOcclusionFieldListener)}
+     *
+     * @param listener the listener to remove
+     */
+    public void remove(IOcclusionFieldListener listener) {
+        synchronized (this.listeners) {
+            if (this.listeners.remove(listener))
+                this.snapshot = null;
+        }
+    }
+
+    /**
+     * Determines whether the specified listener is registered
+     *
+     * @param listener the listener to look for
+     * @return true if the listener is currently registered
+     */
+    public boolean contains(IOcclusionFieldListener listener) {
+        synchronized (this.listeners) {
+            return this.listeners.contains(listener);
+        }
+    }
+
+    private IOcclusionFieldListener[] listeners() {
+        IOcclusionFieldListener[] snapshot = this.snapshot;
+        if (snapshot == null)
+            synchronized (this.listeners) {
+                snapshot = this.snapshot;
+                if (snapshot == null)
+                    this.snapshot = snapshot = this.listeners.toArray(EMPTY);
+            }
+
+        return snapshot;
+    }
+
+    void blockChanged(IInstanceSpace instance, int x, int y, int z) {
+        for (IOcclusionFieldListener listener : listeners())
+            listener.onBlockChanged(instance, x, y, z);
+    }
+
+    void columnReset(IInstanceSpace instance, int cx, int cz) {
+        for (IOcclusionFieldListener listener : listeners())
+            listener.onColumnReset(instance, cx, cz);
+    }
+}
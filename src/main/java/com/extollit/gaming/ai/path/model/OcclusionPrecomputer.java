@@ -0,0 +1,102 @@
+package com.extollit.gaming.ai.path.model;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional pipeline that builds the occlusion fields of columnar spaces on worker threads as soon as they are loaded,
+ * rather than lazily on the thread of the first path-finder to sample them.  Without this the first entity to path
+ * into a freshly loaded area pays for loading every occlusion field it touches along with initializing their edges
+ * against neighboring fields.
+ *
+ * When notified of a loaded columnar space a task is submitted to the executor that builds the occlusion field of
+ * every section of the columnar space and publishes each to its {@link ColumnarOcclusionFieldList}.  A field is only
+ * published if no other thread built it in the meantime and no block of the columnar space changed while it was being
+ * built, otherwise it is discarded.  Once published, the edges of the new fields and those of their neighbors facing
+ * them are initialized against whichever neighboring columnar spaces are loaded.  Path-finders still build occlusion
+ * fields synchronously upon sampling a section whose field has not been published yet.
+ *
+ * The implementor's {@link IInstanceSpace} and {@link IColumnarSpace} implementations must tolerate concurrent reads
+ * since blocks are read from worker threads.  This object is thread-safe.
+ *
+ * @see ColumnarOcclusionFieldList
+ */
+public final class OcclusionPrecomputer {
+    private final Executor executor;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong published = new AtomicLong();
+
+    /**
+     * Creates a new pipeline that builds occlusion fields using the specified worker pool
+     *
+     * @param executor worker pool used to build occlusion fields, the caller remains responsible for shutting it down
+     */
+    public OcclusionPrecomputer(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Schedules the occlusion fields of the specified columnar space to be built in the background.  The implementor
+     * should call this after a columnar space has been loaded into its instance space (i.e. once it is available from
+     * {@link IInstanceSpace#columnarSpaceAt(int, int)}) and after {@link ColumnarOcclusionFieldList#reset()} has been
+     * called for it.
+     *
+     * @param columnarSpace the columnar space that was loaded
+     * @param cx x-coordinate of the columnar space
+     * @param cz z-coordinate of the columnar space
+     */
+    public void onColumnLoaded(IColumnarSpace columnarSpace, int cx, int cz) {
+        this.pending.incrementAndGet();
+        try {
+            this.executor.execute(() -> {
+                try {
+                    precompute(columnarSpace, cx, cz);
+                } finally {
+                    this.pending.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            this.pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void precompute(IColumnarSpace columnarSpace, int cx, int cz) {
+        final ColumnarOcclusionFieldList fields = columnarSpace.occlusionFields();
+        for (int cy = 0; cy < OcclusionField.DIMENSION_SIZE; ++cy)
+            if (fields.precompute(cx, cy, cz))
+                this.published.incrementAndGet();
+
+        final IInstanceSpace instance = columnarSpace.instance();
+        final IColumnarSpace[][] columnarSpaces = new IColumnarSpace[5][5];
+        for (int dz = -2; dz <= +2; ++dz)
+            for (int dx = -2; dx <= +2; ++dx)
+                columnarSpaces[dz + 2][dx + 2] = dx == 0 && dz == 0 ? columnarSpace : instance.columnarSpaceAt(cx + dx, cz + dz);
+
+        final AreaOcclusionProvider area = new AreaOcclusionProvider(columnarSpaces, cx - 2, cz - 2);
+        for (int cy = 0; cy < OcclusionField.DIMENSION_SIZE; ++cy)
+            for (int dz = -1; dz <= +1; ++dz)
+                for (int dx = -1; dx <= +1; ++dx)
+                    area.areaInitAt(cx + dx, cy, cz + dz);
+    }
+
+    /**
+     * Number of columnar spaces scheduled that have not finished being precomputed
+     *
+     * @return count of pending columnar spaces
+     */
+    public int pending() {
+        return this.pending.get();
+    }
+
+    /**
+     * Number of occlusion fields built and published by this pipeline, this excludes fields that were discarded because
+     * they were built synchronously first or became stale while they were being built
+     *
+     * @return count of published fields
+     */
+    public long published() {
+        return this.published.get();
+    }
+}
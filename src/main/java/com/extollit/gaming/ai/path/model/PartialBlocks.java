@@ -0,0 +1,269 @@
+package com.extollit.gaming.ai.path.model;
+
+import com.extollit.linalg.immutable.AxisAlignedBBox;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable copies of the blocks having partial collision bounds (e.g. slabs, fences and stairs) within an occlusion
+ * field, captured when the field is loaded and whenever such a block is placed thereafter.  The engine consults these rather than querying the instance for the block
+ * object every time it needs the geometry of such a block.  The collision bounds are quantised to sixteenths of a block
+ * and identical blocks share the same copy.
+ *
+ * Only blocks whose flags are {@link Element#earth} and {@link Logic#fuzzy} are captured, this excludes doors whose
+ * collision bounds depend on their state.
+ *
+ * @see OcclusionField#partialBlockAt(int, int, int)
+ */
+final class PartialBlocks {
+    private static final int
+        DIMENSION_ORDER = 4,
+        DIMENSION_SIZE = 1 << DIMENSION_ORDER;
+
+    private static final double QUANTUM = 16;
+
+    private final short[] cells;
+    private final IBlockObject[] blocks;
+
+    private PartialBlocks(short[] cells, IBlockObject[] blocks) {
+        this.cells = cells;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Captures the partial blocks of a loaded occlusion field
+     *
+     * @param instance the instance to retrieve block objects from
+     * @param field the field to capture partial blocks of
+     * @param cx x-coordinate of the columnar space containing the field
+     * @param cy y-coordinate of the section of the field
+     * @param cz z-coordinate of the columnar space containing the field
+     * @return the captured blocks, or null if the field contains none
+     */
+    static PartialBlocks capture(IInstanceSpace instance, OcclusionField field, int cx, int cy, int cz) {
+        return capture(instance::blockObjectAt, field, cx, cy, cz);
+    }
+
+    /**
+     * Copies the partial blocks of a section from another occlusion provider
+     *
+     * @param source the provider to retrieve partial blocks from
+     * @param field the copy of the flags of the section
+     * @param cx x-coordinate of the columnar space containing the section
+     * @param cy y-coordinate of the section
+     * @param cz z-coordinate of the columnar space containing the section
+     * @return the copied blocks, or null if the provider has none in the section
+     * @see IOcclusionProvider#partialBlockAt(int, int, int)
+     */
+    static PartialBlocks copyOf(IOcclusionProvider source, OcclusionField field, int cx, int cy, int cz) {
+        return capture(source::partialBlockAt, field, cx, cy, cz);
+    }
+
+    private interface BlockSource {
+        IBlockObject blockAt(int x, int y, int z);
+    }
+
+    private static PartialBlocks capture(BlockSource source, OcclusionField field, int cx, int cy, int cz) {
+        final int
+            x0 = cx << DIMENSION_ORDER,
+            y0 = cy << DIMENSION_ORDER,
+            z0 = cz << DIMENSION_ORDER;
+
+        final Map<Quantised, Quantised> interned = new HashMap<>();
+        short[] cells = new short[DIMENSION_SIZE];
+        IBlockObject[] blocks = new IBlockObject[DIMENSION_SIZE];
+        int count = 0;
+
+        for (int dy = 0; dy < DIMENSION_SIZE; ++dy)
+            for (int dz = 0; dz < DIMENSION_SIZE; ++dz)
+                for (int dx = 0; dx < DIMENSION_SIZE; ++dx) {
+                    final byte flags = field.elementAt(dx, dy, dz);
+                    if (!Element.earth.in(flags) || !Logic.fuzzy.in(flags))
+                        continue;
+
+                    final IBlockObject block = source.blockAt(x0 + dx, y0 + dy, z0 + dz);
+                    if (block == null)
+                        continue;
+
+                    final Quantised quantised = new Quantised(block);
+                    final Quantised existing = interned.putIfAbsent(quantised, quantised);
+
+                    if (count == cells.length) {
+                        cells = Arrays.copyOf(cells, count << 1);
+                        blocks = Arrays.copyOf(blocks, count << 1);
+                    }
+                    cells[count] = cell(dx, dy, dz);
+                    blocks[count++] = existing == null ? quantised : existing;
+                }
+
+        return count == 0 ? null : new PartialBlocks(Arrays.copyOf(cells, count), Arrays.copyOf(blocks, count));
+    }
+
+    /**
+     * Captures a copy of the partial block at the specified location, typically because the block there has changed
+     *
+     * @param blocks the existing copies of the field, may be null if there are none
+     * @param dx x-coordinate relative to the field
+     * @param dy y-coordinate relative to the field
+     * @param dz z-coordinate relative to the field
+     * @param block the block to copy
+     * @return the existing copies with the copy at the location added or replaced
+     */
+    static PartialBlocks with(PartialBlocks blocks, int dx, int dy, int dz, IBlockObject block) {
+        final short cell = cell(dx, dy, dz);
+        Quantised quantised = new Quantised(block);
+        if (blocks == null)
+            return new PartialBlocks(new short[] { cell }, new IBlockObject[] { quantised });
+
+        for (IBlockObject existing : blocks.blocks)
+            if (quantised.equals(existing)) {
+                quantised = (Quantised) existing;
+                break;
+            }
+
+        int i = Arrays.binarySearch(blocks.cells, cell);
+        if (i >= 0) {
+            final IBlockObject[] replaced = blocks.blocks.clone();
+            replaced[i] = quantised;
+            return new PartialBlocks(blocks.cells, replaced);
+        }
+
+        i = -i - 1;
+        final int count = blocks.cells.length;
+        final short[] cells = new short[count + 1];
+        final IBlockObject[] copies = new IBlockObject[count + 1];
+        System.arraycopy(blocks.cells, 0, cells, 0, i);
+        System.arraycopy(blocks.blocks, 0, copies, 0, i);
+        cells[i] = cell;
+        copies[i] = quantised;
+        System.arraycopy(blocks.cells, i, cells, i + 1, count - i);
+        System.arraycopy(blocks.blocks, i, copies, i + 1, count - i);
+        return new PartialBlocks(cells, copies);
+    }
+
+    private static short cell(int dx, int dy, int dz) {
+        return (short)((dy << (DIMENSION_ORDER << 1)) | (dz << DIMENSION_ORDER) | dx);
+    }
+
+    /**
+     * Retrieves the copy of the partial block at the specified location
+     *
+     * @param dx x-coordinate relative to the field
+     * @param dy y-coordinate relative to the field
+     * @param dz z-coordinate relative to the field
+     * @return the copy of the block, or null if no partial block was captured there
+     */
+    IBlockObject at(int dx, int dy, int dz) {
+        final int i = Arrays.binarySearch(this.cells, cell(dx, dy, dz));
+        return i < 0 ? null : this.blocks[i];
+    }
+
+    /**
+     * Discards the copy of the block at the specified location, typically because the block there has changed
+     *
+     * @param dx x-coordinate relative to the field
+     * @param dy y-coordinate relative to the field
+     * @param dz z-coordinate relative to the field
+     * @return the remaining copies, this if there was no copy at the location or null if none remain
+     */
+    PartialBlocks without(int dx, int dy, int dz) {
+        final int i = Arrays.binarySearch(this.cells, cell(dx, dy, dz));
+        if (i < 0)
+            return this;
+
+        final int count = this.cells.length - 1;
+        if (count == 0)
+            return null;
+
+        final short[] cells = new short[count];
+        final IBlockObject[] blocks = new IBlockObject[count];
+        System.arraycopy(this.cells, 0, cells, 0, i);
+        System.arraycopy(this.blocks, 0, blocks, 0, i);
+        System.arraycopy(this.cells, i + 1, cells, i, count - i);
+        System.arraycopy(this.blocks, i + 1, blocks, i, count - i);
+        return new PartialBlocks(cells, blocks);
+    }
+
+    int size() {
+        return this.cells.length;
+    }
+
+    private static final class Quantised implements IBlockObject {
+        private final short minX, minY, minZ, maxX, maxY, maxZ;
+        private final boolean fenceLike, climbable, door, intractable, impeding, fullyBounded, liquid, incinerating;
+        private final AxisAlignedBBox bounds;
+
+        Quantised(IBlockObject block) {
+            this.fenceLike = block.isFenceLike();
+            this.climbable = block.isClimbable();
+            this.door = block.isDoor();
+            this.intractable = block.isIntractable();
+            this.impeding = block.isImpeding();
+            this.fullyBounded = block.isFullyBounded();
+            this.liquid = block.isLiquid();
+            this.incinerating = block.isIncinerating();
+
+            if (this.impeding) {
+                final AxisAlignedBBox bounds = block.bounds();
+                this.minX = quantise(bounds.min.x);
+                this.minY = quantise(bounds.min.y);
+                this.minZ = quantise(bounds.min.z);
+                this.maxX = quantise(bounds.max.x);
+                this.maxY = quantise(bounds.max.y);
+                this.maxZ = quantise(bounds.max.z);
+            } else {
+                this.minX = this.minY = this.minZ = 0;
+                this.maxX = this.maxY = this.maxZ = (short) QUANTUM;
+            }
+
+            this.bounds = new AxisAlignedBBox(
+                this.minX / QUANTUM, this.minY / QUANTUM, this.minZ / QUANTUM,
+                this.maxX / QUANTUM, this.maxY / QUANTUM, this.maxZ / QUANTUM
+            );
+        }
+
+        private static short quantise(double coordinate) {
+            return (short) Math.round(coordinate * QUANTUM);
+        }
+
+        @Override public AxisAlignedBBox bounds() { return this.bounds; }
+        @Override public boolean isFenceLike() { return this.fenceLike; }
+        @Override public boolean isClimbable() { return this.climbable; }
+        @Override public boolean isDoor() { return this.door; }
+        @Override public boolean isIntractable() { return this.intractable; }
+        @Override public boolean isImpeding() { return this.impeding; }
+        @Override public boolean isFullyBounded() { return this.fullyBounded; }
+        @Override public boolean isLiquid() { return this.liquid; }
+        @Override public boolean isIncinerating() { return this.incinerating; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            final Quantised that = (Quantised) o;
+            return this.minX == that.minX && this.minY == that.minY && this.minZ == that.minZ
+                && this.maxX == that.maxX && this.maxY == that.maxY && this.maxZ == that.maxZ
+                && this.fenceLike == that.fenceLike && this.climbable == that.climbable && this.door == that.door
+                && this.intractable == that.intractable && this.impeding == that.impeding
+                && this.fullyBounded == that.fullyBounded && this.liquid == that.liquid
+                && this.incinerating == that.incinerating;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Arrays.hashCode(new short[] { this.minX, this.minY, this.minZ, this.maxX, this.maxY, this.maxZ });
+            result = 31 * result + (this.fenceLike ? 1 : 0);
+            result = 31 * result + (this.climbable ? 1 : 0);
+            result = 31 * result + (this.door ? 1 : 0);
+            result = 31 * result + (this.intractable ? 1 : 0);
+            result = 31 * result + (this.impeding ? 1 : 0);
+            result = 31 * result + (this.fullyBounded ? 1 : 0);
+            result = 31 * result + (this.liquid ? 1 : 0);
+            result = 31 * result + (this.incinerating ? 1 : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.extollit.gaming.ai.path.model;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * World-level cache of node calculator probe results shared by all path-finders in the same instance whose entities
+ * have an identical capability profile (see {@link Profile}).  Only the raw result of a probe is shared, per-search
+ * state and graph filters remain private to each path-finder.
+ *
+ * Results are stored per columnar space and a column is discarded whenever a block within reach of it changes or a
+ * nearby columnar space is reset, this is driven by {@link ColumnarOcclusionFieldList} notifications so the implementor
+ * must honor the contracts documented there.  Volatile results (e.g. those involving doors) are never cached.
+ *
+ * This object is thread-safe.  Since it registers itself with the {@link OcclusionFieldListenerList} of its instance space
+ * it must be closed when it is discarded before the instance space is unloaded.
+ *
+ * @see Profile
+ */
+public final class PassibilityCache implements IOcclusionFieldListener, Closeable {
+    private static final int
+        NO_ORIGIN = 27,
+        MAX_Y = OcclusionField.DIMENSION_SIZE * OcclusionField.DIMENSION_SIZE;
+
+    private final IInstanceSpace instanceSpace;
+    private final ConcurrentHashMap<Profile, ProfileCache> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new cache for the specified instance and registers it for occlusion field notifications
+     *
+     * @param instanceSpace the instance whose probe results are cached
+     */
+    public PassibilityCache(IInstanceSpace instanceSpace) {
+        this.instanceSpace = instanceSpace;
+        instanceSpace.occlusionFieldListeners().add(this);
+    }
+
+    /**
+     * Canonical capability profile of a pathing entity, two entities with equal profiles compute identical probe
+     * results for the same locations.
+     */
+    public static final class Profile {
+        private final Class<? extends INodeCalculator> calculator;
+        private final int discreteSize, tall, capabilities;
+
+        private Profile(Class<? extends INodeCalculator> calculator, int discreteSize, int tall, int capabilities) {
+            this.calculator = calculator;
+            this.discreteSize = discreteSize;
+            this.tall = tall;
+            this.capabilities = capabilities;
+        }
+
+        int reach() {
+            return this.discreteSize + 2;
+        }
+
+        int tall() {
+            return this.tall;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            final Profile profile = (Profile) o;
+            return this.discreteSize == profile.discreteSize &&
+                    this.tall == profile.tall &&
+                    this.capabilities == profile.capabilities &&
+                    this.calculator == profile.calculator;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = this.calculator.hashCode();
+            result = 31 * result + this.discreteSize;
+            result = 31 * result + this.tall;
+            result = 31 * result + this.capabilities;
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return this.calculator.getSimpleName() + " " + this.discreteSize + "x" + this.tall + " #" + Integer.toHexString(this.capabilities);
+        }
+    }
+
+    /**
+     * Derives the capability profile of an entity as observed by the specified node calculator
+     *
+     * @param calculator node calculator used to path-find for the entity
+     * @param subject the entity
+     * @return canonical profile of the entity
+     */
+    public static Profile profileOf(INodeCalculator calculator, IPathingEntity subject) {
+        final IPathingEntity.Capabilities capabilities = subject.capabilities();
+        int flags = 0;
+        if (capabilities.fireResistant()) flags |= 1;
+        if (capabilities.cautious()) flags |= 1 << 1;
+        if (capabilities.climber()) flags |= 1 << 2;
+        if (capabilities.swimmer()) flags |= 1 << 3;
+        if (capabilities.aquatic()) flags |= 1 << 4;
+        if (capabilities.avian()) flags |= 1 << 5;
+        if (capabilities.aquaphobic()) flags |= 1 << 6;
+        if (capabilities.avoidsDoorways()) flags |= 1 << 7;
+        if (capabilities.opensDoors()) flags |= 1 << 8;
+
+        return new Profile(
+                calculator.getClass(),
+                (int)Math.floor(subject.width() + 1),
+                (int)Math.floor(subject.height() + 1),
+                flags
+        );
+    }
+
+    ProfileCache forProfile(Profile profile) {
+        return this.profiles.computeIfAbsent(profile, ProfileCache::new);
+    }
+
+    /**
+     * Number of distinct capability profiles currently sharing this cache
+     *
+     * @return count of profiles
+     */
+    public int profiles() {
+        return this.profiles.size();
+    }
+
+    /**
+     * Discards all cached results
+     */
+    public void clear() {
+        for (ProfileCache cache : this.profiles.values())
+            cache.clear();
+
+        this.profiles.clear();
+    }
+
+    @Override
+    public void onBlockChanged(IInstanceSpace instance, int x, int y, int z) {
+        if (instance != this.instanceSpace)
+            return;
+
+        for (ProfileCache cache : this.profiles.values()) {
+            final int reach = cache.reach;
+            cache.invalidate(x - reach, z - reach, x + reach, z + reach);
+        }
+    }
+
+    @Override
+    public void onColumnReset(IInstanceSpace instance, int cx, int cz) {
+        if (instance != this.instanceSpace)
+            return;
+
+        final int
+            x0 = cx << 4,
+            z0 = cz << 4;
+
+        for (ProfileCache cache : this.profiles.values()) {
+            final int reach = cache.reach;
+            cache.invalidate(x0 - reach, z0 - reach, x0 + 15 + reach, z0 + 15 + reach);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.instanceSpace.occlusionFieldListeners().remove(this);
+        clear();
+    }
+
+    static long columnKey(int cx, int cz) {
+        return (long)cx << 32 | (cz & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Computes the key of a probe within its column
+     *
+     * @return the key or -1 if a probe at this location from this origin cannot be cached
+     */
+    static int keyOf(int x, int y, int z, Coords origin) {
+        if (y < 0 || y >= MAX_Y)
+            return -1;
+
+        final int code;
+        if (origin == null)
+            code = NO_ORIGIN;
+        else {
+            final int
+                dx = x - origin.x,
+                dy = y - origin.y,
+                dz = z - origin.z;
+
+            if (dx < -1 || dx > 1 || dy < -1 || dy > 1 || dz < -1 || dz > 1)
+                return -1;
+
+            code = (dx + 1) * 9 + (dy + 1) * 3 + dz + 1;
+        }
+
+        return (x & 15) | (z & 15) << 4 | y << 8 | code << 16;
+    }
+
+    static long encode(ProbeResult probe) {
+        return 1L << 40
+            | (probe.y() & 0xFFFFFFFFL) << 8
+            | probe.gravitation().ordinal() << 2
+            | probe.passibility().ordinal();
+    }
+
+    static void decode(long value, int x, int z, ProbeResult probe) {
+        probe.set(
+            x, (int)(value >>> 8), z,
+            Passibility.of((int)value & 3),
+            false,
+            Gravitation.of((int)(value >> 2) & 3)
+        );
+    }
+
+    static final class ProfileCache {
+        final int reach;
+        private final ConcurrentHashMap<Long, Column> columns = new ConcurrentHashMap<>();
+
+        ProfileCache(Profile profile) {
+            this.reach = profile.reach();
+        }
+
+        Column column(int cx, int cz) {
+            return this.columns.computeIfAbsent(columnKey(cx, cz), key -> new Column());
+        }
+
+        void invalidate(int x0, int z0, int xN, int zN) {
+            for (int cx = x0 >> 4, cxN = xN >> 4; cx <= cxN; ++cx)
+                for (int cz = z0 >> 4, czN = zN >> 4; cz <= czN; ++cz) {
+                    final Column column = this.columns.remove(columnKey(cx, cz));
+                    if (column != null)
+                        column.valid = false;
+                }
+        }
+
+        void clear() {
+            for (Column column : this.columns.values())
+                column.valid = false;
+
+            this.columns.clear();
+        }
+    }
+
+    /**
+     * Probe results for one columnar space, an open-addressed table of primitive keys and values.  Once invalidated a
+     * column is detached from its profile and results written to it afterward are never observed.
+     */
+    static final class Column {
+        private static final float LOAD_FACTOR = 0.6f;
+
+        volatile boolean valid = true;
+
+        private int[] keys = new int[64];
+        private long[] values = new long[64];
+        private int size, threshold = (int)(64 * LOAD_FACTOR);
+
+        synchronized long get(int key) {
+            final int[] keys = this.keys;
+            final long[] values = this.values;
+            final int mask = keys.length - 1;
+
+            for (int i = hash(key) & mask; values[i] != 0; i = (i + 1) & mask)
+                if (keys[i] == key)
+                    return values[i];
+
+            return 0;
+        }
+
+        synchronized void put(int key, long value) {
+            if (this.size >= this.threshold)
+                rehash(this.keys.length << 1);
+
+            final int[] keys = this.keys;
+            final long[] values = this.values;
+            final int mask = keys.length - 1;
+
+            int i = hash(key) & mask;
+            while (values[i] != 0) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+
+            keys[i] = key;
+            values[i] = value;
+            this.size++;
+        }
+
+        private void rehash(int capacity) {
+            final int[] keys0 = this.keys;
+            final long[] values0 = this.values;
+            final int[] keys = this.keys = new int[capacity];
+            final long[] values = this.values = new long[capacity];
+            final int mask = capacity - 1;
+
+            for (int c = 0; c < keys0.length; ++c)
+                if (values0[c] != 0) {
+                    int i = hash(keys0[c]) & mask;
+                    while (values[i] != 0)
+                        i = (i + 1) & mask;
+
+                    keys[i] = keys0[c];
+                    values[i] = values0[c];
+                }
+
+            this.threshold = (int)(capacity * LOAD_FACTOR);
+        }
+
+        private static int hash(int key) {
+            final int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return "Column{size=" + this.size + ", valid=" + this.valid + '}';
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PassibilityCache" + Arrays.toString(this.profiles.keySet().toArray());
+    }
+}
@@ -0,0 +1,416 @@
+package com.extollit.gaming.ai.path.model;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * World-level least-recently-used cache of complete paths keyed by the source and destination of the path along with
+ * the capability profile (see {@link PassibilityCache.Profile}) of the entity that searched for it.  This suits entities
+ * that repeatedly path-find between the same few locations, such as villagers commuting between a bed and a workplace.
+ *
+ * Paths are stored compactly as coordinates only.  Each path remembers the sections (16x16x16 blocks) it passes
+ * through and the stamp of the cache when the search for it began, a cached path is only returned if none of those
+ * sections have been modified since.  Section modification stamps are maintained from {@link ColumnarOcclusionFieldList}
+ * notifications so the implementor must honor the contracts documented there.  A block change stamps every section
+ * within {@link #REACH} blocks of it and a reset columnar space stamps every section of every column within reach of it.
+ * Stamps older than every cached path are discarded once they outnumber the capacity of the cache several times over,
+ * and should that not suffice the oldest half of them are discarded along with any cached paths that depended on them,
+ * so they remain bounded no matter how many blocks change between stores.
+ *
+ * This object is thread-safe.  Since it registers itself with the {@link OcclusionFieldListenerList} of its instance space
+ * it must be closed when it is discarded before the instance space is unloaded.
+ */
+public final class PathCache implements IOcclusionFieldListener, Closeable {
+    /**
+     * Default maximum number of paths retained
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Distance (in blocks) from a changed block within which cached paths are invalidated, this accommodates the reach
+     * of node calculator probes for entities up to two blocks wide
+     */
+    public static final int REACH = 4;
+
+    private static final int SECTION_ORDER = 4;
+
+    private final IInstanceSpace instanceSpace;
+    private final int capacity;
+    private final LruMap entries;
+    private final ConcurrentHashMap<Long, Long>
+        sectionStamps = new ConcurrentHashMap<>(),
+        columnStamps = new ConcurrentHashMap<>();
+    private final AtomicLong stamps = new AtomicLong();
+    private volatile long pruned;
+
+    private long hits, misses, invalidations;
+
+    /**
+     * Creates a new cache for the specified instance with the default capacity and registers it for occlusion field
+     * notifications
+     *
+     * @param instanceSpace the instance whose paths are cached
+     */
+    public PathCache(IInstanceSpace instanceSpace) {
+        this(instanceSpace, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new cache for the specified instance and registers it for occlusion field notifications
+     *
+     * @param instanceSpace the instance whose paths are cached
+     * @param capacity maximum number of paths retained, the least-recently used path is evicted beyond this
+     */
+    public PathCache(IInstanceSpace instanceSpace, int capacity) {
+        this.instanceSpace = instanceSpace;
+        this.capacity = capacity;
+        this.entries = new LruMap(capacity);
+        instanceSpace.occlusionFieldListeners().add(this);
+    }
+
+    private static final class LruMap extends LinkedHashMap<Key, PathCache.Entry> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        long evictions;
+
+        LruMap(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, PathCache.Entry> eldest) {
+            if (size() > this.capacity) {
+                this.evictions++;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Key {
+        final PassibilityCache.Profile profile;
+        final Coords source, destination;
+
+        Key(PassibilityCache.Profile profile, Coords source, Coords destination) {
+            this.profile = profile;
+            this.source = source;
+            this.destination = destination;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            final Key key = (Key) o;
+            return this.source.equals(key.source) &&
+                    this.destination.equals(key.destination) &&
+                    this.profile.equals(key.profile);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = this.profile.hashCode();
+            result = 31 * result + this.source.hashCode();
+            result = 31 * result + this.destination.hashCode();
+            return result;
+        }
+    }
+
+    /**
+     * A compact path, the coordinates of its points are packed in triples alongside the passibility of each point
+     */
+    private static final class Entry {
+        final int[] coordinates;
+        final byte[] passibilities;
+        final long[] sections;
+        final long stamp;
+
+        Entry(int[] coordinates, byte[] passibilities, long[] sections, long stamp) {
+            this.coordinates = coordinates;
+            this.passibilities = passibilities;
+            this.sections = sections;
+            this.stamp = stamp;
+        }
+    }
+
+    /**
+     * Current stamp of this cache, a path-finder captures this when it begins searching and supplies it when storing the
+     * resulting path so that modifications made during the search invalidate the path
+     *
+     * @return the stamp of the most recent modification observed
+     */
+    public long stamp() {
+        return this.stamps.get();
+    }
+
+    /**
+     * Retrieves a cached path between the specified points
+     *
+     * @param profile capability profile of the entity path-finding
+     * @param source the first point of the path
+     * @param destination the last point of the path
+     * @param speed speed of the entity path-finding
+     * @param random random number generator used by the path
+     * @return the cached path, or null if no unmodified path between these points is cached for this profile
+     */
+    public synchronized IPath pathBetween(PassibilityCache.Profile profile, Coords source, Coords destination, float speed, Random random) {
+        final Key key = new Key(profile, source, destination);
+        final Entry entry = this.entries.get(key);
+        if (entry == null) {
+            this.misses++;
+            return null;
+        }
+
+        if (modifiedSince(entry)) {
+            this.entries.remove(key);
+            this.invalidations++;
+            this.misses++;
+            return null;
+        }
+
+        this.hits++;
+
+        final int[] coordinates = entry.coordinates;
+        final byte[] passibilities = entry.passibilities;
+        final Node[] nodes = new Node[passibilities.length];
+        for (int i = 0, c = 0; i < nodes.length; ++i)
+            nodes[i] = new Node(coordinates[c++], coordinates[c++], coordinates[c++], Passibility.of(passibilities[i]));
+
+        return new PathObject(speed, random, nodes);
+    }
+
+    /**
+     * Stores a complete path
+     *
+     * @param profile capability profile of the entity that searched for the path
+     * @param path the path to store, paths with fewer than two points are ignored
+     * @param stamp stamp of this cache (see {@link #stamp()}) captured when the search for the path began, the path is
+     *              ignored if the stamps of modifications since then have already been discarded
+     */
+    public synchronized void put(PassibilityCache.Profile profile, IPath path, long stamp) {
+        final int length = path.length();
+        if (length < 2 || stamp < this.pruned)
+            return;
+
+        final int[] coordinates = new int[length * 3];
+        final byte[] passibilities = new byte[length];
+        final Set<Long> sections = new LinkedHashSet<>();
+        Coords previous = null;
+        for (int i = 0, c = 0; i < length; ++i) {
+            final INode node = path.at(i);
+            final Coords coords = node.coordinates();
+            coordinates[c++] = coords.x;
+            coordinates[c++] = coords.y;
+            coordinates[c++] = coords.z;
+            passibilities[i] = (byte)node.passibility().ordinal();
+
+            final int cy0 = previous == null ? coords.y : min(previous.y, coords.y);
+            final int cyN = previous == null ? coords.y : max(previous.y, coords.y);
+            for (int cy = cy0 >> SECTION_ORDER; cy <= cyN >> SECTION_ORDER; ++cy)
+                sections.add(sectionKey(coords.x >> SECTION_ORDER, cy, coords.z >> SECTION_ORDER));
+
+            previous = coords;
+        }
+
+        final long[] keys = new long[sections.size()];
+        int i = 0;
+        for (Long section : sections)
+            keys[i++] = section;
+
+        final Entry entry = new Entry(coordinates, passibilities, keys, stamp);
+        if (modifiedSince(entry))
+            return;
+
+        this.entries.put(new Key(profile, path.at(0).coordinates(), path.last().coordinates()), entry);
+        prune();
+    }
+
+    private boolean modifiedSince(Entry entry) {
+        final long stamp = entry.stamp;
+        for (long section : entry.sections)
+            if (this.sectionStamps.getOrDefault(section, 0L) > stamp || this.columnStamps.getOrDefault(columnKeyOf(section), 0L) > stamp)
+                return true;
+
+        return false;
+    }
+
+    private boolean overgrown() {
+        return stampCount() > this.capacity * 8;
+    }
+
+    /**
+     * Number of section and column stamps currently retained
+     */
+    int stampCount() {
+        return this.sectionStamps.size() + this.columnStamps.size();
+    }
+
+    /**
+     * Discards section stamps older than every cached path once they outnumber the cached paths.  If that is not enough
+     * then the oldest stamps are discarded regardless along with the cached paths that could no longer be verified
+     * without them.  Paths whose searches began before the newest discarded stamp can no longer be stored.
+     */
+    private synchronized void prune() {
+        if (!overgrown())
+            return;
+
+        long oldest = this.stamps.get();
+        for (Entry entry : this.entries.values())
+            if (entry.stamp < oldest)
+                oldest = entry.stamp;
+
+        discardThrough(oldest);
+
+        if (overgrown()) {
+            final long threshold = medianStamp();
+            discardThrough(threshold);
+
+            final Iterator<Entry> i = this.entries.values().iterator();
+            while (i.hasNext())
+                if (i.next().stamp < threshold) {
+                    i.remove();
+                    this.invalidations++;
+                }
+        }
+    }
+
+    private void discardThrough(long threshold) {
+        this.sectionStamps.values().removeIf(stamp -> stamp <= threshold);
+        this.columnStamps.values().removeIf(stamp -> stamp <= threshold);
+        if (threshold > this.pruned)
+            this.pruned = threshold;
+    }
+
+    private long medianStamp() {
+        final long[] values = new long[stampCount()];
+        int c = 0;
+        for (Long stamp : this.sectionStamps.values())
+            if (c < values.length)
+                values[c++] = stamp;
+        for (Long stamp : this.columnStamps.values())
+            if (c < values.length)
+                values[c++] = stamp;
+
+        Arrays.sort(values, 0, c);
+        return values[c / 2];
+    }
+
+    static long sectionKey(int cx, int cy, int cz) {
+        return (long)(cx & 0xFFFFFFF) << 36 | (long)(cz & 0xFFFFFFF) << 8 | (cy & 0xFF);
+    }
+
+    private static long columnKeyOf(long sectionKey) {
+        return sectionKey & ~0xFFL;
+    }
+
+    /**
+     * Number of paths currently cached
+     *
+     * @return count of paths
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Maximum number of paths retained
+     *
+     * @return capacity of this cache
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Number of lookups that returned a cached path
+     *
+     * @return count of hits
+     */
+    public synchronized long hits() {
+        return this.hits;
+    }
+
+    /**
+     * Number of lookups that did not return a cached path, including those whose cached path had been invalidated
+     *
+     * @return count of misses
+     */
+    public synchronized long misses() {
+        return this.misses;
+    }
+
+    /**
+     * Number of paths evicted to make room for other paths
+     *
+     * @return count of evictions
+     */
+    public synchronized long evictions() {
+        return this.entries.evictions;
+    }
+
+    /**
+     * Number of paths discarded because terrain they pass through was modified
+     *
+     * @return count of invalidations
+     */
+    public synchronized long invalidations() {
+        return this.invalidations;
+    }
+
+    /**
+     * Discards all cached paths, counters are retained
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.sectionStamps.clear();
+        this.columnStamps.clear();
+    }
+
+    @Override
+    public void onBlockChanged(IInstanceSpace instance, int x, int y, int z) {
+        if (instance != this.instanceSpace)
+            return;
+
+        final Long stamp = this.stamps.incrementAndGet();
+        for (int cx = (x - REACH) >> SECTION_ORDER, cxN = (x + REACH) >> SECTION_ORDER; cx <= cxN; ++cx)
+            for (int cz = (z - REACH) >> SECTION_ORDER, czN = (z + REACH) >> SECTION_ORDER; cz <= czN; ++cz)
+                for (int cy = (y - REACH) >> SECTION_ORDER, cyN = (y + REACH) >> SECTION_ORDER; cy <= cyN; ++cy)
+                    this.sectionStamps.put(sectionKey(cx, cy, cz), stamp);
+
+        if (overgrown())
+            prune();
+    }
+
+    @Override
+    public void onColumnReset(IInstanceSpace instance, int cx, int cz) {
+        if (instance != this.instanceSpace)
+            return;
+
+        final Long stamp = this.stamps.incrementAndGet();
+        for (int dx = -1; dx <= 1; ++dx)
+            for (int dz = -1; dz <= 1; ++dz)
+                this.columnStamps.put(columnKeyOf(sectionKey(cx + dx, 0, cz + dz)), stamp);
+
+        if (overgrown())
+            prune();
+    }
+
+    @Override
+    public void close() {
+        this.instanceSpace.occlusionFieldListeners().remove(this);
+        clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PathCache{size=" + this.entries.size() + ", hits=" + this.hits + ", misses=" + this.misses + ", evictions=" + this.entries.evictions + '}';
+    }
+}
@@ -10,7 +10,9 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.text.MessageFormat;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Random;
 
 import static java.lang.Math.*;
@@ -49,12 +51,29 @@ public final class PathObject implements IPath {
     }
 
     public static IPath fromHead(float speed, Random random, Node head) {
+        return fromHead(speed, random, head, Collections.<Node>emptyList());
+    }
+
+    /**
+     * Builds a path through the chain of parents leading to the specified head followed by the specified nodes, the
+     * nodes of the tail are not linked into the chain
+     *
+     * @param speed speed of the entity path-finding
+     * @param random random number generator used by the path
+     * @param head last node of the chain of parents
+     * @param tail nodes that follow the head in order
+     * @return the path from the root of the chain through to the last node of the tail
+     */
+    public static IPath fromHead(float speed, Random random, Node head, List<Node> tail) {
         int i = 1;
 
         for (Node p = head; p.up() != null; p = p.up())
             ++i;
 
-        final Node[] result = new Node[i];
+        final Node[] result = new Node[i + tail.size()];
+        for (int j = 0; j < tail.size(); ++j)
+            result[i + j] = tail.get(j);
+
         result[--i] = head;
 
         for (Node p = head; p.up() != null; result[--i] = p)
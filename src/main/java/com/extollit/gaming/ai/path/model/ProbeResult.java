@@ -0,0 +1,99 @@
+package com.extollit.gaming.ai.path.model;
+
+/**
+ * Mutable outcome of probing the instance space for the passible point nearest to some location.  A node calculator
+ * writes its result here rather than allocating a {@link Node} so that a single instance can be reused for every probe,
+ * the node map only materializes a node from it when the result is not already in the graph.
+ *
+ * @see INodeCalculator#probe(int, int, int, Coords, FlagSampler, ProbeResult)
+ */
+public final class ProbeResult {
+    private int x, y, z;
+    private Passibility passibility = Passibility.passible;
+    private Gravitation gravitation = Gravitation.grounded;
+    private boolean volatility;
+    private Node node;
+
+    /**
+     * Records the result of a probe for a grounded point
+     *
+     * @param x x-coordinate of the resulting point
+     * @param y y-coordinate of the resulting point
+     * @param z z-coordinate of the resulting point
+     * @param passibility passibility of the resulting point
+     * @param volatility whether the passibility of the resulting point may change over time
+     */
+    public void set(int x, int y, int z, Passibility passibility, boolean volatility) {
+        set(x, y, z, passibility, volatility, Gravitation.grounded);
+    }
+
+    /**
+     * Records the result of a probe
+     *
+     * @param x x-coordinate of the resulting point
+     * @param y y-coordinate of the resulting point
+     * @param z z-coordinate of the resulting point
+     * @param passibility passibility of the resulting point
+     * @param volatility whether the passibility of the resulting point may change over time
+     * @param gravitation gravitation of the resulting point
+     */
+    public void set(int x, int y, int z, Passibility passibility, boolean volatility, Gravitation gravitation) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.passibility = passibility;
+        this.volatility = volatility;
+        this.gravitation = gravitation;
+        this.node = null;
+    }
+
+    /**
+     * Records an already allocated node as the result of a probe, this node will be used as-is if the result is
+     * materialized
+     *
+     * @param node the resulting point
+     */
+    public void set(Node node) {
+        final Coords key = node.key;
+        this.x = key.x;
+        this.y = key.y;
+        this.z = key.z;
+        this.passibility = node.passibility();
+        this.volatility = node.volatile_();
+        this.gravitation = node.gravitation();
+        this.node = node;
+    }
+
+    public int x() { return this.x; }
+    public int y() { return this.y; }
+    public int z() { return this.z; }
+    public Passibility passibility() { return this.passibility; }
+    public Gravitation gravitation() { return this.gravitation; }
+    public boolean volatile_() { return this.volatility; }
+
+    boolean at(int x, int y, int z) {
+        return this.x == x && this.y == y && this.z == z;
+    }
+
+    boolean at(Coords coords) {
+        return at(coords.x, coords.y, coords.z);
+    }
+
+    /**
+     * Creates a node from this result, or returns the node it was recorded from
+     *
+     * @return a node having the coordinates and properties of this result
+     */
+    public Node toNode() {
+        final Node node = this.node;
+        if (node != null)
+            return node;
+
+        return new Node(new Coords(this.x, this.y, this.z), this.passibility, this.volatility, this.gravitation);
+    }
+
+    @Override
+    public String toString() {
+        return this.x + ", " + this.y + ", " + this.z + " (" + this.passibility + '/' + this.gravitation + (this.volatility ? ", volatile)" : ")");
+    }
+}
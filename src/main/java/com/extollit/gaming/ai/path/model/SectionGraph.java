@@ -0,0 +1,1157 @@
+package com.extollit.gaming.ai.path.model;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * World-level abstract graph for hierarchical path-finding (HPA*) over the same 16x16x16 sections that occlusion fields
+ * divide an instance into.  Each section is summarized by the moves available between its standable cells and a small
+ * number of exits, clusters of adjacent cells from which a move leads into the same neighboring section.  A route is
+ * searched over exits only (see {@link #route(PassibilityCache.Profile, INodeCalculator, IPathingEntity.Capabilities, IOcclusionProviderFactory, Coords, Coords, int)})
+ * and is intended to be refined into block-level paths one leg at a time as the entity advances along it.
+ *
+ * The same summaries also back a conservative reachability test (see {@link #isReachable(PassibilityCache.Profile, INodeCalculator, IPathingEntity.Capabilities, IOcclusionProviderFactory, Coords, Coords, int)})
+ * that rejects destinations in disconnected regions of the world without searching for a path to them.
+ *
+ * Sections are summarized lazily per capability profile (see {@link PassibilityCache.Profile}) the first time a route
+ * or reachability query passes through them, and the costs of crossing a section from some cell to each of its exits are cached as well.
+ * A section is discarded whenever a block that may affect it changes or a nearby columnar space is reset, and it is
+ * summarized again on demand, this is driven by {@link ColumnarOcclusionFieldList} notifications so the implementor must
+ * honor the contracts documented there.
+ *
+ * This object is thread-safe.  Since it registers itself with the {@link OcclusionFieldListenerList} of its instance space
+ * it must be closed when it is discarded before the instance space is unloaded.
+ *
+ * @see Route
+ */
+public final class SectionGraph implements IOcclusionFieldListener, Closeable {
+    private static final int
+        DIMENSION_ORDER = 4,
+        DIMENSION_SIZE = 1 << DIMENSION_ORDER,
+        DIMENSION_MASK = DIMENSION_SIZE - 1,
+        SECTIONS_HIGH = DIMENSION_SIZE,
+        CELL_COUNT = DIMENSION_SIZE * DIMENSION_SIZE * DIMENSION_SIZE;
+
+    /**
+     * Bounds on how many sections a single move may span vertically, which determine the sections consulted for moves
+     * into a section.  Falls are assumed to be shorter than 32 blocks and climbing or swimming up shorter than 16
+     * blocks, this holds for the stock node calculators under their default configuration.
+     */
+    private static final int
+        MAX_FALL_SECTIONS = 2,
+        MAX_RISE_SECTIONS = 1;
+
+    /**
+     * Default maximum number of sections consulted when flooding a reachability region
+     */
+    public static final int DEFAULT_REACHABILITY_LIMIT = 64;
+
+    private static final int[][] DIRECTIONS = {
+        { -1, 0, 0 },
+        { +1, 0, 0 },
+        { 0, 0, -1 },
+        { 0, 0, +1 },
+        { 0, +1, 0 },
+        { 0, -1, 0 }
+    };
+
+    private static final int[][] COLUMNS = {
+        { 0, 0 },
+        { -1, 0 },
+        { +1, 0 },
+        { 0, -1 },
+        { 0, +1 }
+    };
+
+    private final IInstanceSpace instanceSpace;
+    private final int reachabilityLimit;
+    private final ConcurrentHashMap<PassibilityCache.Profile, ProfileSections> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new graph for the specified instance and registers it for occlusion field notifications
+     *
+     * @param instanceSpace the instance to path-find in
+     */
+    public SectionGraph(IInstanceSpace instanceSpace) {
+        this(instanceSpace, DEFAULT_REACHABILITY_LIMIT);
+    }
+
+    /**
+     * Creates a new graph for the specified instance and registers it for occlusion field notifications
+     *
+     * @param instanceSpace the instance to path-find in
+     * @param reachabilityLimit maximum number of sections consulted when flooding a reachability region, larger limits
+     *                          prove more destinations unreachable at the expense of summarizing more sections
+     */
+    public SectionGraph(IInstanceSpace instanceSpace, int reachabilityLimit) {
+        this.instanceSpace = instanceSpace;
+        this.reachabilityLimit = reachabilityLimit;
+        instanceSpace.occlusionFieldListeners().add(this);
+    }
+
+    /**
+     * An abstract path computed over sections, a sequence of waypoints each of which lies just beyond the border of
+     * a section and is reachable from the previous one without leaving the section that contains the latter.
+     */
+    public static final class Route {
+        private final Coords[] waypoints;
+        private final int[] costs;
+
+        Route(Coords[] waypoints, int[] costs) {
+            this.waypoints = waypoints;
+            this.costs = costs;
+        }
+
+        /**
+         * Number of waypoints along the route, the last of which is the destination
+         *
+         * @return count of waypoints
+         */
+        public int size() {
+            return this.waypoints.length;
+        }
+
+        /**
+         * Retrieves a waypoint along the route
+         *
+         * @param index index of the waypoint
+         * @return coordinates of the waypoint
+         */
+        public Coords waypoint(int index) {
+            return this.waypoints[index];
+        }
+
+        /**
+         * Estimated cost of travelling from the start of the route to the specified waypoint, this is roughly the number
+         * of blocks traversed with additional cost for risky and dangerous blocks
+         *
+         * @param index index of the waypoint
+         * @return cumulative cost of the route up to the waypoint
+         */
+        public int cost(int index) {
+            return this.costs[index];
+        }
+
+        /**
+         * The final waypoint of the route
+         *
+         * @return coordinates of the destination
+         */
+        public Coords destination() {
+            return this.waypoints[this.waypoints.length - 1];
+        }
+
+        @Override
+        public String toString() {
+            return "Route" + Arrays.toString(this.waypoints);
+        }
+    }
+
+    /**
+     * Computes a route between two locations over the abstract graph of the specified profile, summarizing sections
+     * as necessary.
+     *
+     * @param profile capability profile of the entity, see {@link PassibilityCache#profileOf(INodeCalculator, IPathingEntity)}
+     * @param calculator node calculator used to path-find for the entity, it must already have been applied to the
+     *                   entity
+     * @param capabilities capabilities of the entity, used to determine which points it may path through
+     * @param occlusionProviderFactory source of occlusion data for sections that must be summarized
+     * @param source location the route begins from
+     * @param destination location the route leads to
+     * @param maxExpansions maximum number of abstract nodes to expand before giving up
+     * @return the route, or null if the destination could not be reached
+     */
+    public Route route(PassibilityCache.Profile profile, INodeCalculator calculator, IPathingEntity.Capabilities capabilities, IOcclusionProviderFactory occlusionProviderFactory, Coords source, Coords destination, int maxExpansions) {
+        final ProfileSections sections = this.profiles.computeIfAbsent(profile, ProfileSections::new);
+        final Builder builder = new Builder(calculator, capabilities, occlusionProviderFactory);
+
+        final Coords
+            start = builder.snap(source),
+            goal = builder.snap(destination);
+
+        if (start == null || goal == null)
+            return null;
+        else if (start.equals(goal))
+            return new Route(new Coords[] { goal }, new int[] { 0 });
+
+        if (sections.section(goal, builder).slotOf(goal) < 0)
+            return null;
+
+        final Map<Coords, Waypoint> waypoints = new HashMap<>();
+        final PriorityQueue<Waypoint> open = new PriorityQueue<>();
+        final boolean omnidirectional = calculator.omnidirectional();
+
+        final Waypoint first = new Waypoint(start, null, 0, heuristic(start, goal, omnidirectional));
+        waypoints.put(start, first);
+        open.add(first);
+
+        int expansions = 0;
+        while (!open.isEmpty() && expansions < maxExpansions) {
+            final Waypoint entry = open.poll();
+            final Waypoint current = entry.delegate;
+            if (current.closed || entry.g > current.g)
+                continue;
+
+            expansions++;
+            current.closed = true;
+            if (current.coords.equals(goal))
+                return current.toRoute();
+
+            final Section section = sections.section(current.coords, builder);
+            final int slot = section.slotOf(current.coords);
+            if (slot < 0)
+                continue;
+
+            final int goalSlot = section.slotOf(goal);
+            if (goalSlot >= 0) {
+                final int distance = section.distances(slot)[goalSlot];
+                if (distance >= 0)
+                    relax(waypoints, open, current, goal, distance, goal, omnidirectional);
+            }
+
+            final int[] costs = section.costsFrom(slot);
+            final Exit[] exits = section.exits;
+            for (int i = 0; i < exits.length; ++i)
+                if (costs[i] >= 0)
+                    relax(waypoints, open, current, exits[i].landing, costs[i], goal, omnidirectional);
+        }
+
+        return null;
+    }
+
+    /**
+     * Determines whether one location may be reachable from another for the specified profile.  The moves within each
+     * section are condensed into strongly-connected components, then the components reachable from the source and
+     * those that can reach the destination are flooded over the sections.  A flood that completes within the section
+     * limit is a sealed region and is remembered until a block that may affect any section consulted by it changes,
+     * so subsequent queries involving the same component take constant time.  Since moves may be one-way (e.g. falls)
+     * the backward region is what proves that a destination such as the top of a pillar or the inside of a sealed
+     * enclosure is unreachable.
+     *
+     * This is conservative, a location is only reported as unreachable when a sealed region proves it.  Regions are
+     * flooded over at most the number of sections this graph was created with.
+     *
+     * @param profile capability profile of the entity, see {@link PassibilityCache#profileOf(INodeCalculator, IPathingEntity)}
+     * @param calculator node calculator used to path-find for the entity, it must already have been applied to the
+     *                   entity
+     * @param capabilities capabilities of the entity, used to determine which points it may path through
+     * @param occlusionProviderFactory source of occlusion data for sections that must be summarized
+     * @param source location of the entity
+     * @param destination location to reach
+     * @return false if the destination is provably unreachable from the source, true otherwise
+     * @see #SectionGraph(IInstanceSpace, int)
+     */
+    public boolean isReachable(PassibilityCache.Profile profile, INodeCalculator calculator, IPathingEntity.Capabilities capabilities, IOcclusionProviderFactory occlusionProviderFactory, Coords source, Coords destination) {
+        return isReachable(profile, calculator, capabilities, occlusionProviderFactory, source, destination, this.reachabilityLimit);
+    }
+
+    /**
+     * Same as {@link #isReachable(PassibilityCache.Profile, INodeCalculator, IPathingEntity.Capabilities, IOcclusionProviderFactory, Coords, Coords)}
+     * with an explicit limit on the number of sections consulted rather than the limit this graph was created with
+     *
+     * @param profile capability profile of the entity
+     * @param calculator node calculator used to path-find for the entity
+     * @param capabilities capabilities of the entity
+     * @param occlusionProviderFactory source of occlusion data for sections that must be summarized
+     * @param source location of the entity
+     * @param destination location to reach
+     * @param maxSections maximum number of sections consulted when flooding a region before it is assumed to be
+     *                    unbounded
+     * @return false if the destination is provably unreachable from the source, true otherwise
+     */
+    public boolean isReachable(PassibilityCache.Profile profile, INodeCalculator calculator, IPathingEntity.Capabilities capabilities, IOcclusionProviderFactory occlusionProviderFactory, Coords source, Coords destination, int maxSections) {
+        final ProfileSections sections = this.profiles.computeIfAbsent(profile, ProfileSections::new);
+        final Builder builder = new Builder(calculator, capabilities, occlusionProviderFactory);
+
+        final Coords
+            start = builder.snap(source),
+            goal = builder.snap(destination);
+
+        if (start == null || goal == null)
+            return true;
+
+        final Section
+            startSection = sections.section(start, builder),
+            goalSection = sections.section(goal, builder);
+        final int
+            startSlot = startSection.slotOf(start),
+            goalSlot = goalSection.slotOf(goal);
+
+        if (startSlot < 0 || goalSlot < 0)
+            return true;
+
+        final int
+            startNode = startSection.nodes[startSlot],
+            goalNode = goalSection.nodes[goalSlot];
+
+        if (startSection == goalSection && startNode == goalNode)
+            return true;
+
+        final Region forward = sections.region(startSection, startNode, true, builder, maxSections);
+        if (forward.sealed && forward.valid && !forward.contains(goalSection, goalNode))
+            return false;
+
+        final Region backward = sections.region(goalSection, goalNode, false, builder, maxSections);
+        return !backward.sealed || !backward.valid || backward.contains(startSection, startNode);
+    }
+
+    private static void relax(Map<Coords, Waypoint> waypoints, PriorityQueue<Waypoint> open, Waypoint current, Coords coords, int cost, Coords goal, boolean omnidirectional) {
+        final int g = current.g + cost;
+        Waypoint next = waypoints.get(coords);
+        if (next == null)
+            waypoints.put(coords, next = new Waypoint(coords, current, g, heuristic(coords, goal, omnidirectional)));
+        else if (next.closed || g >= next.g)
+            return;
+        else {
+            next.g = g;
+            next.parent = current;
+        }
+        open.add(new Waypoint(next));
+    }
+
+    private static int heuristic(Coords from, Coords to, boolean omnidirectional) {
+        return Math.abs(to.x - from.x) + Math.abs(to.z - from.z) + (omnidirectional ? Math.abs(to.y - from.y) : 0);
+    }
+
+    /**
+     * Node of the abstract search, the open list holds snapshots of these that refer back to the canonical instance so
+     * that snapshots superseded by a cheaper route to the same waypoint can be skipped when they are polled
+     */
+    private static final class Waypoint implements Comparable<Waypoint> {
+        final Coords coords;
+        final Waypoint delegate;
+        final int h;
+        Waypoint parent;
+        int g;
+        boolean closed;
+
+        Waypoint(Coords coords, Waypoint parent, int g, int h) {
+            this.coords = coords;
+            this.parent = parent;
+            this.g = g;
+            this.h = h;
+            this.delegate = this;
+        }
+
+        Waypoint(Waypoint delegate) {
+            this.coords = delegate.coords;
+            this.h = delegate.h;
+            this.g = delegate.g;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int compareTo(Waypoint other) {
+            return Integer.compare(this.g + this.h, other.g + other.h);
+        }
+
+        Route toRoute() {
+            final List<Waypoint> list = new ArrayList<>();
+            for (Waypoint waypoint = this; waypoint.parent != null; waypoint = waypoint.parent)
+                list.add(waypoint);
+
+            Collections.reverse(list);
+
+            final Coords[] coords = new Coords[list.size()];
+            final int[] costs = new int[list.size()];
+            for (int i = 0; i < coords.length; ++i) {
+                final Waypoint waypoint = list.get(i);
+                coords[i] = waypoint.coords;
+                costs[i] = waypoint.g;
+            }
+            return new Route(coords, costs);
+        }
+    }
+
+    /**
+     * Number of sections currently summarized for all profiles
+     *
+     * @return count of sections
+     */
+    public int sections() {
+        int count = 0;
+        for (ProfileSections sections : this.profiles.values())
+            count += sections.sections.size();
+        return count;
+    }
+
+    /**
+     * Discards all summarized sections
+     */
+    public void clear() {
+        for (ProfileSections sections : this.profiles.values())
+            sections.clear();
+
+        this.profiles.clear();
+    }
+
+    @Override
+    public void onBlockChanged(IInstanceSpace instance, int x, int y, int z) {
+        if (instance != this.instanceSpace)
+            return;
+
+        for (ProfileSections sections : this.profiles.values()) {
+            final int reach = sections.reach;
+            sections.invalidate(x - reach, (y - sections.tall) >> DIMENSION_ORDER, z - reach, x + reach, z + reach);
+        }
+    }
+
+    @Override
+    public void onColumnReset(IInstanceSpace instance, int cx, int cz) {
+        if (instance != this.instanceSpace)
+            return;
+
+        final int
+            x0 = cx << DIMENSION_ORDER,
+            z0 = cz << DIMENSION_ORDER;
+
+        for (ProfileSections sections : this.profiles.values()) {
+            final int reach = sections.reach;
+            sections.invalidate(x0 - reach, 0, z0 - reach, x0 + DIMENSION_MASK + reach, z0 + DIMENSION_MASK + reach);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.instanceSpace.occlusionFieldListeners().remove(this);
+        clear();
+    }
+
+    static long sectionKey(int cx, int cy, int cz) {
+        return (long)cx << 36 | (cz & 0xFFFFFFFL) << 8 | (cy & 0xFF);
+    }
+
+    static int cellIndex(int x, int y, int z) {
+        return (y & DIMENSION_MASK) << (DIMENSION_ORDER * 2) | (z & DIMENSION_MASK) << DIMENSION_ORDER | (x & DIMENSION_MASK);
+    }
+
+    static final class ProfileSections {
+        final int reach, tall;
+        private final ConcurrentHashMap<Long, Section> sections = new ConcurrentHashMap<>();
+
+        ProfileSections(PassibilityCache.Profile profile) {
+            this.reach = profile.reach();
+            this.tall = profile.tall();
+        }
+
+        Section section(Coords coords, Builder builder) {
+            final int
+                cx = coords.x >> DIMENSION_ORDER,
+                cy = coords.y >> DIMENSION_ORDER,
+                cz = coords.z >> DIMENSION_ORDER;
+
+            final Long key = sectionKey(cx, cy, cz);
+            Section section = this.sections.get(key);
+            if (section == null) {
+                section = builder.build(cx, cy, cz);
+                final Section existing = this.sections.putIfAbsent(key, section);
+                if (existing != null)
+                    section = existing;
+            }
+            return section;
+        }
+
+        Section section(int cx, int cy, int cz, Builder builder) {
+            return section(new Coords(cx << DIMENSION_ORDER, cy << DIMENSION_ORDER, cz << DIMENSION_ORDER), builder);
+        }
+
+        /**
+         * Retrieves the reachability region of a node, flooding it if it is not already known
+         *
+         * @param section section containing the node
+         * @param node the node
+         * @param forward true for the nodes reachable from the node, false for the nodes that can reach it
+         * @param builder summarizes sections as necessary
+         * @param maxSections maximum number of sections to consult before giving up on sealing the region
+         * @return the region
+         */
+        Region region(Section section, int node, boolean forward, Builder builder, int maxSections) {
+            Region region = section.region(forward, node);
+            if (region == null) {
+                region = forward ? flood(section, node, builder, maxSections) : floodBackward(section, node, builder, maxSections);
+                for (Section consulted : region.consulted)
+                    if (!consulted.depend(region))
+                        region.valid = false;
+
+                section.region(forward, node, region);
+            }
+            return region;
+        }
+
+        private Region flood(Section origin, int node, Builder builder, int maxSections) {
+            final Region region = new Region();
+            final Deque<Section> sections = new ArrayDeque<>();
+            final Deque<Integer> nodes = new ArrayDeque<>();
+            region.add(origin, node, sections, nodes);
+
+            while (!sections.isEmpty()) {
+                final Section section = sections.poll();
+                final int n = nodes.poll();
+                if (section.lossy)
+                    return region;
+
+                for (int successor : section.successors[n])
+                    region.add(section, successor, sections, nodes);
+
+                for (Coords landing : section.landings[n]) {
+                    if (landing.y < 0 || landing.y >= DIMENSION_SIZE * SECTIONS_HIGH)
+                        continue;
+                    if (region.consulted.size() >= maxSections)
+                        return region;
+
+                    final Section neighbor = section(landing, builder);
+                    final int slot = neighbor.slotOf(landing);
+                    region.consulted.add(neighbor);
+                    if (slot < 0)
+                        return region;
+
+                    region.add(neighbor, neighbor.nodes[slot], sections, nodes);
+                }
+            }
+
+            region.sealed = true;
+            return region;
+        }
+
+        /**
+         * Floods the nodes that can reach a node.  Any section that could contain a move into a section of the region
+         * must be consulted, these are the nearby sections in the same and horizontally adjacent columns (see
+         * {@link #MAX_FALL_SECTIONS} and {@link #MAX_RISE_SECTIONS}).
+         */
+        private Region floodBackward(Section origin, int node, Builder builder, int maxSections) {
+            final Region region = new Region();
+            final Deque<Section> sections = new ArrayDeque<>();
+            final Deque<Integer> nodes = new ArrayDeque<>();
+            final Map<Section, List<List<Edge>>> incoming = new IdentityHashMap<>();
+            region.add(origin, node, sections, nodes);
+
+            while (!sections.isEmpty()) {
+                final Section section = sections.poll();
+                final int n = nodes.poll();
+                if (section.lossy)
+                    return region;
+
+                for (int predecessor : section.predecessors[n])
+                    region.add(section, predecessor, sections, nodes);
+
+                List<List<Edge>> edges = incoming.get(section);
+                if (edges == null) {
+                    edges = incoming(section, region, builder, maxSections);
+                    if (edges == null)
+                        return region;
+
+                    incoming.put(section, edges);
+                }
+
+                for (Edge edge : edges.get(n))
+                    region.add(edge.section, edge.node, sections, nodes);
+            }
+
+            region.sealed = true;
+            return region;
+        }
+
+        /**
+         * Finds the moves from other sections into a section
+         *
+         * @return moves into each node of the section indexed by node, or null if they cannot all be accounted for
+         */
+        private List<List<Edge>> incoming(Section section, Region region, Builder builder, int maxSections) {
+            final List<List<Edge>> edges = new ArrayList<>(section.nodeCount);
+            for (int n = 0; n < section.nodeCount; ++n)
+                edges.add(new ArrayList<>());
+
+            for (int[] column : COLUMNS)
+                for (int cy = Math.max(0, section.cy - MAX_RISE_SECTIONS), cyN = Math.min(SECTIONS_HIGH - 1, section.cy + MAX_FALL_SECTIONS); cy <= cyN; ++cy) {
+                    if (column[0] == 0 && column[1] == 0 && cy == section.cy)
+                        continue;
+
+                    final Section neighbor = section(section.cx + column[0], cy, section.cz + column[1], builder);
+                    if (link(section, neighbor, edges, region, maxSections))
+                        return null;
+                }
+
+            return edges;
+        }
+
+        /**
+         * Accounts for the moves from one section into another
+         *
+         * @return true if some move could not be accounted for
+         */
+        private static boolean link(Section section, Section neighbor, List<List<Edge>> edges, Region region, int maxSections) {
+            region.consulted.add(neighbor);
+            if (neighbor.lossy || region.consulted.size() > maxSections)
+                return true;
+
+            for (int m = 0; m < neighbor.nodeCount; ++m)
+                for (Coords landing : neighbor.landings[m]) {
+                    final int slot = section.slotOf(landing);
+                    if (slot >= 0)
+                        edges.get(section.nodes[slot]).add(new Edge(neighbor, m));
+                    else if (landing.x >> DIMENSION_ORDER == section.cx && landing.y >> DIMENSION_ORDER == section.cy && landing.z >> DIMENSION_ORDER == section.cz)
+                        return true;
+                }
+
+            return false;
+        }
+
+        void invalidate(int x0, int cy0, int z0, int xN, int zN) {
+            for (int cx = x0 >> DIMENSION_ORDER, cxN = xN >> DIMENSION_ORDER; cx <= cxN; ++cx)
+                for (int cz = z0 >> DIMENSION_ORDER, czN = zN >> DIMENSION_ORDER; cz <= czN; ++cz)
+                    for (int cy = Math.max(0, cy0); cy < SECTIONS_HIGH; ++cy) {
+                        final Section section = this.sections.remove(sectionKey(cx, cy, cz));
+                        if (section != null)
+                            section.invalidate();
+                    }
+        }
+
+        void clear() {
+            for (Section section : this.sections.values())
+                section.invalidate();
+
+            this.sections.clear();
+        }
+    }
+
+    /**
+     * Set of nodes of the reachability graph that are reachable from (or can reach) some node, it is sealed when it
+     * is known to be complete.  A region is discarded as soon as any section consulted while flooding it is.
+     */
+    static final class Region {
+        private final Map<Section, BitSet> members = new IdentityHashMap<>();
+        final Set<Section> consulted = Collections.newSetFromMap(new IdentityHashMap<>());
+        volatile boolean valid = true;
+        boolean sealed;
+
+        void add(Section section, int node, Deque<Section> sections, Deque<Integer> nodes) {
+            BitSet bits = this.members.get(section);
+            if (bits == null) {
+                this.members.put(section, bits = new BitSet(section.nodeCount));
+                this.consulted.add(section);
+            } else if (bits.get(node))
+                return;
+
+            bits.set(node);
+            sections.add(section);
+            nodes.add(node);
+        }
+
+        boolean contains(Section section, int node) {
+            final BitSet bits = this.members.get(section);
+            return bits != null && bits.get(node);
+        }
+    }
+
+    /**
+     * Move into a node of a section from a node of another section, identified by its originating section and node
+     */
+    static final class Edge {
+        final Section section;
+        final int node;
+
+        Edge(Section section, int node) {
+            this.section = section;
+            this.node = node;
+        }
+    }
+
+    /**
+     * Representative of a cluster of adjacent cells in a section from which a move in the same direction leads into the
+     * same neighboring section
+     */
+    static final class Exit {
+        final int slot, cost;
+        final Coords landing;
+
+        Exit(int slot, int cost, Coords landing) {
+            this.slot = slot;
+            this.cost = cost;
+            this.landing = landing;
+        }
+
+        @Override
+        public String toString() {
+            return "Exit{" + this.landing + ", cost=" + this.cost + '}';
+        }
+    }
+
+    /**
+     * Summary of a single section, its standable cells in ascending order of cell index, the moves available from each
+     * of them and its exits.  Moves are encoded as a short per direction, -1 when there is no move otherwise the change
+     * in height of the move shifted left by two bits combined with the passibility of its destination.
+     */
+    static final class Section {
+        private static final int
+            NO_MOVE = -1,
+            ELSEWHERE = -2,
+            UNKNOWN = -3;
+
+        final int cx, cy, cz;
+        final int[] cells;
+        final short[] moves;
+        final Exit[] exits;
+        final int directions;
+
+        /**
+         * Strongly-connected component of each standable cell by position in {@link #cells}, these are the nodes of
+         * the reachability graph
+         */
+        final int[] nodes;
+        final int nodeCount;
+        final int[][] successors, predecessors;
+
+        /**
+         * Locations just beyond the border of this section that can be moved to from each node
+         */
+        final Coords[][] landings;
+
+        /**
+         * Whether some move in this section could not be accounted for (e.g. it depends on a door), in which case
+         * nothing can be proven unreachable through it
+         */
+        final boolean lossy;
+
+        private final Map<Integer, int[]> costs = new HashMap<>();
+        private final Region[] forward, backward;
+        private final List<Region> dependents = new ArrayList<>();
+        private boolean valid = true;
+
+        Section(int cx, int cy, int cz, int[] cells, short[] moves, int directions, Exit[] exits, List<RawExit> portals, boolean lossy) {
+            this.cx = cx;
+            this.cy = cy;
+            this.cz = cz;
+            this.cells = cells;
+            this.moves = moves;
+            this.directions = directions;
+            this.exits = exits;
+
+            final int count = cells.length;
+            final int[] nodes = this.nodes = new int[count];
+            for (int slot = 0; slot < count && !lossy; ++slot)
+                for (int d = 0; d < directions; ++d)
+                    if (target(slot, d) == UNKNOWN)
+                        lossy = true;
+
+            this.lossy = lossy;
+            final int nodeCount = this.nodeCount = components(nodes);
+
+            final Set<Long> edges = new HashSet<>();
+            for (int slot = 0; slot < count; ++slot)
+                for (int d = 0; d < directions; ++d) {
+                    final int next = target(slot, d);
+                    if (next >= 0 && nodes[next] != nodes[slot])
+                        edges.add((long)nodes[slot] << 32 | nodes[next]);
+                }
+
+            final int[]
+                successorCounts = new int[nodeCount],
+                predecessorCounts = new int[nodeCount];
+
+            for (long edge : edges) {
+                successorCounts[(int)(edge >>> 32)]++;
+                predecessorCounts[(int)edge]++;
+            }
+
+            this.successors = new int[nodeCount][];
+            this.predecessors = new int[nodeCount][];
+            for (int n = 0; n < nodeCount; ++n) {
+                this.successors[n] = new int[successorCounts[n]];
+                this.predecessors[n] = new int[predecessorCounts[n]];
+            }
+            for (long edge : edges) {
+                final int
+                    from = (int)(edge >>> 32),
+                    to = (int)edge;
+
+                this.successors[from][--successorCounts[from]] = to;
+                this.predecessors[to][--predecessorCounts[to]] = from;
+            }
+
+            final List<List<Coords>> landings = new ArrayList<>(nodeCount);
+            for (int n = 0; n < nodeCount; ++n)
+                landings.add(new ArrayList<>());
+            for (RawExit portal : portals)
+                landings.get(nodes[portal.slot]).add(portal.landing);
+
+            this.landings = new Coords[nodeCount][];
+            for (int n = 0; n < nodeCount; ++n)
+                this.landings[n] = landings.get(n).toArray(new Coords[0]);
+
+            this.forward = new Region[nodeCount];
+            this.backward = new Region[nodeCount];
+        }
+
+        /**
+         * Resolves the cell that a move leads to
+         *
+         * @param slot position of the originating cell in {@link #cells}
+         * @param d index of the direction of the move
+         * @return position of the destination cell in {@link #cells}, {@link #NO_MOVE} if there is no such move,
+         *          {@link #ELSEWHERE} if it leads out of this section or {@link #UNKNOWN} if it leads to a cell in this
+         *          section that is not standable on its own
+         */
+        private int target(int slot, int d) {
+            final short move = this.moves[slot * this.directions + d];
+            if (move < 0)
+                return NO_MOVE;
+
+            final int cell = this.cells[slot];
+            final int[] direction = DIRECTIONS[d];
+            final int
+                x = (cell & DIMENSION_MASK) + direction[0],
+                y = (cell >> (DIMENSION_ORDER * 2)) + (move >> 2) - 128,
+                z = ((cell >> DIMENSION_ORDER) & DIMENSION_MASK) + direction[2];
+
+            if (x < 0 || y < 0 || z < 0 || x > DIMENSION_MASK || y > DIMENSION_MASK || z > DIMENSION_MASK)
+                return ELSEWHERE;
+
+            final int next = Arrays.binarySearch(this.cells, cellIndex(x, y, z));
+            return next < 0 ? UNKNOWN : next;
+        }
+
+        /**
+         * Labels the strongly-connected components of the moves within this section using Tarjan's algorithm
+         *
+         * @param components receives the component of each cell by position in {@link #cells}
+         * @return number of components
+         */
+        private int components(int[] components) {
+            final int count = this.cells.length;
+            final int[]
+                index = new int[count],
+                low = new int[count],
+                stack = new int[count],
+                calls = new int[count],
+                cursors = new int[count];
+            final boolean[] stacked = new boolean[count];
+
+            Arrays.fill(index, -1);
+            int counter = 0, labels = 0, sp = 0;
+            for (int root = 0; root < count; ++root) {
+                if (index[root] >= 0)
+                    continue;
+
+                int depth = 0;
+                calls[0] = root;
+                cursors[0] = 0;
+                index[root] = low[root] = counter++;
+                stack[sp++] = root;
+                stacked[root] = true;
+
+                while (depth >= 0) {
+                    final int v = calls[depth];
+                    if (cursors[depth] < this.directions) {
+                        final int w = target(v, cursors[depth]++);
+                        if (w < 0)
+                            continue;
+
+                        if (index[w] < 0) {
+                            index[w] = low[w] = counter++;
+                            stack[sp++] = w;
+                            stacked[w] = true;
+                            calls[++depth] = w;
+                            cursors[depth] = 0;
+                        } else if (stacked[w])
+                            low[v] = Math.min(low[v], index[w]);
+                    } else {
+                        if (low[v] == index[v]) {
+                            int w;
+                            do {
+                                w = stack[--sp];
+                                stacked[w] = false;
+                                components[w] = labels;
+                            } while (w != v);
+                            labels++;
+                        }
+                        if (--depth >= 0) {
+                            final int u = calls[depth];
+                            low[u] = Math.min(low[u], low[v]);
+                        }
+                    }
+                }
+            }
+            return labels;
+        }
+
+        synchronized Region region(boolean forward, int node) {
+            final Region region = (forward ? this.forward : this.backward)[node];
+            return region == null || !region.valid ? null : region;
+        }
+
+        synchronized void region(boolean forward, int node, Region region) {
+            (forward ? this.forward : this.backward)[node] = region;
+        }
+
+        /**
+         * Registers a region that must be discarded along with this section
+         *
+         * @return false if this section has already been discarded
+         */
+        synchronized boolean depend(Region region) {
+            if (!this.valid)
+                return false;
+
+            this.dependents.add(region);
+            return true;
+        }
+
+        synchronized void invalidate() {
+            this.valid = false;
+            for (Region region : this.dependents)
+                region.valid = false;
+
+            this.dependents.clear();
+        }
+
+        int slotOf(Coords coords) {
+            if (coords.x >> DIMENSION_ORDER != this.cx || coords.y >> DIMENSION_ORDER != this.cy || coords.z >> DIMENSION_ORDER != this.cz)
+                return -1;
+
+            final int slot = Arrays.binarySearch(this.cells, cellIndex(coords.x, coords.y, coords.z));
+            return slot < 0 ? -1 : slot;
+        }
+
+        /**
+         * Computes the cost of travelling from the specified cell to each of the exits of this section, the result
+         * is cached
+         *
+         * @param slot position of the cell in {@link #cells}
+         * @return cost to each exit by position in {@link #exits}, -1 for those that are unreachable
+         */
+        synchronized int[] costsFrom(int slot) {
+            int[] result = this.costs.get(slot);
+            if (result == null) {
+                final int[] distances = distances(slot);
+                final Exit[] exits = this.exits;
+                result = new int[exits.length];
+                for (int i = 0; i < exits.length; ++i) {
+                    final int distance = distances[exits[i].slot];
+                    result[i] = distance < 0 ? -1 : distance + exits[i].cost;
+                }
+                this.costs.put(slot, result);
+            }
+            return result;
+        }
+
+        /**
+         * Dijkstra's algorithm over the standable cells of this section without leaving it
+         *
+         * @param source position of the source cell in {@link #cells}
+         * @return cost to each cell by position in {@link #cells}, -1 for those that are unreachable
+         */
+        int[] distances(int source) {
+            final int[] cells = this.cells;
+            final int[] distances = new int[cells.length];
+            Arrays.fill(distances, -1);
+            distances[source] = 0;
+
+            final PriorityQueue<Long> queue = new PriorityQueue<>();
+            queue.add((long)source);
+            while (!queue.isEmpty()) {
+                final long entry = queue.poll();
+                final int
+                    slot = (int)entry,
+                    distance = (int)(entry >>> 32);
+
+                if (distance > distances[slot])
+                    continue;
+
+                for (int d = 0; d < this.directions; ++d) {
+                    final int next = target(slot, d);
+                    if (next < 0)
+                        continue;
+
+                    final int cost = distance + moveCost(this.moves[slot * this.directions + d]);
+                    if (distances[next] < 0 || cost < distances[next]) {
+                        distances[next] = cost;
+                        queue.add((long)cost << 32 | next);
+                    }
+                }
+            }
+            return distances;
+        }
+
+        @Override
+        public String toString() {
+            return "Section{" + this.cx + ", " + this.cy + ", " + this.cz + ", cells=" + this.cells.length + ", exits=" + this.exits.length + '}';
+        }
+    }
+
+    static int moveCost(short move) {
+        return 1 + (move & 3);
+    }
+
+    /**
+     * Summarizes sections on behalf of a single path-finder using its node calculator
+     */
+    final class Builder {
+        private final INodeCalculator calculator;
+        private final IPathingEntity.Capabilities capabilities;
+        private final IOcclusionProviderFactory occlusionProviderFactory;
+        private final ProbeResult probe = new ProbeResult();
+        private final int directions;
+
+        Builder(INodeCalculator calculator, IPathingEntity.Capabilities capabilities, IOcclusionProviderFactory occlusionProviderFactory) {
+            this.calculator = calculator;
+            this.capabilities = capabilities;
+            this.occlusionProviderFactory = occlusionProviderFactory;
+            this.directions = calculator.omnidirectional() ? 6 : 4;
+        }
+
+        private FlagSampler samplerNear(int cx, int cz) {
+            return new FlagSampler(this.occlusionProviderFactory.fromInstanceSpace(SectionGraph.this.instanceSpace, cx - 1, cz - 1, cx + 1, cz + 1));
+        }
+
+        private boolean passible(ProbeResult probe) {
+            return !probe.passibility().impassible(this.capabilities);
+        }
+
+        Coords snap(Coords coords) {
+            final ProbeResult probe = this.probe;
+            final FlagSampler sampler = samplerNear(coords.x >> DIMENSION_ORDER, coords.z >> DIMENSION_ORDER);
+            this.calculator.probe(coords.x, coords.y, coords.z, null, sampler, probe);
+            if (!passible(probe) || probe.y() < 0 || probe.y() >= DIMENSION_SIZE * SECTIONS_HIGH)
+                return null;
+
+            return new Coords(probe.x(), probe.y(), probe.z());
+        }
+
+        Section build(int cx, int cy, int cz) {
+            final INodeCalculator calculator = this.calculator;
+            final ProbeResult probe = this.probe;
+            final FlagSampler sampler = samplerNear(cx, cz);
+            final int
+                x0 = cx << DIMENSION_ORDER,
+                y0 = cy << DIMENSION_ORDER,
+                z0 = cz << DIMENSION_ORDER,
+                directions = this.directions;
+
+            final boolean[] standable = new boolean[CELL_COUNT];
+            boolean lossy = false;
+            int count = 0;
+            for (int z = 0; z < DIMENSION_SIZE; ++z)
+                for (int x = 0; x < DIMENSION_SIZE; ++x)
+                    for (int y = DIMENSION_MASK; y >= 0; ) {
+                        sampler.reset();
+                        calculator.probe(x0 + x, y0 + y, z0 + z, null, sampler, probe);
+                        lossy |= probe.volatile_();
+
+                        final int landing = probe.y() - y0;
+                        if (probe.x() != x0 + x || probe.z() != z0 + z || landing > y)
+                            --y;
+                        else if (landing == y) {
+                            if (passible(probe)) {
+                                standable[cellIndex(x, y, z)] = true;
+                                count++;
+                            }
+                            --y;
+                        } else
+                            y = landing;
+                    }
+
+            final int[] cells = new int[count];
+            for (int i = 0, slot = 0; i < CELL_COUNT; ++i)
+                if (standable[i])
+                    cells[slot++] = i;
+
+            final short[] moves = new short[count * directions];
+            final List<RawExit> raw = new ArrayList<>();
+            for (int slot = 0; slot < count; ++slot) {
+                final int
+                    cell = cells[slot],
+                    x = x0 + (cell & DIMENSION_MASK),
+                    y = y0 + (cell >> (DIMENSION_ORDER * 2)),
+                    z = z0 + ((cell >> DIMENSION_ORDER) & DIMENSION_MASK);
+
+                final Coords origin = new Coords(x, y, z);
+                for (int d = 0; d < directions; ++d) {
+                    final int[] direction = DIRECTIONS[d];
+                    final int
+                        tx = x + direction[0],
+                        ty = y + direction[1],
+                        tz = z + direction[2];
+
+                    sampler.reset();
+                    calculator.probe(tx, ty, tz, origin, sampler, probe);
+                    lossy |= probe.volatile_();
+
+                    final int dy = probe.y() - y;
+                    final short move;
+                    if (!passible(probe) || probe.x() != tx || probe.z() != tz || dy < -128 || dy > 127)
+                        move = -1;
+                    else
+                        move = (short)((dy + 128) << 2 | probe.passibility().ordinal());
+
+                    moves[slot * directions + d] = move;
+                    if (move >= 0 && (tx >> DIMENSION_ORDER != cx || probe.y() >> DIMENSION_ORDER != cy || tz >> DIMENSION_ORDER != cz))
+                        raw.add(new RawExit(slot, cell, d, moveCost(move), new Coords(probe.x(), probe.y(), probe.z())));
+                }
+            }
+
+            return new Section(cx, cy, cz, cells, moves, directions, cluster(raw), raw, lossy);
+        }
+    }
+
+    private static final class RawExit {
+        final int slot, cell, direction, cost;
+        final Coords landing;
+        final long neighbor;
+
+        RawExit(int slot, int cell, int direction, int cost, Coords landing) {
+            this.slot = slot;
+            this.cell = cell;
+            this.direction = direction;
+            this.cost = cost;
+            this.landing = landing;
+            this.neighbor = sectionKey(landing.x >> DIMENSION_ORDER, landing.y >> DIMENSION_ORDER, landing.z >> DIMENSION_ORDER);
+        }
+
+        boolean adjacent(RawExit other) {
+            return this.direction == other.direction
+                && this.neighbor == other.neighbor
+                && Math.abs((this.cell & DIMENSION_MASK) - (other.cell & DIMENSION_MASK)) <= 1
+                && Math.abs((this.cell >> (DIMENSION_ORDER * 2)) - (other.cell >> (DIMENSION_ORDER * 2))) <= 1
+                && Math.abs(((this.cell >> DIMENSION_ORDER) & DIMENSION_MASK) - ((other.cell >> DIMENSION_ORDER) & DIMENSION_MASK)) <= 1;
+        }
+    }
+
+    /**
+     * Groups raw exits into clusters of adjacent cells that lead the same way into the same neighboring section, each
+     * cluster is represented by its middle member
+     */
+    private static Exit[] cluster(List<RawExit> raw) {
+        final List<Exit> exits = new ArrayList<>();
+        final boolean[] assigned = new boolean[raw.size()];
+        final List<RawExit> cluster = new ArrayList<>();
+
+        for (int i = 0; i < assigned.length; ++i) {
+            if (assigned[i])
+                continue;
+
+            assigned[i] = true;
+            cluster.clear();
+            cluster.add(raw.get(i));
+            for (int c = 0; c < cluster.size(); ++c) {
+                final RawExit member = cluster.get(c);
+                for (int j = i + 1; j < assigned.length; ++j)
+                    if (!assigned[j] && member.adjacent(raw.get(j))) {
+                        assigned[j] = true;
+                        cluster.add(raw.get(j));
+                    }
+            }
+
+            cluster.sort(Comparator.comparingInt(exit -> exit.cell));
+            final RawExit representative = cluster.get(cluster.size() / 2);
+            exits.add(new Exit(representative.slot, representative.cost, representative.landing));
+        }
+
+        return exits.toArray(new Exit[0]);
+    }
+
+    @Override
+    public String toString() {
+        return "SectionGraph" + Arrays.toString(this.profiles.keySet().toArray());
+    }
+}
@@ -0,0 +1,84 @@
+package com.extollit.gaming.ai.path.model;
+
+/**
+ * Palette-based description of the blocks of a section (16x16x16 blocks) of a columnar space, this mirrors how block
+ * storage is commonly organized by servers.  Each distinct block in the section is described once by a palette entry
+ * and the block at each location is identified by an index into the palette.
+ *
+ * The indices are packed into 64-bit words of a fixed number of bits per index without spanning words.  Indices are
+ * ordered by y-coordinate, then z-coordinate, then x-coordinate (i.e. the index of the block at relative coordinates
+ * (x, y, z) is at position (y * 256 + z * 16 + x) of the sequence).  A palette with a single entry may use zero bits per
+ * index in which case the packed words are not consulted.
+ *
+ * @see IColumnarSpace#paletteAt(int)
+ */
+public final class SectionPalette {
+    private static final int SECTION_VOLUME = 16 * 16 * 16;
+
+    private final IBlockDescription[] entries;
+    private final long[] data;
+    private final int bits, indicesPerWord;
+    private final long mask;
+
+    /**
+     * Describes a section using the specified palette and packed indices, neither array is copied
+     *
+     * @param entries distinct blocks of the section, must not be empty
+     * @param data packed indices into the palette of the block at every location of the section
+     * @param bitsPerEntry number of bits of each packed index, zero is permitted only for a palette with a single entry
+     */
+    public SectionPalette(IBlockDescription[] entries, long[] data, int bitsPerEntry) {
+        if (entries.length == 0)
+            throw new IllegalArgumentException("Palette must have at least one entry");
+        if (bitsPerEntry < 0 || bitsPerEntry > 32 || bitsPerEntry == 0 && entries.length > 1)
+            throw new IllegalArgumentException("Unsupported bits per entry: " + bitsPerEntry);
+
+        this.entries = entries;
+        this.bits = bitsPerEntry;
+        this.mask = (1L << bitsPerEntry) - 1;
+        this.indicesPerWord = bitsPerEntry == 0 ? SECTION_VOLUME : Long.SIZE / bitsPerEntry;
+
+        if (data.length * this.indicesPerWord < SECTION_VOLUME && bitsPerEntry > 0)
+            throw new IllegalArgumentException("Packed indices do not cover the section: " + data.length + " words");
+
+        this.data = data;
+    }
+
+    /**
+     * Number of distinct blocks in the section
+     *
+     * @return count of palette entries
+     */
+    public int size() {
+        return this.entries.length;
+    }
+
+    /**
+     * Retrieves a palette entry
+     *
+     * @param index index of the entry in the palette
+     * @return the block described by the entry
+     */
+    public IBlockDescription entry(int index) {
+        return this.entries[index];
+    }
+
+    /**
+     * Retrieves the palette index of the block at the specified location
+     *
+     * @param x x-coordinate relative to the section (0-15)
+     * @param y y-coordinate relative to the section (0-15)
+     * @param z z-coordinate relative to the section (0-15)
+     * @return index into the palette of the block at the aforementioned coordinates
+     */
+    public int indexAt(int x, int y, int z) {
+        if (this.bits == 0)
+            return 0;
+
+        final int
+            i = (y << 8) | (z << 4) | x,
+            indicesPerWord = this.indicesPerWord;
+
+        return (int)((this.data[i / indicesPerWord] >>> ((i % indicesPerWord) * this.bits)) & this.mask);
+    }
+}
@@ -1,22 +1,32 @@
 package com.extollit.gaming.ai.path.model;
 
-import com.extollit.gaming.ai.path.persistence.internal.LinkableReader;
-import com.extollit.gaming.ai.path.persistence.internal.LinkableWriter;
-import com.extollit.gaming.ai.path.persistence.internal.ReferableObjectInput;
-import com.extollit.gaming.ai.path.persistence.internal.ReferableObjectOutput;
-
-import java.io.IOException;
-import java.util.*;
-
-import static com.extollit.gaming.ai.path.model.Node.squareDelta;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Open list implemented as a binary heap, this is the default queueing strategy.
+ */
+public final class SortedPointQueue extends AbstractPointQueue {
+    private final ArrayList<Node> list = new ArrayList<>(8);
 
-public final class SortedPointQueue implements LinkableReader<SortedPointQueue, Node>, LinkableWriter<SortedPointQueue, Node> {
-    private static final float CULL_THRESHOLD = 0.1f;
+    public SortedPointQueue() {
+        this(false);
+    }
 
-    private final ArrayList<Node> list = new ArrayList<>(8);
+    /**
+     * Creates a new binary heap queue
+     *
+     * @param wide true to operate in wide-node mode
+     * @see AbstractPointQueue#AbstractPointQueue(boolean)
+     */
+    public SortedPointQueue(boolean wide) {
+        super(wide);
+    }
 
     boolean fastAdd(Node point) {
-        if (!point.index(this.list.size()))
+        if (this.list.size() >= this.capacity || !point.index(this.list.size()))
             return false;
 
         this.list.add(point);
@@ -24,136 +34,34 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
         return true;
     }
 
+    @Override
     public final void clear() {
         for (Node point : this.list)
             point.unassign();
         this.list.clear();
     }
 
+    @Override
     public final boolean isEmpty() {
         return this.list.isEmpty();
     }
 
-    public Node trimFrom(Node source) {
-        if (source.orphaned())
-            return source;
-
-        final Node root0 = source.root();
-        final int ddX, ddY, ddZ;
-        {
-            final Coords
-                root0Key = root0.key,
-                sourceKey = source.key;
-
-            ddX = sourceKey.x - root0Key.x;
-            ddY = sourceKey.y - root0Key.y;
-            ddZ = sourceKey.z - root0Key.z;
-        }
-
-        final List<Node> list = this.list;
-
-        final byte length0 = source.length();
-        final Stack<Node> path = new Stack<>();
-        final TreeTransitional treeTransitional = new TreeTransitional(source);
-        final ListIterator<Node> i = list.listIterator();
-
-        while (i.hasNext()) {
-            final Node head = i.next();
-            Node point = head;
-            while (!point.orphaned()) {
-                point = point.up();
-                path.push(point);
-            }
-            if (point == source) {
-                while (!path.isEmpty()) {
-                    point = path.pop();
-                    final int length = point.length() - length0;
-                    point.length(length);
-                }
-                final int length = head.length() - length0;
-                head.length(length);
-                head.index(i.previousIndex());
-            } else {
-                final Node root;
-                if (path.isEmpty())
-                    root = head;
-                else
-                    root = path.pop();
-
-                if (head == point || dotProductBetween(ddX, ddY, ddZ, head, point) <= 0) {
-                    head.dirty(true);
-                    while (!path.isEmpty())
-                        path.pop().dirty(true);
-
-                    treeTransitional.queue(head, root);
-                    head.index(i.previousIndex());
-                } else {
-                    if (!path.isEmpty()) {
-                        final Node branch = path.pop();
-                        branch.dirty(true);
-                        treeTransitional.queue(branch, root);
-                    }
-
-                    i.remove();
-
-                    path.clear();
-                    head.unassign();
-                    head.visited(false);
-                }
-            }
-        }
-
-        treeTransitional.finish(this);
-
-        return root0;
-    }
-
-    private static int dotProductBetween(int ddX, int ddY, int ddZ, Node head, Node target) {
-        final Coords
-            headKey = head.key,
-            pointKey = target.key;
-        final int
-            dx = headKey.x - pointKey.x,
-            dy = headKey.y - pointKey.y,
-            dz = headKey.z - pointKey.z;
-        return dx * ddX + dy * ddY + dz * ddZ;
+    @Override
+    final List<Node> drain() {
+        return this.list;
     }
 
-    void cullBranch(Node ancestor) {
-        final List<Node> list = this.list;
-        final Stack<Node> stack = new Stack<>();
-
-        ListIterator<Node> i = list.listIterator();
-        final List<Node> culled = new LinkedList<Node>();
-        while (i.hasNext()) {
-            final Node head = i.next();
-            Node point = head;
-            while (!point.orphaned() && point != ancestor) {
-                point = point.up();
-                stack.push(point);
-            }
-            if (point != ancestor)
-                head.index(i.previousIndex());
-            else {
-                i.remove();
-                head.unassign();
-                culled.add(head);
-                culled.addAll(stack);
-            }
-            stack.clear();
-        }
-
-        for (Node node : culled) {
-            node.reset();
-            node.visited(false);
-        }
-    }
+    @Override
+    final void refill(List<Node> list) {}
 
+    @Override
     public List<Node> view() { return Collections.unmodifiableList(this.list); }
 
+    @Override
     public Node top() {
         return this.list.get(0);
     }
+    @Override
     public Node dequeue() {
         final ArrayList<Node> list = this.list;
         final Node point;
@@ -167,9 +75,6 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
         point.unassign();
         return point;
     }
-    public boolean nextContains(Node ancestor) {
-        return this.list.get(0).contains(ancestor);
-    }
 
     private void sortBack(int index) {
         final ArrayList<Node> list = this.list;
@@ -248,32 +153,8 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
         originalPoint.index(index);
     }
 
-    public boolean appendTo(Node point, Node parent, Coords targetPoint) {
-        return appendTo(point, parent, (int)Math.sqrt(squareDelta(point, targetPoint)));
-    }
-
-    public boolean appendTo(Node point, Node parent, final int remaining) {
-        final int squareDelta = squareDelta(parent, point);
-
-        final byte length = point.length();
-        if (!point.assigned() || (parent.length() + squareDelta < length*length && !point.passibility().betterThan(parent.passibility()))) {
-            final byte distance0 = point.journey();
-            if (point.appendTo(parent, (int)Math.sqrt(squareDelta), remaining))
-                return resort(point, distance0);
-            else
-                point.orphan();
-        }
-
-        return false;
-    }
-
-    public boolean addLength(Node point, int diff) {
-        final byte journey0 = point.journey();
-        point.addLength(diff);
-        return resort(point, journey0);
-    }
-
-    private boolean resort(Node point, byte journey0) {
+    @Override
+    final boolean resort(Node point, int journey0) {
         final int journey = point.journey();
         if (point.assigned()) {
             if (journey < journey0)
@@ -287,6 +168,7 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
         return false;
     }
 
+    @Override
     public void add(Node point) {
         if (point.assigned())
             throw new IllegalStateException("Point is already assigned");
@@ -306,27 +188,11 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
         fastAdd(point);
     }
 
+    @Override
     public int size() {
         return this.list.size();
     }
 
-    public final Set<Node> roots() {
-        final Set<Node> roots = new HashSet<>(1);
-
-        for (Node node : this.list) {
-            final Node root = node.root();
-            if (!roots.contains(root))
-                roots.add(root);
-        }
-
-        return roots;
-    }
-
-    @Override
-    public String toString() {
-        return this.list.toString();
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -343,18 +209,11 @@ public final class SortedPointQueue implements LinkableReader<SortedPointQueue,
     }
 
     @Override
-    public void readLinkages(SortedPointQueue object, ReferableObjectInput<Node> in) throws IOException {
-        final ArrayList<Node> list = object.list;
-        int count = in.readInt();
-        while (count-- > 0)
-            list.add(in.readRef());
-    }
-
-    @Override
-    public void writeLinkages(SortedPointQueue object, ReferableObjectOutput<Node> out) throws IOException {
-        final ArrayList<Node> list = object.list;
-        out.writeInt(list.size());
-        for (Node node : list)
-            out.writeRef(node);
+    final void restore(List<Node> points) {
+        final ArrayList<Node> list = this.list;
+        for (Node point : points) {
+            point.index(list.size());
+            list.add(point);
+        }
     }
 }
@@ -1,208 +1,382 @@
 package com.extollit.gaming.ai.path.model;
 
 import com.extollit.collect.FilterIterable;
-import com.extollit.collect.FlattenIterable;
 
 import java.util.*;
 
+/**
+ * Spatial index of nodes keyed by their integer coordinates.  Space is divided into 8x8x8 bricks, each brick is a flat
+ * array of 512 cells indexed directly by the relative coordinates within the brick.  Bricks are stored in an
+ * open-addressed (linear probing) hash table keyed by a primitive long packing the coarse (brick) coordinates so that
+ * a lookup costs at most one hash probe and one array access without any boxing.  Bricks are also linked together by
+ * column, the first brick of each column being held in a second such table keyed by the packed column coordinates, so
+ * that the entries within a range of columns can be found without visiting the whole map.
+ *
+ * Coarse keys pack 26 bits for each of the x and z axes and 12 bits for the y axis, so coordinates are supported within
+ * +/- 2^28 on the x and z axes and within +/- 2^14 on the y axis.
+ *
+ * @param <T> type of node stored in the map
+ */
 class SparseSpatialMap<T extends INode> {
     private static final float
-        OUTER_LOAD_FACTOR = 0.9f;
+        LOAD_FACTOR = 0.6f;
+
+    private static final int
+        INITIAL_CAPACITY = 16,
+        BRICK_SHIFT = 3,
+        BRICK_VOLUME = 1 << (BRICK_SHIFT * 3);
+
+    private static final class Brick {
+        final long key;
+        final int cx, cy, cz;
+        final Object[] cells = new Object[BRICK_VOLUME];
+        int count;
+        Brick previousInColumn, nextInColumn;
+
+        Brick(long key, int cx, int cy, int cz) {
+            this.key = key;
+            this.cx = cx;
+            this.cy = cy;
+            this.cz = cz;
+        }
+    }
 
-    private static final class CoarseKey {
-        private int x, y, z;
-        private int hashCode;
+    /**
+     * Open-addressed (linear probing) hash table of bricks keyed by a primitive long
+     */
+    private static final class BrickTable {
+        long[] keys;
+        Brick[] bricks;
+        private int mask, occupied, threshold;
+
+        BrickTable() {
+            allocate(INITIAL_CAPACITY);
+        }
 
-        private CoarseKey(int x, int y, int z) {
-            set(x, y, z);
+        private void allocate(int capacity) {
+            this.keys = new long[capacity];
+            this.bricks = new Brick[capacity];
+            this.mask = capacity - 1;
+            this.threshold = (int)(capacity * LOAD_FACTOR);
         }
 
-        CoarseKey() {}
+        private int slotOf(long key) {
+            final long[] keys = this.keys;
+            final Brick[] bricks = this.bricks;
+            final int mask = this.mask;
 
-        CoarseKey(CoarseKey original) {
-            this.x = original.x;
-            this.y = original.y;
-            this.z = original.z;
-            this.hashCode = original.hashCode;
+            int i = hash(key) & mask;
+            while (bricks[i] != null) {
+                if (keys[i] == key)
+                    return i;
+                i = (i + 1) & mask;
+            }
+            return ~i;
         }
 
-        CoarseKey dup() {
-            return new CoarseKey(this);
+        Brick get(long key) {
+            final int slot = slotOf(key);
+            return slot < 0 ? null : this.bricks[slot];
         }
 
-        void set(int x, int y, int z) {
-            this.x = x >>= 3;
-            this.y = y >>= 3;
-            this.z = z >>= 3;
+        void put(long key, Brick brick) {
+            int slot = slotOf(key);
+            if (slot < 0) {
+                if (this.occupied >= this.threshold) {
+                    rehash(this.bricks.length << 1);
+                    slot = slotOf(key);
+                }
+                slot = ~slot;
+                this.keys[slot] = key;
+                this.occupied++;
+            }
+            this.bricks[slot] = brick;
+        }
 
-            int result = 1;
-            result = 31 * result + z;
-            result = 31 * result + y;
-            result = 31 * result + x;
-            this.hashCode = result;
+        void remove(long key) {
+            final long[] keys = this.keys;
+            final Brick[] bricks = this.bricks;
+            final int mask = this.mask;
+
+            int i = slotOf(key);
+            if (i < 0)
+                return;
+
+            for (int j = (i + 1) & mask; bricks[j] != null; j = (j + 1) & mask) {
+                final int home = hash(keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    keys[i] = keys[j];
+                    bricks[i] = bricks[j];
+                    i = j;
+                }
+            }
+
+            bricks[i] = null;
+            this.occupied--;
         }
 
-        @Override
-        public final boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            final CoarseKey coarseKey = (CoarseKey) o;
-            return x == coarseKey.x &&
-                y == coarseKey.y &&
-                z == coarseKey.z;
+        void clear() {
+            Arrays.fill(this.bricks, null);
+            this.occupied = 0;
         }
 
-        @Override
-        public final int hashCode() { return this.hashCode; }
+        private void rehash(int capacity) {
+            final long[] keys0 = this.keys;
+            final Brick[] bricks0 = this.bricks;
+
+            allocate(capacity);
+
+            final long[] keys = this.keys;
+            final Brick[] bricks = this.bricks;
+            final int mask = this.mask;
+
+            for (int c = 0; c < bricks0.length; ++c)
+                if (bricks0[c] != null) {
+                    final long key = keys0[c];
+                    int i = hash(key) & mask;
+                    while (bricks[i] != null)
+                        i = (i + 1) & mask;
+
+                    keys[i] = key;
+                    bricks[i] = bricks0[c];
+                }
+        }
     }
 
-    private final HashMap<CoarseKey, TreeMap<Integer, T>> space;
-    private final CoarseKey coarseKey = new CoarseKey();
+    private final BrickTable
+        table = new BrickTable(),
+        columns = new BrickTable();
 
     private int size;
-    private int kx0, ky0, kz0;
-    private TreeMap<Integer, T> inner0;
+    private long key0;
+    private Brick brick0;
+
+    private static long coarseKey(int x, int y, int z) {
+        return ((long)(x >> BRICK_SHIFT) & 0x3FFFFFF) << 38
+             | ((long)(z >> BRICK_SHIFT) & 0x3FFFFFF) << 12
+             | ((long)(y >> BRICK_SHIFT) & 0xFFF);
+    }
+
+    private static long columnKey(int cx, int cz) {
+        return (long)cx << 32 | cz & 0xFFFFFFFFL;
+    }
+
+    private static int relativeKey(int x, int y, int z) {
+        return (x & 7) | (y & 7) << 3 | (z & 7) << 6;
+    }
 
-    public SparseSpatialMap() {
-        this.space = new HashMap<>(4, OUTER_LOAD_FACTOR);
+    private static int hash(long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
     }
 
-    private int relativeKey(int x, int y, int z) {
-        return (x & 0xFF) | (y & 0xFF) << 8 | (z & 0xFF) << 16;
+    private Brick brickAt(int x, int y, int z) {
+        final long key = coarseKey(x, y, z);
+        if (this.brick0 != null && this.key0 == key)
+            return this.brick0;
+
+        final Brick brick = this.table.get(key);
+        if (brick == null)
+            return null;
+
+        this.key0 = key;
+        return this.brick0 = brick;
     }
 
     public boolean has(int x, int y, int z) {
-        final Map<Integer, T> inner = acquireInner(x, y, z);
-        if (inner != null) {
-            final int relativeKey = relativeKey(x, y, z);
-            return inner.containsKey(relativeKey);
-        }
-        return false;
+        final Brick brick = brickAt(x, y, z);
+        return brick != null && brick.cells[relativeKey(x, y, z)] != null;
     }
 
     public boolean has(T value) {
         if (value == null)
             throw new NullPointerException();
 
-        for (Map<Integer, T> inner : this.space.values())
-            if (inner.containsValue(value))
-                return true;
+        for (Brick brick : this.table.bricks)
+            if (brick != null)
+                for (Object cell : brick.cells)
+                    if (value.equals(cell))
+                        return true;
 
         return false;
     }
 
+    @SuppressWarnings("unchecked")
     public T get(int x, int y, int z) {
-        final Map<Integer, T> inner = acquireInner(x, y, z);
-        if (inner != null) {
-            final int relativeKey = relativeKey(x, y, z);
-            return inner.get(relativeKey);
-        }
+        final Brick brick = brickAt(x, y, z);
+        if (brick != null)
+            return (T) brick.cells[relativeKey(x, y, z)];
         return null;
     }
 
+    @SuppressWarnings("unchecked")
     public T put(int x, int y, int z, T value) {
         if (value == null)
             throw new NullPointerException();
 
-        this.kx0 = x;
-        this.ky0 = y;
-        this.kz0 = z;
-
-        final CoarseKey coarseKey = this.coarseKey;
-        coarseKey.set(x, y, z);
-
-        TreeMap<Integer, T> inner = this.inner0 = this.space.get(coarseKey);
-        if (inner == null)
-            this.space.put(coarseKey.dup(), inner = this.inner0 = new TreeMap<Integer, T>());
+        Brick brick = brickAt(x, y, z);
+        if (brick == null)
+            brick = insertBrick(x, y, z);
 
-        final T value0 = inner.put(relativeKey(x, y, z), value);
-        if (value0 == null)
+        final Object[] cells = brick.cells;
+        final int relativeKey = relativeKey(x, y, z);
+        final T value0 = (T) cells[relativeKey];
+        cells[relativeKey] = value;
+        if (value0 == null) {
+            brick.count++;
             this.size++;
+        }
 
         return value0;
     }
 
+    @SuppressWarnings("unchecked")
     public T remove(int x, int y, int z) {
-        final CoarseKey coarseKey = this.coarseKey;
-
-        final Map<Integer, T> inner;
-        if (this.inner0 != null && x == this.kx0 && y == this.ky0 && z == this.kz0)
-            inner = this.inner0;
-        else {
-            this.kx0 = x;
-            this.ky0 = y;
-            this.kz0 = z;
-
-            coarseKey.set(x, y, z);
-            inner = this.inner0 = this.space.get(coarseKey);
+        final Brick brick = brickAt(x, y, z);
+        if (brick == null)
+            return null;
+
+        final Object[] cells = brick.cells;
+        final int relativeKey = relativeKey(x, y, z);
+        final T value0 = (T) cells[relativeKey];
+        if (value0 != null) {
+            cells[relativeKey] = null;
+            this.size--;
+            if (--brick.count == 0)
+                removeBrick(coarseKey(x, y, z));
         }
 
-        if (inner != null) try {
-            final int relativeKey = relativeKey(x, y, z);
-            final T value0 = inner.remove(relativeKey);
-            if (value0 != null)
-                this.size--;
-            return value0;
-        } finally {
-            if (inner.isEmpty()) {
-                this.space.remove(coarseKey);
-                this.inner0 = null;
-            }
-        }
-        return null;
+        return value0;
     }
 
     public void clear() {
-        this.space.clear();
+        this.table.clear();
+        this.columns.clear();
         this.size = 0;
-        this.inner0 = null;
+        this.brick0 = null;
     }
 
     public Iterable<T> cullOutside(int x0, int y0, int z0, int xN, int yN, int zN) {
-        final int size0 = this.size;
-        final List<Collection<T>> cullees = new LinkedList<Collection<T>>();
-
-        final Iterator<Map.Entry<CoarseKey, TreeMap<Integer, T>>> i = this.space.entrySet().iterator();
-        while (i.hasNext()) {
-            final Map.Entry<CoarseKey, TreeMap<Integer, T>> entry = i.next();
-            final CoarseKey key = entry.getKey();
-            final TreeMap<Integer, T> subMap = entry.getValue();
-            if (key.x < x0 || key.y < y0 || key.z < z0 || key.x > xN || key.y > yN || key.z > zN) {
-                i.remove();
-                cullees.add(subMap.values());
-                size -= subMap.size();
-            }
+        final List<T> cullees = new ArrayList<>();
+        final List<Brick> culled = new ArrayList<>();
+
+        for (Brick brick : this.table.bricks)
+            if (brick != null && (brick.cx < x0 || brick.cy < y0 || brick.cz < z0 || brick.cx > xN || brick.cy > yN || brick.cz > zN))
+                culled.add(brick);
+
+        for (Brick brick : culled) {
+            for (Object cell : brick.cells)
+                if (cell != null) {
+                    @SuppressWarnings("unchecked")
+                    final T value = (T) cell;
+                    cullees.add(value);
+                }
+
+            this.size -= brick.count;
+            removeBrick(brick.key);
         }
 
-        if (size0 != size)
-            this.inner0 = null;
+        return cullees;
+    }
+
+    /**
+     * Finds the coordinates of every entry within the specified columns, only the bricks of the columns are visited
+     *
+     * @param x0 minimum x-coordinate of the columns
+     * @param z0 minimum z-coordinate of the columns
+     * @param xN maximum x-coordinate of the columns
+     * @param zN maximum z-coordinate of the columns
+     * @return coordinates of the entries (rather than of the values) within the columns
+     */
+    public List<Coords> keysWithin(int x0, int z0, int xN, int zN) {
+        final List<Coords> keys = new ArrayList<>();
+
+        for (int cx = x0 >> BRICK_SHIFT, cxN = xN >> BRICK_SHIFT; cx <= cxN; ++cx)
+            for (int cz = z0 >> BRICK_SHIFT, czN = zN >> BRICK_SHIFT; cz <= czN; ++cz) {
+                for (Brick brick = this.columns.get(columnKey(cx, cz)); brick != null; brick = brick.nextInColumn) {
+                    final Object[] cells = brick.cells;
+                    for (int c = 0; c < BRICK_VOLUME; ++c)
+                        if (cells[c] != null) {
+                            final int
+                                x = (brick.cx << BRICK_SHIFT) + (c & 7),
+                                z = (brick.cz << BRICK_SHIFT) + (c >> 6);
+
+                            if (x >= x0 && x <= xN && z >= z0 && z <= zN)
+                                keys.add(new Coords(x, (brick.cy << BRICK_SHIFT) + (c >> 3 & 7), z));
+                        }
+                }
+            }
 
-        return new FlattenIterable<T>(cullees);
+        return keys;
     }
 
-    private abstract class AbstractIterator<V> extends FilterIterable.Iter<V> implements Iterator<V> {
-        private Iterator<Map.Entry<CoarseKey, TreeMap<Integer, T>>> oi;
-        private Iterator<Map.Entry<Integer, T>> ii;
+    private Brick insertBrick(int x, int y, int z) {
+        final long key = coarseKey(x, y, z);
+        final Brick brick = new Brick(key, x >> BRICK_SHIFT, y >> BRICK_SHIFT, z >> BRICK_SHIFT);
+        this.table.put(key, brick);
 
-        public AbstractIterator () {
-            this.oi = SparseSpatialMap.this.space.entrySet().iterator();
+        final long columnKey = columnKey(brick.cx, brick.cz);
+        final Brick next = this.columns.get(columnKey);
+        if (next != null) {
+            brick.nextInColumn = next;
+            next.previousInColumn = brick;
         }
+        this.columns.put(columnKey, brick);
+
+        this.key0 = key;
+        return this.brick0 = brick;
+    }
+
+    private void removeBrick(long key) {
+        final Brick brick = this.table.get(key);
+        if (brick == null)
+            return;
+
+        final Brick
+            previous = brick.previousInColumn,
+            next = brick.nextInColumn;
+
+        if (next != null)
+            next.previousInColumn = previous;
+        if (previous != null)
+            previous.nextInColumn = next;
+        else if (next != null)
+            this.columns.put(columnKey(brick.cx, brick.cz), next);
+        else
+            this.columns.remove(columnKey(brick.cx, brick.cz));
+
+        this.table.remove(key);
+        this.brick0 = null;
+    }
+
+    private abstract class AbstractIterator<V> extends FilterIterable.Iter<V> implements Iterator<V> {
+        private final Brick[] bricks = SparseSpatialMap.this.table.bricks;
+        private int slot = -1, cell = BRICK_VOLUME;
 
         @Override
         protected V findNext() {
-            final Iterator<Map.Entry<CoarseKey, TreeMap<Integer, T>>> oi = this.oi;
-            Iterator<Map.Entry<Integer, T>> ii = this.ii;
-
-            while (ii == null || !ii.hasNext()) {
-                if (oi.hasNext()) {
-                    final Map.Entry<CoarseKey, TreeMap<Integer, T>> entry = oi.next();
-                    ii = this.ii = entry.getValue().entrySet().iterator();
-                } else
-                    return null;
+            final Brick[] bricks = this.bricks;
+
+            while (true) {
+                if (this.slot >= 0) {
+                    final Object[] cells = bricks[this.slot].cells;
+                    while (this.cell < BRICK_VOLUME) {
+                        final Object value = cells[this.cell++];
+                        if (value != null) {
+                            @SuppressWarnings("unchecked")
+                            final T t = (T) value;
+                            return map(t);
+                        }
+                    }
+                }
+
+                do {
+                    if (++this.slot >= bricks.length)
+                        return null;
+                } while (bricks[this.slot] == null);
+
+                this.cell = 0;
             }
-
-            final Map.Entry<Integer, T> entry = ii.next();
-            return map(entry.getValue());
         }
         protected abstract V map(T value);
     }
@@ -251,17 +425,4 @@ class SparseSpatialMap<T extends INode> {
     public Collection<T> values() {
         return new ValueCollection();
     }
-
-    private Map<Integer, T> acquireInner(int x, int y, int z) {
-        if (this.inner0 != null && this.kx0 == x && this.ky0 == y && this.kz0 == z)
-            return this.inner0;
-
-        this.kx0 = x;
-        this.ky0 = y;
-        this.kz0 = z;
-
-        final CoarseKey coarseKey = this.coarseKey;
-        coarseKey.set(x, y, z);
-        return this.inner0 = this.space.get(coarseKey);
-    }
 }
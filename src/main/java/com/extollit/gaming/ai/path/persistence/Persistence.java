@@ -19,7 +19,7 @@ import java.io.*;
  */
 public class Persistence {
     private static final String TAG = "HPOD";
-    private static final byte VERSION = 4;
+    private static final byte VERSION = 5;
 
     /**
      * Serialize a path-finder and its internal state to a stream.  This takes a snapshot of the path-finding object
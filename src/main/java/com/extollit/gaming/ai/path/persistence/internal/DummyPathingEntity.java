@@ -67,6 +67,36 @@ public class DummyPathingEntity implements IPathingEntity, IPathingEntity.Capabi
         }
     }
     
+    /**
+     * Creates a detached copy of the current state of the specified pathing entity and its capabilities
+     *
+     * @param entity the pathing entity to copy
+     * @return a new pathing entity that is independent of the original
+     */
+    public static DummyPathingEntity copyOf(IPathingEntity entity) {
+        final DummyPathingEntity copy = new DummyPathingEntity();
+        final Capabilities caps = entity.capabilities();
+
+        copy.coordinates = new com.extollit.linalg.mutable.Vec3d(entity.coordinates());
+        copy.age = entity.age();
+        copy.bound = entity.bound();
+        copy.searchRange = entity.searchRange();
+        copy.width = entity.width();
+        copy.height = entity.height();
+        copy.speed = caps.speed();
+        copy.fireResistant = caps.fireResistant();
+        copy.cautious = caps.cautious();
+        copy.climber = caps.climber();
+        copy.swimmer = caps.swimmer();
+        copy.aquatic = caps.aquatic();
+        copy.avian = caps.avian();
+        copy.aquaphobic = caps.aquaphobic();
+        copy.avoidsDoorways = caps.avoidsDoorways();
+        copy.opensDoors = caps.opensDoors();
+
+        return copy;
+    }
+
     private int age;
     private float searchRange, width, height, speed;
     private com.extollit.linalg.mutable.Vec3d coordinates;
@@ -25,10 +25,11 @@ public abstract class AbstractHydrazinePathFinderTests {
 
     @Mock protected IPathingEntity.Capabilities capabilities;
 
-    @Mock private IOcclusionProviderFactory occlusionProviderFactory;
+    @Mock protected IOcclusionProviderFactory occlusionProviderFactory;
 
     @Before
     public void setup() {
+        when(instanceSpace.occlusionFieldListeners()).thenReturn(new OcclusionFieldListenerList());
         setup(pathingEntity);
 
         when(destinationEntity.width()).thenReturn(0.6f);
@@ -77,6 +77,7 @@ public class BuoyantNodeCalculatorTests extends AbstractNodeCalculatorTests {
         when(capabilities.swimmer()).thenReturn(true);
         when(capabilities.aquatic()).thenReturn(true);
         when(capabilities.aquaphobic()).thenReturn(false);
+        calculator.applySubject(super.pathingEntity);
 
         solid(0, -2, 0);
         water(0, -1, 0);
@@ -4,7 +4,9 @@ import com.extollit.gaming.ai.path.model.*;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
 
 public class GroundNodeCalculatorTests extends AbstractNodeCalculatorTests {
     @Override
@@ -175,6 +177,21 @@ public class GroundNodeCalculatorTests extends AbstractNodeCalculatorTests {
         assertEquals(2, actual.key.y);
     }
 
+    @Test
+    public void capturedSlab() {
+        for (Coords coords : new Coords[] { new Coords(0, 0, 0), new Coords(0, 1, 1) }) {
+            when(occlusionProvider.elementAt(coords.x, coords.y, coords.z)).thenReturn(Logic.fuzzy.to(Element.earth.mask));
+            when(occlusionProvider.partialBlockAt(coords.x, coords.y, coords.z)).thenReturn(TestingBlocks.slabDown);
+        }
+        solid(0, 0, 1);
+
+        final Node actual = calculator.passibleNodeNear(0, 1, 1, new Coords(0, 1, 0), super.flagSampler);
+
+        assertTrue(actual.passibility().betterThan(Passibility.impassible));
+        assertEquals(2, actual.key.y);
+        verify(instanceSpace, never()).blockObjectAt(anyInt(), anyInt(), anyInt());
+    }
+
     @Test
     public void ladderOneTooManyUp() {
         solid(1, 0, 0);
@@ -269,6 +286,23 @@ public class GroundNodeCalculatorTests extends AbstractNodeCalculatorTests {
         assertEquals(Passibility.dangerous, actual.passibility());
     }
 
+    @Test
+    public void indexedFall() {
+        solid(1, -21, 0);
+        when(occlusionProvider.openRunBelow(eq(1), anyInt(), eq(0))).then(invocation -> {
+            final int y = (Integer) invocation.getArguments()[1];
+            return y > -21 ? y - Math.max(y & ~15, -20) + 1 : 0;
+        });
+
+        cautious(false);
+
+        final Node actual = calculator.passibleNodeNear(1, 0, 0, ORIGIN, super.flagSampler);
+        assertEquals(Passibility.dangerous, actual.passibility());
+        assertEquals(-20, actual.key.y);
+        verify(occlusionProvider, never()).elementAt(1, -10, 0);
+        verify(occlusionProvider).elementAt(1, -16, 0);
+    }
+
     @Test
     public void swimming() {
         solid(1, -3, 0);
@@ -330,6 +364,7 @@ public class GroundNodeCalculatorTests extends AbstractNodeCalculatorTests {
     @Test
     public void outPool() {
         when(capabilities.swimmer()).thenReturn(true);
+        calculator.applySubject(super.pathingEntity);
 
         solid(0, -3, 0);
         water(0, -2, 0);
@@ -353,6 +388,7 @@ public class GroundNodeCalculatorTests extends AbstractNodeCalculatorTests {
     @Test
     public void climbOutPool() {
         when(capabilities.swimmer()).thenReturn(true);
+        calculator.applySubject(super.pathingEntity);
 
         solid(0, -3, 0);
         water(0, -2, 0);
@@ -402,6 +438,7 @@ public class GroundNodeCalculatorTests extends AbstractNodeCalculatorTests {
     public void openClosedDoor() {
         when(capabilities.avoidsDoorways()).thenReturn(false);
         when(capabilities.opensDoors()).thenReturn(true);
+        calculator.applySubject(super.pathingEntity);
 
         solid(1, -1, 0);
         door(1, 0, 0, false);
@@ -416,6 +453,7 @@ public class GroundNodeCalculatorTests extends AbstractNodeCalculatorTests {
     @Test
     public void avoidOpenDoor() {
         when(capabilities.avoidsDoorways()).thenReturn(true);
+        calculator.applySubject(super.pathingEntity);
 
         solid(1, -1, 0);
         door(1, 0, 0, true);
@@ -430,6 +468,7 @@ public class GroundNodeCalculatorTests extends AbstractNodeCalculatorTests {
     public void avoidClosedDoor() {
         when(capabilities.avoidsDoorways()).thenReturn(true);
         when(capabilities.opensDoors()).thenReturn(true);
+        calculator.applySubject(super.pathingEntity);
 
         solid(1, -1, 0);
         door(1, 0, 0, false);
@@ -6,7 +6,11 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
 
 import static com.extollit.gaming.ai.path.model.PathObjectUtil.assertPath;
 import static org.junit.Assert.*;
@@ -28,6 +32,22 @@ public class HPODIntegrationTests extends AbstractHydrazinePathFinderTests {
         assertEquals(58, pathFinder.queue.size());
     }
 
+    @Test
+    public void roundTrip() throws IOException {
+        final HydrazinePathFinder original = Persistence.restore(contextClassLoader.getResourceAsStream("entity.hpod"), instanceSpace);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+
+        Persistence.persist(original, (ObjectOutput) out);
+        out.flush();
+        final HydrazinePathFinder pathFinder = Persistence.restore(new ByteArrayInputStream(bytes.toByteArray()), instanceSpace);
+
+        assertEquals(original.queue.size(), pathFinder.queue.size());
+        assertEquals(original.queue.view(), pathFinder.queue.view());
+        assertEquals(original.queueingStrategy(), pathFinder.queueingStrategy());
+        assertEquals(original.wideNodes(), pathFinder.wideNodes());
+    }
+
     @Test
     public void indecision() throws IOException {
         final HydrazinePathFinder pathFinder = Persistence.restore(contextClassLoader.getResourceAsStream("indecision.hpod"), instanceSpace);
@@ -7,11 +7,14 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static com.extollit.gaming.ai.path.model.PathObjectUtil.assertPath;
 import static com.extollit.gaming.ai.path.model.PathObjectUtil.assertPathNot;
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -698,4 +701,421 @@ public class HydrazinePathFinderTests extends AbstractHydrazinePathFinderTests {
 
         assertPath(path, new Coords(0, 0, 0), new Coords(0, 0, 1), new Coords(0, 0, 2));
     }
+
+    @Test
+    public void computePathToAsync() throws Exception {
+        when(pathingEntity.searchRange()).thenReturn(8f);
+        defaultGround();
+        solid(1, 0, 0);
+        solid(1, 1, 0);
+
+        final IPath expected = pathFinder.computePathTo(3, 0, 0);
+        final IPath path = pathFinder.computePathToAsync(3, 0, 0, new PathOptions(), Runnable::run).get();
+
+        assertNotNull(expected);
+        assertNotNull(path);
+        assertTrue(path.sameAs(expected));
+        assertEquals(new Coords(3, 0, 0), path.last().coordinates());
+    }
+
+    @Test
+    public void computePathToAsyncCancelled() {
+        when(pathingEntity.searchRange()).thenReturn(8f);
+        defaultGround();
+
+        final List<Runnable> tasks = new ArrayList<>();
+        final CompletableFuture<IPath> future = pathFinder.computePathToAsync(3, 0, 0, new PathOptions(), tasks::add);
+
+        assertEquals(1, tasks.size());
+        future.cancel(true);
+        tasks.get(0).run();
+
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void computePathToAsyncNodeLimit() throws Exception {
+        when(pathingEntity.searchRange()).thenReturn(8f);
+        defaultGround();
+
+        final IPath path = pathFinder.computePathToAsync(5, 0, 0, new PathOptions().maxNodes(1), Runnable::run).get();
+
+        assertNotNull(path);
+        assertNotEquals(new Coords(5, 0, 0), path.last().coordinates());
+    }
+
+    @Test
+    public void computePathToAsyncTooFar() throws Exception {
+        when(pathingEntity.searchRange()).thenReturn(8f);
+
+        assertNull(pathFinder.computePathToAsync(20, 0, 0, new PathOptions(), Runnable::run).get());
+    }
+
+    @Test
+    public void bidirectional() {
+        defaultGround();
+        for (int z = -12; z <= +12; ++z) {
+            solid(1, 0, z);
+            solid(1, 1, z);
+        }
+
+        final IPath path = pathFinder.computePathTo(3, 0, 0, new PathOptions().bidirectional(true));
+
+        assertNotNull(path);
+        assertEquals(new Coords(0, 0, 0), path.at(0).coordinates());
+        assertEquals(new Coords(3, 0, 0), path.last().coordinates());
+        assertContiguous(path);
+        for (int i = 0; i < path.length(); ++i) {
+            final Coords coordinates = path.at(i).coordinates();
+            assertFalse(coordinates.x == 1 && Math.abs(coordinates.z) <= 12);
+        }
+    }
+
+    @Test
+    public void bidirectionalFall() {
+        defaultGround();
+        for (int z = -8; z <= +8; ++z) {
+            solid(2, 0, z);
+            solid(2, 1, z);
+        }
+        clear(4, -1, 0);
+        clear(4, -2, 0);
+        clear(4, -3, 0);
+        solid(4, -4, 0);
+
+        final IPath path = pathFinder.computePathTo(4, -3, 0, new PathOptions().bidirectional(true));
+
+        assertNotNull(path);
+        assertEquals(new Coords(4, -3, 0), path.last().coordinates());
+        assertEquals(0, path.at(path.length() - 2).coordinates().y);
+        assertContiguous(path);
+    }
+
+    @Test
+    public void fallFromLedgeDoesNotBlockLanding() {
+        defaultGround();
+        solid(0, 0, 0);
+        solid(0, 1, 0);
+        solid(0, 0, 1);
+        for (int y = 0; y <= 4; ++y) {
+            for (int x = -1; x <= 4; ++x) {
+                solid(x, y, -2);
+                solid(x, y, +2);
+            }
+            for (int z = -1; z <= 1; ++z)
+                solid(-1, y, z);
+            solid(0, y, -1);
+            for (int x = 2; x <= 4; ++x) {
+                solid(x, y, 0);
+                solid(x, y, 1);
+            }
+        }
+        pos(0, 2, 0);
+
+        final IPath path = pathFinder.computePathTo(4, 0, -1);
+
+        assertNotNull(path);
+        assertEquals(new Coords(4, 0, -1), path.last().coordinates());
+        assertContiguous(path);
+    }
+
+    @Test
+    public void bidirectionalCorridor() {
+        defaultGround();
+        for (int z = 3; z <= 12; ++z)
+            for (int y = 0; y <= 1; ++y) {
+                solid(-1, y, z);
+                solid(+1, y, z);
+            }
+        solid(0, 0, 3);
+        solid(0, 1, 3);
+
+        final IPath path = pathFinder.computePathTo(0, 0, 4, new PathOptions().bidirectional(true));
+
+        assertNotNull(path);
+        assertEquals(new Coords(0, 0, 4), path.last().coordinates());
+        assertContiguous(path);
+    }
+
+    private static void assertContiguous(IPath path) {
+        for (int i = 1; i < path.length(); ++i) {
+            final Coords
+                previous = path.at(i - 1).coordinates(),
+                next = path.at(i).coordinates();
+
+            assertTrue(Math.abs(next.x - previous.x) <= 1 && Math.abs(next.z - previous.z) <= 1);
+        }
+    }
+
+    @Test
+    public void bidirectionalPocket() {
+        defaultGround();
+        for (int dz = -1; dz <= +1; ++dz)
+            for (int dx = -1; dx <= +1; ++dx)
+                if (dx != 0 || dz != 0) {
+                    solid(5 + dx, 0, dz);
+                    solid(5 + dx, 1, dz);
+                }
+
+        final PathOptions options = new PathOptions().maxNodes(256);
+        final IPath forward = pathFinder.computePathTo(5, 0, 0, options);
+        assertNotNull(forward);
+
+        pathFinder.reset();
+        final IPath bidirectional = pathFinder.computePathTo(5, 0, 0, options.bidirectional(true));
+        assertNotNull(bidirectional);
+        assertEquals(forward.last().coordinates(), bidirectional.last().coordinates());
+        assertNotEquals(new Coords(5, 0, 0), bidirectional.last().coordinates());
+    }
+
+    @Test
+    public void bidirectionalDetour() {
+        defaultGround();
+        for (int z = -5; z <= +5; ++z) {
+            solid(8, 0, z);
+            solid(8, 1, z);
+        }
+        for (int x = 9; x <= 12; ++x) {
+            solid(x, 0, -5);
+            solid(x, 1, -5);
+            solid(x, 0, +5);
+            solid(x, 1, +5);
+        }
+
+        final Coords target = new Coords(10, 0, 0);
+        final PathOptions options = new PathOptions().maxNodes(192);
+        final IPath forward = pathFinder.computePathTo(10, 0, 0, options);
+        assertTrue(forward == null || !target.equals(forward.last().coordinates()));
+
+        pathFinder.reset();
+        final IPath path = pathFinder.computePathTo(10, 0, 0, options.bidirectional(true));
+
+        assertNotNull(path);
+        assertEquals(target, path.last().coordinates());
+        assertContiguous(path);
+    }
+
+    @Test
+    public void bucketQueueingStrategy() {
+        defaultGround();
+        solid(1, 0, 0);
+        solid(1, 1, 0);
+
+        final IPath expected = pathFinder.computePathTo(3, 0, 0);
+
+        pathFinder.reset();
+        pathFinder.withQueueingStrategy(QueueingStrategy.buckets);
+        final IPath path = pathFinder.computePathTo(3, 0, 0);
+
+        assertEquals(QueueingStrategy.buckets, pathFinder.queueingStrategy());
+        assertNotNull(path);
+        assertEquals(new Coords(3, 0, 0), path.last().coordinates());
+        assertEquals(expected.length(), path.length());
+    }
+
+    @Test
+    public void wideNodes() {
+        defaultGround();
+        solid(1, 0, 0);
+        solid(1, 1, 0);
+
+        pathFinder.withWideNodes(true);
+        final IPath path = pathFinder.computePathTo(3, 0, 0);
+
+        assertTrue(pathFinder.wideNodes());
+        assertEquals(Node.WIDE_MAX_PATH_DISTANCE, pathFinder.queue.maxPathDistance());
+        assertNotNull(path);
+        assertEquals(new Coords(3, 0, 0), path.last().coordinates());
+    }
+
+    @Test
+    public void sectionGraphRoute() {
+        defaultGround();
+
+        final SectionGraph sectionGraph = new SectionGraph(instanceSpace);
+        try {
+            pathFinder.withSectionGraph(sectionGraph);
+            final IPath path = pathFinder.initiatePathTo(80, 0, 0);
+
+            assertNotNull(path);
+            assertNotNull(pathFinder.route());
+            assertEquals(new Coords(80, 0, 0), pathFinder.route().destination());
+            assertTrue(path.last().coordinates().x < 80);
+        } finally {
+            sectionGraph.close();
+        }
+    }
+
+    @Test
+    public void sectionGraphUnreachable() {
+        defaultGround();
+        for (int i = 0; i <= 8; ++i)
+            for (int y = 0; y <= 1; ++y) {
+                solid(i, y, 0);
+                solid(i, y, 8);
+                solid(0, y, i);
+                solid(8, y, i);
+            }
+        pos(2.5, 0, 2.5);
+
+        final SectionGraph sectionGraph = new SectionGraph(instanceSpace, 2);
+        try {
+            pathFinder.withSectionGraph(sectionGraph);
+
+            IPath path = pathFinder.initiatePathTo(12, 0, 4);
+            assertNotNull(path);
+            for (int c = 0; c < 8 && path != null; ++c)
+                path = pathFinder.updatePathFor(pathingEntity);
+
+            assertNull(path);
+            assertNull(pathFinder.computePathTo(12, 0, 4));
+            assertNotNull(pathFinder.computePathTo(3, 0, 3));
+        } finally {
+            sectionGraph.close();
+        }
+    }
+
+    @Test
+    public void incrementalRepair() {
+        defaultGround();
+        pos(0, 0, 0);
+        pathFinder.withIncrementalRepair(true);
+        try {
+            IPath path = pathFinder.initiatePathTo(0, 0, 20);
+            for (int c = 0; c < 32 && !pathFinder.queue.isEmpty(); ++c)
+                path = pathFinder.updatePathFor(pathingEntity);
+
+            assertNotNull(path);
+            assertEquals(new Coords(0, 0, 20), path.last().coordinates());
+
+            final Node retained = pathFinder.nodeMap.cachedPointAt(0, 0, 2);
+            for (int x = -2; x <= 2; ++x) {
+                solid(x, 0, 12);
+                solid(x, 1, 12);
+                pathFinder.repairListener().onBlockChanged(instanceSpace, x, 0, 12);
+                pathFinder.repairListener().onBlockChanged(mock(IInstanceSpace.class), x, 0, 2);
+            }
+
+            for (int c = 0; c < 32 && (c == 0 || !pathFinder.queue.isEmpty()); ++c)
+                path = pathFinder.updatePathFor(pathingEntity);
+
+            assertNotNull(path);
+            assertEquals(new Coords(0, 0, 20), path.last().coordinates());
+            for (int i = 0; i < path.length(); ++i) {
+                final Coords coords = path.at(i).coordinates();
+                assertFalse(coords.z == 12 && coords.x >= -2 && coords.x <= 2);
+            }
+            assertSame(retained, pathFinder.nodeMap.cachedPointAt(0, 0, 2));
+            assertEquals(2, retained.length());
+        } finally {
+            pathFinder.withIncrementalRepair(false);
+        }
+
+        assertFalse(pathFinder.incrementalRepair());
+    }
+
+    @Test
+    public void incrementalRepairUnsubscribed() {
+        defaultGround();
+        pos(0, 0, 0);
+        final OcclusionFieldListenerList listeners = instanceSpace.occlusionFieldListeners();
+        pathFinder.withIncrementalRepair(true);
+        assertNull(pathFinder.repairListener());
+
+        pathFinder.initiatePathTo(0, 0, 20);
+        final IOcclusionFieldListener listener = pathFinder.repairListener();
+        assertTrue(listeners.contains(listener));
+
+        pathFinder.reset();
+        assertFalse(listeners.contains(listener));
+        assertNull(pathFinder.repairListener());
+        assertTrue(pathFinder.incrementalRepair());
+
+        pathFinder.initiatePathTo(0, 0, 20);
+        final IOcclusionFieldListener resubscribed = pathFinder.repairListener();
+        assertTrue(listeners.contains(resubscribed));
+
+        pathFinder.withIncrementalRepair(false);
+        assertNull(pathFinder.repairListener());
+        assertFalse(listeners.contains(resubscribed));
+        assertFalse(pathFinder.incrementalRepair());
+    }
+
+    @Test
+    public void jumpPointSearch() throws Exception {
+        defaultGround();
+        final Coords destination = new Coords(12, 0, 6);
+        final PathOptions options = new PathOptions().maxNodes(8);
+
+        final IPath expanded = pathFinder.computePathToAsync(12, 0, 6, options, Runnable::run).get();
+        assertNotEquals(destination, expanded.last().coordinates());
+
+        pathFinder.withJumpPointSearch(true);
+        final IPath path = pathFinder.computePathToAsync(12, 0, 6, options, Runnable::run).get();
+
+        assertNotNull(path);
+        assertEquals(destination, path.last().coordinates());
+        assertEquals(19, path.length());
+        for (int i = 1; i < path.length(); ++i) {
+            final Coords
+                previous = path.at(i - 1).coordinates(),
+                coords = path.at(i).coordinates();
+
+            assertEquals(1, Math.abs(coords.x - previous.x) + Math.abs(coords.z - previous.z));
+            assertEquals(0, coords.y);
+        }
+    }
+
+    @Test
+    public void flowField() {
+        defaultGround();
+        pos(destinationEntity, 6.5, 0, 0.5);
+
+        final FlowField flowField = new FlowField(instanceSpace, 8);
+        try {
+            pathFinder.withFlowField(flowField);
+
+            final IPath path = pathFinder.trackPathTo(destinationEntity);
+            assertTrue(path instanceof FlowField.Path);
+            assertEquals(new Coords(6, 0, 0), path.last().coordinates());
+            assertSame(path, pathFinder.updatePathFor(pathingEntity));
+
+            pos(destinationEntity, 6.5, 0, 2.5);
+            assertSame(path, pathFinder.updatePathFor(pathingEntity));
+            assertEquals(new Coords(6, 0, 2), path.last().coordinates());
+
+            pos(destinationEntity, 20.5, 0, 0.5);
+            final IPath searched = pathFinder.updatePathFor(pathingEntity);
+            assertFalse(searched instanceof FlowField.Path);
+            assertEquals(1, flowField.fields());
+        } finally {
+            flowField.close();
+        }
+    }
+
+    @Test
+    public void pathCache() {
+        defaultGround();
+
+        final PathCache pathCache = new PathCache(instanceSpace);
+        try {
+            pathFinder.withPathCache(pathCache);
+
+            final IPath expected = pathFinder.computePathTo(4, 0, 0);
+            assertNotNull(expected);
+            assertEquals(0, pathCache.hits());
+            assertEquals(1, pathCache.size());
+
+            final IPath path = pathFinder.computePathTo(4, 0, 0);
+            assertEquals(1, pathCache.hits());
+            assertTrue(path.sameAs(expected));
+
+            pathCache.onBlockChanged(instanceSpace, 2, 0, 0);
+            assertNotNull(pathFinder.computePathTo(4, 0, 0));
+            assertEquals(1, pathCache.hits());
+            assertEquals(1, pathCache.invalidations());
+        } finally {
+            pathCache.close();
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.IPathingEntity;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PassibilityTableTests {
+    @Test
+    public void matchesHelpers() {
+        for (int key = 0; key < 1 << 6; ++key) {
+            final IPathingEntity.Capabilities capabilities = mock(IPathingEntity.Capabilities.class);
+            when(capabilities.fireResistant()).thenReturn((key & 1) != 0);
+            when(capabilities.aquatic()).thenReturn((key & 2) != 0);
+            when(capabilities.swimmer()).thenReturn((key & 4) != 0);
+            when(capabilities.aquaphobic()).thenReturn((key & 8) != 0);
+            when(capabilities.opensDoors()).thenReturn((key & 16) != 0);
+            when(capabilities.avoidsDoorways()).thenReturn((key & 32) != 0);
+
+            final PassibilityTable table = PassibilityTable.of(capabilities);
+            for (byte flags = 0; flags < 16; ++flags) {
+                final String message = "Capabilities " + key + ", flags " + flags;
+                assertEquals(message, PassibilityHelpers.impedesMovement(flags, capabilities), table.impedesMovement(flags));
+                assertEquals(message, PassibilityHelpers.clearance(flags, capabilities), table.clearance(flags));
+                assertEquals(message, PassibilityHelpers.passibilityFrom(flags, capabilities), table.passibilityFrom(flags));
+            }
+        }
+    }
+
+    @Test
+    public void shared() {
+        final IPathingEntity.Capabilities
+            first = mock(IPathingEntity.Capabilities.class),
+            second = mock(IPathingEntity.Capabilities.class);
+
+        when(first.opensDoors()).thenReturn(true);
+        when(second.opensDoors()).thenReturn(true);
+        when(second.climber()).thenReturn(true);
+
+        assertSame(PassibilityTable.of(first), PassibilityTable.of(second));
+    }
+}
@@ -0,0 +1,165 @@
+package com.extollit.gaming.ai.path;
+
+import com.extollit.gaming.ai.path.model.IPath;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PathFinderSchedulerTests extends AbstractHydrazinePathFinderTests {
+    private long now, step;
+    private PathFinderScheduler scheduler;
+
+    @Before
+    public void setup() {
+        super.setup();
+
+        this.scheduler = new PathFinderScheduler(TimeUnit.MILLISECONDS.toNanos(2), () -> this.now += this.step);
+        this.scheduler.register(this.pathFinder);
+    }
+
+    @Test
+    public void deferredTriage() {
+        defaultGround();
+
+        final IPath path = pathFinder.initiatePathTo(10, 0, 0);
+
+        assertNotNull(path);
+        assertTrue(pathFinder.pending());
+        assertFalse(path.done());
+    }
+
+    @Test
+    public void updateDoesNotTriage() {
+        defaultGround();
+
+        pathFinder.initiatePathTo(10, 0, 0);
+        final int size = pathFinder.queue.size();
+
+        pathFinder.updatePathFor(pathingEntity);
+
+        assertEquals(size, pathFinder.queue.size());
+        assertTrue(pathFinder.pending());
+    }
+
+    @Test
+    public void tickCompletes() {
+        defaultGround();
+
+        pathFinder.initiatePathTo(10, 0, 0);
+        scheduler.tick();
+
+        assertFalse(pathFinder.pending());
+        final IPath path = pathFinder.updatePathFor(pathingEntity);
+        assertNotNull(path);
+        assertEquals(10, path.last().coordinates().x);
+    }
+
+    @Test
+    public void budgetExhausted() {
+        defaultGround();
+
+        pathFinder.initiatePathTo(10, 0, 0);
+        this.step = TimeUnit.MILLISECONDS.toNanos(2);
+        final int iterations = scheduler.tick();
+
+        assertEquals(SchedulingPriority.high.periodicComputeIterations, iterations);
+        assertTrue(pathFinder.pending());
+    }
+
+    @Test
+    public void countsIterationsPerformed() {
+        defaultGround();
+
+        pathFinder.initiatePathTo(2, 0, 0);
+        final int iterations = scheduler.tick();
+
+        assertFalse(pathFinder.pending());
+        assertTrue(iterations > 0);
+        assertTrue(iterations < SchedulingPriority.high.periodicComputeIterations);
+    }
+
+    @Test
+    public void idle() {
+        assertEquals(0, scheduler.tick());
+    }
+
+    @Test
+    public void unregister() {
+        defaultGround();
+
+        assertTrue(scheduler.unregister(pathFinder));
+        assertFalse(scheduler.unregister(pathFinder));
+        assertEquals(0, scheduler.size());
+
+        pathFinder.initiatePathTo(10, 0, 0);
+        assertEquals(0, scheduler.tick());
+    }
+
+    @Test
+    public void parallelLanes() {
+        defaultGround();
+
+        final DirectExecutorService executor = new DirectExecutorService();
+        final PathFinderScheduler scheduler = new PathFinderScheduler(TimeUnit.SECONDS.toNanos(1), System::nanoTime, executor, 2);
+        final HydrazinePathFinder other = new HydrazinePathFinder(pathingEntity, instanceSpace, occlusionProviderFactory);
+
+        this.scheduler.unregister(pathFinder);
+        scheduler.register(pathFinder);
+        scheduler.register(other);
+
+        pathFinder.initiatePathTo(10, 0, 0);
+        other.initiatePathTo(-10, 0, 0);
+        scheduler.tick();
+
+        assertEquals(2, executor.tasks);
+        assertFalse(pathFinder.pending());
+        assertFalse(other.pending());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void registerTwice() {
+        new PathFinderScheduler(1, TimeUnit.MILLISECONDS).register(pathFinder);
+    }
+
+    private static final class DirectExecutorService extends AbstractExecutorService {
+        int tasks;
+
+        @Override
+        public void execute(Runnable command) {
+            this.tasks++;
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {}
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
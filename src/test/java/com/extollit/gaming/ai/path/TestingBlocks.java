@@ -8,6 +8,7 @@ public class TestingBlocks {
             stone = new Stone(),
             wall = new Wall(),
             lava = new Lava(),
+            water = new Water(),
             air = new Air(),
             ladder = new Ladder(),
             slabUp = new SlabUp(),
@@ -115,6 +116,13 @@ public class TestingBlocks {
         }
     }
 
+    public static final class Water extends AbstractBlockDescription {
+        @Override
+        public boolean isLiquid() {
+            return true;
+        }
+    }
+
     public static final class Air extends AbstractBlockDescription {}
 
     private static abstract class AbstractDoor extends AbstractBlockDescription {
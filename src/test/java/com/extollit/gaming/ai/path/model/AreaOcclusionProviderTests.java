@@ -0,0 +1,102 @@
+package com.extollit.gaming.ai.path.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static com.extollit.gaming.ai.path.TestingBlocks.air;
+import static com.extollit.gaming.ai.path.TestingBlocks.stone;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AreaOcclusionProviderTests {
+    private static final int SIZE = 5;
+
+    @Mock private IInstanceSpace instanceSpace;
+
+    private final IColumnarSpace[][] columnarSpaces = new IColumnarSpace[SIZE][SIZE];
+
+    private AreaOcclusionProvider provider;
+
+    @Before
+    public void setup() {
+        for (int cz = 0; cz < SIZE; ++cz)
+            for (int cx = 0; cx < SIZE; ++cx) {
+                final IColumnarSpace columnarSpace = mock(IColumnarSpace.class);
+                when(columnarSpace.instance()).thenReturn(this.instanceSpace);
+                when(columnarSpace.occlusionFields()).thenReturn(new ColumnarOcclusionFieldList(columnarSpace));
+                when(columnarSpace.blockAt(anyInt(), anyInt(), anyInt())).thenReturn(cx == 3 ? stone : air);
+                this.columnarSpaces[cz][cx] = columnarSpace;
+            }
+
+        when(this.instanceSpace.columnarSpaceAt(anyInt(), anyInt())).then(invocation -> {
+            final int
+                cx = (Integer) invocation.getArguments()[0],
+                cz = (Integer) invocation.getArguments()[1];
+
+            return cx >= 0 && cx < SIZE && cz >= 0 && cz < SIZE ? this.columnarSpaces[cz][cx] : null;
+        });
+
+        final IColumnarSpace[][] window = new IColumnarSpace[3][3];
+        for (int cz = 0; cz < 3; ++cz)
+            System.arraycopy(this.columnarSpaces[cz], 0, window[cz], 0, 3);
+
+        this.provider = new AreaOcclusionProvider(window, 0, 0);
+    }
+
+    @Test
+    public void slideRetainsOverlap() {
+        assertTrue(this.provider.slideTo(this.instanceSpace, 1, 1, 3, 3));
+
+        verify(this.instanceSpace, times(5)).columnarSpaceAt(anyInt(), anyInt());
+        verify(this.instanceSpace).columnarSpaceAt(3, 1);
+        verify(this.instanceSpace).columnarSpaceAt(3, 2);
+        verify(this.instanceSpace).columnarSpaceAt(1, 3);
+        verify(this.instanceSpace).columnarSpaceAt(2, 3);
+        verify(this.instanceSpace).columnarSpaceAt(3, 3);
+    }
+
+    @Test
+    public void slideResolves() {
+        assertTrue(this.provider.slideTo(this.instanceSpace, 1, 1, 3, 3));
+
+        assertTrue(Element.earth.in(this.provider.elementAt(3 * 16 + 5, 7, 2 * 16 + 9)));
+        assertTrue(Element.air.in(this.provider.elementAt(2 * 16 + 5, 7, 2 * 16 + 9)));
+        assertTrue(Element.air.in(this.provider.elementAt(1 * 16, 7, 1 * 16)));
+        assertTrue(this.provider.interior(32, 32, 47, 47));
+        assertFalse(this.provider.interior(16, 16, 31, 31));
+
+        assertTrue(this.provider.slideTo(this.instanceSpace, 0, 0, 2, 2));
+        assertTrue(Element.air.in(this.provider.elementAt(0, 7, 0)));
+        assertTrue(this.provider.interior(16, 16, 31, 31));
+        assertFalse(this.provider.interior(32, 32, 47, 47));
+    }
+
+    @Test
+    public void slideDisjoint() {
+        assertTrue(this.provider.slideTo(this.instanceSpace, 2, 2, 4, 4));
+
+        verify(this.instanceSpace, times(8)).columnarSpaceAt(anyInt(), anyInt());
+        verify(this.instanceSpace, never()).columnarSpaceAt(2, 2);
+        assertTrue(Element.earth.in(this.provider.elementAt(3 * 16, 0, 4 * 16 + 15)));
+    }
+
+    @Test
+    public void slideRefreshesAfterReset() {
+        this.columnarSpaces[0][1].occlusionFields().reset();
+
+        assertTrue(this.provider.slideTo(this.instanceSpace, 1, 0, 3, 2));
+
+        verify(this.instanceSpace, times(9)).columnarSpaceAt(anyInt(), anyInt());
+    }
+
+    @Test
+    public void slideMismatched() {
+        assertFalse(this.provider.slideTo(this.instanceSpace, 1, 1, 4, 3));
+        verifyZeroInteractions(this.instanceSpace);
+    }
+}
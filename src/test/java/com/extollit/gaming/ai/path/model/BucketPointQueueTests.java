@@ -0,0 +1,175 @@
+package com.extollit.gaming.ai.path.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BucketPointQueueTests {
+    @Mock private IInstanceSpace instanceSpace;
+    @Mock private IOcclusionProviderFactory occlusionProviderFactory;
+    @Mock private INodeCalculator calculator;
+    @Mock private IOcclusionProvider occlusionProvider;
+
+    private BucketPointQueue q;
+    private NodeMap graph;
+    private Node
+        target,
+        source;
+
+    @Before
+    public void setup() {
+        when(occlusionProviderFactory.fromInstanceSpace(any(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(occlusionProvider);
+        this.q = new BucketPointQueue();
+        this.graph = new NodeMap(instanceSpace, new TestNodeCalculatorDecorator(this.calculator), occlusionProviderFactory);
+        this.target = this.graph.cachedPointAt(0, 0, 7);
+        (this.source = visited(0, 0, 0)).target(this.target.key);
+    }
+
+    @Test
+    public void ordering() {
+        final Node
+            far = node(0, 0, 1, 20, Passibility.passible),
+            near = node(0, 0, 2, 5, Passibility.passible),
+            risky = node(0, 0, 3, 1, Passibility.risky);
+
+        q.add(risky);
+        q.add(far);
+        q.add(near);
+
+        assertEquals(3, q.size());
+        assertSame(near, q.top());
+        assertSame(near, q.dequeue());
+        assertSame(far, q.dequeue());
+        assertSame(risky, q.dequeue());
+        assertTrue(q.isEmpty());
+        assertFalse(near.assigned());
+    }
+
+    @Test
+    public void decreaseKey() {
+        final Node
+            alpha = node(0, 0, 1, 10, Passibility.passible),
+            beta = node(0, 0, 2, 7, Passibility.passible);
+
+        beta.length(5);
+        q.add(alpha);
+        q.add(beta);
+
+        q.addLength(beta, -5);
+
+        assertSame(beta, q.dequeue());
+        assertSame(alpha, q.dequeue());
+    }
+
+    @Test
+    public void addLimit() {
+        int c;
+        for (c = 0; c < Node.MAX_INDICES; ++c) {
+            final Node node = new Node(0, 0, c);
+            node.remaining((c % (Node.MAX_PATH_DISTANCE - 1)) + 1);
+            q.add(node);
+        }
+
+        final Node pivot = new Node(1, 0, c);
+        pivot.remaining(Node.MAX_PATH_DISTANCE);
+        q.add(pivot);
+
+        assertEquals(Node.MAX_INDICES - (int)(Node.MAX_INDICES * 0.1f), q.size());
+
+        int previous = 0;
+        while (q.size() > 1) {
+            final int journey = q.dequeue().journey();
+            assertTrue(journey >= previous);
+            previous = journey;
+        }
+
+        assertSame(pivot, q.dequeue());
+        assertTrue(q.isEmpty());
+    }
+
+    @Test
+    public void trimFrom() {
+        Node n;
+        final Node
+            lower = add(n = visited(source, 0, 0, 1), 0, -1, 4),
+            up = add(n = visited(n, 0, 0, 2), 0, -1, 5),
+            middle = visited(n, 0, 0, 3);
+
+        add(visited(middle, 0, 0, 4), 0, 0, 5);
+        add(visited(middle, 1, 0, 3), 2, 0, 3);
+        add(visited(lower, 1, 0, 1), 2, 0, 1);
+
+        q.trimFrom(middle);
+
+        assertFalse(up.assigned());
+        assertFalse(lower.assigned());
+        assertFalse(source.assigned());
+
+        final Set<Coords> actual = new HashSet<>();
+        for (Node p : q.view()) {
+            assertTrue(p.assigned());
+            actual.add(p.key);
+        }
+
+        assertEquals(3, q.size());
+        assertTrue(actual.contains(new Coords(0, 0, 5)));
+        assertTrue(actual.contains(new Coords(2, 0, 3)));
+        assertTrue(actual.contains(new Coords(2, 0, 1)));
+    }
+
+    @Test
+    public void cullBranch() {
+        final Node
+            left = visited(source, -1, 0, 0),
+            right = visited(source, +1, 0, 0),
+            leftRoot = visited(left, -2, 0, 1),
+            rightHead = add(right, +1, 0, 1),
+            rightOutlier = add(right, +2, 0, 1),
+            leftOutlier = add(leftRoot, -3, 0, 1);
+
+        graph.cullBranchAt(leftRoot.key, q);
+
+        assertEquals(3, q.size());
+        assertTrue(rightHead.assigned());
+        assertTrue(rightOutlier.assigned());
+        assertTrue(left.assigned());
+        assertFalse(leftOutlier.assigned());
+    }
+
+    private static Node node(int x, int y, int z, int remaining, Passibility passibility) {
+        final Node node = new Node(x, y, z, passibility);
+        node.remaining(remaining);
+        return node;
+    }
+
+    private Node visited(int x, int y, int z) {
+        Node node = graph.cachedPointAt(x, y, z);
+        node.visited(true);
+        return node;
+    }
+
+    private Node visited(Node parent, int x, int y, int z) {
+        Node cached = visited(x, y, z);
+        cached.appendTo(parent, 1, 0);
+        return cached;
+    }
+
+    private Node add(Node parent, int x, int y, int z) {
+        Node p = visited(x, y, z);
+        p.visited(false);
+        p.length(parent.length() + 1);
+        q.appendTo(p, parent, target.key);
+        return p;
+    }
+}
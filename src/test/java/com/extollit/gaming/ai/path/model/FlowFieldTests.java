@@ -0,0 +1,196 @@
+package com.extollit.gaming.ai.path.model;
+
+import com.extollit.linalg.immutable.Vec3d;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FlowFieldTests {
+    @Mock private IInstanceSpace instanceSpace;
+    @Mock private IOcclusionProviderFactory occlusionProviderFactory;
+    @Mock private IOcclusionProvider occlusionProvider;
+    @Mock private IDynamicMovableObject target;
+    @Mock private IPathingEntity follower;
+    @Mock private IPathingEntity.Capabilities capabilities;
+
+    private final Set<Coords> walls = new HashSet<>();
+    private int probes;
+
+    private FlowField flowField;
+    private PassibilityCache.Profile profile;
+    private INodeCalculator calculator;
+
+    /**
+     * Flat ground at y = 0 interrupted by impassible walls
+     */
+    private final class Terrain implements INodeCalculator {
+        @Override
+        public void applySubject(IPathingEntity subject) {}
+
+        @Override
+        public Node passibleNodeNear(int x, int y, int z, Coords origin, FlagSampler flagSampler) {
+            FlowFieldTests.this.probes++;
+
+            if (walls.contains(new Coords(x, 0, z)))
+                return new Node(x, y, z, Passibility.impassible);
+
+            return new Node(x, 0, z, Passibility.passible);
+        }
+
+        @Override
+        public boolean omnidirectional() {
+            return false;
+        }
+    }
+
+    @Before
+    public void setup() {
+        when(instanceSpace.occlusionFieldListeners()).thenReturn(new OcclusionFieldListenerList());
+        when(occlusionProviderFactory.fromInstanceSpace(any(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(occlusionProvider);
+        when(follower.capabilities()).thenReturn(capabilities);
+        when(follower.width()).thenReturn(0.6f);
+        when(follower.height()).thenReturn(1.8f);
+        when(capabilities.speed()).thenReturn(1f);
+
+        this.calculator = new Terrain();
+        this.flowField = new FlowField(this.instanceSpace, 16);
+        this.profile = PassibilityCache.profileOf(this.calculator, this.follower);
+        target(10.5, 0, 0.5);
+        follower(0.5, 0, 0.5);
+    }
+
+    @After
+    public void teardown() {
+        this.flowField.close();
+    }
+
+    private void target(double x, double y, double z) {
+        when(target.coordinates()).thenReturn(new Vec3d(x, y, z));
+    }
+
+    private void follower(double x, double y, double z) {
+        when(follower.coordinates()).thenReturn(new Vec3d(x, y, z));
+    }
+
+    private FlowField.Path path() {
+        return this.flowField.pathFor(this.profile, this.calculator, this.capabilities, this.occlusionProviderFactory, this.target, this.follower, new Random(0));
+    }
+
+    private static void assertContiguous(IPath path) {
+        for (int i = 1; i < path.length(); ++i) {
+            final Coords
+                previous = path.at(i - 1).coordinates(),
+                coords = path.at(i).coordinates();
+
+            assertEquals(1, Math.abs(coords.x - previous.x) + Math.abs(coords.z - previous.z));
+        }
+    }
+
+    @Test
+    public void straight() {
+        final FlowField.Path path = path();
+
+        assertNotNull(path);
+        assertEquals(new Coords(0, 0, 0), path.at(0).coordinates());
+        assertEquals(new Coords(10, 0, 0), path.last().coordinates());
+        assertEquals(11, path.length());
+        assertContiguous(path);
+    }
+
+    @Test
+    public void detour() {
+        for (int z = -3; z <= 3; ++z)
+            this.walls.add(new Coords(5, 0, z));
+
+        final FlowField.Path path = path();
+
+        assertNotNull(path);
+        assertEquals(new Coords(10, 0, 0), path.last().coordinates());
+        assertEquals(19, path.length());
+        assertContiguous(path);
+    }
+
+    @Test
+    public void shared() {
+        assertNotNull(path());
+        final int probes = this.probes;
+
+        follower(3.5, 0, 4.5);
+        final FlowField.Path path = path();
+
+        assertNotNull(path);
+        assertEquals(1, this.flowField.fields());
+        assertEquals(probes + 1, this.probes);
+        assertEquals(12, path.length());
+    }
+
+    @Test
+    public void outsideRadius() {
+        follower(-10.5, 0, 0.5);
+
+        assertNull(path());
+    }
+
+    @Test
+    public void unreachable() {
+        for (int z = -16; z <= 16; ++z)
+            this.walls.add(new Coords(5, 0, z));
+
+        assertNull(path());
+    }
+
+    @Test
+    public void targetMoved() {
+        final FlowField.Path path = path();
+        final int probes = this.probes;
+
+        target(9.5, 0, 1.5);
+        assertTrue(path.refresh());
+
+        assertEquals(new Coords(9, 0, 1), path.last().coordinates());
+        assertEquals(11, path.length());
+        assertTrue(this.probes - probes < probes / 4);
+    }
+
+    @Test
+    public void blockChanged() {
+        final FlowField.Path path = path();
+        final INode last = path.last();
+
+        this.flowField.onBlockChanged(mock(IInstanceSpace.class), 5, 0, 0);
+        assertTrue(path.refresh());
+        assertSame(last, path.last());
+
+        for (int z = -3; z <= 3; ++z) {
+            this.walls.add(new Coords(5, 0, z));
+            this.flowField.onBlockChanged(this.instanceSpace, 5, 0, z);
+        }
+        assertTrue(path.refresh());
+
+        assertEquals(19, path.length());
+        assertContiguous(path);
+    }
+
+    @Test
+    public void profileDistinguished() {
+        assertNotNull(path());
+
+        when(capabilities.climber()).thenReturn(true);
+        this.profile = PassibilityCache.profileOf(this.calculator, this.follower);
+        assertNotNull(path());
+
+        assertEquals(2, this.flowField.fields());
+    }
+}
@@ -8,6 +8,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -164,6 +165,95 @@ public class NodeMapTests {
         assertFalse(result2.volatile_());
     }
 
+    private static final class VersionedOcclusionProvider implements IOcclusionProvider {
+        long version = OcclusionField.nextVersion();
+        byte flags = Logic.doorway.to(Element.air.mask);
+
+        @Override
+        public byte elementAt(int x, int y, int z) {
+            return this.flags;
+        }
+
+        @Override
+        public long versionAt(int x, int y, int z) {
+            return this.version;
+        }
+
+        @Override
+        public String visualizeAt(int y) {
+            return null;
+        }
+    }
+
+    private static final class SamplingNodeCalculator implements INodeCalculator {
+        int probes;
+
+        @Override
+        public void applySubject(IPathingEntity subject) {}
+
+        @Override
+        public Node passibleNodeNear(int x, int y, int z, Coords origin, FlagSampler flagSampler) {
+            this.probes++;
+            flagSampler.flagsAt(x, y, z);
+            return new Node(x, y, z, Passibility.passible, flagSampler.volatility() > 0);
+        }
+
+        @Override
+        public boolean omnidirectional() {
+            return false;
+        }
+    }
+
+    @Test
+    public void volatileRevalidated() {
+        final VersionedOcclusionProvider occlusionProvider = new VersionedOcclusionProvider();
+        final SamplingNodeCalculator calculator = new SamplingNodeCalculator();
+        when(this.occlusionProviderFactory.fromInstanceSpace(any(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(occlusionProvider);
+
+        this.nodeMap.calculator(calculator);
+        this.nodeMap.updateFieldWindow(0, 0, 16, 16, false);
+
+        final Node node = this.nodeMap.cachedPassiblePointNear(1, 2, 3);
+        assertTrue(node.volatile_());
+        assertSame(node, this.nodeMap.cachedPassiblePointNear(1, 2, 3));
+        assertEquals(1, calculator.probes);
+
+        occlusionProvider.version = OcclusionField.nextVersion();
+        assertSame(node, this.nodeMap.cachedPassiblePointNear(1, 2, 3));
+        assertEquals(2, calculator.probes);
+
+        this.nodeMap.cachedPassiblePointNear(1, 2, 3);
+        assertEquals(2, calculator.probes);
+
+        this.nodeMap.revalidate();
+        this.nodeMap.cachedPassiblePointNear(1, 2, 3);
+        assertEquals(3, calculator.probes);
+    }
+
+    @Test
+    public void nonVolatileRevalidated() {
+        final VersionedOcclusionProvider occlusionProvider = new VersionedOcclusionProvider();
+        final SamplingNodeCalculator calculator = new SamplingNodeCalculator();
+        occlusionProvider.flags = Element.air.mask;
+        when(this.occlusionProviderFactory.fromInstanceSpace(any(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(occlusionProvider);
+
+        this.nodeMap.calculator(calculator);
+        this.nodeMap.updateFieldWindow(0, 0, 16, 16, false);
+
+        final Node node = this.nodeMap.cachedPassiblePointNear(1, 2, 3);
+        assertFalse(node.volatile_());
+        assertSame(node, this.nodeMap.cachedPassiblePointNear(1, 2, 3));
+        assertEquals(1, calculator.probes);
+
+        occlusionProvider.version = OcclusionField.nextVersion();
+        assertSame(node, this.nodeMap.cachedPassiblePointNear(1, 2, 3));
+        assertEquals(2, calculator.probes);
+
+        this.nodeMap.revalidate();
+        this.nodeMap.cachedPassiblePointNear(1, 2, 3);
+        assertEquals(2, calculator.probes);
+    }
+
     @Test
     public void filter() {
         when(this.filter.mapPassibility(any(INode.class))).thenReturn(Passibility.impassible);
@@ -188,4 +278,101 @@ public class NodeMapTests {
 
         assertEquals(Passibility.passible, node.passibility());
     }
+
+    @Test
+    public void probeRedirectsToExisting() {
+        this.nodeMap.calculator(new TestNodeCalculatorDecorator(this.calculator) {
+            @Override
+            public void probe(int x, int y, int z, Coords origin, FlagSampler flagSampler, ProbeResult result) {
+                result.set(x, y - 1, z, Passibility.passible, false);
+            }
+        });
+
+        final Node
+            existing = this.nodeMap.cachedPointAt(1, 1, 3),
+            redirected = this.nodeMap.cachedPassiblePointNear(1, 2, 3),
+            fetched = this.nodeMap.cachedPassiblePointNear(1, 2, 3);
+
+        assertSame(existing, redirected);
+        assertSame(redirected, fetched);
+    }
+
+    @Test
+    public void resetLazily() {
+        final SortedPointQueue queue = new SortedPointQueue();
+        final Node
+            source = this.nodeMap.cachedPointAt(1, 2, 3),
+            node = this.nodeMap.cachedPointAt(1, 2, 4);
+
+        source.visited(true);
+        node.length(5);
+        node.remaining(7);
+        queue.add(node);
+
+        this.nodeMap.reset(queue);
+
+        assertTrue(queue.isEmpty());
+        assertFalse(source.visited());
+        assertFalse(node.assigned());
+        assertEquals(0, node.length());
+        assertEquals(0, node.remaining());
+        assertTrue(node.dirty());
+
+        node.length(3);
+        assertEquals(3, node.length());
+        assertFalse(node.dirty());
+    }
+
+    @Test
+    public void repair() {
+        final SortedPointQueue queue = new SortedPointQueue();
+        final Node
+            root = this.nodeMap.cachedPointAt(0, 0, 0),
+            affected = this.nodeMap.cachedPointAt(4, 0, 0),
+            descendant = this.nodeMap.cachedPointAt(8, 0, 0),
+            unaffected = this.nodeMap.cachedPointAt(0, 0, 8);
+
+        root.visited(true);
+        affected.appendTo(root, 4, 4);
+        affected.visited(true);
+        descendant.appendTo(affected, 4, 0);
+        unaffected.appendTo(root, 8, 8);
+        queue.add(descendant);
+        queue.add(unaffected);
+
+        assertTrue(this.nodeMap.repair(4, 0, 4, 0, queue, root, descendant));
+
+        assertNotSame(affected, this.nodeMap.cachedPointAt(4, 0, 0));
+        assertSame(descendant, this.nodeMap.cachedPointAt(8, 0, 0));
+        assertTrue(descendant.orphaned());
+        assertFalse(descendant.assigned());
+        assertSame(root, unaffected.up());
+        assertEquals(8, unaffected.length());
+        assertTrue(unaffected.assigned());
+        assertTrue(root.assigned());
+        assertFalse(root.visited());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void windowOverlaps() {
+        assertFalse(this.nodeMap.windowOverlaps(0, 0, 0, 0));
+
+        when(this.occlusionProviderFactory.fromInstanceSpace(any(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(mock(IOcclusionProvider.class));
+        this.nodeMap.updateFieldWindow(0, 0, 31, 31, false);
+
+        assertTrue(this.nodeMap.windowOverlaps(31, 31, 31, 31));
+        assertTrue(this.nodeMap.windowOverlaps(-40, 8, 0, 8));
+        assertFalse(this.nodeMap.windowOverlaps(32, 0, 40, 31));
+        assertFalse(this.nodeMap.windowOverlaps(0, -8, 31, -1));
+    }
+
+    @Test
+    public void repairDiscardsAnchor() {
+        final SortedPointQueue queue = new SortedPointQueue();
+        final Node target = this.nodeMap.cachedPointAt(4, 0, 0);
+
+        assertFalse(this.nodeMap.repair(3, -1, 5, 1, queue, null, target));
+        assertNotSame(target, this.nodeMap.cachedPointAt(4, 0, 0));
+    }
 }
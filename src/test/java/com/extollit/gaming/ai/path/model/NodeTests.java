@@ -39,6 +39,33 @@ public class NodeTests {
         assertTrue(node.volatile_());
     }
 
+    @Test
+    public void wideFields() {
+        final Node node = this.root;
+
+        assertTrue(node.length(300));
+        assertTrue(node.remaining(Node.WIDE_MAX_PATH_DISTANCE));
+        assertTrue(node.index(100000));
+        node.passibility(Passibility.dangerous);
+
+        assertEquals(300, node.length());
+        assertEquals(Node.WIDE_MAX_PATH_DISTANCE, node.remaining());
+        assertEquals(300 + Node.WIDE_MAX_PATH_DISTANCE, node.journey());
+        assertEquals(100000, node.index());
+        assertEquals(Passibility.dangerous, node.passibility());
+    }
+
+    @Test
+    public void narrowAppendLimit() {
+        final Node child = new Node(2, 2, 3);
+
+        this.root.length(Node.MAX_PATH_DISTANCE);
+
+        assertFalse(child.appendTo(this.root, 1, 0));
+        assertTrue(child.appendTo(this.root, 1, 0, Node.WIDE_MAX_PATH_DISTANCE));
+        assertEquals(Node.MAX_PATH_DISTANCE + 1, child.length());
+    }
+
     @Test
     public void sterilize() {
         final Node
@@ -5,13 +5,16 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Random;
+
 import static com.extollit.gaming.ai.path.TestingBlocks.*;
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
+import static org.mockito.AdditionalMatchers.and;
+import static org.mockito.AdditionalMatchers.geq;
 import static org.mockito.AdditionalMatchers.leq;
 import static org.mockito.AdditionalMatchers.lt;
 import static org.mockito.Matchers.anyInt;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
 public class OcclusionFieldTests extends AbstractOcclusionFieldTesting {
@@ -22,6 +25,54 @@ public class OcclusionFieldTests extends AbstractOcclusionFieldTesting {
         assertTrue(Element.air.in(occlusionField.elementAt(1, 2, 3)));
     }
 
+    @Test
+    public void version() {
+        assertEquals(0, occlusionField.version());
+
+        occlusionField.loadFrom(centerSpace,  0, 0, 0);
+        final long loaded = occlusionField.version();
+        assertTrue(loaded > 0);
+
+        occlusionField.set(centerSpace, 4, 14, 8, stone);
+        assertTrue(occlusionField.version() > loaded);
+    }
+
+    @Test
+    public void concurrentReads() throws InterruptedException {
+        occlusionField.loadFrom(centerSpace,  0, 0, 0);
+
+        final Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2000; ++i)
+                occlusionField.set(centerSpace, 4, 14, 8, i % 2 == 0 ? stone : air);
+        });
+        writer.start();
+
+        while (writer.isAlive()) {
+            final byte flags = occlusionField.elementAt(4, 14, 8);
+            assertTrue(Element.earth.in(flags) || Element.air.in(flags));
+            assertTrue(Element.air.in(occlusionField.elementAt(12, 3, 2)));
+        }
+        writer.join();
+
+        assertTrue(Element.air.in(occlusionField.elementAt(4, 14, 8)));
+    }
+
+    @Test
+    public void snapshot() {
+        when(centerSpace.blockAt(anyInt(), leq(7), anyInt())).thenReturn(stone);
+        occlusionField.loadFrom(centerSpace,  0, 0, 0);
+
+        final OcclusionField snapshot = occlusionField.snapshot();
+        occlusionField.set(centerSpace, 4, 14, 8, stone);
+        occlusionField.set(centerSpace, 4, 3, 8, air);
+
+        assertTrue(Element.earth.in(occlusionField.elementAt(4, 14, 8)));
+        assertTrue(Element.air.in(occlusionField.elementAt(4, 3, 8)));
+        assertTrue(Element.air.in(snapshot.elementAt(4, 14, 8)));
+        assertTrue(Element.earth.in(snapshot.elementAt(4, 3, 8)));
+        assertTrue(snapshot.version() < occlusionField.version());
+    }
+
     @Test
     public void point() {
         when(centerSpace.blockAt(anyInt(), leq(7), anyInt())).thenReturn(stone);
@@ -108,6 +159,130 @@ public class OcclusionFieldTests extends AbstractOcclusionFieldTesting {
         assertTrue(Element.fire.in(element));
     }
 
+    @Test
+    public void runs() {
+        when(centerSpace.blockAt(anyInt(), leq(3), anyInt())).thenReturn(stone);
+        when(centerSpace.blockAt(anyInt(), and(geq(4), leq(6)), anyInt())).thenReturn(water);
+        occlusionField.loadFrom(centerSpace,  0, 0, 0);
+
+        assertEquals(9, occlusionField.openRunBelow(5, 15, 5));
+        assertEquals(2, occlusionField.openRunBelow(5, 8, 5));
+        assertEquals(0, occlusionField.openRunBelow(5, 6, 5));
+        assertEquals(3, occlusionField.fluidRunAbove(5, 4, 5));
+        assertEquals(1, occlusionField.fluidRunAbove(5, 6, 5));
+        assertEquals(0, occlusionField.fluidRunAbove(5, 3, 5));
+
+        occlusionField.set(centerSpace, 5, 10, 5, stone);
+
+        assertEquals(5, occlusionField.openRunBelow(5, 15, 5));
+        assertEquals(3, occlusionField.openRunBelow(5, 9, 5));
+        assertEquals(9, occlusionField.openRunBelow(6, 15, 5));
+    }
+
+    @Test
+    public void runsFollowEdits() {
+        when(centerSpace.blockAt(anyInt(), leq(3), anyInt())).thenReturn(stone);
+        occlusionField.loadFrom(centerSpace,  0, 0, 0);
+        assertEquals(12, occlusionField.openRunBelow(5, 15, 5));
+
+        final OcclusionField snapshot = occlusionField.snapshot();
+        final Random random = new Random(7);
+        for (int i = 0; i < 200; ++i) {
+            final int r = random.nextInt(3);
+            occlusionField.set(centerSpace, random.nextInt(16), random.nextInt(16), random.nextInt(16), r == 0 ? stone : r == 1 ? water : air);
+        }
+
+        for (int z = 0; z < 16; ++z)
+            for (int x = 0; x < 16; ++x)
+                for (int y = 0; y < 16; ++y) {
+                    int open = 0, fluid = 0;
+                    while (y - open >= 0 && Element.air.in(occlusionField.elementAt(x, y - open, z)))
+                        open++;
+                    while (y + fluid < 16 && Element.water.in(occlusionField.elementAt(x, y + fluid, z)))
+                        fluid++;
+
+                    assertEquals(open, occlusionField.openRunBelow(x, y, z));
+                    assertEquals(fluid, occlusionField.fluidRunAbove(x, y, z));
+                }
+
+        assertEquals(12, snapshot.openRunBelow(5, 15, 5));
+    }
+
+    @Test
+    public void singletonRuns() {
+        occlusionField.loadFrom(centerSpace,  0, 0, 0);
+
+        assertEquals(16, occlusionField.openRunBelow(3, 15, 7));
+        assertEquals(1, occlusionField.openRunBelow(3, 0, 7));
+        assertEquals(0, occlusionField.fluidRunAbove(3, 0, 7));
+    }
+
+    @Test
+    public void partialBlocks() {
+        when(centerSpace.blockAt(anyInt(), eq(2), anyInt())).thenReturn(stone);
+        blockAt(3, 3, 4, slabDown);
+        blockAt(9, 3, 12, slabDown);
+        occlusionField.loadFrom(centerSpace,  0, 0, 0);
+
+        final IBlockObject slab = occlusionField.partialBlockAt(3, 3, 4);
+        assertNotNull(slab);
+        assertTrue(slab.isImpeding());
+        assertEquals(0.5, slab.bounds().max.y, 0);
+        assertSame(slab, occlusionField.partialBlockAt(9, 3, 12));
+        assertNull(occlusionField.partialBlockAt(5, 2, 5));
+        assertNull(occlusionField.partialBlockAt(5, 3, 5));
+
+        occlusionField.set(centerSpace, 3, 3, 4, air);
+
+        assertNull(occlusionField.partialBlockAt(3, 3, 4));
+        assertSame(slab, occlusionField.partialBlockAt(9, 3, 12));
+
+        blockAt(5, 3, 5, slabDown);
+        occlusionField.set(centerSpace, 5, 3, 5, slabDown);
+
+        assertSame(slab, occlusionField.partialBlockAt(5, 3, 5));
+        assertSame(slab, occlusionField.partialBlockAt(9, 3, 12));
+        assertSame(slab, occlusionField.snapshot().partialBlockAt(5, 3, 5));
+    }
+
+    @Test
+    public void palette() {
+        when(centerSpace.blockAt(anyInt(), leq(7), anyInt())).thenReturn(stone);
+        blockAt(5, 9, 5, wall);
+        occlusionField.loadFrom(centerSpace,  0, 0, 0);
+
+        final long[] data = new long[16 * 16 * 16 * 2 / 64];
+        for (int i = 0; i < 16 * 16 * 16; ++i) {
+            final int
+                y = i >> 8,
+                z = (i >> 4) & 0xF,
+                x = i & 0xF;
+
+            final long entry = y <= 7 ? 1 : x == 5 && y == 9 && z == 5 ? 2 : 0;
+            data[i / 32] |= entry << ((i % 32) * 2);
+        }
+        when(centerSpace.paletteAt(0)).thenReturn(new SectionPalette(new IBlockDescription[] { air, stone, wall }, data, 2));
+
+        final OcclusionField paletted = new OcclusionField();
+        paletted.loadFrom(centerSpace, 0, 0, 0);
+
+        verify(centerSpace, times(16 * 16 * 16)).blockAt(anyInt(), anyInt(), anyInt());
+        for (int y = 0; y < 16; ++y)
+            for (int z = 0; z < 16; ++z)
+                for (int x = 0; x < 16; ++x)
+                    assertEquals(occlusionField.elementAt(x, y, z), paletted.elementAt(x, y, z));
+        assertTrue(Logic.fuzzy.in(paletted.elementAt(5, 10, 5)));
+    }
+
+    @Test
+    public void singletonPalette() {
+        when(centerSpace.paletteAt(0)).thenReturn(new SectionPalette(new IBlockDescription[] { stone }, new long[0], 0));
+        occlusionField.loadFrom(centerSpace,  0, 0, 0);
+
+        verify(centerSpace, never()).blockAt(anyInt(), anyInt(), anyInt());
+        assertTrue(Element.earth.in(occlusionField.elementAt(1, 2, 3)));
+    }
+
     @Test
     public void wall() {
         blockAt(5, 5, 5, wall);
@@ -0,0 +1,110 @@
+package com.extollit.gaming.ai.path.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.extollit.gaming.ai.path.TestingBlocks.air;
+import static com.extollit.gaming.ai.path.TestingBlocks.stone;
+import static org.junit.Assert.*;
+import static org.mockito.AdditionalMatchers.leq;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OcclusionPrecomputerTests {
+    @Mock private IInstanceSpace instanceSpace;
+    @Mock private IColumnarSpace centerSpace;
+    @Mock private IColumnarSpace eastSpace;
+
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private ColumnarOcclusionFieldList centerFields, eastFields;
+    private OcclusionPrecomputer precomputer;
+
+    @Before
+    public void setup() {
+        this.centerFields = columnarSpace(this.centerSpace, 0, 0);
+        this.eastFields = columnarSpace(this.eastSpace, 1, 0);
+        this.precomputer = new OcclusionPrecomputer(this.tasks::add);
+    }
+
+    private ColumnarOcclusionFieldList columnarSpace(IColumnarSpace columnarSpace, int cx, int cz) {
+        final ColumnarOcclusionFieldList fields = new ColumnarOcclusionFieldList(columnarSpace);
+        when(columnarSpace.instance()).thenReturn(this.instanceSpace);
+        when(columnarSpace.occlusionFields()).thenReturn(fields);
+        when(columnarSpace.blockAt(anyInt(), anyInt(), anyInt())).thenReturn(air);
+        when(columnarSpace.blockAt(anyInt(), leq(3), anyInt())).thenReturn(stone);
+        return fields;
+    }
+
+    private void load(IColumnarSpace columnarSpace, int cx, int cz) {
+        when(this.instanceSpace.columnarSpaceAt(cx, cz)).thenReturn(columnarSpace);
+        this.precomputer.onColumnLoaded(columnarSpace, cx, cz);
+    }
+
+    private void runTasks() {
+        for (Runnable task : this.tasks)
+            task.run();
+        this.tasks.clear();
+    }
+
+    @Test
+    public void published() {
+        load(this.centerSpace, 0, 0);
+        assertEquals(1, this.precomputer.pending());
+        assertNull(this.centerFields.optOcclusionFieldAt(0));
+
+        runTasks();
+
+        for (int cy = 0; cy < OcclusionField.DIMENSION_SIZE; ++cy)
+            assertNotNull(this.centerFields.optOcclusionFieldAt(cy));
+        assertTrue(Element.earth.in(this.centerFields.optOcclusionFieldAt(0).elementAt(1, 2, 3)));
+        assertEquals(16, this.precomputer.published());
+        assertEquals(0, this.precomputer.pending());
+    }
+
+    @Test
+    public void neighborAreaInit() {
+        load(this.eastSpace, 1, 0);
+        runTasks();
+        assertFalse(this.eastFields.optOcclusionFieldAt(0).areaInitAt(OcclusionField.AreaInit.west));
+
+        load(this.centerSpace, 0, 0);
+        runTasks();
+
+        assertTrue(this.centerFields.optOcclusionFieldAt(0).areaInitAt(OcclusionField.AreaInit.east));
+        assertTrue(this.eastFields.optOcclusionFieldAt(0).areaInitAt(OcclusionField.AreaInit.west));
+        assertFalse(this.centerFields.optOcclusionFieldAt(0).areaInitAt(OcclusionField.AreaInit.west));
+    }
+
+    @Test
+    public void blockChangedWhileBuilding() {
+        when(this.centerSpace.blockAt(0, 0, 0)).then(invocation -> {
+            this.centerFields.onBlockChanged(0, 0, 0, stone, 0);
+            return stone;
+        });
+        load(this.centerSpace, 0, 0);
+
+        runTasks();
+
+        assertEquals(15, this.precomputer.published());
+        assertEquals(0, this.precomputer.pending());
+    }
+
+    @Test
+    public void builtSynchronouslyFirst() {
+        load(this.centerSpace, 0, 0);
+        final OcclusionField field = this.centerFields.occlusionFieldAt(0, 0, 0);
+
+        runTasks();
+
+        assertSame(field, this.centerFields.optOcclusionFieldAt(0));
+        assertEquals(15, this.precomputer.published());
+    }
+}
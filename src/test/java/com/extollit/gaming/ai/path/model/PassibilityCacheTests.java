@@ -0,0 +1,183 @@
+package com.extollit.gaming.ai.path.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static com.extollit.gaming.ai.path.TestingBlocks.air;
+import static com.extollit.gaming.ai.path.TestingBlocks.stone;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PassibilityCacheTests {
+    @Mock private IInstanceSpace instanceSpace;
+    @Mock private IOcclusionProviderFactory occlusionProviderFactory;
+    @Mock private INodeCalculator calculator;
+    @Mock private IColumnarSpace columnarSpace;
+    @Mock private IPathingEntity subject;
+    @Mock private IPathingEntity.Capabilities capabilities;
+
+    private PassibilityCache cache;
+    private PassibilityCache.Profile profile;
+
+    @Before
+    public void setup() {
+        final IColumnarSpace[][] columnarSpaces = new IColumnarSpace[5][5];
+        for (IColumnarSpace[] row : columnarSpaces)
+            for (int c = 0; c < row.length; ++c)
+                row[c] = this.columnarSpace;
+
+        when(occlusionProviderFactory.fromInstanceSpace(any(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(new AreaOcclusionProvider(columnarSpaces, -2, -2));
+        when(calculator.passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any())).thenAnswer(invocation -> {
+            final Object[] args = invocation.getArguments();
+            return new Node((int)args[0], (int)args[1] - 1, (int)args[2], Passibility.risky);
+        });
+        when(subject.capabilities()).thenReturn(capabilities);
+        when(subject.width()).thenReturn(0.6f);
+        when(subject.height()).thenReturn(1.8f);
+        when(instanceSpace.occlusionFieldListeners()).thenReturn(new OcclusionFieldListenerList());
+
+        this.cache = new PassibilityCache(this.instanceSpace);
+        this.profile = PassibilityCache.profileOf(this.calculator, this.subject);
+    }
+
+    @After
+    public void teardown() {
+        this.cache.close();
+    }
+
+    private NodeMap graph() {
+        final NodeMap graph = new NodeMap(instanceSpace, new TestNodeCalculatorDecorator(this.calculator), occlusionProviderFactory);
+        graph.updateFieldWindow(-32, -32, 47, 47, false);
+        graph.sharedCache(this.cache, this.profile);
+        return graph;
+    }
+
+    @Test
+    public void shared() {
+        final Node
+            first = graph().cachedPassiblePointNear(1, 2, 3),
+            second = graph().cachedPassiblePointNear(1, 2, 3);
+
+        verify(calculator, times(1)).passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any());
+        assertNotSame(first, second);
+        assertEquals(new Coords(1, 1, 3), second.key);
+        assertEquals(Passibility.risky, second.passibility());
+    }
+
+    @Test
+    public void originDistinguished() {
+        graph().cachedPassiblePointNear(1, 2, 3);
+        graph().cachedPassiblePointNear(1, 2, 3, new Coords(0, 2, 3));
+
+        verify(calculator, times(2)).passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void profileDistinguished() {
+        graph().cachedPassiblePointNear(1, 2, 3);
+
+        when(capabilities.climber()).thenReturn(true);
+        final NodeMap other = graph();
+        other.sharedCache(this.cache, PassibilityCache.profileOf(this.calculator, this.subject));
+        other.cachedPassiblePointNear(1, 2, 3);
+
+        verify(calculator, times(2)).passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any());
+        assertEquals(2, this.cache.profiles());
+    }
+
+    @Test
+    public void volatileNotShared() {
+        when(calculator.passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any())).thenAnswer(invocation -> new Node(1, 2, 3, Passibility.passible, true));
+
+        graph().cachedPassiblePointNear(1, 2, 3);
+        graph().cachedPassiblePointNear(1, 2, 3);
+
+        verify(calculator, times(2)).passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void boundaryNotShared() {
+        graph().cachedPassiblePointNear(-30, 2, 3);
+        graph().cachedPassiblePointNear(-30, 2, 3);
+
+        verify(calculator, times(2)).passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void blockChanged() {
+        final NodeMap graph = graph();
+        graph.cachedPassiblePointNear(1, 2, 3);
+
+        cache.onBlockChanged(instanceSpace, 20, 40, 3);
+        graph().cachedPassiblePointNear(1, 2, 3);
+        verify(calculator, times(1)).passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any());
+
+        cache.onBlockChanged(instanceSpace, 17, 40, 3);
+        graph.cachedPassiblePointNear(1, 2, 4);
+        graph().cachedPassiblePointNear(1, 2, 3);
+        verify(calculator, times(3)).passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void columnReset() {
+        graph().cachedPassiblePointNear(1, 2, 3);
+
+        cache.onColumnReset(mock(IInstanceSpace.class), 1, 0);
+        graph().cachedPassiblePointNear(1, 2, 3);
+        verify(calculator, times(1)).passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any());
+
+        cache.onColumnReset(instanceSpace, 1, 0);
+        graph().cachedPassiblePointNear(1, 2, 3);
+        verify(calculator, times(2)).passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void notifiedByOwnInstanceOnly() {
+        final IInstanceSpace otherInstanceSpace = mock(IInstanceSpace.class);
+        when(otherInstanceSpace.occlusionFieldListeners()).thenReturn(new OcclusionFieldListenerList());
+        final ColumnarOcclusionFieldList
+            ownFields = loadedColumn(this.instanceSpace),
+            otherFields = loadedColumn(otherInstanceSpace);
+
+        assertTrue(this.instanceSpace.occlusionFieldListeners().contains(this.cache));
+        assertFalse(otherInstanceSpace.occlusionFieldListeners().contains(this.cache));
+
+        graph().cachedPassiblePointNear(1, 2, 3);
+
+        otherFields.onBlockChanged(1, 2, 3, stone, 0);
+        graph().cachedPassiblePointNear(1, 2, 3);
+        verify(calculator, times(1)).passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any());
+
+        ownFields.onBlockChanged(1, 2, 3, stone, 0);
+        graph().cachedPassiblePointNear(1, 2, 3);
+        verify(calculator, times(2)).passibleNodeNear(anyInt(), anyInt(), anyInt(), any(), any());
+    }
+
+    private static ColumnarOcclusionFieldList loadedColumn(IInstanceSpace instanceSpace) {
+        final IColumnarSpace columnarSpace = mock(IColumnarSpace.class);
+        final ColumnarOcclusionFieldList fields = new ColumnarOcclusionFieldList(columnarSpace);
+        when(columnarSpace.instance()).thenReturn(instanceSpace);
+        when(columnarSpace.blockAt(anyInt(), anyInt(), anyInt())).thenReturn(air);
+        fields.occlusionFieldAt(0, 0, 0);
+        return fields;
+    }
+
+    @Test
+    public void filterAppliedAfterLookup() {
+        final IGraphNodeFilter filter = mock(IGraphNodeFilter.class);
+        when(filter.mapPassibility(any(INode.class))).thenReturn(Passibility.impassible);
+
+        graph().cachedPassiblePointNear(1, 2, 3);
+
+        final NodeMap filtered = graph();
+        filtered.filter(filter);
+        assertEquals(Passibility.impassible, filtered.cachedPassiblePointNear(1, 2, 3).passibility());
+        assertEquals(Passibility.risky, graph().cachedPassiblePointNear(1, 2, 3).passibility());
+    }
+}
@@ -0,0 +1,160 @@
+package com.extollit.gaming.ai.path.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Random;
+
+import static com.extollit.gaming.ai.path.model.PathObjectUtil.assertPath;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PathCacheTests {
+    @Mock private IInstanceSpace instanceSpace;
+    @Mock private INodeCalculator calculator;
+    @Mock private IPathingEntity subject;
+    @Mock private IPathingEntity.Capabilities capabilities;
+
+    private PathCache cache;
+    private PassibilityCache.Profile profile;
+
+    @Before
+    public void setup() {
+        when(instanceSpace.occlusionFieldListeners()).thenReturn(new OcclusionFieldListenerList());
+        when(subject.capabilities()).thenReturn(capabilities);
+        when(subject.width()).thenReturn(0.6f);
+        when(subject.height()).thenReturn(1.8f);
+
+        this.cache = new PathCache(this.instanceSpace, 2);
+        this.profile = PassibilityCache.profileOf(this.calculator, this.subject);
+    }
+
+    @After
+    public void teardown() {
+        this.cache.close();
+    }
+
+    private static IPath path(int x0, int xN, int z) {
+        final Node[] nodes = new Node[xN - x0 + 1];
+        for (int x = x0; x <= xN; ++x)
+            nodes[x - x0] = new Node(x, 0, z, Passibility.passible);
+
+        return new PathObject(1, nodes);
+    }
+
+    private IPath lookup(int x0, int xN, int z) {
+        return this.cache.pathBetween(this.profile, new Coords(x0, 0, z), new Coords(xN, 0, z), 1, new Random(0));
+    }
+
+    @Test
+    public void hit() {
+        this.cache.put(this.profile, path(0, 3, 0), this.cache.stamp());
+
+        assertPath(lookup(0, 3, 0), new Coords(0, 0, 0), new Coords(1, 0, 0), new Coords(2, 0, 0), new Coords(3, 0, 0));
+        assertEquals(1, this.cache.hits());
+        assertEquals(0, this.cache.misses());
+    }
+
+    @Test
+    public void miss() {
+        this.cache.put(this.profile, path(0, 3, 0), this.cache.stamp());
+
+        assertNull(lookup(0, 4, 0));
+        assertNull(lookup(3, 0, 0));
+        assertEquals(2, this.cache.misses());
+    }
+
+    @Test
+    public void profileDistinguished() {
+        this.cache.put(this.profile, path(0, 3, 0), this.cache.stamp());
+
+        when(capabilities.climber()).thenReturn(true);
+        this.profile = PassibilityCache.profileOf(this.calculator, this.subject);
+
+        assertNull(lookup(0, 3, 0));
+    }
+
+    @Test
+    public void evicted() {
+        this.cache.put(this.profile, path(0, 3, 0), this.cache.stamp());
+        this.cache.put(this.profile, path(0, 3, 1), this.cache.stamp());
+        assertNotNull(lookup(0, 3, 0));
+
+        this.cache.put(this.profile, path(0, 3, 2), this.cache.stamp());
+
+        assertEquals(2, this.cache.size());
+        assertEquals(1, this.cache.evictions());
+        assertNull(lookup(0, 3, 1));
+        assertNotNull(lookup(0, 3, 0));
+    }
+
+    @Test
+    public void blockChanged() {
+        this.cache.put(this.profile, path(0, 3, 0), this.cache.stamp());
+        this.cache.put(this.profile, path(0, 3, 40), this.cache.stamp());
+
+        this.cache.onBlockChanged(mock(IInstanceSpace.class), 2, 0, 0);
+        assertNotNull(lookup(0, 3, 0));
+
+        this.cache.onBlockChanged(this.instanceSpace, 2, 0, 0);
+        assertNull(lookup(0, 3, 0));
+        assertNotNull(lookup(0, 3, 40));
+        assertEquals(1, this.cache.invalidations());
+        assertEquals(1, this.cache.size());
+    }
+
+    @Test
+    public void blockChangedNearSection() {
+        this.cache.put(this.profile, path(0, 3, 0), this.cache.stamp());
+
+        this.cache.onBlockChanged(this.instanceSpace, -3, 0, 0);
+
+        assertNull(lookup(0, 3, 0));
+    }
+
+    @Test
+    public void blockChangedDuringSearch() {
+        final long stamp = this.cache.stamp();
+        this.cache.onBlockChanged(this.instanceSpace, 2, 0, 0);
+        this.cache.put(this.profile, path(0, 3, 0), stamp);
+
+        assertEquals(0, this.cache.size());
+    }
+
+    @Test
+    public void stampsPrunedByListeners() {
+        this.cache.put(this.profile, path(0, 3, 0), this.cache.stamp());
+        final long stamp = this.cache.stamp();
+
+        for (int i = 0; i < 1000; ++i) {
+            this.cache.onBlockChanged(this.instanceSpace, 64 + i * 32, 0, 0);
+            this.cache.onColumnReset(this.instanceSpace, 4 + i * 4, 64);
+        }
+
+        assertTrue(this.cache.stampCount() <= this.cache.capacity() * 8);
+        assertEquals(1, this.cache.invalidations());
+        assertNull(lookup(0, 3, 0));
+
+        this.cache.put(this.profile, path(0, 3, 40), stamp);
+        assertNull(lookup(0, 3, 40));
+
+        this.cache.put(this.profile, path(0, 3, 40), this.cache.stamp());
+        assertNotNull(lookup(0, 3, 40));
+    }
+
+    @Test
+    public void columnReset() {
+        this.cache.put(this.profile, path(0, 3, 0), this.cache.stamp());
+        this.cache.put(this.profile, path(0, 3, 40), this.cache.stamp());
+
+        this.cache.onColumnReset(this.instanceSpace, 1, 0);
+
+        assertNull(lookup(0, 3, 0));
+        assertNotNull(lookup(0, 3, 40));
+    }
+}
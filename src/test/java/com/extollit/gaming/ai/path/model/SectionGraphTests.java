@@ -0,0 +1,257 @@
+package com.extollit.gaming.ai.path.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SectionGraphTests {
+    private static final int PILLAR_HEIGHT = 5;
+
+    @Mock private IInstanceSpace instanceSpace;
+    @Mock private IOcclusionProviderFactory occlusionProviderFactory;
+    @Mock private IOcclusionProvider occlusionProvider;
+    @Mock private IPathingEntity subject;
+    @Mock private IPathingEntity.Capabilities capabilities;
+
+    private final Set<Coords> walls = new HashSet<>();
+    private final Set<Coords> pillars = new HashSet<>();
+    private int probes;
+
+    private SectionGraph graph;
+    private PassibilityCache.Profile profile;
+    private INodeCalculator calculator;
+
+    /**
+     * Flat ground at y = 0 interrupted by impassible walls and pillars that can only be dropped down from
+     */
+    private final class Terrain implements INodeCalculator {
+        @Override
+        public void applySubject(IPathingEntity subject) {}
+
+        @Override
+        public Node passibleNodeNear(int x, int y, int z, Coords origin, FlagSampler flagSampler) {
+            SectionGraphTests.this.probes++;
+
+            final Coords column = new Coords(x, 0, z);
+            if (walls.contains(column))
+                return new Node(x, y, z, Passibility.impassible);
+            if (pillars.contains(column))
+                return origin == null || origin.y == PILLAR_HEIGHT ? new Node(x, PILLAR_HEIGHT, z, Passibility.passible) : new Node(x, y, z, Passibility.impassible);
+
+            return new Node(x, 0, z, Passibility.passible);
+        }
+
+        @Override
+        public boolean omnidirectional() {
+            return false;
+        }
+    }
+
+    @Before
+    public void setup() {
+        when(instanceSpace.occlusionFieldListeners()).thenReturn(new OcclusionFieldListenerList());
+        when(occlusionProviderFactory.fromInstanceSpace(any(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(occlusionProvider);
+        when(subject.capabilities()).thenReturn(capabilities);
+        when(subject.width()).thenReturn(0.6f);
+        when(subject.height()).thenReturn(1.8f);
+
+        this.calculator = new Terrain();
+        this.graph = new SectionGraph(this.instanceSpace);
+        this.profile = PassibilityCache.profileOf(this.calculator, this.subject);
+    }
+
+    @After
+    public void teardown() {
+        this.graph.close();
+    }
+
+    private SectionGraph.Route route(int x0, int z0, int xN, int zN, int maxExpansions) {
+        return this.graph.route(this.profile, this.calculator, this.capabilities, this.occlusionProviderFactory, new Coords(x0, 3, z0), new Coords(xN, 0, zN), maxExpansions);
+    }
+
+    private boolean reachable(int x0, int z0, int xN, int yN, int zN, int maxSections) {
+        return this.graph.isReachable(this.profile, this.calculator, this.capabilities, this.occlusionProviderFactory, new Coords(x0, 3, z0), new Coords(xN, yN, zN), maxSections);
+    }
+
+    private void pit(int x0, int z0, int xN, int zN) {
+        wall(x0, z0, zN, Integer.MIN_VALUE);
+        wall(xN, z0, zN, Integer.MIN_VALUE);
+        for (int x = x0; x <= xN; ++x) {
+            this.walls.add(new Coords(x, 0, z0));
+            this.walls.add(new Coords(x, 0, zN));
+        }
+    }
+
+    private void wall(int x, int z0, int zN, int gap) {
+        for (int z = z0; z <= zN; ++z)
+            if (z != gap)
+                this.walls.add(new Coords(x, 0, z));
+    }
+
+    @Test
+    public void straight() {
+        final SectionGraph.Route route = route(1, 1, 70, 1, 1000);
+
+        assertNotNull(route);
+        assertEquals(new Coords(70, 0, 1), route.destination());
+        assertTrue(route.cost(route.size() - 1) >= 69);
+        assertTrue(route.cost(route.size() - 1) < 69 + 32);
+
+        int x = 1;
+        for (int i = 0; i < route.size(); ++i) {
+            final Coords waypoint = route.waypoint(i);
+            assertTrue(waypoint.x > x);
+            assertEquals(0, waypoint.y);
+            x = waypoint.x;
+        }
+    }
+
+    @Test
+    public void detour() {
+        wall(20, -40, 40, 30);
+
+        final SectionGraph.Route route = route(1, 1, 40, 1, 1000);
+
+        assertNotNull(route);
+        assertEquals(new Coords(40, 0, 1), route.destination());
+        assertTrue(route.cost(route.size() - 1) >= 39 + 2 * 29);
+    }
+
+    @Test
+    public void unreachable() {
+        wall(20, -400, 400, Integer.MIN_VALUE);
+
+        assertNull(route(1, 1, 40, 1, 64));
+    }
+
+    @Test
+    public void sectionsCached() {
+        route(1, 1, 40, 1, 1000);
+        final int sections = this.graph.sections();
+        assertTrue(sections > 0);
+
+        final int probes = this.probes;
+        assertNotNull(route(1, 2, 40, 1, 1000));
+
+        assertEquals(probes + 2, this.probes);
+        assertEquals(sections, this.graph.sections());
+    }
+
+    @Test
+    public void blockChanged() {
+        route(1, 1, 40, 1, 1000);
+        final int sections = this.graph.sections();
+
+        this.graph.onBlockChanged(mock(IInstanceSpace.class), 8, 0, 8);
+        assertEquals(sections, this.graph.sections());
+
+        this.graph.onBlockChanged(this.instanceSpace, 8, 0, 8);
+        assertTrue(this.graph.sections() < sections);
+
+        assertNotNull(route(1, 1, 40, 1, 1000));
+        assertEquals(sections, this.graph.sections());
+    }
+
+    @Test
+    public void blockChangedAbove() {
+        route(1, 1, 40, 1, 1000);
+        final int sections = this.graph.sections();
+
+        this.graph.onBlockChanged(this.instanceSpace, 8, 40, 8);
+        assertEquals(sections, this.graph.sections());
+    }
+
+    @Test
+    public void columnReset() {
+        route(1, 1, 40, 1, 1000);
+        final int sections = this.graph.sections();
+
+        this.graph.onColumnReset(this.instanceSpace, 1, 0);
+        assertTrue(this.graph.sections() < sections);
+    }
+
+    @Test
+    public void reachableUnbounded() {
+        assertTrue(reachable(1, 1, 40, 0, 1, 16));
+        assertTrue(reachable(1, 1, 2, 0, 2, 16));
+    }
+
+    @Test
+    public void sealedPit() {
+        pit(0, 0, 4, 4);
+
+        assertFalse(reachable(2, 2, 40, 0, 1, 64));
+        assertTrue(reachable(2, 2, 3, 0, 3, 64));
+    }
+
+    @Test
+    public void sealedEnclosure() {
+        pit(0, 0, 4, 4);
+
+        assertFalse(reachable(40, 1, 2, 0, 2, 64));
+    }
+
+    @Test
+    public void pillar() {
+        this.pillars.add(new Coords(8, 0, 8));
+
+        assertFalse(reachable(1, 1, 8, PILLAR_HEIGHT, 8, 64));
+        assertTrue(reachable(8, 8, 1, 0, 1, 64));
+    }
+
+    @Test
+    public void pillarBeyondLimit() {
+        this.pillars.add(new Coords(8, 0, 8));
+
+        assertTrue(reachable(1, 1, 8, PILLAR_HEIGHT, 8, 8));
+    }
+
+    @Test
+    public void reachabilityLimit() {
+        this.pillars.add(new Coords(8, 0, 8));
+
+        final SectionGraph limited = new SectionGraph(this.instanceSpace, 8);
+        try {
+            final Coords
+                source = new Coords(1, 3, 1),
+                destination = new Coords(8, PILLAR_HEIGHT, 8);
+
+            assertTrue(limited.isReachable(this.profile, this.calculator, this.capabilities, this.occlusionProviderFactory, source, destination));
+            assertFalse(this.graph.isReachable(this.profile, this.calculator, this.capabilities, this.occlusionProviderFactory, source, destination));
+        } finally {
+            limited.close();
+        }
+    }
+
+    @Test
+    public void regionCached() {
+        pit(0, 0, 4, 4);
+        reachable(2, 2, 40, 0, 1, 64);
+
+        final int probes = this.probes;
+        assertFalse(reachable(3, 3, 40, 0, 1, 64));
+        assertEquals(probes + 2, this.probes);
+    }
+
+    @Test
+    public void regionInvalidated() {
+        pit(0, 0, 4, 4);
+        assertFalse(reachable(2, 2, 40, 0, 1, 64));
+
+        this.walls.remove(new Coords(4, 0, 2));
+        this.graph.onBlockChanged(this.instanceSpace, 4, 0, 2);
+
+        assertTrue(reachable(2, 2, 40, 0, 1, 64));
+    }
+}
@@ -147,6 +147,21 @@ public class SortedPointQueueTests {
         assertTrue(q.isEmpty());
     }
 
+    @Test
+    public void wideAddNoCull() {
+        final SortedPointQueue q = new SortedPointQueue(true);
+        final int count = Node.MAX_INDICES * 4;
+
+        for (int c = 0; c < count; ++c) {
+            final Node node = new Node(0, 0, c);
+            node.remaining(count - c);
+            q.add(node);
+        }
+
+        assertEquals(count, q.size());
+        assertEquals(count - 1, q.dequeue().key.z);
+    }
+
     @Test
     public void cullBranch() {
         final Node
@@ -34,6 +34,51 @@ public class SparseSpatialMapTests {
         return actual.containsAll(expected) && expected.containsAll(actual);
     }
 
+    @Property(tries = 5000)
+    public boolean keysWithin(@ForAll @Size(min = 10, max = 50) List<@From("value") @Unique TestNodeValue> init,
+                              @ForAll @Size(min = 2, max = 50) List<@From("coord") @Unique Coords> remove) {
+        final SparseSpatialMap<TestNodeValue> sparse = new SparseSpatialMap<>();
+        final Map<Coords, TestNodeValue> control = new HashMap<>();
+
+        for (TestNodeValue value : init)
+            put(sparse, control, value);
+
+        for (Coords coord : remove)
+            remove(sparse, control, coord);
+
+        final Set<Coords> expected = new HashSet<>();
+        for (Coords coord : control.keySet())
+            if (coord.x >= -20 && coord.x <= 45 && coord.z >= 3 && coord.z <= 60)
+                expected.add(coord);
+
+        final List<Coords> actual = sparse.keysWithin(-20, 3, 45, 60);
+        return actual.size() == expected.size() && expected.containsAll(actual);
+    }
+
+    @Property(tries = 2000)
+    public boolean keysWithinStackedColumns(@ForAll @Size(min = 10, max = 80) List<@From("stacked") @Unique TestNodeValue> init,
+                                            @ForAll @Size(min = 2, max = 40) List<@From("stacked") @Unique TestNodeValue> remove) {
+        final SparseSpatialMap<TestNodeValue> sparse = new SparseSpatialMap<>();
+        final Map<Coords, TestNodeValue> control = new HashMap<>();
+
+        for (TestNodeValue value : init)
+            put(sparse, control, value);
+
+        for (TestNodeValue value : remove)
+            remove(sparse, control, value.p);
+
+        sparse.cullOutside(-2, -8, -2, 1, 8, 1);
+        control.keySet().removeIf(coord -> coord.x < -16 || coord.y < -64 || coord.z < -16 || coord.x > 15 || coord.y > 71 || coord.z > 15);
+
+        final Set<Coords> expected = new HashSet<>();
+        for (Coords coord : control.keySet())
+            if (coord.x >= -5 && coord.x <= 9 && coord.z >= -12 && coord.z <= 3)
+                expected.add(coord);
+
+        final List<Coords> actual = sparse.keysWithin(-5, -12, 9, 3);
+        return actual.size() == expected.size() && expected.containsAll(actual);
+    }
+
     private void remove(SparseSpatialMap<TestNodeValue> sparse, Map<Coords, TestNodeValue> control, Coords coord) {
         sparse.remove(coord.x, coord.y, coord.z);
         control.remove(coord);
@@ -53,6 +98,15 @@ public class SparseSpatialMapTests {
         ).as(Coords::new);
     }
 
+    @Provide
+    Arbitrary<TestNodeValue> stacked() {
+        return Combinators.combine(
+            Arbitraries.integers().between(-20, +20),
+            Arbitraries.integers().between(-100, +100),
+            Arbitraries.integers().between(-20, +20)
+        ).as(Coords::new).map(TestNodeValue::new);
+    }
+
     @Provide
     Arbitrary<TestNodeValue> value() {
         return coord().map(TestNodeValue::new);